@@ -428,8 +428,8 @@ class FolderContentsDisplay extends JTabbedPane implements NewFileListener, Tree
 			message.update(messageObject, messagePC);
 			if (messageObject instanceof io.github.jmcleodfoss.pst.Message) {
 				io.github.jmcleodfoss.pst.Message messageMessage = (io.github.jmcleodfoss.pst.Message)messageObject;
-				updateComponent(recipientTable, messageMessage.nodeRecipientTable, "Recipients");
-				updateComponent(attachmentTable, messageMessage.nodeAttachmentTable, "Attachments");
+				updateComponent(recipientTable, messageMessage.nodeRecipientTable(), "Recipients");
+				updateComponent(attachmentTable, messageMessage.nodeAttachmentTable(), "Attachments");
 			} else {
 				remove(recipientTable);
 				remove(attachmentTable);
@@ -12,27 +12,6 @@ package io.github.jmcleodfoss.pst;
 */
 public class Appointment extends MessageObject
 {
-	/**	The property ID under which to look up the AppointmentStartWhole property. */
-	private static int AppointmentStartWholeLID = PropertyLIDs.UNKNOWN;
-
-	/**	The property ID under which to look up the AppointmentEndWhole property. */
-	private static int AppointmentEndWholeLID = PropertyLIDs.UNKNOWN;
-
-	/**	The property ID under which to look up the AppointmentDuration property. */
-	private static int AppointmentDurationLID = PropertyLIDs.UNKNOWN;
-
-	/**	The property ID under which to look up the RecurrencePattern property. */
-	private static int RecurrencePatternLID = PropertyLIDs.UNKNOWN;
-
-	/**	The property ID under which to look up the Recurring property. */
-	private static int RecurringLID = PropertyLIDs.UNKNOWN;
-
-	/**	The property ID under which to look up the RecurrenceType property. */
-	private static int RecurrenceTypeLID = PropertyLIDs.UNKNOWN;
-
-	/**	The property ID under which to look up the ReminderDelta property. */
-	private static int ReminderDeltaLID = PropertyLIDs.UNKNOWN;
-
 	/**	The start time of the appointment in UTC. */
 	public final java.util.Date startTime;
 
@@ -75,39 +54,24 @@ public class Appointment extends MessageObject
 	{
 		super(contentsTable, row, nbt, pstFile);
 
-		startTime = (java.util.Date)contentsTable.get(row, AppointmentStartWholeLID);
-		endTime = (java.util.Date)contentsTable.get(row, AppointmentEndWholeLID);
+		startTime = (java.util.Date)contentsTable.get(row, pstFile.namedPropertyIDs.appointmentStartWhole);
+		endTime = (java.util.Date)contentsTable.get(row, pstFile.namedPropertyIDs.appointmentEndWhole);
 
-		Object o = contentsTable.get(row, AppointmentDurationLID);
+		Object o = contentsTable.get(row, pstFile.namedPropertyIDs.appointmentDuration);
 		duration = o == null ? 0 : (Integer)o;
 
-		recurrencePattern = (String)contentsTable.get(row, RecurrencePatternLID);
+		recurrencePattern = (String)contentsTable.get(row, pstFile.namedPropertyIDs.recurrencePattern);
 
-		o = contentsTable.get(row, RecurringLID);
+		o = contentsTable.get(row, pstFile.namedPropertyIDs.recurring);
 		fRecurring = o == null ? false : (Boolean)o;
 
-		o = contentsTable.get(row, RecurrenceTypeLID);
+		o = contentsTable.get(row, pstFile.namedPropertyIDs.recurrenceType);
 		recurrenceType = o == null ? 0 : (Integer)o;
 
-		o = contentsTable.get(row, ReminderDeltaLID);
+		o = contentsTable.get(row, pstFile.namedPropertyIDs.reminderDelta);
 		reminderDelta = o == null ? 0 : (Integer)o;
 	}
 
-	/**	Save named property IDs for IDs of interest.
-	*	@param	namedProperties	The list of named properties.
-	*	@param	fUnicode	Whether the current PST file is a Unicode file or not.
-	*/
-	static void initConstants(NameToIDMap namedProperties, boolean fUnicode)
-	{
-		AppointmentStartWholeLID = namedProperties.id(PropertyLIDs.AppointmentStartWhole, DataType.TIME);
-		AppointmentEndWholeLID = namedProperties.id(PropertyLIDs.AppointmentEndWhole, DataType.TIME);
-		AppointmentDurationLID = namedProperties.id(PropertyLIDs.AppointmentDuration, DataType.INTEGER_32);
-		RecurrencePatternLID = namedProperties.id(PropertyLIDs.RecurrencePattern, fUnicode ? DataType.STRING : DataType.STRING_8);
-		RecurringLID = namedProperties.id(PropertyLIDs.Recurring, DataType.BOOLEAN);
-		RecurrenceTypeLID = namedProperties.id(PropertyLIDs.RecurrenceType, DataType.INTEGER_32);
-		ReminderDeltaLID = namedProperties.id(PropertyLIDs.ReminderDelta, DataType.INTEGER_32);
-	}
-
 	/**	Create a String representation of an appointment (used primarily for testing)
 	*	@return	A String giving some information about this appointment.
 	*/
@@ -0,0 +1,295 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The AsyncBlockReader class reads regions, blocks, and node data of a PST file without blocking the caller, so that reading
+*	one block may overlap with decrypting, inflating, and parsing others. This matters most on high-latency storage such as
+*	network file systems, where a single reader waiting on each read in turn gets only a fraction of the device throughput.
+*	<p>
+*	Reads are performed on a small pool of daemon threads, created when the first read is requested. At most
+*	{@link #maxInFlight} reads are in progress or queued at once; callers requesting more wait until an earlier read has
+*	finished. Blocks are decoded on the common fork-join pool once they have been read, leaving the read threads free to start
+*	on the next read.
+*	<p>
+*	If the maximum number of reads in flight is 0, reads are performed synchronously on the caller's thread and the futures
+*	returned are already complete.
+*	@see	Options#setAsyncReadsInFlight
+*	@see	BlockReadPlanner
+*	@see	DataTreeInputStream
+*/
+public class AsyncBlockReader
+{
+	/**	The RegionSource interface describes where the reader reads regions of the file from. */
+	interface RegionSource
+	{
+		/**	Read a region of the file.
+		*	@param	position	The location to read from.
+		*	@param	length		The number of bytes to read.
+		*	@return	A little-endian ByteBuffer positioned at the start of the requested region.
+		*	@throws	java.io.IOException	The region could not be read.
+		*/
+		java.nio.ByteBuffer read(long position, int length)
+		throws
+			java.io.IOException;
+	}
+
+	/**	The PST file to read from. */
+	private final PSTFile pstFile;
+
+	/**	The source of the regions read. */
+	private final RegionSource source;
+
+	/**	The maximum number of reads in progress or queued at once. */
+	private final int maxInFlight;
+
+	/**	The permits for reads in flight. */
+	private final java.util.concurrent.Semaphore inFlight;
+
+	/**	The threads performing the reads, or null if no reads have been requested yet. */
+	private java.util.concurrent.ExecutorService executor;
+
+	/**	Whether the reader has been closed. */
+	private boolean fClosed;
+
+	/**	The number of reads performed. */
+	private final java.util.concurrent.atomic.AtomicLong reads;
+
+	/**	The number of bytes read. */
+	private final java.util.concurrent.atomic.AtomicLong bytesRead;
+
+	/**	Create a reader for the given file.
+	*	@param	pstFile		The PST file to read from.
+	*	@param	maxInFlight	The maximum number of reads in progress or queued at once, or 0 to read synchronously.
+	*/
+	AsyncBlockReader(final PSTFile pstFile, final int maxInFlight)
+	{
+		this(pstFile, (position, length) -> pstFile.read(position, length), maxInFlight);
+	}
+
+	/**	Create a reader for the given file, reading regions from the given source.
+	*	@param	pstFile		The PST file to read from.
+	*	@param	source		The source of the regions read.
+	*	@param	maxInFlight	The maximum number of reads in progress or queued at once, or 0 to read synchronously.
+	*/
+	AsyncBlockReader(final PSTFile pstFile, final RegionSource source, final int maxInFlight)
+	{
+		this.pstFile = pstFile;
+		this.source = source;
+		this.maxInFlight = maxInFlight;
+		inFlight = new java.util.concurrent.Semaphore(maxInFlight);
+		reads = new java.util.concurrent.atomic.AtomicLong();
+		bytesRead = new java.util.concurrent.atomic.AtomicLong();
+	}
+
+	/**	Obtain the number of bytes read.
+	*	@return	The number of bytes read through this reader since the PST file was opened.
+	*/
+	public long bytesRead()
+	{
+		return bytesRead.get();
+	}
+
+	/**	Stop the read threads once the reads already requested have finished. Since the file is closed at the same time, those
+	*	reads will generally fail.
+	*/
+	synchronized void close()
+	{
+		fClosed = true;
+		if (executor != null)
+			executor.shutdown();
+	}
+
+	/**	Obtain the read threads, creating them if necessary.
+	*	@return	The executor performing the reads.
+	*	@throws	java.util.concurrent.RejectedExecutionException	The reader has been closed.
+	*/
+	private synchronized java.util.concurrent.ExecutorService executor()
+	throws
+		java.util.concurrent.RejectedExecutionException
+	{
+		if (fClosed)
+			throw new java.util.concurrent.RejectedExecutionException("The PST file has been closed");
+
+		if (executor == null) {
+			final java.util.concurrent.atomic.AtomicInteger threadNumber = new java.util.concurrent.atomic.AtomicInteger();
+			executor = java.util.concurrent.Executors.newFixedThreadPool(maxInFlight, r -> {
+				final Thread thread = new Thread(r, "pst-read-" + threadNumber.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return executor;
+	}
+
+	/**	Wait for a read to finish, throwing the exception it failed with, if any.
+	*	@param	<T>	The type of the result of the read.
+	*	@param	future	The future providing the result of the read.
+	*	@return	The result of the read.
+	*	@throws CRCMismatchException	A block's calculated CDC is not the same as the expected value.
+	*	@throws	java.io.IOException	An I/O error was encountered during the read, or the read failed for another reason.
+	*/
+	static <T> T join(final java.util.concurrent.CompletableFuture<T> future)
+	throws
+		CRCMismatchException,
+		java.io.IOException
+	{
+		try {
+			return future.join();
+		} catch (final java.util.concurrent.CompletionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof CRCMismatchException)
+				throw (CRCMismatchException)cause;
+			if (cause instanceof java.io.IOException)
+				throw (java.io.IOException)cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException)cause;
+			if (cause instanceof Error)
+				throw (Error)cause;
+			throw new java.io.IOException(cause);
+		}
+	}
+
+	/**	Are reads performed on other threads?
+	*	@return	true if reads are performed on the read threads, false if they are performed on the caller's thread.
+	*/
+	public boolean isAsynchronous()
+	{
+		return maxInFlight > 0;
+	}
+
+	/**	Obtain the maximum number of reads in progress or queued at once.
+	*	@return	The maximum number of reads in flight, or 0 if reads are performed synchronously.
+	*/
+	public int maxInFlight()
+	{
+		return maxInFlight;
+	}
+
+	/**	Read a region of the file.
+	*	@param	position	The location to read from.
+	*	@param	length		The number of bytes to read.
+	*	@return	A future providing a little-endian ByteBuffer positioned at the start of the requested region. The buffer may be
+	*		returned with {@link PSTFile#release} when it is no longer needed.
+	*/
+	public java.util.concurrent.CompletableFuture<java.nio.ByteBuffer> read(final long position, final int length)
+	{
+		return submit(() -> {
+			final java.nio.ByteBuffer byteBuffer = source.read(position, length);
+			bytesRead.addAndGet(length);
+			return byteBuffer;
+		});
+	}
+
+	/**	Read and decode a single data block, taking it from the {@link BlockCache} if it is there.
+	*	@param	entry	The block B-tree leaf entry describing the block.
+	*	@return	A future providing the decrypted and, if necessary, inflated block data. This may be the array held by the
+	*		block cache, so it must not be modified.
+	*/
+	java.util.concurrent.CompletableFuture<byte[]> readBlock(final BBTEntry entry)
+	{
+		final Encryption encryption = entry.bref.bid.fInternal ? Encryption.NONE : pstFile.encryption();
+		final byte[] cached = pstFile.blockCache.get(entry.bref.bid, encryption);
+		if (cached != null)
+			return java.util.concurrent.CompletableFuture.completedFuture(cached);
+
+		final int blockSize = BlockBase.blockSize(entry.numBytes, pstFile.header.fileFormat);
+		final java.util.function.Function<java.nio.ByteBuffer, byte[]> decode = byteBuffer -> {
+			try {
+				return pstFile.blockCache.put(entry.bref.bid, encryption, SimpleBlock.decode(entry, blockSize, encryption, pstFile, byteBuffer));
+			} catch (final	CRCMismatchException
+				|	java.io.IOException e) {
+				throw new java.util.concurrent.CompletionException(e);
+			} finally {
+				pstFile.release(byteBuffer);
+			}
+		};
+
+		final java.util.concurrent.CompletableFuture<java.nio.ByteBuffer> read = read(entry.bref.ib.ib, blockSize);
+		return isAsynchronous() ? read.thenApplyAsync(decode) : read.thenApply(decode);
+	}
+
+	/**	Read the data for a node, which may be a single data block or a data tree. The child blocks of a data tree are read
+	*	by a {@link BlockReadPlanner} on the common fork-join pool rather than on a read thread, since the planner itself
+	*	waits for reads made through this reader.
+	*	@param	entry	The block B-tree entry of the node's data block, XBLOCK, or XXBLOCK.
+	*	@param	bbt	The PST file's block B-tree.
+	*	@return	A future providing the node's data. For a single data block, this may be the array held by the block cache, so
+	*		it must not be modified.
+	*/
+	java.util.concurrent.CompletableFuture<byte[]> readData(final BBTEntry entry, final BlockMap bbt)
+	{
+		if (!entry.bref.bid.fInternal)
+			return readBlock(entry);
+
+		final java.util.concurrent.Callable<byte[]> task = () -> BlockBase.read(entry, bbt, pstFile).data();
+		if (!isAsynchronous()) {
+			try {
+				return java.util.concurrent.CompletableFuture.completedFuture(task.call());
+			} catch (final Exception e) {
+				return java.util.concurrent.CompletableFuture.failedFuture(e);
+			}
+		}
+		return java.util.concurrent.CompletableFuture.supplyAsync(() -> {
+			try {
+				return task.call();
+			} catch (final Exception e) {
+				throw new java.util.concurrent.CompletionException(e);
+			}
+		});
+	}
+
+	/**	Obtain the number of reads performed.
+	*	@return	The number of regions read through this reader since the PST file was opened.
+	*/
+	public long reads()
+	{
+		return reads.get();
+	}
+
+	/**	Perform a read on one of the read threads, waiting first if the maximum number of reads are already in flight.
+	*	@param	<T>	The type of the result of the read.
+	*	@param	task	The read to perform.
+	*	@return	A future providing the result of the read.
+	*/
+	private <T> java.util.concurrent.CompletableFuture<T> submit(final java.util.concurrent.Callable<T> task)
+	{
+		if (maxInFlight == 0) {
+			try {
+				reads.incrementAndGet();
+				return java.util.concurrent.CompletableFuture.completedFuture(task.call());
+			} catch (final Exception e) {
+				return java.util.concurrent.CompletableFuture.failedFuture(e);
+			}
+		}
+
+		try {
+			inFlight.acquire();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return java.util.concurrent.CompletableFuture.failedFuture(e);
+		}
+
+		try {
+			return java.util.concurrent.CompletableFuture.supplyAsync(() -> {
+				try {
+					reads.incrementAndGet();
+					return task.call();
+				} catch (final Exception e) {
+					throw new java.util.concurrent.CompletionException(e);
+				} finally {
+					inFlight.release();
+				}
+			}, executor());
+		} catch (final java.util.concurrent.RejectedExecutionException e) {
+			inFlight.release();
+			return java.util.concurrent.CompletableFuture.failedFuture(e);
+		}
+	}
+
+	/**	Obtain a summary of the reader's statistics.
+	*	@return	A string describing the number of reads and bytes read.
+	*/
+	@Override
+	public String toString()
+	{
+		return String.format("%d reads in flight maximum, %d reads, %d bytes", maxInFlight, reads(), bytesRead());
+	}
+}
@@ -253,6 +253,39 @@ public class Attachment
 		return (byte[])pc.get(propidData);
 	}
 
+	/**	Retrieve the attachment data as a stream. The data is read from the PST file one block at a time as the stream is
+	*	read, so this should be used in preference to {@link #data} for large attachments.
+	*	@param	pc	The attachment property context.
+	*	@return	A stream from which the attachment data may be read, or null if there is no attachment data in the PST file.
+	*	@see	#propidData
+	*	@see	PropertyContext#getInputStream
+	*/
+	public java.io.InputStream dataStream(final PropertyContext pc)
+	{
+		return hasBinaryData() ? pc.getInputStream(propidData) : null;
+	}
+
+	/**	Retrieve the attachment data as a channel. The data is read from the PST file one block at a time as the channel is
+	*	read.
+	*	@param	pc	The attachment property context.
+	*	@return	A channel from which the attachment data may be read, or null if there is no attachment data in the PST file.
+	*	@see	#propidData
+	*	@see	PropertyContext#getChannel
+	*/
+	public java.nio.channels.ReadableByteChannel dataChannel(final PropertyContext pc)
+	{
+		return hasBinaryData() ? pc.getChannel(propidData) : null;
+	}
+
+	/**	Determine whether the attachment data is stored in the PST file (rather than being a reference to an external file).
+	*	@return	true if the attachment data property is a binary or object property, false otherwise.
+	*/
+	private boolean hasBinaryData()
+	{
+		final short propertyType = (short)(propidData & 0xffff);
+		return propertyType == DataType.BINARY || propertyType == DataType.OBJECT;
+	}
+
 	/**	Loop through folder's subfolders and message objects looking for attachments. Used only for testing Used only for testing
 	*	@param	folder	The folder to process
 	*	@param	pst	The pst file to look in
@@ -44,6 +44,21 @@ class BBTEntry implements BTreeLeaf
 		}
 	};
 
+	/**	The offset of the block reference in each file format. */
+	private static final int[] OFFSET_BREF = DataDefinition.offsets(fields, nm_bref);
+
+	/**	The offset of the raw data byte count in each file format. */
+	private static final int[] OFFSET_CB = DataDefinition.offsets(fields, nm_cb);
+
+	/**	The offset of the inflated data byte count in each file format, or -1 if the format has no such field. */
+	private static final int[] OFFSET_CB_INFLATED = DataDefinition.offsets(fields, nm_cbInflated);
+
+	/**	The offset of the reference count in each file format. */
+	private static final int[] OFFSET_CREF = DataDefinition.offsets(fields, nm_cRef);
+
+	/**	The size of a block B-tree leaf entry in each file format. */
+	private static final int[] SIZE = DataDefinition.sizes(fields);
+
 	/**	The block reference for this block of the B-tree. */
 	final BREF bref;
 
@@ -65,12 +80,36 @@ class BBTEntry implements BTreeLeaf
 	throws
 		java.io.IOException
 	{
-		DataContainer dc = new DataContainer();
-		dc.read(entryStream, fields[context.fileFormat.index.getIndex()]);
-		bref = (BREF)dc.get(nm_bref);
-		numBytes = 0xffff & (Short)dc.get(nm_cb);
-		totalBytes = context.fileFormat.index == FileFormat.Index.OST_2013 ? (0xffff & (Short)dc.get(nm_cbInflated)) : numBytes;
-		refCount = 0xffff & (Short)dc.get(nm_cRef);
+		final int fileFormatIndex = context.fileFormat.index.getIndex();
+		final int base = entryStream.position();
+		bref = DataType.readBREF(entryStream, base + OFFSET_BREF[fileFormatIndex], context.unicode());
+		numBytes = 0xffff & entryStream.getShort(base + OFFSET_CB[fileFormatIndex]);
+		totalBytes = OFFSET_CB_INFLATED[fileFormatIndex] >= 0 ? 0xffff & entryStream.getShort(base + OFFSET_CB_INFLATED[fileFormatIndex]) : numBytes;
+		refCount = 0xffff & entryStream.getShort(base + OFFSET_CREF[fileFormatIndex]);
+		entryStream.position(base + SIZE[fileFormatIndex]);
+	}
+
+	/**	Create a block B-tree leaf entry from values which have already been read.
+	*	@param	bref		The block reference for this entry.
+	*	@param	numBytes	The number of bytes of data stored in the block.
+	*	@param	totalBytes	The number of bytes of data once the block is inflated.
+	*	@param	refCount	The reference count for the block.
+	*	@see	CompactBlockMap
+	*/
+	BBTEntry(final BREF bref, final int numBytes, final int totalBytes, final int refCount)
+	{
+		this.bref = bref;
+		this.numBytes = numBytes;
+		this.totalBytes = totalBytes;
+		this.refCount = refCount;
+	}
+
+	/**	Obtain the reference count for the block.
+	*	@return	The block's reference count.
+	*/
+	int refCount()
+	{
+		return refCount;
 	}
 
 	/**	Obtain the actual size of a block B-tree leaf node as read in from the input datastream.
@@ -80,7 +119,7 @@ class BBTEntry implements BTreeLeaf
 	@Override
 	public int actualSize(final BTree.Context<BTree, BTreeLeaf> context)
 	{
-		return DataDefinition.size(fields[context.fileFormat.index.getIndex()]);
+		return SIZE[context.fileFormat.index.getIndex()];
 	}
 
 	/**	{@inheritDoc} */
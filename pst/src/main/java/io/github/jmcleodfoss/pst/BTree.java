@@ -6,6 +6,12 @@ abstract class BTree extends ReadOnlyTreeModel implements BTreeNode, TreeCustomN
 	/**	The children of this B-tree node. The children may be either intermediate nodes, which are themselves B-trees, or leaf nodes. */
 	protected final BTreeNode[] children;
 
+	/**	The keys of the children of this B-tree node, used to search for a key without examining each child. */
+	protected final long[] keys;
+
+	/**	Whether the keys of the children are in ascending order, which is required to search them with a binary search. */
+	protected final boolean fKeysSorted;
+
 	/**	The key of this node is guaranteed to be the smallest key of any of its children. */
 	protected final long key;
 
@@ -185,6 +191,56 @@ abstract class BTree extends ReadOnlyTreeModel implements BTreeNode, TreeCustomN
 		} else {
 			this.key = key;
 		}
+
+		keys = new long[numEntries];
+		for (int i = 0; i < numEntries; ++i)
+			keys[i] = children[i].key();
+		fKeysSorted = isSorted(keys);
+	}
+
+	/**	Find the index of the last entry in a sorted array of keys which is less than or equal to the given key.
+	*	@param	keys	The sorted keys to search.
+	*	@param	key	The key to look for.
+	*	@return	The index of the last key less than or equal to the given key, or -1 if all keys are greater than it.
+	*/
+	static int floorIndex(final long[] keys, final long key)
+	{
+		int i = java.util.Arrays.binarySearch(keys, key);
+		if (i < 0)
+			return -i - 2;
+
+		while (i < keys.length-1 && keys[i+1] == key)
+			++i;
+		return i;
+	}
+
+	/**	Find the index of the first entry in a sorted array of keys which is equal to the given key.
+	*	@param	keys	The sorted keys to search.
+	*	@param	key	The key to look for.
+	*	@return	The index of the first key equal to the given key, or -1 if the key is not present.
+	*/
+	static int indexOf(final long[] keys, final long key)
+	{
+		int i = java.util.Arrays.binarySearch(keys, key);
+		if (i < 0)
+			return -1;
+
+		while (i > 0 && keys[i-1] == key)
+			--i;
+		return i;
+	}
+
+	/**	Determine whether the given keys are in ascending order.
+	*	@param	keys	The keys to check.
+	*	@return	true if each key is greater than or equal to the key before it, false otherwise.
+	*/
+	static boolean isSorted(final long[] keys)
+	{
+		for (int i = 1; i < keys.length; ++i) {
+			if (keys[i] < keys[i-1])
+				return false;
+		}
+		return true;
 	}
 
 	/**	Retrieve the data the given key in the B-tree, or null if the key is missing.
@@ -196,6 +252,19 @@ abstract class BTree extends ReadOnlyTreeModel implements BTreeNode, TreeCustomN
 		if (key < this.key())
 			return null;
 
+		if (fKeysSorted) {
+			if (children.length == 0)
+				return null;
+
+			if (children[0] instanceof BTree) {
+				final int i = floorIndex(keys, key);
+				return i >= 0 ? ((BTree)children[i]).find(key) : null;
+			}
+
+			final int i = indexOf(keys, key);
+			return i >= 0 ? (BTreeLeaf)children[i] : null;
+		}
+
 		for (int i = 0; i < children.length; ++i) {
 			if (children[i] instanceof BTree) {
 				if (key >= children[i].key() && (i == children.length-1 || key < children[i+1].key()))
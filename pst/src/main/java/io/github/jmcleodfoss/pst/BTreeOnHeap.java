@@ -56,7 +56,7 @@ public class BTreeOnHeap extends BTree
 		{
 			super(pstFile.header.fileFormat);
 			this.hon = hon;
-			header = new Header(PSTFile.makeByteBuffer(hon.heapData(hid)));
+			header = new Header(hon.heapBuffer(hid));
 			fEmpty = !header.hidRoot.isHID();
 			this.hid = header.hidRoot;
 			level = header.levels;// + 1;
@@ -91,7 +91,7 @@ public class BTreeOnHeap extends BTree
 		throws
 			java.io.IOException
 		{
-			return PSTFile.makeByteBuffer(hon.heapData(hid));
+			return hon.heapBuffer(hid);
 		}
 
 		/**	The size of a single entry in the B-tree-on-heap structure. Note that the size depends on values in the BTH header.
@@ -109,10 +109,11 @@ public class BTreeOnHeap extends BTree
 		@Override
 		protected int getNumEntries()
 		{
-			if (fEmpty || !hid.isHID() || hon.heapData(hid) == null)
+			if (fEmpty || !hid.isHID())
 				return 0;
 
-			return hon.heapData(hid).length/getEntrySize();
+			final java.nio.ByteBuffer data = hon.heapBuffer(hid);
+			return data == null ? 0 : data.remaining()/getEntrySize();
 		}
 
 		/**	{@inheritDoc} */
@@ -165,7 +166,7 @@ public class BTreeOnHeap extends BTree
 		private static final String nm_hidRoot = "hidRoot";
 
 		/**	The fields in the input stream which make up the B-tree-on-heap header. */
-		private static DataDefinition[] fields = {
+		private static final DataDefinition[] fields = {
 			new DataDefinition(nm_bType, DataType.integer8Reader, true),
 			new DataDefinition(nm_cbKey, DataType.integer8Reader, true),
 			new DataDefinition(nm_cbEnt, DataType.integer8Reader, true),
@@ -274,7 +275,7 @@ public class BTreeOnHeap extends BTree
 		/**	The field in the input stream which describes the next level. Note that this is read after the key, whose size
 		*	depends on the contents of the B-tree.
 		*/
-		private static DataDefinition next_level_field = new DataDefinition(nm_hidNextLevel, DataType.hidReader, true);
+		private static final DataDefinition next_level_field = new DataDefinition(nm_hidNextLevel, DataType.hidReader, true);
 
 		/**	The index of the next level in the B-tree-on-heap structure. */
 		HeapOnNode.HID hidNextLevel;
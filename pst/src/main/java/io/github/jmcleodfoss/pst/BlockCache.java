@@ -0,0 +1,204 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The BlockCache class holds the decoded (decrypted and, for OST 2013 files, inflated) contents of recently-used data
+*	blocks of a PST file, so that blocks which are visited repeatedly, such as those of the heap-on-node of a folder, a
+*	message, and its attachments, need only be read, checked, and decoded once.
+*	The cache is limited to a number of bytes of block data, and the least-recently used blocks are discarded when it is
+*	full. The cached data may optionally be held through soft references, so that it may be reclaimed by the garbage
+*	collector if memory is needed elsewhere.
+*	The cached arrays are shared by all readers of the block and must not be modified.
+*	@see	Options#setBlockCacheSize
+*	@see	Options#setBlockCacheSoftReferences
+*	@see	SimpleBlock
+*/
+public class BlockCache
+{
+	/**	The Entry class holds the data for a single block. */
+	private static class Entry
+	{
+		/**	The encryption method used to decode the block. */
+		private final Encryption encryption;
+
+		/**	The number of bytes of block data. */
+		private final int size;
+
+		/**	The decoded block data, if held directly. */
+		private final byte[] data;
+
+		/**	The decoded block data, if held through a soft reference. */
+		private final java.lang.ref.SoftReference<byte[]> softData;
+
+		/**	Create a cache entry.
+		*	@param	encryption	The encryption method used to decode the block.
+		*	@param	data		The decoded block data.
+		*	@param	fSoft		Whether to hold the data through a soft reference.
+		*/
+		private Entry(final Encryption encryption, final byte[] data, final boolean fSoft)
+		{
+			this.encryption = encryption;
+			size = data.length;
+			this.data = fSoft ? null : data;
+			softData = fSoft ? new java.lang.ref.SoftReference<byte[]>(data) : null;
+		}
+
+		/**	Retrieve the block data.
+		*	@return	The decoded block data, or null if it was held through a soft reference which has been cleared.
+		*/
+		private byte[] data()
+		{
+			return softData == null ? data : softData.get();
+		}
+	}
+
+	/**	The maximum number of bytes of block data to hold; if this is 0, nothing is cached. */
+	private final long maxBytes;
+
+	/**	Whether the block data is held through soft references. */
+	private final boolean fSoft;
+
+	/**	The cached blocks, indexed by block ID, in access order. */
+	private final java.util.LinkedHashMap<Long, Entry> blocks;
+
+	/**	The number of bytes of block data in the cache. */
+	private long bytes;
+
+	/**	The number of block requests satisfied from the cache. */
+	private final java.util.concurrent.atomic.AtomicLong hits;
+
+	/**	The number of block requests which required the block to be read from the file. */
+	private final java.util.concurrent.atomic.AtomicLong misses;
+
+	/**	The number of blocks discarded to make room for others, or because their soft references had been cleared. */
+	private final java.util.concurrent.atomic.AtomicLong evictions;
+
+	/**	Create a block cache.
+	*	@param	maxBytes	The maximum number of bytes of block data to hold; if this is 0, nothing is cached.
+	*	@param	fSoft		Whether to hold the block data through soft references.
+	*/
+	BlockCache(final long maxBytes, final boolean fSoft)
+	{
+		this.maxBytes = maxBytes;
+		this.fSoft = fSoft;
+		blocks = new java.util.LinkedHashMap<Long, Entry>(16, 0.75f, true);
+		hits = new java.util.concurrent.atomic.AtomicLong();
+		misses = new java.util.concurrent.atomic.AtomicLong();
+		evictions = new java.util.concurrent.atomic.AtomicLong();
+	}
+
+	/**	Obtain the number of bytes of block data currently held in the cache. Blocks held through soft references are
+	*	counted until their absence is noticed.
+	*	@return	The number of bytes of block data in the cache.
+	*/
+	public synchronized long bytes()
+	{
+		return bytes;
+	}
+
+	/**	Discard all cached blocks. */
+	public synchronized void clear()
+	{
+		blocks.clear();
+		bytes = 0;
+	}
+
+	/**	Obtain the number of blocks discarded from the cache.
+	*	@return	The number of cached blocks discarded since the PST file was opened.
+	*/
+	public long evictions()
+	{
+		return evictions.get();
+	}
+
+	/**	Retrieve the decoded data for a block.
+	*	@param	bid		The block ID of the block to retrieve.
+	*	@param	encryption	The encryption method with which the block is to be decoded.
+	*	@return	The decoded data for the block, or null if it is not in the cache.
+	*/
+	byte[] get(final BID bid, final Encryption encryption)
+	{
+		if (maxBytes == 0) {
+			misses.incrementAndGet();
+			return null;
+		}
+
+		byte[] data = null;
+		synchronized (this) {
+			final Entry entry = blocks.get(bid.key());
+			if (entry != null && entry.encryption == encryption) {
+				data = entry.data();
+				if (data == null) {
+					blocks.remove(bid.key());
+					bytes -= entry.size;
+					evictions.incrementAndGet();
+				}
+			}
+		}
+
+		if (data == null)
+			misses.incrementAndGet();
+		else
+			hits.incrementAndGet();
+		return data;
+	}
+
+	/**	Obtain the number of block requests which were satisfied from the cache.
+	*	@return	The number of cache hits since the PST file was opened.
+	*/
+	public long hits()
+	{
+		return hits.get();
+	}
+
+	/**	Obtain the maximum number of bytes of block data the cache will hold.
+	*	@return	The maximum size of the cache in bytes.
+	*/
+	public long maxBytes()
+	{
+		return maxBytes;
+	}
+
+	/**	Obtain the number of block requests which required the block to be read from the file.
+	*	@return	The number of cache misses since the PST file was opened.
+	*/
+	public long misses()
+	{
+		return misses.get();
+	}
+
+	/**	Add the decoded data for a block to the cache, discarding the least-recently used blocks if necessary. Blocks larger
+	*	than a quarter of the cache are not kept, so that a single large block does not displace many smaller ones.
+	*	@param	bid		The block ID of the block.
+	*	@param	encryption	The encryption method with which the block was decoded.
+	*	@param	data		The decoded block data.
+	*	@return	The decoded block data.
+	*/
+	byte[] put(final BID bid, final Encryption encryption, final byte[] data)
+	{
+		if (data.length > maxBytes / 4)
+			return data;
+
+		synchronized (this) {
+			final Entry previous = blocks.put(bid.key(), new Entry(encryption, data, fSoft));
+			if (previous != null)
+				bytes -= previous.size;
+			bytes += data.length;
+
+			java.util.Iterator<Entry> eldest = blocks.values().iterator();
+			while (bytes > maxBytes) {
+				bytes -= eldest.next().size;
+				eldest.remove();
+				evictions.incrementAndGet();
+			}
+		}
+		return data;
+	}
+
+	/**	Obtain a summary of the cache statistics.
+	*	@return	A string describing the cache's size and usage.
+	*/
+	@Override
+	public String toString()
+	{
+		return String.format("%d of %d bytes, %d hits, %d misses, %d evictions", bytes(), maxBytes, hits(), misses(), evictions());
+	}
+}
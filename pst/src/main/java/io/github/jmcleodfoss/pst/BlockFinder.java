@@ -143,6 +143,7 @@ class BlockFinder extends PagedBTreeFinder implements BlockMap
 						System.out.printf("Success: all %d BIDs found%n", bids);
 					else
 						System.out.printf("Failure: %d out of %d BIDs not found%n", discrepancies, bids);
+					System.out.printf("Page cache: %d hits, %d misses%n", bf.pageCacheHits(), bf.pageCacheMisses());
 
 					if (bf.compareTree(bbt))
 						System.out.printf("Success: BlockFinder TreeModel matches BlockBTree TreeModel");
@@ -0,0 +1,143 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The BlockReadPlanner class reads a set of blocks, such as the children of an XBLOCK or XXBLOCK, in as few reads as
+*	possible. The blocks are sorted by their position in the file, and blocks which lie next to or near each other are read
+*	together, so that the file is read sequentially in a few large pieces rather than one block at a time in whatever order the
+*	blocks are listed. Each block is then passed to the caller, which places it according to its index in the original list.
+*	@see	XBlock
+*	@see	DataTreeInputStream
+*/
+class BlockReadPlanner
+{
+	/**	The largest gap between blocks which will be read through rather than starting a new read. */
+	static final int MAX_GAP = 4096;
+
+	/**	The largest single read. This is no more than {@link FileRegionManager.WindowedMapped#OVERLAP}, so that a merged read
+	*	can still be satisfied from a single window when the file is mapped in windows.
+	*/
+	static final int MAX_READ = FileRegionManager.WindowedMapped.OVERLAP;
+
+	/**	The BlockVisitor interface receives each block read by {@link #read}. */
+	interface BlockVisitor
+	{
+		/**	Process a single block.
+		*	@param	index		The index of the block in the list passed to {@link #read}.
+		*	@param	byteBuffer	A little-endian buffer positioned at the start of the block and limited to its end, including the
+		*				trailer. This is only valid until this function returns.
+		*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
+		*	@throws	java.io.IOException	An I/O error was encountered while processing the block.
+		*/
+		void block(int index, java.nio.ByteBuffer byteBuffer)
+		throws
+			CRCMismatchException,
+			java.io.IOException;
+	}
+
+	/**	Group blocks into runs, each of which may be satisfied by a single read.
+	*	@param	offsets	The offsets of the blocks in the file. Blocks with a negative offset are skipped.
+	*	@param	sizes	The sizes of the blocks in the file.
+	*	@return	The runs of blocks, in file order; each run lists the indices of its blocks, also in file order.
+	*/
+	static java.util.List<int[]> plan(final long[] offsets, final int[] sizes)
+	{
+		final Integer[] order = java.util.stream.IntStream.range(0, offsets.length).filter(i -> offsets[i] >= 0).boxed().toArray(Integer[]::new);
+		// The sort is stable, so duplicate blocks are handed back in list order.
+		java.util.Arrays.sort(order, java.util.Comparator.comparingLong((Integer i) -> offsets[i]));
+
+		final java.util.List<int[]> runs = new java.util.ArrayList<int[]>();
+		int first = 0;
+		while (first < order.length) {
+			final long start = offsets[order[first]];
+			long end = start + sizes[order[first]];
+			int last = first + 1;
+			while (last < order.length) {
+				final long next = offsets[order[last]];
+				final long nextEnd = Math.max(end, next + sizes[order[last]]);
+				if (next - end > MAX_GAP || nextEnd - start > MAX_READ)
+					break;
+				end = nextEnd;
+				++last;
+			}
+
+			final int[] run = new int[last - first];
+			for (int i = first; i < last; ++i)
+				run[i - first] = order[i];
+			runs.add(run);
+			first = last;
+		}
+		return runs;
+	}
+
+	/**	Read the given blocks, passing each to the visitor.
+	*	The visitor is called in file order, not list order, unless reads are made asynchronously, in which case it may be
+	*	called for several runs of blocks at once on different threads.
+	*	@param	entries	The block B-tree entries of the blocks to read. Null entries are skipped.
+	*	@param	pstFile	The PST file's data stream, header, etc.
+	*	@param	visitor	The visitor to pass each block to.
+	*	@throws CRCMismatchException	The visitor found a block whose calculated CDC is not the same as the expected value.
+	*	@throws	java.io.IOException	An I/O error was encountered while reading the blocks.
+	*	@see	AsyncBlockReader
+	*/
+	static void read(final BBTEntry[] entries, final PSTFile pstFile, final BlockVisitor visitor)
+	throws
+		CRCMismatchException,
+		java.io.IOException
+	{
+		AsyncBlockReader.join(readAsync(entries, pstFile, visitor));
+	}
+
+	/**	Read the given blocks through the PST file's {@link AsyncBlockReader}, passing each to the visitor as the run of
+	*	blocks containing it is read. All the runs are requested at once, so that reading one may overlap with decoding
+	*	another.
+	*	@param	entries	The block B-tree entries of the blocks to read. Null entries are skipped.
+	*	@param	pstFile	The PST file's data stream, header, etc.
+	*	@param	visitor	The visitor to pass each block to.
+	*	@return	A future which completes when all the blocks have been passed to the visitor.
+	*/
+	static java.util.concurrent.CompletableFuture<Void> readAsync(final BBTEntry[] entries, final PSTFile pstFile, final BlockVisitor visitor)
+	{
+		final long[] offsets = new long[entries.length];
+		final int[] sizes = new int[entries.length];
+		for (int i = 0; i < entries.length; ++i) {
+			offsets[i] = entries[i] == null ? -1 : entries[i].bref.ib.ib;
+			sizes[i] = entries[i] == null ? 0 : BlockBase.blockSize(entries[i].numBytes, pstFile.header.fileFormat);
+		}
+
+		final AsyncBlockReader reader = pstFile.asyncReader;
+		final java.util.List<int[]> runs = plan(offsets, sizes);
+		final java.util.concurrent.CompletableFuture<?>[] futures = new java.util.concurrent.CompletableFuture<?>[runs.size()];
+		for (int r = 0; r < futures.length; ++r) {
+			final int[] run = runs.get(r);
+			final long start = offsets[run[0]];
+			long end = start;
+			for (final int i : run)
+				end = Math.max(end, offsets[i] + sizes[i]);
+
+			final java.util.function.Consumer<java.nio.ByteBuffer> visit = buffer -> {
+				try {
+					final int base = buffer.position();
+					for (final int i : run) {
+						final java.nio.ByteBuffer block = buffer.slice(base + (int)(offsets[i] - start), sizes[i]);
+						block.order(java.nio.ByteOrder.LITTLE_ENDIAN);
+						visitor.block(i, block);
+					}
+				} catch (final	CRCMismatchException
+					|	java.io.IOException e) {
+					throw new java.util.concurrent.CompletionException(e);
+				}
+
+				// Buffers are pooled by size, so only single-block reads, whose sizes recur, are worth returning.
+				if (run.length == 1)
+					pstFile.release(buffer);
+			};
+
+			final java.util.concurrent.CompletableFuture<java.nio.ByteBuffer> read = reader.read(start, (int)(end - start));
+			futures[r] = reader.isAsynchronous() ? read.thenAcceptAsync(visit) : read.thenAccept(visit);
+
+			// Synchronous reads have already finished, so there is no point in reading further once one has failed.
+			if (futures[r].isCompletedExceptionally())
+				return java.util.concurrent.CompletableFuture.allOf(java.util.Arrays.copyOf(futures, r + 1));
+		}
+		return java.util.concurrent.CompletableFuture.allOf(futures);
+	}
+}
@@ -54,6 +54,16 @@ public class ByteUtil
 		return s.toString();
 	}
 
+	/**	Create a signed int from the four bytes at the given offset of the given array, ordered from LSB to MSB.
+	*	@param	rawData	The bytes to make the int value from.
+	*	@param	offset	The index of the least significant byte.
+	*	@return	An int value corresponding to the four bytes as a little-endian value.
+	*/
+	static int makeIntLE(byte[] rawData, int offset)
+	{
+		return (rawData[offset] & 0xff) | (rawData[offset+1] & 0xff) << 8 | (rawData[offset+2] & 0xff) << 16 | rawData[offset+3] << 24;
+	}
+
 	/**	Create a signed long from the first "n" bytes of the given array, ordered from LSB to MSB.
 	*	@param	rawData	The bytes to make the long value from.
 	*	@param	n_requested	The number of bytes to use (n must be less than or equal to 8, the number of bytes in a long value).
@@ -78,6 +88,16 @@ public class ByteUtil
 		return makeLongLE(rawData, LONG_BYTES);
 	}
 
+	/**	Create a signed short from the two bytes at the given offset of the given array, ordered from LSB to MSB.
+	*	@param	rawData	The bytes to make the short value from.
+	*	@param	offset	The index of the least significant byte.
+	*	@return	A short value corresponding to the two bytes as a little-endian value.
+	*/
+	static short makeShortLE(byte[] rawData, int offset)
+	{
+		return (short)((rawData[offset] & 0xff) | rawData[offset+1] << 8);
+	}
+
 	/**	This is a simplistic test for some of the functions in this class.
 	*	@param	args	The command line arguments passed to the test application (ignored).
 	*/
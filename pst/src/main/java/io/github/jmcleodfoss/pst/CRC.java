@@ -42,15 +42,72 @@ class CRC
 		0xB3667A2E, 0xC4614AB8, 0x5D681B02, 0x2A6F2B94, 0xB40BBE37, 0xC30C8EA1, 0x5A05DF1B, 0x2D02EF8D
 	};
 
-	/**	Calculate the CRC for the incoming data. Note that this function uses 8-bit integers for all calculations. This is
-	*	based on the reference (32-bit integer) function found in the PST file format document, but in testing was found to
-	*	be 17.9% faster.
+	/**	The tables used to calculate the CRC eight bytes at a time. Table k gives the contribution of a byte followed by k
+	*	further bytes; table 0 is {@link #CrcTableOffset32}.
+	*	@see	<a href="https://www.intel.com/content/dam/www/public/us/en/documents/white-papers/fast-crc-computation-paper.pdf">Fast CRC Computation for Generic Polynomials</a>
+	*/
+	private static final int[][] sliceTables = makeSliceTables();
+
+	/**	Access to a byte array as little-endian longs, used to read eight bytes at a time. */
+	private static final java.lang.invoke.VarHandle longLE = java.lang.invoke.MethodHandles.byteArrayViewVarHandle(long[].class, java.nio.ByteOrder.LITTLE_ENDIAN);
+
+	/**	Calculate the CRC for the incoming data. The calculation is done eight bytes at a time using slicing-by-8, working
+	*	directly on the backing array of heap buffers and on absolute reads for direct buffers, and gives the same result as
+	*	the byte-at-a-time reference function found in the PST file format document. The buffer's position is not changed.
 	*	@param	byteBuffer	The array of data from which to calculate the CRC.
 	*	@param	iStart		Where in the array to start calculating the CRC.
 	*	@param	size		How many bytes to span when calculating the CRC.
 	*	@return	The CRC for the block of data provided.
+	*	@throws	java.nio.BufferUnderflowException	The buffer does not contain the requested number of bytes.
 	*/
 	static int crc(java.nio.ByteBuffer byteBuffer, int iStart, int size)
+	{
+		if (iStart + size > byteBuffer.limit())
+			throw new java.nio.BufferUnderflowException();
+
+		if (byteBuffer.hasArray())
+			return crc(byteBuffer.array(), byteBuffer.arrayOffset() + iStart, size);
+
+		final java.nio.ByteBuffer le = byteBuffer.order() == java.nio.ByteOrder.LITTLE_ENDIAN ? byteBuffer : byteBuffer.duplicate().order(java.nio.ByteOrder.LITTLE_ENDIAN);
+		final int end = iStart + size;
+		int i = iStart;
+		int crc = 0;
+		for (; i + Long.BYTES <= end; i += Long.BYTES)
+			crc = slice8(crc, le.getLong(i));
+		for (; i < end; ++i)
+			crc = CrcTableOffset32[(crc ^ le.get(i)) & 0xff] ^ (crc >>> 8);
+		return crc;
+	}
+
+	/**	Calculate the CRC for the incoming data.
+	*	@param	data	The array of data from which to calculate the CRC.
+	*	@param	iStart	Where in the array to start calculating the CRC.
+	*	@param	size	How many bytes to span when calculating the CRC.
+	*	@return	The CRC for the block of data provided.
+	*	@see	#crc(java.nio.ByteBuffer, int, int)
+	*/
+	static int crc(byte[] data, int iStart, int size)
+	{
+		java.util.Objects.checkFromIndexSize(iStart, size, data.length);
+
+		final int end = iStart + size;
+		int i = iStart;
+		int crc = 0;
+		for (; i + Long.BYTES <= end; i += Long.BYTES)
+			crc = slice8(crc, (long)longLE.get(data, i));
+		for (; i < end; ++i)
+			crc = CrcTableOffset32[(crc ^ data[i]) & 0xff] ^ (crc >>> 8);
+		return crc;
+	}
+
+	/**	Calculate the CRC one byte at a time, exactly as the reference function in the PST file format document does. This
+	*	is used to check and to measure {@link #crc(java.nio.ByteBuffer, int, int)}.
+	*	@param	byteBuffer	The array of data from which to calculate the CRC.
+	*	@param	iStart		Where in the array to start calculating the CRC.
+	*	@param	size		How many bytes to span when calculating the CRC.
+	*	@return	The CRC for the block of data provided.
+	*/
+	static int crcByteAtATime(java.nio.ByteBuffer byteBuffer, int iStart, int size)
 	{
 		int position = byteBuffer.position();
 		byteBuffer.position(iStart);
@@ -62,4 +119,72 @@ class CRC
 		byteBuffer.position(position);
 		return crc;
 	}
+
+	/**	Build the slicing-by-8 tables from {@link #CrcTableOffset32}.
+	*	@return	The eight tables used by {@link #slice8}.
+	*/
+	private static int[][] makeSliceTables()
+	{
+		final int[][] tables = new int[8][];
+		tables[0] = CrcTableOffset32;
+		for (int k = 1; k < tables.length; ++k) {
+			tables[k] = new int[256];
+			for (int i = 0; i < 256; ++i)
+				tables[k][i] = (tables[k-1][i] >>> 8) ^ CrcTableOffset32[tables[k-1][i] & 0xff];
+		}
+		return tables;
+	}
+
+	/**	Update the CRC with eight bytes of data.
+	*	@param	crc	The CRC of the data preceding these eight bytes.
+	*	@param	bytes	The eight bytes, in little-endian order.
+	*	@return	The CRC including the eight bytes.
+	*/
+	private static int slice8(int crc, long bytes)
+	{
+		final int lo = crc ^ (int)bytes;
+		final int hi = (int)(bytes >>> 32);
+		return	sliceTables[7][lo & 0xff] ^ sliceTables[6][(lo >>> 8) & 0xff] ^ sliceTables[5][(lo >>> 16) & 0xff] ^ sliceTables[4][lo >>> 24]
+		^	sliceTables[3][hi & 0xff] ^ sliceTables[2][(hi >>> 8) & 0xff] ^ sliceTables[1][(hi >>> 16) & 0xff] ^ sliceTables[0][hi >>> 24];
+	}
+
+	/**	Measure the time taken per block to calculate the CRC of 512-byte, 8 KB, and 64 KB blocks, one byte at a time and
+	*	with slicing-by-8 from heap and direct buffers.
+	*	@param	args	The number of bytes to process for each block size and method (optional, default 256 MB).
+	*/
+	public static void main(final String[] args)
+	{
+		final long numBytes = args.length > 0 ? Long.parseLong(args[0]) : 256L * 1024 * 1024;
+		final int[] blockSizes = {512, 8*1024, 64*1024};
+		final String[] methods = {"byte at a time", "slicing-by-8", "slicing-by-8 direct"};
+
+		for (final int blockSize : blockSizes) {
+			final byte[] data = new byte[blockSize];
+			new java.util.Random(blockSize).nextBytes(data);
+			final java.nio.ByteBuffer heap = PSTFile.makeByteBuffer(data);
+			final java.nio.ByteBuffer direct = java.nio.ByteBuffer.allocateDirect(blockSize).order(java.nio.ByteOrder.LITTLE_ENDIAN).put(data);
+			final long numBlocks = Math.max(1, numBytes / blockSize);
+
+			for (int pass = 0; pass < 3; ++pass) {
+				for (int method = 0; method < methods.length; ++method) {
+					int checksum = 0;
+					final long timeStart = System.nanoTime();
+					for (long i = 0; i < numBlocks; ++i) {
+						switch (method) {
+						case 0: checksum += crcByteAtATime(heap, 0, blockSize); break;
+						case 1: checksum += crc(heap, 0, blockSize); break;
+						default: checksum += crc(direct, 0, blockSize); break;
+						}
+					}
+					final long elapsed = System.nanoTime() - timeStart;
+
+					// The first two passes are warm-up passes.
+					if (pass < 2)
+						continue;
+					System.out.printf("%6d bytes %-20s %10.1f ns/block %8.0f MB/s (checksum 0x%08x)%n",
+						blockSize, methods[method], (double)elapsed / numBlocks, (double)numBlocks * blockSize * 1000 / elapsed, checksum);
+				}
+			}
+		}
+	}
 }
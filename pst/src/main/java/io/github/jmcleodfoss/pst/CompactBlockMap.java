@@ -0,0 +1,269 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The CompactBlockMap class holds the leaf entries of the block B-tree in sorted parallel arrays of primitives rather than as
+*	a tree of objects. Lookups use a binary search on the block IDs, and {@link BBTEntry} objects are created only when a block
+*	is requested, so memory use is a small fraction of that of {@link BlockBTree} while lookups remain fast.
+*	@see	BlockBTree
+*	@see	BlockFinder
+*	@see	CompactNodeMap
+*/
+class CompactBlockMap implements BlockMap
+{
+	/**	The search keys of the block IDs, in ascending order. */
+	private final long[] bid;
+
+	/**	The file offset of each block. */
+	private final long[] ib;
+
+	/**	The stored size of each block in the low 16 bits, and the inflated size in the high 16 bits. */
+	private final int[] cb;
+
+	/**	The reference count of each block. */
+	private final short[] cRef;
+
+	/**	The Builder class collects the block B-tree leaf entries as the block B-tree is walked. */
+	private static class Builder implements java.util.function.Consumer<BTreeLeaf>
+	{
+		/**	The number of entries collected so far. */
+		private int size;
+
+		/**	The block ID search keys collected so far. */
+		private long[] bid = new long[1024];
+
+		/**	The file offsets collected so far. */
+		private long[] ib = new long[1024];
+
+		/**	The stored and inflated sizes collected so far. */
+		private int[] cb = new int[1024];
+
+		/**	The reference counts collected so far. */
+		private short[] cRef = new short[1024];
+
+		/**	Add the given block B-tree leaf entry to the arrays.
+		*	@param	leaf	The block B-tree leaf entry to add.
+		*/
+		@Override
+		public void accept(BTreeLeaf leaf)
+		{
+			if (size == bid.length) {
+				final int newLength = bid.length * 2;
+				bid = java.util.Arrays.copyOf(bid, newLength);
+				ib = java.util.Arrays.copyOf(ib, newLength);
+				cb = java.util.Arrays.copyOf(cb, newLength);
+				cRef = java.util.Arrays.copyOf(cRef, newLength);
+			}
+
+			final BBTEntry entry = (BBTEntry)leaf;
+			bid[size] = entry.key();
+			ib[size] = entry.bref.ib.ib;
+			cb[size] = entry.numBytes | entry.totalBytes << 16;
+			cRef[size] = (short)entry.refCount();
+			++size;
+		}
+	}
+
+	/**	Create a compact block map by walking the block B-tree of the given PST file one page at a time.
+	*	@param	pstFile	The PST file's header, input data stream, etc.
+	*	@throws	java.io.IOException	An I/O error was encountered while reading the block B-tree.
+	*/
+	CompactBlockMap(PSTFile pstFile)
+	throws
+		java.io.IOException
+	{
+		final Builder builder = new Builder();
+		new BlockFinder(pstFile).visitLeaves(pstFile.header.bbtRoot, builder);
+
+		long[] bid = java.util.Arrays.copyOf(builder.bid, builder.size);
+		long[] ib = java.util.Arrays.copyOf(builder.ib, builder.size);
+		int[] cb = java.util.Arrays.copyOf(builder.cb, builder.size);
+		short[] cRef = java.util.Arrays.copyOf(builder.cRef, builder.size);
+
+		if (!BTree.isSorted(bid)) {
+			final Integer[] order = new Integer[bid.length];
+			for (int i = 0; i < order.length; ++i)
+				order[i] = i;
+			final long[] keys = bid;
+			java.util.Arrays.sort(order, (a, b) -> Long.compare(keys[a], keys[b]));
+
+			final long[] sortedBid = new long[order.length];
+			final long[] sortedIb = new long[order.length];
+			final int[] sortedCb = new int[order.length];
+			final short[] sortedCRef = new short[order.length];
+			for (int i = 0; i < order.length; ++i) {
+				sortedBid[i] = bid[order[i]];
+				sortedIb[i] = ib[order[i]];
+				sortedCb[i] = cb[order[i]];
+				sortedCRef[i] = cRef[order[i]];
+			}
+			bid = sortedBid;
+			ib = sortedIb;
+			cb = sortedCb;
+			cRef = sortedCRef;
+		}
+
+		this.bid = bid;
+		this.ib = ib;
+		this.cb = cb;
+		this.cRef = cRef;
+	}
+
+	/**	Create a compact block map from a snapshot written by {@link #write}.
+	*	@param	byteBuffer	The buffer holding the snapshot, positioned at its start. On return it is positioned just past
+	*				the end of the snapshot.
+	*	@throws	java.nio.BufferUnderflowException	The snapshot is incomplete.
+	*	@see	SidecarIndex
+	*/
+	CompactBlockMap(final java.nio.ByteBuffer byteBuffer)
+	throws
+		java.nio.BufferUnderflowException
+	{
+		final int size = byteBuffer.getInt();
+		bid = new long[size];
+		byteBuffer.asLongBuffer().get(bid);
+		byteBuffer.position(byteBuffer.position() + size * 8);
+		ib = new long[size];
+		byteBuffer.asLongBuffer().get(ib);
+		byteBuffer.position(byteBuffer.position() + size * 8);
+		cb = new int[size];
+		byteBuffer.asIntBuffer().get(cb);
+		byteBuffer.position(byteBuffer.position() + size * 4);
+		cRef = new short[size];
+		byteBuffer.asShortBuffer().get(cRef);
+		byteBuffer.position(byteBuffer.position() + size * 2);
+	}
+
+	/**	Create a block B-tree leaf entry for the block at the given index.
+	*	@param	index	The index of the block in the map.
+	*	@return	A block B-tree leaf entry for the requested block.
+	*/
+	BBTEntry entry(final int index)
+	{
+		return new BBTEntry(new BREF(new BID(bid[index]), new IB(ib[index])), numBytes(index), totalBytes(index), cRef[index] & 0xffff);
+	}
+
+	/**	{@inheritDoc} */
+	@Override
+	public BBTEntry find(final BID bid)
+	{
+		final int index = indexOf(bid);
+		return index < 0 ? null : entry(index);
+	}
+
+	/**	Find the index of the given block in the map.
+	*	@param	bid	The block ID to look for.
+	*	@return	The index of the block, or a negative number if it is not present.
+	*/
+	int indexOf(final BID bid)
+	{
+		return java.util.Arrays.binarySearch(this.bid, bid.key());
+	}
+
+	/**	Obtain the file offset of the block at the given index without creating a {@link BBTEntry}.
+	*	@param	index	The index of the block in the map.
+	*	@return	The position of the block in the file.
+	*/
+	long ib(final int index)
+	{
+		return ib[index];
+	}
+
+	/**	Obtain the stored size of the block at the given index without creating a {@link BBTEntry}.
+	*	@param	index	The index of the block in the map.
+	*	@return	The number of bytes of data stored in the block.
+	*/
+	int numBytes(final int index)
+	{
+		return cb[index] & 0xffff;
+	}
+
+	/**	Obtain the inflated size of the block at the given index without creating a {@link BBTEntry}.
+	*	@param	index	The index of the block in the map.
+	*	@return	The number of bytes of data in the block once it has been inflated.
+	*/
+	int totalBytes(final int index)
+	{
+		return cb[index] >>> 16;
+	}
+
+	/**	Obtain the number of blocks in the map.
+	*	@return	The number of blocks in the block B-tree.
+	*/
+	int size()
+	{
+		return bid.length;
+	}
+
+	/**	Write a snapshot of the map which may be read back with {@link #CompactBlockMap(java.nio.ByteBuffer)}.
+	*	@param	out	The stream to write the snapshot to.
+	*	@throws	java.io.IOException	The snapshot could not be written.
+	*	@see	SidecarIndex
+	*/
+	void write(final java.io.DataOutputStream out)
+	throws
+		java.io.IOException
+	{
+		out.writeInt(bid.length);
+		for (final long v : bid)
+			out.writeLong(v);
+		for (final long v : ib)
+			out.writeLong(v);
+		for (final int v : cb)
+			out.writeInt(v);
+		for (final short v : cRef)
+			out.writeShort(v);
+	}
+
+	/**	Test this class by reading in the block B-tree and looking for each block in the compact map.
+	*	@param	args	The pst files to run the test on.
+	*/
+	@SuppressWarnings("PMD.DoNotCallSystemExit")
+	public static void main(final String[] args)
+	{
+		if (args.length == 0) {
+			System.out.println("use:\n\tjava io.github.jmcleodfoss.pst.CompactBlockMap pst-file [pst-file ...]");
+			System.exit(1);
+		}
+
+		for (final String a: args) {
+			System.out.println(a);
+			try {
+				java.io.FileInputStream stream = new java.io.FileInputStream(a);
+				final PSTFile pstFile = new PSTFile(stream);
+				try {
+					final BlockBTree bbt = new BlockBTree(0, pstFile.header.bbtRoot, pstFile);
+					final CompactBlockMap cbm = new CompactBlockMap(pstFile);
+
+					int discrepancies = 0;
+					int bids = 0;
+					java.util.Iterator<BTreeNode> iterator = bbt.iterator();
+					while (iterator.hasNext()) {
+						++bids;
+						final BBTEntry treeEntry = (BBTEntry)iterator.next();
+						final BBTEntry mapEntry = cbm.find(treeEntry.bref.bid);
+						if (mapEntry == null || !treeEntry.toString().equals(mapEntry.toString()))
+							++discrepancies;
+					}
+					if (discrepancies == 0 && bids == cbm.size())
+						System.out.printf("Success: all %d BIDs found%n", bids);
+					else
+						System.out.printf("Failure: %d out of %d BIDs not found or different; map has %d entries%n", discrepancies, bids, cbm.size());
+				} finally {
+					try {
+						pstFile.close();
+					} catch (final java.io.IOException e) {
+						System.out.printf("There was a problem closing file %s%n", a);
+					}
+				}
+			} catch (final CRCMismatchException e) {
+				System.out.printf("File %s is corrupt (Calculated CRC does not match expected value)%n", a);
+			} catch (final NotPSTFileException e) {
+				System.out.printf("File %s is not a pst file%n", a);
+			} catch (final java.io.FileNotFoundException e) {
+				System.out.printf("File %s not found%n", a);
+			} catch (final java.io.IOException e) {
+				System.out.printf("Could not read %s%n", a);
+				e.printStackTrace(System.out);
+			}
+		}
+	}
+}
@@ -0,0 +1,304 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The CompactNodeMap class holds the leaf entries of the node B-tree in sorted parallel arrays of primitives rather than as
+*	a tree of objects. Lookups use a binary search on the node IDs, and {@link NBTEntry} objects are created only when a node
+*	is requested, so memory use is a small fraction of that of {@link NodeBTree} while lookups remain fast.
+*	@see	NodeBTree
+*	@see	NodeFinder
+*	@see	CompactBlockMap
+*/
+class CompactNodeMap implements NodeMap
+{
+	/**	The node ID keys, in ascending order. */
+	private final int[] nid;
+
+	/**	The search key of the data block ID of each node. */
+	private final long[] bidData;
+
+	/**	The search key of the sub-node block ID of each node. */
+	private final long[] bidSubnode;
+
+	/**	The node ID key of the parent of each node. */
+	private final int[] nidParent;
+
+	/**	The Builder class collects the node B-tree leaf entries as the node B-tree is walked. */
+	private static class Builder implements java.util.function.Consumer<BTreeLeaf>
+	{
+		/**	The number of entries collected so far. */
+		private int size;
+
+		/**	The node ID keys collected so far. */
+		private int[] nid = new int[1024];
+
+		/**	The data block IDs collected so far. */
+		private long[] bidData = new long[1024];
+
+		/**	The sub-node block IDs collected so far. */
+		private long[] bidSubnode = new long[1024];
+
+		/**	The parent node ID keys collected so far. */
+		private int[] nidParent = new int[1024];
+
+		/**	Add the given node B-tree leaf entry to the arrays.
+		*	@param	leaf	The node B-tree leaf entry to add.
+		*/
+		@Override
+		public void accept(BTreeLeaf leaf)
+		{
+			if (size == nid.length) {
+				final int newLength = nid.length * 2;
+				nid = java.util.Arrays.copyOf(nid, newLength);
+				bidData = java.util.Arrays.copyOf(bidData, newLength);
+				bidSubnode = java.util.Arrays.copyOf(bidSubnode, newLength);
+				nidParent = java.util.Arrays.copyOf(nidParent, newLength);
+			}
+
+			final NBTEntry entry = (NBTEntry)leaf;
+			nid[size] = entry.nid.key;
+			bidData[size] = entry.bidData.key();
+			bidSubnode[size] = entry.bidSubnode.key();
+			nidParent[size] = entry.nidParent.key;
+			++size;
+		}
+	}
+
+	/**	The Iterator class allows iteration through the nodes in the map in node ID order. */
+	private class Iterator implements java.util.Iterator<BTreeNode>
+	{
+		/**	The index of the next node to return. */
+		private int next;
+
+		/**	{@inheritDoc} */
+		@Override
+		public boolean hasNext()
+		{
+			return next < nid.length;
+		}
+
+		/**	{@inheritDoc} */
+		@Override
+		public BTreeNode next()
+		{
+			if (next >= nid.length)
+				throw new java.util.NoSuchElementException();
+			return entry(next++);
+		}
+	}
+
+	/**	Create a compact node map by walking the node B-tree of the given PST file one page at a time.
+	*	@param	pstFile	The PST file's header, input data stream, etc.
+	*	@throws	java.io.IOException	An I/O error was encountered while reading the node B-tree.
+	*/
+	CompactNodeMap(PSTFile pstFile)
+	throws
+		java.io.IOException
+	{
+		final Builder builder = new Builder();
+		new NodeFinder(pstFile).visitLeaves(pstFile.header.nbtRoot, builder);
+
+		int[] nid = java.util.Arrays.copyOf(builder.nid, builder.size);
+		long[] bidData = java.util.Arrays.copyOf(builder.bidData, builder.size);
+		long[] bidSubnode = java.util.Arrays.copyOf(builder.bidSubnode, builder.size);
+		int[] nidParent = java.util.Arrays.copyOf(builder.nidParent, builder.size);
+
+		boolean fSorted = true;
+		for (int i = 1; i < nid.length && fSorted; ++i)
+			fSorted = nid[i-1] <= nid[i];
+
+		if (!fSorted) {
+			final Integer[] order = new Integer[nid.length];
+			for (int i = 0; i < order.length; ++i)
+				order[i] = i;
+			final int[] keys = nid;
+			java.util.Arrays.sort(order, (a, b) -> Integer.compare(keys[a], keys[b]));
+
+			final int[] sortedNid = new int[order.length];
+			final long[] sortedBidData = new long[order.length];
+			final long[] sortedBidSubnode = new long[order.length];
+			final int[] sortedNidParent = new int[order.length];
+			for (int i = 0; i < order.length; ++i) {
+				sortedNid[i] = nid[order[i]];
+				sortedBidData[i] = bidData[order[i]];
+				sortedBidSubnode[i] = bidSubnode[order[i]];
+				sortedNidParent[i] = nidParent[order[i]];
+			}
+			nid = sortedNid;
+			bidData = sortedBidData;
+			bidSubnode = sortedBidSubnode;
+			nidParent = sortedNidParent;
+		}
+
+		this.nid = nid;
+		this.bidData = bidData;
+		this.bidSubnode = bidSubnode;
+		this.nidParent = nidParent;
+	}
+
+	/**	Create a compact node map from a snapshot written by {@link #write}.
+	*	@param	byteBuffer	The buffer holding the snapshot, positioned at its start. On return it is positioned just past
+	*				the end of the snapshot.
+	*	@throws	java.nio.BufferUnderflowException	The snapshot is incomplete.
+	*	@see	SidecarIndex
+	*/
+	CompactNodeMap(final java.nio.ByteBuffer byteBuffer)
+	throws
+		java.nio.BufferUnderflowException
+	{
+		final int size = byteBuffer.getInt();
+		nid = new int[size];
+		byteBuffer.asIntBuffer().get(nid);
+		byteBuffer.position(byteBuffer.position() + size * 4);
+		bidData = new long[size];
+		byteBuffer.asLongBuffer().get(bidData);
+		byteBuffer.position(byteBuffer.position() + size * 8);
+		bidSubnode = new long[size];
+		byteBuffer.asLongBuffer().get(bidSubnode);
+		byteBuffer.position(byteBuffer.position() + size * 8);
+		nidParent = new int[size];
+		byteBuffer.asIntBuffer().get(nidParent);
+		byteBuffer.position(byteBuffer.position() + size * 4);
+	}
+
+	/**	Create a node B-tree leaf entry for the node at the given index.
+	*	@param	index	The index of the node in the map.
+	*	@return	A node B-tree leaf entry for the requested node.
+	*/
+	NBTEntry entry(final int index)
+	{
+		return new NBTEntry(new NID(nid[index]), new BID(bidData[index]), new BID(bidSubnode[index]), new NID(nidParent[index]));
+	}
+
+	/**	{@inheritDoc} */
+	@Override
+	public NBTEntry find(final NID nid)
+	{
+		final int index = indexOf(nid);
+		return index < 0 ? null : entry(index);
+	}
+
+	/**	Find the index of the given node in the map.
+	*	@param	nid	The node ID to look for.
+	*	@return	The index of the node, or a negative number if it is not present.
+	*/
+	int indexOf(final NID nid)
+	{
+		return java.util.Arrays.binarySearch(this.nid, nid.key);
+	}
+
+	/**	Obtain the data block ID search key of the node at the given index without creating an {@link NBTEntry}.
+	*	@param	index	The index of the node in the map.
+	*	@return	The search key of the node's data block ID.
+	*/
+	long bidData(final int index)
+	{
+		return bidData[index];
+	}
+
+	/**	Obtain the sub-node block ID search key of the node at the given index without creating an {@link NBTEntry}.
+	*	@param	index	The index of the node in the map.
+	*	@return	The search key of the node's sub-node block ID.
+	*/
+	long bidSubnode(final int index)
+	{
+		return bidSubnode[index];
+	}
+
+	/**	Obtain the parent node ID key of the node at the given index without creating an {@link NBTEntry}.
+	*	@param	index	The index of the node in the map.
+	*	@return	The key of the node's parent node ID.
+	*/
+	int nidParent(final int index)
+	{
+		return nidParent[index];
+	}
+
+	/**	Provide an iterator over the nodes in the map.
+	*	@return	An iterator which returns the nodes as {@link NBTEntry} objects in node ID order.
+	*/
+	java.util.Iterator<BTreeNode> iterator()
+	{
+		return new Iterator();
+	}
+
+	/**	Obtain the number of nodes in the map.
+	*	@return	The number of nodes in the node B-tree.
+	*/
+	int size()
+	{
+		return nid.length;
+	}
+
+	/**	Write a snapshot of the map which may be read back with {@link #CompactNodeMap(java.nio.ByteBuffer)}.
+	*	@param	out	The stream to write the snapshot to.
+	*	@throws	java.io.IOException	The snapshot could not be written.
+	*	@see	SidecarIndex
+	*/
+	void write(final java.io.DataOutputStream out)
+	throws
+		java.io.IOException
+	{
+		out.writeInt(nid.length);
+		for (final int v : nid)
+			out.writeInt(v);
+		for (final long v : bidData)
+			out.writeLong(v);
+		for (final long v : bidSubnode)
+			out.writeLong(v);
+		for (final int v : nidParent)
+			out.writeInt(v);
+	}
+
+	/**	Test this class by reading in the node B-tree and looking for each node in the compact map.
+	*	@param	args	The pst files to run the test on.
+	*/
+	@SuppressWarnings("PMD.DoNotCallSystemExit")
+	public static void main(final String[] args)
+	{
+		if (args.length == 0) {
+			System.out.println("use:\n\tjava io.github.jmcleodfoss.pst.CompactNodeMap pst-file [pst-file ...]");
+			System.exit(1);
+		}
+
+		for (final String a: args) {
+			System.out.println(a);
+			try {
+				java.io.FileInputStream stream = new java.io.FileInputStream(a);
+				final PSTFile pstFile = new PSTFile(stream);
+				try {
+					final NodeBTree nbt = new NodeBTree(0, pstFile.header.nbtRoot, pstFile);
+					final CompactNodeMap cnm = new CompactNodeMap(pstFile);
+
+					int discrepancies = 0;
+					int nids = 0;
+					java.util.Iterator<BTreeNode> iterator = nbt.iterator();
+					while (iterator.hasNext()) {
+						++nids;
+						final NBTEntry treeEntry = (NBTEntry)iterator.next();
+						final NBTEntry mapEntry = cnm.find(treeEntry.nid);
+						if (mapEntry == null || !treeEntry.toString().equals(mapEntry.toString()))
+							++discrepancies;
+					}
+					if (discrepancies == 0 && nids == cnm.size())
+						System.out.printf("Success: all %d NIDs found%n", nids);
+					else
+						System.out.printf("Failure: %d out of %d NIDs not found or different; map has %d entries%n", discrepancies, nids, cnm.size());
+				} finally {
+					try {
+						pstFile.close();
+					} catch (final java.io.IOException e) {
+						System.out.printf("There was a problem closing file %s%n", a);
+					}
+				}
+			} catch (final CRCMismatchException e) {
+				System.out.printf("File %s is corrupt (Calculated CRC does not match expected value)%n", a);
+			} catch (final NotPSTFileException e) {
+				System.out.printf("File %s is not a pst file%n", a);
+			} catch (final java.io.FileNotFoundException e) {
+				System.out.printf("File %s not found%n", a);
+			} catch (final java.io.IOException e) {
+				System.out.printf("Could not read %s%n", a);
+				e.printStackTrace(System.out);
+			}
+		}
+	}
+}
@@ -26,16 +26,6 @@ package io.github.jmcleodfoss.pst;
 */
 public class Contact extends MessageObject
 {
-	/**	The tags under which to look up the email addresses. */
-	private static final int[] emailAddressLIDLookup = {
-		PropertyLIDs.Email1EmailAddress,
-		PropertyLIDs.Email2EmailAddress,
-		PropertyLIDs.Email3EmailAddress
-	};
-
-	/**	The property ID of the "Email 1 Address" property. */
-	private static int[] emailAddressLIDs = { PropertyLIDs.UNKNOWN, PropertyLIDs.UNKNOWN, PropertyLIDs.UNKNOWN};
-
 	/**	The display name for the contact. */
 	public final String displayName;
 
@@ -118,23 +108,13 @@ public class Contact extends MessageObject
 		otherPhone = (String)contentsTable.get(row, fUnicode ? PropertyTags.OtherTelephoneNumberW : PropertyTags.OtherTelephoneNumber);
 
 		emailAddresses = new java.util.ArrayList<String>(3);
-		for (int propId : emailAddressLIDs) {
+		for (int propId : pstFile.namedPropertyIDs.emailAddresses) {
 			String emailAddress = (String)contentsTable.get(row, propId);
 			if (emailAddress != null)
 				emailAddresses.add(emailAddress);
 		}
 	}
 
-	/**	Save named property IDs for IDs of interest.
-	*	@param	namedProperties	The list of named properties.
-	*	@param	fUnicode	Whether the current PST file is a Unicode file or not.
-	*/
-	static void initConstants(NameToIDMap namedProperties, boolean fUnicode)
-	{
-		for (int i = 0; i < emailAddressLIDLookup.length; ++i)
-			emailAddressLIDs[i] = namedProperties.id(emailAddressLIDLookup[i], fUnicode ? DataType.STRING : DataType.STRING_8);
-	}
-
 	/**	Provide a String describing the contact (used primarily for testing)
 	*	@return	A String describing the contact
 	*/
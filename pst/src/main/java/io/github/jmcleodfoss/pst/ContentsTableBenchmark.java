@@ -0,0 +1,459 @@
+package io.github.jmcleodfoss.pst;
+
+/**	Measure the memory allocated and the time taken to open a large contents table, as when a folder is opened, in a Unicode
+*	PST file built for the purpose. The table's heap-on-node spans several blocks and holds a separate subject string for
+*	every message, and its row matrix is stored in a sub-node, as in a real file.
+*/
+class ContentsTableBenchmark
+{
+	/**	The offset of the first block in the file. */
+	private static final int FIRST_BLOCK_OFFSET = 1024;
+
+	/**	The maximum number of bytes of data in a block. */
+	private static final int MAX_BLOCK_DATA = 8192 - 16;
+
+	/**	The size of the heap-on-node header at the start of the first heap block. */
+	private static final int HN_HEADER_SIZE = 12;
+
+	/**	The size of the heap-on-node page header at the start of subsequent heap blocks. */
+	private static final int HN_PAGE_HEADER_SIZE = 2;
+
+	/**	The maximum number of heap blocks before a heap-on-node bitmap header is required. */
+	private static final int MAX_HEAP_BLOCKS = 8;
+
+	/**	The maximum number of records in a row index B-tree-on-heap leaf. */
+	private static final int ROW_INDEX_RECORDS_PER_LEAF = 400;
+
+	/**	The node ID of the row matrix sub-node. */
+	private static final int ROW_MATRIX_NID = 0x3f;
+
+	/**	The delivery time of the first message. */
+	private static final long DELIVERY_TIME = 1_600_000_000_000L;
+
+	/**	The number of milliseconds between the PST epoch (1601-01-01) and the Java epoch (1970-01-01). */
+	private static final long PST_EPOCH_OFFSET_MILLIS = 11_644_473_600_000L;
+
+	/**	The contents table columns, in row order: tag, offset, and width. Strings are stored in the heap, so their columns
+	*	hold HIDs.
+	*/
+	private static final int[][] COLUMNS = {
+		{PropertyTags.LtpRowId, 0, 4},
+		{PropertyTags.MessageFlags, 4, 4},
+		{PropertyTags.MessageClassW, 8, 4},
+		{PropertyTags.SubjectW, 12, 4},
+		{PropertyTags.MessageSize, 16, 4},
+		{PropertyTags.MessageDeliveryTime, 20, 8}
+	};
+
+	/**	The size of the values in a row, before the cell existence bitmap. */
+	private static final int ROW_VALUES_SIZE = 28;
+
+	/**	The size of a row, including the cell existence bitmap. */
+	private static final int ROW_SIZE = ROW_VALUES_SIZE + 1;
+
+	/**	The Heap class builds a heap-on-node, starting a new block whenever the next allocation does not fit in the current
+	*	one.
+	*/
+	private static class Heap
+	{
+		/**	The allocations in each block. */
+		private final java.util.List<java.util.List<byte[]>> blocks = new java.util.ArrayList<java.util.List<byte[]>>();
+
+		/**	The number of bytes of allocations in the current block. */
+		private int blockBytes;
+
+		/**	Add an allocation to the heap.
+		*	@param	data	The allocation.
+		*	@return	The HID of the allocation.
+		*/
+		int add(final byte[] data)
+		{
+			if (blocks.isEmpty() || !fits(blocks.size() - 1, blocks.get(blocks.size() - 1).size() + 1, blockBytes + data.length)) {
+				if (blocks.size() == MAX_HEAP_BLOCKS)
+					throw new IllegalArgumentException("Too many rows: the heap-on-node needs more than " + MAX_HEAP_BLOCKS + " blocks");
+				blocks.add(new java.util.ArrayList<byte[]>());
+				blockBytes = 0;
+			}
+
+			final java.util.List<byte[]> block = blocks.get(blocks.size() - 1);
+			block.add(data);
+			blockBytes += data.length;
+			return (blocks.size() - 1) << 16 | block.size() << 5;
+		}
+
+		/**	Will the given allocations fit in a heap block?
+		*	@param	iBlock		The index of the block.
+		*	@param	numAllocations	The number of allocations in the block.
+		*	@param	numBytes	The number of bytes of allocations in the block.
+		*	@return	true if the allocations and the page map fit in a block, false otherwise.
+		*/
+		private static boolean fits(final int iBlock, final int numAllocations, final int numBytes)
+		{
+			return pageMapOffset(iBlock, numBytes) + 4 + 2*(numAllocations + 1) <= MAX_BLOCK_DATA;
+		}
+
+		/**	Obtain the offset of the page map in a heap block.
+		*	@param	iBlock		The index of the block.
+		*	@param	numBytes	The number of bytes of allocations in the block.
+		*	@return	The offset of the page map, which is aligned to an even offset.
+		*/
+		private static int pageMapOffset(final int iBlock, final int numBytes)
+		{
+			final int size = (iBlock == 0 ? HN_HEADER_SIZE : HN_PAGE_HEADER_SIZE) + numBytes;
+			return size + size % 2;
+		}
+
+		/**	Obtain the number of allocations in the heap.
+		*	@return	The number of allocations in all blocks of the heap.
+		*/
+		int numAllocations()
+		{
+			int n = 0;
+			for (final java.util.List<byte[]> block : blocks)
+				n += block.size();
+			return n;
+		}
+
+		/**	Create the heap blocks.
+		*	@param	hidUserRoot	The HID of the table context's TCINFO.
+		*	@return	The data for each heap block.
+		*/
+		java.util.List<byte[]> blocks(final int hidUserRoot)
+		{
+			final java.util.List<byte[]> data = new java.util.ArrayList<byte[]>(blocks.size());
+			for (int iBlock = 0; iBlock < blocks.size(); ++iBlock) {
+				final java.util.List<byte[]> allocations = blocks.get(iBlock);
+				int numBytes = 0;
+				for (final byte[] allocation : allocations)
+					numBytes += allocation.length;
+				final int ibHnpm = pageMapOffset(iBlock, numBytes);
+
+				final java.nio.ByteBuffer block = allocate(ibHnpm + 4 + 2*(allocations.size() + 1));
+				block.putShort((short)ibHnpm);
+				if (iBlock == 0)
+					block.put((byte)0xec).put((byte)0x7c).putInt(hidUserRoot).putInt(0);
+
+				final int[] offsets = new int[allocations.size() + 1];
+				for (int i = 0; i < allocations.size(); ++i) {
+					offsets[i] = block.position();
+					block.put(allocations.get(i));
+				}
+				offsets[allocations.size()] = block.position();
+
+				block.position(ibHnpm);
+				block.putShort((short)allocations.size()).putShort((short)0);
+				for (final int offset : offsets)
+					block.putShort((short)offset);
+				data.add(bytes(block));
+			}
+			return data;
+		}
+	}
+
+	/**	The Blocks class collects the blocks of a PST file, assigning block IDs in order, and lays them out in the file. */
+	private static class Blocks
+	{
+		/**	The block IDs. */
+		private final java.util.List<Long> bids = new java.util.ArrayList<Long>();
+
+		/**	The block data. */
+		private final java.util.List<byte[]> data = new java.util.ArrayList<byte[]>();
+
+		/**	Add a block.
+		*	@param	block		The block data.
+		*	@param	fInternal	Whether the block is an internal (XBLOCK or SLBLOCK) block.
+		*	@return	The block ID assigned to the block.
+		*/
+		long add(final byte[] block, final boolean fInternal)
+		{
+			final long bid = 4L * (bids.size() + 1) | (fInternal ? 2 : 0);
+			bids.add(bid);
+			data.add(block);
+			return bid;
+		}
+
+		/**	Add an XBLOCK listing the given blocks.
+		*	@param	children	The block IDs of the data blocks.
+		*	@param	lcbTotal	The total number of bytes in the data blocks.
+		*	@return	The block ID assigned to the XBLOCK.
+		*/
+		long addXBlock(final java.util.List<Long> children, final int lcbTotal)
+		{
+			final java.nio.ByteBuffer xblock = allocate(8 + 8*children.size());
+			xblock.put((byte)1).put((byte)1).putShort((short)children.size()).putInt(lcbTotal);
+			for (final long bid : children)
+				xblock.putLong(bid);
+			return add(bytes(xblock), true);
+		}
+
+		/**	Obtain the size of a block in the file.
+		*	@param	numBytes	The number of bytes of data in the block.
+		*	@return	The size of the block including its trailer, rounded up to a multiple of 64 bytes.
+		*/
+		private static int blockSize(final int numBytes)
+		{
+			return (numBytes + 16 + 63) / 64 * 64;
+		}
+
+		/**	Create the PST file holding a header and the blocks.
+		*	@return	The contents of the PST file.
+		*/
+		byte[] file()
+		{
+			int size = FIRST_BLOCK_OFFSET;
+			for (final byte[] block : data)
+				size += blockSize(block.length);
+			final byte[] file = new byte[size];
+			final java.nio.ByteBuffer pst = java.nio.ByteBuffer.wrap(file).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+
+			pst.putInt(0, 0x4e444221);
+			pst.putShort(8, (short)0x4d53);
+			pst.putShort(10, (short)23);
+			pst.putShort(12, (short)19);
+			pst.put(512, (byte)0x80);
+			pst.put(513, (byte)0);
+			pst.putInt(4, CRC.crc(file, 8, 471));
+			pst.putInt(524, CRC.crc(file, 8, 516));
+
+			int offset = FIRST_BLOCK_OFFSET;
+			for (int i = 0; i < data.size(); ++i) {
+				final byte[] block = data.get(i);
+				pst.put(offset, block);
+				final int trailer = offset + blockSize(block.length) - 16;
+				pst.putShort(trailer, (short)block.length);
+				pst.putInt(trailer + 4, CRC.crc(block, 0, block.length));
+				pst.putLong(trailer + 8, bids.get(i));
+				offset += blockSize(block.length);
+			}
+			return file;
+		}
+
+		/**	Create the block map for the blocks, in the form of a compact block map snapshot.
+		*	@return	The block map.
+		*/
+		BlockMap blockMap()
+		{
+			final int n = bids.size();
+			final java.nio.ByteBuffer snapshot = java.nio.ByteBuffer.allocate(4 + n*(8 + 8 + 4 + 2));
+			snapshot.putInt(n);
+			for (final long bid : bids)
+				snapshot.putLong(bid);
+			int offset = FIRST_BLOCK_OFFSET;
+			for (final byte[] block : data) {
+				snapshot.putLong(offset);
+				offset += blockSize(block.length);
+			}
+			for (final byte[] block : data)
+				snapshot.putInt(block.length | block.length << 16);
+			for (int i = 0; i < n; ++i)
+				snapshot.putShort((short)2);
+			snapshot.flip();
+			return new CompactBlockMap(snapshot);
+		}
+	}
+
+	/**	The contents of the synthetic PST file. */
+	private final byte[] file;
+
+	/**	The block map for the synthetic file. */
+	private final BlockMap bbt;
+
+	/**	The contents table node. */
+	private final NBTEntry node;
+
+	/**	The number of allocations in the contents table heap-on-node. */
+	private final int numAllocations;
+
+	/**	The number of blocks in the contents table heap-on-node. */
+	private final int numHeapBlocks;
+
+	/**	Build a PST file holding a contents table with the given number of rows.
+	*	@param	numRows	The number of rows in the contents table.
+	*/
+	private ContentsTableBenchmark(final int numRows)
+	{
+		final Heap heap = new Heap();
+
+		final int hidMessageClass = heap.add("IPM.Note".getBytes(java.nio.charset.StandardCharsets.UTF_16LE));
+		final int[] hidSubject = new int[numRows];
+		for (int r = 0; r < numRows; ++r)
+			hidSubject[r] = heap.add(String.format("Message subject %06d", r).getBytes(java.nio.charset.StandardCharsets.UTF_16LE));
+
+		final int numLeaves = (numRows + ROW_INDEX_RECORDS_PER_LEAF - 1) / ROW_INDEX_RECORDS_PER_LEAF;
+		final java.nio.ByteBuffer rowIndexRoot = allocate(8*numLeaves);
+		for (int leaf = 0; leaf < numLeaves; ++leaf) {
+			final int first = leaf * ROW_INDEX_RECORDS_PER_LEAF;
+			final int n = Math.min(ROW_INDEX_RECORDS_PER_LEAF, numRows - first);
+			final java.nio.ByteBuffer records = allocate(8*n);
+			for (int r = first; r < first + n; ++r)
+				records.putInt(nid(r)).putInt(r);
+			rowIndexRoot.putInt(nid(first)).putInt(heap.add(bytes(records)));
+		}
+		final int hidRowIndex = heap.add(bytes(allocate(8).put((byte)0xb5).put((byte)4).put((byte)4).put((byte)1).putInt(heap.add(bytes(rowIndexRoot)))));
+
+		final java.nio.ByteBuffer tcInfo = allocate(22 + 8*COLUMNS.length);
+		tcInfo.put((byte)0x7c).put((byte)COLUMNS.length);
+		tcInfo.putShort((short)ROW_VALUES_SIZE).putShort((short)ROW_VALUES_SIZE).putShort((short)ROW_VALUES_SIZE).putShort((short)ROW_SIZE);
+		tcInfo.putInt(hidRowIndex).putInt(ROW_MATRIX_NID).putInt(0);
+		for (int c = 0; c < COLUMNS.length; ++c)
+			tcInfo.putInt(COLUMNS[c][0]).putShort((short)COLUMNS[c][1]).put((byte)COLUMNS[c][2]).put((byte)c);
+		final int hidTCInfo = heap.add(bytes(tcInfo));
+
+		final Blocks blocks = new Blocks();
+
+		final java.util.List<byte[]> heapBlocks = heap.blocks(hidTCInfo);
+		final java.util.List<Long> heapBids = new java.util.ArrayList<Long>();
+		int heapBytes = 0;
+		for (final byte[] block : heapBlocks) {
+			heapBids.add(blocks.add(block, false));
+			heapBytes += block.length;
+		}
+		final long bidHeap = heapBlocks.size() == 1 ? heapBids.get(0) : blocks.addXBlock(heapBids, heapBytes);
+
+		final int rowsPerBlock = MAX_BLOCK_DATA / ROW_SIZE;
+		final java.util.List<Long> rowBids = new java.util.ArrayList<Long>();
+		for (int first = 0; first < numRows; first += rowsPerBlock) {
+			final int n = Math.min(rowsPerBlock, numRows - first);
+			final java.nio.ByteBuffer rows = allocate(n*ROW_SIZE);
+			for (int r = first; r < first + n; ++r)
+				rows.putInt(nid(r)).putInt(r % 4).putInt(hidMessageClass).putInt(hidSubject[r]).putInt(1000 + r).putLong(fileTime(DELIVERY_TIME + 60000L*r)).put((byte)0xfc);
+			rowBids.add(blocks.add(bytes(rows), false));
+		}
+		final long bidRows = rowBids.size() == 1 ? rowBids.get(0) : blocks.addXBlock(rowBids, numRows*ROW_SIZE);
+
+		final java.nio.ByteBuffer slBlock = allocate(8 + 24);
+		slBlock.put((byte)2).put((byte)0).putShort((short)1).putInt(0);
+		slBlock.putLong(ROW_MATRIX_NID).putLong(bidRows).putLong(0);
+		final long bidSubnode = blocks.add(bytes(slBlock), true);
+
+		file = blocks.file();
+		bbt = blocks.blockMap();
+		node = new NBTEntry(new NID(0x8e), new BID(bidHeap), new BID(bidSubnode), new NID(0x122));
+		numAllocations = heap.numAllocations();
+		numHeapBlocks = heapBlocks.size();
+	}
+
+	/**	Create a little-endian buffer for building a structure.
+	*	@param	size	The size of the structure.
+	*	@return	A buffer of the given size.
+	*/
+	private static java.nio.ByteBuffer allocate(final int size)
+	{
+		return java.nio.ByteBuffer.allocate(size).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**	Copy the contents of a buffer created by {@link #allocate}.
+	*	@param	buffer	The buffer to copy.
+	*	@return	The bytes from the start of the buffer to its capacity.
+	*/
+	private static byte[] bytes(final java.nio.ByteBuffer buffer)
+	{
+		final byte[] data = new byte[buffer.capacity()];
+		buffer.get(0, data);
+		return data;
+	}
+
+	/**	Convert a time to a PST FILETIME.
+	*	@param	millis	The time in milliseconds since the Java epoch.
+	*	@return	The time in 100-nanosecond intervals since the PST epoch.
+	*/
+	private static long fileTime(final long millis)
+	{
+		return (millis + PST_EPOCH_OFFSET_MILLIS) * 10000;
+	}
+
+	/**	Obtain the node ID of the message in a row.
+	*	@param	row	The row.
+	*	@return	The message node ID for the row, in ascending order.
+	*/
+	private static int nid(final int row)
+	{
+		return 0x200004 | (row + 1) << 5;
+	}
+
+	/**	Open the contents table once in the given way.
+	*	@param	method	0 to read the heap-on-node only, 1 to open the table reading every cell, 2 to open the table lazily
+	*			and read each row's subject.
+	*	@param	pstFile	The PST file.
+	*	@return	A checksum of the values read, to check the work was done.
+	*	@throws	Exception	There was a problem reading the contents table.
+	*/
+	private long open(final int method, final PSTFile pstFile)
+	throws
+		Exception
+	{
+		switch (method) {
+		case 0:
+			return new HeapOnNode(bbt.find(node.bidData), bbt, pstFile).getSize();
+
+		case 1: {
+			final TableContext tc = new TableContext(node, bbt, pstFile);
+			return (long)tc.getRowCount() + ((String)tc.get(tc.getRowCount() - 1, PropertyTags.SubjectW)).length();
+		}
+
+		default: {
+			final TableContext tc = new TableContext(node, bbt, pstFile, java.util.Set.of(PropertyTags.LtpRowId, PropertyTags.SubjectW));
+			long checksum = 0;
+			for (int r = 0; r < tc.getRowCount(); ++r)
+				checksum += ((String)tc.get(r, PropertyTags.SubjectW)).length();
+			return checksum;
+		}
+		}
+	}
+
+	/**	Measure the memory allocated and the time taken per open of a contents table: reading its heap-on-node, opening it
+	*	and reading every cell, as when a folder's contents are listed, and opening it lazily and reading one string column.
+	*	The allocation figures rely on the HotSpot-specific com.sun.management.ThreadMXBean.
+	*	@param	args	The number of rows in the contents table (optional, default 1000), and the number of times to open it
+	*			in each pass (optional, default 2000).
+	*/
+	public static void main(final String[] args)
+	{
+		final int numRows = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		final int numOpens = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		final String[] methods = {"heap-on-node", "open eager", "open lazy + subject"};
+
+		final java.lang.management.ThreadMXBean threadMXBean = java.lang.management.ManagementFactory.getThreadMXBean();
+		final com.sun.management.ThreadMXBean allocationMXBean = threadMXBean instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean)threadMXBean : null;
+		final long threadId = Thread.currentThread().getId();
+
+		try {
+			final ContentsTableBenchmark benchmark = new ContentsTableBenchmark(numRows);
+			final java.io.File file = java.io.File.createTempFile("ContentsTableBenchmark", ".pst");
+			try {
+				java.nio.file.Files.write(file.toPath(), benchmark.file);
+				final PSTFile pstFile = new PSTFile(new java.io.FileInputStream(file));
+				try {
+					System.out.printf("%d rows, %d heap allocations in %d heap blocks%n", numRows, benchmark.numAllocations, benchmark.numHeapBlocks);
+					for (int pass = 0; pass < 3; ++pass) {
+						for (int method = 0; method < methods.length; ++method) {
+							long checksum = 0;
+							final long allocatedStart = allocationMXBean != null ? allocationMXBean.getThreadAllocatedBytes(threadId) : 0;
+							final long timeStart = System.nanoTime();
+							for (int i = 0; i < numOpens; ++i)
+								checksum += benchmark.open(method, pstFile);
+							final long elapsed = System.nanoTime() - timeStart;
+							final long allocated = allocationMXBean != null ? allocationMXBean.getThreadAllocatedBytes(threadId) - allocatedStart : -1;
+
+							// The first two passes are warm-up passes.
+							if (pass < 2)
+								continue;
+							System.out.printf("%-20s %8.1f us/open %10.0f bytes/open %8.0f MB/s allocated (checksum %d)%n",
+								methods[method],
+								(double)elapsed / numOpens / 1000,
+								allocationMXBean != null ? (double)allocated / numOpens : Double.NaN,
+								allocationMXBean != null ? (double)allocated * 1000 / elapsed : Double.NaN,
+								checksum);
+						}
+					}
+				} finally {
+					pstFile.close();
+				}
+			} finally {
+				java.nio.file.Files.deleteIfExists(file.toPath());
+			}
+		} catch (final Exception e) {
+			e.printStackTrace(System.out);
+		}
+	}
+}
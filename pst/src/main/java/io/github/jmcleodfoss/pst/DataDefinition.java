@@ -80,6 +80,73 @@ class DataDefinition
 		return s;
 	}
 
+	/**	Get the size in bytes of the named field for each of a set of data definition arrays, such as those used to describe
+	*	the same structure in different file formats.
+	*	@param	data	The lists of data definitions describing the data for each file format.
+	*	@param	name	The name of the field to find the size of.
+	*	@return	An array containing the size of the named field in each of the data definition arrays, with -1 for any data
+	*		definition array in which it is not present.
+	*/
+	static int[] fieldSizes(final DataDefinition[][] data, final String name)
+	{
+		int[] sizes = new int[data.length];
+		for (int i = 0; i < data.length; ++i) {
+			sizes[i] = -1;
+			for (final DataDefinition d : data[i]) {
+				if (d.name.equals(name)) {
+					sizes[i] = d.description.size();
+					break;
+				}
+			}
+		}
+		return sizes;
+	}
+
+	/**	Get the offset in bytes of the named field from the start of the data represented by the data array. This allows
+	*	classes which are read many times (e.g. B-tree entries) to read their fields directly from the ByteBuffer at fixed
+	*	positions, rather than through a {@link DataContainer}.
+	*	@param	data	The list of data definitions describing the data.
+	*	@param	name	The name of the field to find the offset of.
+	*	@return	The offset of the named field in bytes from the start of the data, or -1 if the field is not present.
+	*/
+	static int offset(final DataDefinition[] data, final String name)
+	{
+		int s = 0;
+		for (final DataDefinition d : data) {
+			if (d.name.equals(name))
+				return s;
+			s += d.description.size();
+		}
+		return -1;
+	}
+
+	/**	Get the offset in bytes of the named field for each of a set of data definition arrays, such as those used to
+	*	describe the same structure in different file formats.
+	*	@param	data	The lists of data definitions describing the data for each file format.
+	*	@param	name	The name of the field to find the offset of.
+	*	@return	An array containing the offset of the named field in each of the data definition arrays, with -1 for any
+	*		data definition array in which it is not present.
+	*/
+	static int[] offsets(final DataDefinition[][] data, final String name)
+	{
+		int[] offsets = new int[data.length];
+		for (int i = 0; i < data.length; ++i)
+			offsets[i] = offset(data[i], name);
+		return offsets;
+	}
+
+	/**	Get the aggregate size in bytes of each of a set of data definition arrays.
+	*	@param	data	The lists of data definitions describing the data for each file format.
+	*	@return	An array containing the size, in bytes, of the data described by each of the data definition arrays.
+	*/
+	static int[] sizes(final DataDefinition[][] data)
+	{
+		int[] sizes = new int[data.length];
+		for (int i = 0; i < data.length; ++i)
+			sizes[i] = size(data[i]);
+		return sizes;
+	}
+
 	/**	Provide a text description of this object.
 	*	@return	A String describing this data definition object.
 	*/
@@ -88,4 +155,99 @@ class DataDefinition
 	{
 		return String.format("%s %d %ssaved", name, description.size(), fSave ? "" : "not ");
 	}
+
+	/**	The fields in a record shaped like a Unicode block B-tree leaf entry, used by {@link #main}. */
+	private static final DataDefinition[] benchmark_fields = {
+		new DataDefinition("BREF", DataType.brefUnicodeReader, true),
+		new DataDefinition("cb", DataType.integer16Reader, true),
+		new DataDefinition("cRef", DataType.integer16Reader, true)
+	};
+
+	/**	Read the given number of records from the data stream through a DataContainer, wrapping round to the start of the
+	*	stream when it is exhausted.
+	*	@param	byteBuffer	The data stream from which to read the records.
+	*	@param	numRecords	The number of records to read.
+	*	@return	A checksum of the values read.
+	*	@throws	java.io.IOException	An I/O error was encountered while reading the records.
+	*/
+	private static long readWithDataContainer(final java.nio.ByteBuffer byteBuffer, final int numRecords)
+	throws
+		java.io.IOException
+	{
+		long checksum = 0;
+		byteBuffer.position(0);
+		for (int i = 0; i < numRecords; ++i) {
+			if (byteBuffer.remaining() == 0)
+				byteBuffer.position(0);
+			DataContainer dc = new DataContainer();
+			dc.read(byteBuffer, benchmark_fields);
+			checksum += ((BREF)dc.get("BREF")).bid.key() + (0xffff & (Short)dc.get("cb")) + (0xffff & (Short)dc.get("cRef"));
+		}
+		return checksum;
+	}
+
+	/**	Read the given number of records from the data stream directly from fixed offsets, wrapping round to the start of
+	*	the stream when it is exhausted.
+	*	@param	byteBuffer	The data stream from which to read the records.
+	*	@param	numRecords	The number of records to read.
+	*	@return	A checksum of the values read.
+	*/
+	private static long readWithOffsets(final java.nio.ByteBuffer byteBuffer, final int numRecords)
+	{
+		final int recordSize = size(benchmark_fields);
+		final int offsetCb = offset(benchmark_fields, "cb");
+		final int offsetCRef = offset(benchmark_fields, "cRef");
+
+		long checksum = 0;
+		byteBuffer.position(0);
+		for (int i = 0; i < numRecords; ++i) {
+			if (byteBuffer.remaining() == 0)
+				byteBuffer.position(0);
+			final int base = byteBuffer.position();
+			checksum += DataType.readBREF(byteBuffer, base, true).bid.key() + (0xffff & byteBuffer.getShort(base + offsetCb)) + (0xffff & byteBuffer.getShort(base + offsetCRef));
+			byteBuffer.position(base + recordSize);
+		}
+		return checksum;
+	}
+
+	/**	Measure the memory allocated and the time taken per record when reading records shaped like a Unicode block B-tree
+	*	leaf entry, first through a DataContainer and then directly from fixed offsets in the data stream. The allocation
+	*	figures rely on the HotSpot-specific com.sun.management.ThreadMXBean.
+	*	@param	args	The number of records to read (optional, default 1,000,000).
+	*/
+	public static void main(final String[] args)
+	{
+		final int numRecords = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+		final byte[] data = new byte[size(benchmark_fields) * 1024];
+		new java.util.Random(0).nextBytes(data);
+		final java.nio.ByteBuffer byteBuffer = PSTFile.makeByteBuffer(data);
+
+		final java.lang.management.ThreadMXBean threadMXBean = java.lang.management.ManagementFactory.getThreadMXBean();
+		final com.sun.management.ThreadMXBean allocationMXBean = threadMXBean instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean)threadMXBean : null;
+		final long threadId = Thread.currentThread().getId();
+
+		try {
+			for (int pass = 0; pass < 3; ++pass) {
+				for (int method = 0; method < 2; ++method) {
+					final long allocatedStart = allocationMXBean != null ? allocationMXBean.getThreadAllocatedBytes(threadId) : 0;
+					final long timeStart = System.nanoTime();
+					final long checksum = method == 0 ? readWithDataContainer(byteBuffer, numRecords) : readWithOffsets(byteBuffer, numRecords);
+					final long elapsed = System.nanoTime() - timeStart;
+					final long allocated = allocationMXBean != null ? allocationMXBean.getThreadAllocatedBytes(threadId) - allocatedStart : -1;
+
+					// The first two passes are warm-up passes.
+					if (pass < 2)
+						continue;
+					System.out.printf("%-13s %8.1f ns/record %8.1f bytes/record (checksum %d)%n",
+						method == 0 ? "DataContainer" : "fixed offset",
+						(double)elapsed / numRecords,
+						allocationMXBean != null ? (double)allocated / numRecords : Double.NaN,
+						checksum);
+				}
+			}
+		} catch (final java.io.IOException e) {
+			e.printStackTrace(System.out);
+		}
+	}
 }
@@ -0,0 +1,350 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The DataTreeInputStream class provides the data stored in a data block or a data tree (an XBLOCK or XXBLOCK and the data
+*	blocks it refers to) as a stream. Unlike {@link BlockBase#read} followed by {@link BlockBase#data}, only a few data blocks
+*	are held in memory at a time, so arbitrarily large attachments and binary properties may be read in constant memory. Data
+*	blocks are read {@link PSTFile#readAheadBlocks} at a time, in file order, using a {@link BlockReadPlanner}. When the PST
+*	file's {@link AsyncBlockReader} is asynchronous, the next group of blocks is read while the current one is being consumed.
+*	The stream may also be used as a ReadableByteChannel. Blocks are not placed in the {@link BlockCache}, since a single large
+*	value read this way would displace the blocks which are used repeatedly.
+*	@see	XBlock
+*	@see	<a href="https://docs.microsoft.com/en-us/openspecs/office_file_formats/ms-pst/45688317-46fb-4038-9ed3-b845d80bdabb">MS-PST Section 2.2.2.8.3.2: Data Tree</a>
+*/
+class DataTreeInputStream extends java.io.InputStream implements java.nio.channels.ReadableByteChannel
+{
+	/**	The PST file's block B-tree. */
+	private final BlockMap bbt;
+
+	/**	The PST file's input stream, etc. */
+	private final PSTFile pstFile;
+
+	/**	The block B-tree entry of the data block, XBLOCK, or XXBLOCK at the root of the data tree, until it has been read. */
+	private BBTEntry root;
+
+	/**	The BIDs of the XBLOCKs listed by the root XXBLOCK, or null if the root is not an XXBLOCK. */
+	private BID[] xblocks;
+
+	/**	The index of the next XBLOCK to read from {@link #xblocks}. */
+	private int nextXBlock;
+
+	/**	The BIDs of the data blocks in the current XBLOCK (or the root data block if there is no XBLOCK), or null if the root
+	*	has not been read yet.
+	*/
+	private BID[] blocks;
+
+	/**	The index of the next data block to read from {@link #blocks}. */
+	private int nextBlock;
+
+	/**	The data in the current data block, or null if the stream has been closed. */
+	private java.nio.ByteBuffer current;
+
+	/**	The data in the data blocks which have been read ahead of the current block. */
+	private final java.util.ArrayDeque<byte[]> ahead;
+
+	/**	The data blocks being read asynchronously after those in {@link #ahead}, or null if there are none. */
+	private java.util.concurrent.CompletableFuture<byte[][]> pending;
+
+	/**	Create a stream to read the data in the data block or tree described by the given block B-tree entry.
+	*	@param	entry	The block B-tree entry of the data block, XBLOCK, or XXBLOCK.
+	*	@param	bbt	The PST file's block B-tree.
+	*	@param	pstFile	The PST file's input stream, etc.
+	*/
+	DataTreeInputStream(final BBTEntry entry, final BlockMap bbt, final PSTFile pstFile)
+	{
+		this.bbt = bbt;
+		this.pstFile = pstFile;
+		root = entry;
+		current = java.nio.ByteBuffer.allocate(0);
+		ahead = new java.util.ArrayDeque<byte[]>();
+	}
+
+	/**	Obtain the number of bytes which may be read without decoding another block.
+	*	@return	The number of bytes remaining in the current block.
+	*	@throws	java.io.IOException	The stream has been closed.
+	*/
+	@Override
+	public int available()
+	throws
+		java.io.IOException
+	{
+		ensureOpen();
+		return current.remaining();
+	}
+
+	/**	Close the stream, releasing the current block. */
+	@Override
+	public void close()
+	{
+		current = null;
+		root = null;
+		blocks = null;
+		xblocks = null;
+		ahead.clear();
+		pending = null;
+	}
+
+	/**	Wait for the blocks being read in {@link #pending} and move them to {@link #ahead}.
+	*	@throws	java.io.IOException	A block could not be read.
+	*/
+	private void takePending()
+	throws
+		java.io.IOException
+	{
+		final java.util.concurrent.CompletableFuture<byte[][]> blocks = pending;
+		pending = null;
+		try {
+			java.util.Collections.addAll(ahead, AsyncBlockReader.join(blocks));
+		} catch (final CRCMismatchException e) {
+			throw new java.io.IOException(e);
+		}
+	}
+
+	/**	Throw an exception if the stream has been closed.
+	*	@throws	java.nio.channels.ClosedChannelException	The stream has been closed.
+	*/
+	private void ensureOpen()
+	throws
+		java.nio.channels.ClosedChannelException
+	{
+		if (current == null)
+			throw new java.nio.channels.ClosedChannelException();
+	}
+
+	/**	Look up the given BID in the block B-tree.
+	*	@param	bid	The block ID to look up.
+	*	@return	The block B-tree entry for the block.
+	*	@throws	java.io.IOException	The block was not found.
+	*/
+	private BBTEntry find(final BID bid)
+	throws
+		java.io.IOException
+	{
+		final BBTEntry entry = bbt.find(bid);
+		if (entry == null)
+			throw new java.io.IOException("Block " + bid + " not found");
+		return entry;
+	}
+
+	/**	Is the stream still open?
+	*	@return	true if the stream has not been closed, false if it has.
+	*/
+	@Override
+	public boolean isOpen()
+	{
+		return current != null;
+	}
+
+	/**	Move on to the next BID of a data block, reading the next XBLOCK if the current one has been used up.
+	*	@return	The BID of the next data block, or null if there are no more data blocks.
+	*	@throws	java.io.IOException	The next XBLOCK could not be read.
+	*/
+	private BID nextBlockBID()
+	throws
+		java.io.IOException
+	{
+		if (root != null) {
+			if (root.bref.bid.fInternal) {
+				final XBlock.Header xblock = readXBlock(root);
+				if (xblock.level == 2) {
+					xblocks = xblock.bid;
+					blocks = new BID[0];
+				} else {
+					blocks = xblock.bid;
+				}
+			} else {
+				blocks = new BID[]{root.bref.bid};
+			}
+			root = null;
+		}
+
+		while (nextBlock == blocks.length) {
+			if (xblocks == null || nextXBlock == xblocks.length)
+				return null;
+
+			final XBlock.Header xblock = readXBlock(find(xblocks[nextXBlock++]));
+			if (xblock.level != 1)
+				throw new java.io.IOException(new BadXBlockLevelException(xblock.level));
+			blocks = xblock.bid;
+			nextBlock = 0;
+		}
+
+		return blocks[nextBlock++];
+	}
+
+	/**	Ensure there is data available in the current block, reading the next block if necessary.
+	*	@return	true if there is data available, false if the end of the data has been reached.
+	*	@throws	java.io.IOException	The stream has been closed, or the next block could not be read.
+	*/
+	private boolean fill()
+	throws
+		java.io.IOException
+	{
+		ensureOpen();
+		while (!current.hasRemaining()) {
+			if (ahead.isEmpty()) {
+				if (pending == null)
+					pending = readAhead();
+				if (pending == null)
+					return false;
+				takePending();
+
+				// Start on the next group of blocks while this one is consumed.
+				if (pstFile.asyncReader.isAsynchronous())
+					pending = readAhead();
+			}
+			current = java.nio.ByteBuffer.wrap(ahead.poll());
+		}
+		return true;
+	}
+
+	/**	Read one byte.
+	*	@return	The next byte, or -1 if the end of the data has been reached.
+	*	@throws	java.io.IOException	The stream has been closed, or the next block could not be read.
+	*/
+	@Override
+	public int read()
+	throws
+		java.io.IOException
+	{
+		return fill() ? 0xff & current.get() : -1;
+	}
+
+	/**	Read bytes into an array.
+	*	@param	b	The array to read into.
+	*	@param	off	The position in the array at which to start storing bytes.
+	*	@param	len	The maximum number of bytes to read.
+	*	@return	The number of bytes read, or -1 if the end of the data has been reached.
+	*	@throws	java.io.IOException	The stream has been closed, or the next block could not be read.
+	*/
+	@Override
+	public int read(final byte[] b, final int off, final int len)
+	throws
+		java.io.IOException
+	{
+		java.util.Objects.checkFromIndexSize(off, len, b.length);
+		if (len == 0)
+			return 0;
+		if (!fill())
+			return -1;
+
+		final int n = Math.min(len, current.remaining());
+		current.get(b, off, n);
+		return n;
+	}
+
+	/**	Read bytes into a buffer.
+	*	@param	dst	The buffer to read into.
+	*	@return	The number of bytes read, or -1 if the end of the data has been reached.
+	*	@throws	java.io.IOException	The stream has been closed, or the next block could not be read.
+	*/
+	@Override
+	public int read(final java.nio.ByteBuffer dst)
+	throws
+		java.io.IOException
+	{
+		if (!dst.hasRemaining()) {
+			ensureOpen();
+			return 0;
+		}
+		if (!fill())
+			return -1;
+
+		final int n = Math.min(dst.remaining(), current.remaining());
+		dst.put(current.slice(current.position(), n));
+		current.position(current.position() + n);
+		return n;
+	}
+
+	/**	Start reading the next few data blocks together, in file order.
+	*	@return	A future providing the data of the blocks, or null if the end of the data has been reached.
+	*	@throws	java.io.IOException	An XBLOCK or block B-tree entry could not be read.
+	*/
+	private java.util.concurrent.CompletableFuture<byte[][]> readAhead()
+	throws
+		java.io.IOException
+	{
+		final java.util.ArrayList<BBTEntry> entries = new java.util.ArrayList<BBTEntry>(pstFile.readAheadBlocks);
+		BID bid;
+		while (entries.size() < pstFile.readAheadBlocks && (bid = nextBlockBID()) != null)
+			entries.add(find(bid));
+		if (entries.isEmpty())
+			return null;
+
+		final byte[][] data = new byte[entries.size()][];
+		return BlockReadPlanner.readAsync(entries.toArray(new BBTEntry[0]), pstFile, (i, byteBuffer) -> {
+			final BBTEntry entry = entries.get(i);
+			data[i] = SimpleBlock.decode(entry, BlockBase.blockSize(entry.numBytes, pstFile.header.fileFormat), pstFile.encryption(), pstFile, byteBuffer);
+		}).thenApply(v -> data);
+	}
+
+	/**	Read the header of an XBLOCK or XXBLOCK.
+	*	@param	entry	The block B-tree entry of the XBLOCK or XXBLOCK.
+	*	@return	The header and child BIDs of the XBLOCK or XXBLOCK.
+	*	@throws	java.io.IOException	The block could not be read, or was not a valid XBLOCK or XXBLOCK.
+	*/
+	private XBlock.Header readXBlock(final BBTEntry entry)
+	throws
+		java.io.IOException
+	{
+		try {
+			return XBlock.Header.read(entry, pstFile);
+		} catch (final	BadXBlockLevelException
+			|	BadXBlockTypeException e) {
+			throw new java.io.IOException(e);
+		}
+	}
+
+	/**	Skip over bytes. Whole data blocks are skipped using the sizes recorded in the block B-tree, without being read.
+	*	@param	n	The number of bytes to skip.
+	*	@return	The number of bytes skipped.
+	*	@throws	java.io.IOException	The stream has been closed, or an XBLOCK could not be read.
+	*/
+	@Override
+	public long skip(final long n)
+	throws
+		java.io.IOException
+	{
+		ensureOpen();
+		if (n <= 0)
+			return 0;
+
+		long skipped = Math.min(n, current.remaining());
+		current.position(current.position() + (int)skipped);
+		while (skipped < n) {
+			if (ahead.isEmpty() && pending != null)
+				takePending();
+			if (ahead.isEmpty())
+				break;
+
+			if (skipped + ahead.peek().length <= n) {
+				skipped += ahead.poll().length;
+				continue;
+			}
+
+			// Only part of this block is skipped.
+			fill();
+			final int partial = (int)(n - skipped);
+			current.position(current.position() + partial);
+			skipped += partial;
+		}
+		while (skipped < n) {
+			final BID bid = nextBlockBID();
+			if (bid == null)
+				break;
+
+			final BBTEntry entry = find(bid);
+			if (skipped + entry.totalBytes <= n) {
+				skipped += entry.totalBytes;
+				continue;
+			}
+
+			// Only part of this block is skipped, so it must be read.
+			--nextBlock;
+			fill();
+			final int partial = (int)(n - skipped);
+			current.position(current.position() + partial);
+			skipped += partial;
+		}
+		return skipped;
+	}
+}
@@ -293,6 +293,30 @@ abstract class DataType
 		return fUnicode ? bidUnicodeReader : bidAnsiReader;
 	}
 
+	/**	Read a BID from the given absolute position in the data stream without changing the stream's position.
+	*	@param	byteBuffer	The data stream from which to read the BID.
+	*	@param	position	The position in the data stream at which the BID starts.
+	*	@param	fUnicode	A flag indicating whether the current PST file is Unicode or ANSI.
+	*	@return	The BID read from the data stream.
+	*/
+	static BID readBID(final java.nio.ByteBuffer byteBuffer, final int position, final boolean fUnicode)
+	{
+		return new BID(fUnicode ? byteBuffer.getLong(position) : byteBuffer.getInt(position));
+	}
+
+	/**	Read a BREF from the given absolute position in the data stream without changing the stream's position.
+	*	@param	byteBuffer	The data stream from which to read the BREF.
+	*	@param	position	The position in the data stream at which the BREF starts.
+	*	@param	fUnicode	A flag indicating whether the current PST file is Unicode or ANSI.
+	*	@return	The BREF read from the data stream.
+	*/
+	static BREF readBREF(final java.nio.ByteBuffer byteBuffer, final int position, final boolean fUnicode)
+	{
+		if (fUnicode)
+			return new BREF(new BID(byteBuffer.getLong(position)), new IB(byteBuffer.getLong(position + BID.SIZE_UNICODE)));
+		return new BREF(new BID(byteBuffer.getInt(position)), new IB(byteBuffer.getInt(position + BID.SIZE_ANSI)));
+	}
+
 	/**	The BREFBase class contains functionality used by both ANSI and Unicode BREF description objects.
 	*	@see	io.github.jmcleodfoss.pst.BREF
 	*/
@@ -1126,7 +1150,7 @@ abstract class DataType
 	private static class ServerID extends DataType
 	{
 		/**	A reader/display manioulater for Server IDs */
-		private static ServerID reader = new ServerID();
+		private static final ServerID reader = new ServerID();
 
 		/**	Create a String representation of a Server ID
 		*	@param	o	The Server ID to display
@@ -1203,6 +1227,9 @@ abstract class DataType
 		/**	The base for MS time, which is measured in hundreds of nanosecondss since January 1, 1601. */
 		private static final java.util.Date PST_BASE_TIME = initBaseTime();
 
+		/**	The base for MS time, in milliseconds since the Java epoch. */
+		private static final long PST_BASE_MILLIS = PST_BASE_TIME.getTime();
+
 		/**	The format to use when converting time objects to strings. */
 		private final java.text.SimpleDateFormat OUTPUT_FORMAT = new java.text.SimpleDateFormat("MMMM dd, yyyy hh:mm:ss");
 
@@ -1240,10 +1267,7 @@ abstract class DataType
 		@Override
 		public Object read(java.nio.ByteBuffer byteBuffer)
 		{
-			long hundred_ns = byteBuffer.getLong();
-			long ms = hundred_ns/10000;
-			ms += PST_BASE_TIME.getTime();
-			return new java.util.Date(ms);
+			return new java.util.Date(fileTimeToMillis(byteBuffer.getLong()));
 		}
 
 		/**	Obtain the size in bytes of an MS time object in a PST file.
@@ -1308,7 +1332,9 @@ abstract class DataType
 		}
 	}
 
-	/**	Create a object for reading data of given property type, with the given size if required.
+	/**	Create a object for reading data of given property type, with the given size if required. Properties of type
+	*	PtypMultipleGuid are treated as 32-bit integers; use {@link #definitionFactory(short, PSTFile)} to read data from a
+	*	PST file.
 	*	@param	propertyType	The property type to obtain a reader/display manipulator for.
 	*	@return	A reader/display manipulator for the given type.
 	*	@throws	UnimplementedPropertyException	Handling for the property type has not been implemented
@@ -1330,6 +1356,39 @@ abstract class DataType
 	*	@see	Time#reader
 	*/
 	static DataType definitionFactory(final short propertyType)
+	throws
+		UnimplementedPropertyTypeException,
+		UnknownPropertyTypeException
+	{
+		return definitionFactory(propertyType, true, false);
+	}
+
+	/**	Create a object for reading data of given property type from the given PST file. This differs from
+	*	{@link #definitionFactory(short)} only in taking the handling of PtypMultipleGuid properties from the PST file.
+	*	@param	propertyType	The property type to obtain a reader/display manipulator for.
+	*	@param	pstFile		The PST file the data is read from.
+	*	@return	A reader/display manipulator for the given type.
+	*	@throws	UnimplementedPropertyTypeException	Handling for the property type has not been implemented
+	*	@throws UnknownPropertyTypeException	The property type was not recognized
+	*	@see	Options#setMultipleGUIDHandling
+	*/
+	static DataType definitionFactory(final short propertyType, final PSTFile pstFile)
+	throws
+		UnimplementedPropertyTypeException,
+		UnknownPropertyTypeException
+	{
+		return definitionFactory(propertyType, pstFile.multipleGUIDSAsInts, pstFile.logMultipleGUIDSAsIntsInstances);
+	}
+
+	/**	Create a object for reading data of given property type.
+	*	@param	propertyType			The property type to obtain a reader/display manipulator for.
+	*	@param	multipleGUIDSAsInts		Whether PtypMultipleGuid properties are read as 32-bit integers.
+	*	@param	logMultipleGUIDSAsIntsInstances	Whether to log reading a PtypMultipleGuid property as a 32-bit integer.
+	*	@return	A reader/display manipulator for the given type.
+	*	@throws	UnimplementedPropertyTypeException	Handling for the property type has not been implemented
+	*	@throws UnknownPropertyTypeException	The property type was not recognized
+	*/
+	private static DataType definitionFactory(final short propertyType, final boolean multipleGUIDSAsInts, final boolean logMultipleGUIDSAsIntsInstances)
 	throws
 		UnimplementedPropertyTypeException,
 		UnknownPropertyTypeException
@@ -1395,8 +1454,8 @@ abstract class DataType
 			return multipleStringReader;
 
 		case MULTIPLE_GUID:
-			if (Options.multipleGUIDSAsInts) {
-				if (Options.logMultipleGUIDSAsIntsInstances)
+			if (multipleGUIDSAsInts) {
+				if (logMultipleGUIDSAsIntsInstances)
 					System.out.println("PtypMultipleGUID treated as PtypInteger32");
 				return multipleGUIDReader;
 			} else {
@@ -1417,22 +1476,47 @@ abstract class DataType
 	/**	Get the corrected DataType reader, accounting for cases where Outlook emits an ASCII value in a Unicode field
 	*	@param	propertyTag	The property tag to get the DataType for
 	*	@param	expectedDataType	The reader to be used if no adjustment takes place 
-	*	@param	data		The data buffer
+	*	@param	data		The data buffer, positioned at the start of the data
 	*	@return	The correct reader for actual DataType for this field
 	*	@throws	UnimplementedPropertyException	Handling for the property type has not been implemented
 	*	@throws UnknownPropertyTypeException	The property type was not recognized
 	*/
-	static DataType getActualDataType(int propertyTag, byte[] data, DataType expectedDataType)
+	static DataType getActualDataType(int propertyTag, java.nio.ByteBuffer data, DataType expectedDataType)
 	throws
 		UnimplementedPropertyTypeException,
 		UnknownPropertyTypeException
 	{
-		if (propertyTag == PropertyTags.ContainerClassW && data[1] != 0x00)
+		if (propertyTag == PropertyTags.ContainerClassW && data.get(data.position() + 1) != 0x00)
 			return DataType.definitionFactory(DataType.STRING_8);
 
 		return expectedDataType;
 	}
 
+	/**	Convert an MS time, measured in hundreds of nanoseconds since January 1, 1601, to a Java time.
+	*	@param	hundred_ns	The MS time.
+	*	@return	The number of milliseconds since the Java epoch, consistent with the Date objects read for time properties.
+	*/
+	static long fileTimeToMillis(final long hundred_ns)
+	{
+		return hundred_ns/10000 + Time.PST_BASE_MILLIS;
+	}
+
+	/**	Obtain the value of a decoded scalar property as a long.
+	*	@param	o	The decoded value: a Boolean, Number, or Date, or null.
+	*	@return	The value of o as a long (1 for true, and milliseconds since the Java epoch for times), or 0 if o is null or not
+	*		a scalar value.
+	*/
+	static long scalarValue(final Object o)
+	{
+		if (o instanceof Number)
+			return ((Number)o).longValue();
+		if (o instanceof Boolean)
+			return (Boolean)o ? 1 : 0;
+		if (o instanceof java.util.Date)
+			return ((java.util.Date)o).toInstant().toEpochMilli();
+		return 0;
+	}
+
 	/**	Return a String representing Object o with the data type given by tag.
 	*	For special handling for PidTagSubject and PidTagSubjectW, see <a href="https://docs.microsoft.com/en-us/openspecs/office_file_formats/ms-pst/5959edb3-3fb0-4e35-a0dc-c043cd888fdd">MS-PST Section 2.5.3.1.1.1</a>
 	*	@param	tag	The property tag describing the object to display.
@@ -22,16 +22,6 @@ package io.github.jmcleodfoss.pst;
 */
 public class DistributionList extends MessageObject
 {
-	/**	The property ID of the DistributionListMembers property. */
-	private static int distributionListMembersLID = PropertyLIDs.UNKNOWN;
-
-	/**	The property ID of the DistributionListOneOffMembers property. */
-	@SuppressWarnings({"PMD.UnusedPrivateField", "unused"}) // Allow this; I'll add support for it when I have a PST file which uses it.
-	private static int distributionListOneOffMembersLID = PropertyLIDs.UNKNOWN;
-
-	/**	The property ID of the "Email 1 Address" property. */
-	private static int email1AddressLID = PropertyLIDs.UNKNOWN;
-
 	static final String nm_ProviderUID = "ProviderUID";
 
 	/**	The descriptions of the data common to all distribution list entries. */
@@ -124,18 +114,6 @@ public class DistributionList extends MessageObject
 		super(contentsTable, row, nbt, pstFile);
 	}
 
-	/**	Save named property IDs for IDs of interest.
-	*	@param	namedProperties	The list of named properties.
-	*	@param	fUnicode	Whether the current PST file is a Unicode file or not.
-	*/
-	static void initConstants(NameToIDMap namedProperties, boolean fUnicode)
-	{
-		email1AddressLID = namedProperties.id(PropertyLIDs.Email1EmailAddress, fUnicode ? DataType.STRING : DataType.STRING_8);
-
-		distributionListMembersLID = namedProperties.id(PropertyLIDs.DistributionListMembers, DataType.MULTIPLE_BINARY);
-		distributionListOneOffMembersLID = namedProperties.id(PropertyLIDs.DistributionListOneOffMembers, DataType.MULTIPLE_BINARY);
-	}
-
 	/**	Extract the list of members from the message object property context.
 	*	@param	pc	The message object property context, as retrieved by getMessage.
 	*	@param	bbt	The PST file's block B-tree.
@@ -172,7 +150,7 @@ public class DistributionList extends MessageObject
 		UnparseableTableContextException,
 		UnknownClientSignatureException
 	{
-		final Object o = pc.get(distributionListMembersLID);
+		final Object o = pc.get(pstFile.namedPropertyIDs.distributionListMembers);
 		if (o == null)
 			return null;
 		final byte[][] multipleBinary = (byte[][])o;
@@ -212,7 +190,7 @@ public class DistributionList extends MessageObject
 				byte[] rawData = (byte[])dc.get(nm_EntryID);
 				final EntryID entryID = new EntryID(rawData);
 				final PropertyContext pcEntry = new PropertyContext(nbt.find(entryID.nid), bbt, pstFile);
-				entries.add(new Entry((String)pcEntry.get(PropertyTags.DisplayNameW), (String)pcEntry.get(email1AddressLID)));
+				entries.add(new Entry((String)pcEntry.get(PropertyTags.DisplayNameW), (String)pcEntry.get(pstFile.namedPropertyIDs.emailAddresses[0])));
 			}
 		}
 
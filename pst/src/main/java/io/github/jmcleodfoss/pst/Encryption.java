@@ -169,11 +169,14 @@ class Encryption
 	/**	The Tanslater interface defines the functions required for all translation types. */
 	private interface Translater
 	{
-		/**	The translate function performs the translation in place on the data array.
-		*	@param	data	The bytes to encode or decode.
+		/**	The translate function performs the translation from the source buffer into the data array.
+		*	@param	source	The buffer from which to read the bytes to encode or decode, starting at its current position,
+		*			which is advanced past them. This may wrap the data array itself.
+		*	@param	data	The array into which to store the encoded or decoded bytes; its length gives the number of
+		*			bytes to translate.
 		*	@param	key	Additional data used by the {@link TranslaterCyclic} translater.
 		*/
-		void translate(byte[] data, long key);
+		void translate(java.nio.ByteBuffer source, byte[] data, long key);
 	}
 
 	/**	The TranslaterNone translater is used for the {@link #NOB_CRYPT_NONE} encryption type.
@@ -182,14 +185,19 @@ class Encryption
 	*/
 	static private class TranslaterNone implements Translater
 	{
-		/**	The translate function is trivial; it performs no conversion.
-		*	@param	data	This parameter is not used by the TranslaterNone translater.
+		/**	The translate function is trivial; it copies the data without any conversion.
+		*	@param	source	The buffer from which to read the data.
+		*	@param	data	The array into which to store the data.
 		*	@param	unused	This parameter is not used by the TranslaterNone translater.
 		*/
 		@Override
-		public void translate(byte[] data, long unused)
+		public void translate(java.nio.ByteBuffer source, byte[] data, long unused)
 		{
-			// The TranslaterNone class does not do any translation.
+			if (source.hasArray() && source.array() == data && source.arrayOffset() + source.position() == 0) {
+				source.position(source.position() + data.length);
+				return;
+			}
+			source.get(data);
 		}
 	}
 
@@ -201,29 +209,62 @@ class Encryption
 	private class TranslaterPermute implements Translater
 	{
 		/**	The translate function is a wrapper around the convert method.
-		*	@param	data	The bytes to encode or decode.
+		*	@param	source	The buffer from which to read the bytes to decode.
+		*	@param	data	The array into which to store the decoded bytes.
 		*	@param	unused	This parameter is not used by the TranslaterPermute tanslater.
 		*/
 		@Override
-		public void translate(byte[] data, long unused)
+		public void translate(java.nio.ByteBuffer source, byte[] data, long unused)
 		{
-			convert(data, false);
+			convert(source, data, false);
 		}
 
-		/**	The convert function performs the actual conversion in place, in the direction indicated by the fEncrypt
-		*	parameter. This function was adapted from the example pfovided in Microsoft's PST definition, and exists
-		*	primarily for more convenient comparison to the version in that document.
-		*	@param	data		The bytes to encode or decode.
+		/**	The convert function performs the actual conversion, in the direction indicated by the fEncrypt parameter.
+		*	This function was adapted from the example pfovided in Microsoft's PST definition. Bytes are converted eight
+		*	per iteration, in an unrolled loop, from the backing array of a heap buffer or from a long read from a
+		*	direct buffer; any remaining bytes are converted one at a time.
+		*	@param	source		The buffer from which to read the bytes to encode or decode.
+		*	@param	data		The array into which to store the encoded or decoded bytes.
 		*	@param	fEncrypt	If this value is true, the data is encrypted; otherwise, it is decrypted.
 		*/
-		public void convert(byte[] data, boolean fEncrypt)
+		public void convert(java.nio.ByteBuffer source, byte[] data, boolean fEncrypt)
 		{
 			final int ofs = fEncrypt ? offsR : offsI;
+			final int start = source.position();
 
-			for (int i = 0; i < data.length; ++i) {
-				int b = (data[i] & 0xff);
-				data[i] = mpbbCrypt[ofs + b];
+			int i = 0;
+			if (source.hasArray()) {
+				final byte[] src = source.array();
+				final int base = source.arrayOffset() + start;
+				for (; i + Long.BYTES <= data.length; i += Long.BYTES) {
+					final int s = base + i;
+					data[i]   = mpbbCrypt[ofs + (src[s]   & 0xff)];
+					data[i+1] = mpbbCrypt[ofs + (src[s+1] & 0xff)];
+					data[i+2] = mpbbCrypt[ofs + (src[s+2] & 0xff)];
+					data[i+3] = mpbbCrypt[ofs + (src[s+3] & 0xff)];
+					data[i+4] = mpbbCrypt[ofs + (src[s+4] & 0xff)];
+					data[i+5] = mpbbCrypt[ofs + (src[s+5] & 0xff)];
+					data[i+6] = mpbbCrypt[ofs + (src[s+6] & 0xff)];
+					data[i+7] = mpbbCrypt[ofs + (src[s+7] & 0xff)];
+				}
+			} else {
+				final java.nio.ByteBuffer le = littleEndian(source);
+				for (; i + Long.BYTES <= data.length; i += Long.BYTES) {
+					final long b = le.getLong(start + i);
+					data[i]   = mpbbCrypt[ofs + ((int)b & 0xff)];
+					data[i+1] = mpbbCrypt[ofs + ((int)(b >>> 8) & 0xff)];
+					data[i+2] = mpbbCrypt[ofs + ((int)(b >>> 16) & 0xff)];
+					data[i+3] = mpbbCrypt[ofs + ((int)(b >>> 24) & 0xff)];
+					data[i+4] = mpbbCrypt[ofs + ((int)(b >>> 32) & 0xff)];
+					data[i+5] = mpbbCrypt[ofs + ((int)(b >>> 40) & 0xff)];
+					data[i+6] = mpbbCrypt[ofs + ((int)(b >>> 48) & 0xff)];
+					data[i+7] = mpbbCrypt[ofs + ((int)(b >>> 56) & 0xff)];
+				}
 			}
+			for (; i < data.length; ++i)
+				data[i] = mpbbCrypt[ofs + (source.get(start + i) & 0xff)];
+
+			source.position(start + data.length);
 		}
 	}
 
@@ -235,33 +276,74 @@ class Encryption
 	*/
 	private class TranslaterCyclic implements Translater
 	{
-		/**	The translate performs the conversion for cyclic encoding.
-		*	@param	data	The bytes to encode or decode.
+		/**	The translate performs the conversion for cyclic encoding. Bytes are converted eight per iteration
+		*	as for {@link TranslaterPermute#convert}.
+		*	@param	source	The buffer from which to read the bytes to encode or decode.
+		*	@param	data	The array into which to store the encoded or decoded bytes.
 		*	@param	key	This parameter is used during encoding and decoding. It should be the lower DWORD of the block ID
 		*			of the block being translated.
 		*	@see	<a href="https://docs.microsoft.com/en-us/openspecs/office_file_formats/ms-pst/9979fc01-0a3e-496f-900f-a6a867951f23">MS-PST Section 5.2: Cyclic Encoding</a>
 		*/
 		@Override
-		public void translate(byte[] data, long key)
+		public void translate(java.nio.ByteBuffer source, byte[] data, long key)
 		{
 			short w = (short)(key ^ (key >>> 16));
+			final int start = source.position();
 
-			for (int i = 0; i < data.length; ++i) {
-				byte b = data[i];
-				b = (byte)(b + (w & 0xff));
-				b = mpbbCrypt[offsR + (b & 0xff)];
+			int i = 0;
+			if (source.hasArray()) {
+				final byte[] src = source.array();
+				final int base = source.arrayOffset() + start;
+				for (; i + Long.BYTES <= data.length; i += Long.BYTES) {
+					final int s = base + i;
+					data[i]   = convert(src[s],   w);
+					data[i+1] = convert(src[s+1], (short)(w + 1));
+					data[i+2] = convert(src[s+2], (short)(w + 2));
+					data[i+3] = convert(src[s+3], (short)(w + 3));
+					data[i+4] = convert(src[s+4], (short)(w + 4));
+					data[i+5] = convert(src[s+5], (short)(w + 5));
+					data[i+6] = convert(src[s+6], (short)(w + 6));
+					data[i+7] = convert(src[s+7], (short)(w + 7));
+					w = (short)(w + Long.BYTES);
+				}
+			} else {
+				final java.nio.ByteBuffer le = littleEndian(source);
+				for (; i + Long.BYTES <= data.length; i += Long.BYTES) {
+					final long b = le.getLong(start + i);
+					data[i]   = convert((byte)b,          w);
+					data[i+1] = convert((byte)(b >>> 8),  (short)(w + 1));
+					data[i+2] = convert((byte)(b >>> 16), (short)(w + 2));
+					data[i+3] = convert((byte)(b >>> 24), (short)(w + 3));
+					data[i+4] = convert((byte)(b >>> 32), (short)(w + 4));
+					data[i+5] = convert((byte)(b >>> 40), (short)(w + 5));
+					data[i+6] = convert((byte)(b >>> 48), (short)(w + 6));
+					data[i+7] = convert((byte)(b >>> 56), (short)(w + 7));
+					w = (short)(w + Long.BYTES);
+				}
+			}
+			for (; i < data.length; ++i)
+				data[i] = convert(source.get(start + i), w++);
 
-				b = (byte)(b + (w >>> 8));
-				b = mpbbCrypt[offsS + (b & 0xff)];
+			source.position(start + data.length);
+		}
 
-				b = (byte)(b - (w >>> 8));
-				b = mpbbCrypt[offsI + (b & 0xff)];
+		/**	Encode or decode a single byte.
+		*	@param	b	The byte to encode or decode.
+		*	@param	w	The key for this byte.
+		*	@return	The encoded or decoded byte.
+		*/
+		private byte convert(byte b, short w)
+		{
+			b = (byte)(b + (w & 0xff));
+			b = mpbbCrypt[offsR + (b & 0xff)];
 
-				b = (byte)(b - (w & 0xff));
-				data[i] = b;
+			b = (byte)(b + (w >>> 8));
+			b = mpbbCrypt[offsS + (b & 0xff)];
 
-				++w;
-			}
+			b = (byte)(b - (w >>> 8));
+			b = mpbbCrypt[offsI + (b & 0xff)];
+
+			return (byte)(b - (w & 0xff));
 		}
 	}
 
@@ -300,12 +382,40 @@ class Encryption
 		return name;
 	}
 
+	/**	Does this encryption method leave the data unchanged?
+	*	@return	true if this is the {@link #NOB_CRYPT_NONE} encryption method, false otherwise.
+	*/
+	boolean isNone()
+	{
+		return translator instanceof TranslaterNone;
+	}
+
+	/**	Obtain a little-endian view of the given buffer.
+	*	@param	source	The buffer to view.
+	*	@return	The buffer itself if it is already little-endian, otherwise a little-endian duplicate of it.
+	*/
+	private static java.nio.ByteBuffer littleEndian(java.nio.ByteBuffer source)
+	{
+		return source.order() == java.nio.ByteOrder.LITTLE_ENDIAN ? source : source.duplicate().order(java.nio.ByteOrder.LITTLE_ENDIAN);
+	}
+
 	/**	Translate a block of data in place.
 	*	@param	data	The data to decrypt
 	*	@param	key	The key to use when translating the data (this is only used by {link TranslaterCyclic}).
 	*/
 	void translate(byte[] data, int key)
 	{
-		translator.translate(data, key);
+		translator.translate(java.nio.ByteBuffer.wrap(data), data, key);
+	}
+
+	/**	Translate a block of data straight from the buffer it was read into, avoiding a separate copy.
+	*	@param	source	The buffer containing the data to decrypt, starting at its current position, which is advanced past
+	*			the data.
+	*	@param	data	The array into which to store the decrypted data; its length gives the number of bytes to decrypt.
+	*	@param	key	The key to use when translating the data (this is only used by {link TranslaterCyclic}).
+	*/
+	void translate(java.nio.ByteBuffer source, byte[] data, int key)
+	{
+		translator.translate(source, data, key);
 	}
 }
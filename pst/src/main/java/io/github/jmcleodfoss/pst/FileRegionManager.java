@@ -0,0 +1,487 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The FileRegionManager class hands out little-endian ByteBuffers for regions of the PST file.
+*	Mapping each page, block, and trailer separately creates a very large number of small memory mappings on big files, so the
+*	implementations here either map the file once, map it in large windows, or read into pooled heap buffers.
+*	@see	Options#setReadStrategy
+*/
+abstract class FileRegionManager
+{
+	/**	The file channel from which to read data. */
+	protected final java.nio.channels.FileChannel fc;
+
+	/**	The size of the file when it was opened. */
+	protected final long fileSize;
+
+	/**	Create a region manager for the given file channel.
+	*	@param	fc	The file channel from which to read data.
+	*	@throws	java.io.IOException	The file size could not be read.
+	*/
+	protected FileRegionManager(java.nio.channels.FileChannel fc)
+	throws
+		java.io.IOException
+	{
+		this.fc = fc;
+		fileSize = fc.size();
+	}
+
+	/**	Obtain a ByteBuffer with little-endian byte ordering containing the requested region of the file.
+	*	The buffer returned may be shared with other readers only in its contents; its position and limit are private to the caller.
+	*	@param	position	The location in the file to read from.
+	*	@param	length		The number of bytes to read.
+	*	@return	A little-endian ByteBuffer positioned at the start of the requested region.
+	*	@throws	java.io.IOException	There was an I/O error reading the file.
+	*/
+	abstract java.nio.ByteBuffer read(final long position, final int length)
+	throws
+		java.io.IOException;
+
+	/**	Return a buffer obtained from {@link #read} which the caller is finished with. Calling this is optional; buffers which
+	*	are not released are simply left for the garbage collector.
+	*	@param	byteBuffer	The buffer which is no longer needed.
+	*/
+	void release(java.nio.ByteBuffer byteBuffer)
+	{
+	}
+
+	/**	Release any mappings or pooled buffers held by the region manager. */
+	void close()
+	{
+	}
+
+	/**	Create a slice of the given mapped buffer with little-endian byte ordering.
+	*	@param	mapped	The mapped buffer.
+	*	@param	offset	The offset into the mapped buffer at which the slice starts.
+	*	@param	length	The length of the slice.
+	*	@return	A little-endian slice of the given buffer.
+	*/
+	private static java.nio.ByteBuffer slice(final java.nio.ByteBuffer mapped, final int offset, final int length)
+	{
+		java.nio.ByteBuffer byteBuffer = mapped.slice(offset, length);
+		byteBuffer.order(java.nio.ByteOrder.LITTLE_ENDIAN);
+		return byteBuffer;
+	}
+
+	/**	Check that the given region lies entirely within the file.
+	*	@param	position	The location in the file to read from.
+	*	@param	length		The number of bytes to read.
+	*	@throws	java.io.EOFException	The region extends past the end of the file.
+	*/
+	protected void checkRegion(final long position, final int length)
+	throws
+		java.io.EOFException
+	{
+		if (position < 0 || length < 0 || position + length > fileSize)
+			throw new java.io.EOFException(String.format("Region 0x%x+%d is outside file of size %d", position, length, fileSize));
+	}
+
+	/**	The MapPerRead class maps each requested region individually. This is the original behavior, kept for comparison. */
+	static class MapPerRead extends FileRegionManager
+	{
+		/**	Create a region manager which maps each region separately.
+		*	@param	fc	The file channel from which to read data.
+		*	@throws	java.io.IOException	The file size could not be read.
+		*/
+		MapPerRead(java.nio.channels.FileChannel fc)
+		throws
+			java.io.IOException
+		{
+			super(fc);
+		}
+
+		/**	{@inheritDoc} */
+		@Override
+		java.nio.ByteBuffer read(final long position, final int length)
+		throws
+			java.io.IOException
+		{
+			java.nio.ByteBuffer byteBuffer = fc.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, position, length);
+			byteBuffer.order(java.nio.ByteOrder.LITTLE_ENDIAN);
+			return byteBuffer;
+		}
+	}
+
+	/**	The WholeFileMapped class maps the entire file once and returns slices of the mapping. Only files smaller than 2GB may
+	*	be mapped this way.
+	*/
+	static class WholeFileMapped extends FileRegionManager
+	{
+		/**	The mapping of the whole file. */
+		private java.nio.MappedByteBuffer mapped;
+
+		/**	Create a region manager which maps the whole file at once.
+		*	@param	fc	The file channel from which to read data.
+		*	@throws	java.io.IOException	The file could not be mapped, or is too large to be mapped in one piece.
+		*/
+		WholeFileMapped(java.nio.channels.FileChannel fc)
+		throws
+			java.io.IOException
+		{
+			super(fc);
+			if (fileSize > Integer.MAX_VALUE)
+				throw new java.io.IOException(String.format("File size %d is too large to map in one piece", fileSize));
+			mapped = fc.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, 0, fileSize);
+		}
+
+		/**	{@inheritDoc} */
+		@Override
+		java.nio.ByteBuffer read(final long position, final int length)
+		throws
+			java.io.IOException
+		{
+			checkRegion(position, length);
+			return slice(mapped, (int)position, length);
+		}
+
+		/**	{@inheritDoc} */
+		@Override
+		void close()
+		{
+			mapped = null;
+		}
+	}
+
+	/**	The WindowedMapped class maps the file in large aligned windows, each of which overlaps the next by enough to hold any
+	*	single block or page, so that any read no longer than the overlap can be satisfied from a single window. Longer reads
+	*	are mapped separately.
+	*/
+	static class WindowedMapped extends FileRegionManager
+	{
+		/**	The default window size, 1GB. */
+		static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+
+		/**	The default number of bytes by which each window extends past the start of the next one. This is larger than the
+		*	largest block or B-tree page, including trailer.
+		*/
+		static final int OVERLAP = 1 << 17;
+
+		/**	The distance between the start of successive windows. */
+		private final long windowSize;
+
+		/**	The number of bytes by which each window extends past the start of the next one. */
+		private final int overlap;
+
+		/**	The windows mapped so far, indexed by window number. */
+		private final java.util.concurrent.ConcurrentHashMap<Long, java.nio.MappedByteBuffer> windows;
+
+		/**	Create a region manager which maps the file in windows of the default size.
+		*	@param	fc	The file channel from which to read data.
+		*	@throws	java.io.IOException	The file size could not be read.
+		*/
+		WindowedMapped(java.nio.channels.FileChannel fc)
+		throws
+			java.io.IOException
+		{
+			this(fc, DEFAULT_WINDOW_SIZE);
+		}
+
+		/**	Create a region manager which maps the file in windows of the given size.
+		*	@param	fc		The file channel from which to read data.
+		*	@param	windowSize	The distance between the start of successive windows.
+		*	@throws	java.io.IOException	The file size could not be read.
+		*/
+		WindowedMapped(java.nio.channels.FileChannel fc, final long windowSize)
+		throws
+			java.io.IOException
+		{
+			this(fc, windowSize, OVERLAP);
+		}
+
+		/**	Create a region manager which maps the file in windows of the given size and overlap.
+		*	@param	fc		The file channel from which to read data.
+		*	@param	windowSize	The distance between the start of successive windows.
+		*	@param	overlap		The number of bytes by which each window extends past the start of the next one.
+		*	@throws	java.io.IOException	The file size could not be read.
+		*/
+		WindowedMapped(java.nio.channels.FileChannel fc, final long windowSize, final int overlap)
+		throws
+			java.io.IOException
+		{
+			super(fc);
+			if (windowSize <= 0 || overlap < 0 || windowSize + overlap > Integer.MAX_VALUE)
+				throw new IllegalArgumentException(String.format("Invalid window size %d or overlap %d", windowSize, overlap));
+			this.windowSize = windowSize;
+			this.overlap = overlap;
+			windows = new java.util.concurrent.ConcurrentHashMap<Long, java.nio.MappedByteBuffer>();
+		}
+
+		/**	{@inheritDoc} */
+		@Override
+		java.nio.ByteBuffer read(final long position, final int length)
+		throws
+			java.io.IOException
+		{
+			checkRegion(position, length);
+			if (length > overlap) {
+				java.nio.ByteBuffer byteBuffer = fc.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, position, length);
+				byteBuffer.order(java.nio.ByteOrder.LITTLE_ENDIAN);
+				return byteBuffer;
+			}
+
+			final long windowIndex = position / windowSize;
+			return slice(window(windowIndex), (int)(position - windowIndex * windowSize), length);
+		}
+
+		/**	Retrieve the given window, mapping it if necessary.
+		*	@param	windowIndex	The number of the window to retrieve.
+		*	@return	The mapped window.
+		*	@throws	java.io.IOException	The window could not be mapped.
+		*/
+		private java.nio.MappedByteBuffer window(final long windowIndex)
+		throws
+			java.io.IOException
+		{
+			java.nio.MappedByteBuffer window = windows.get(windowIndex);
+			if (window == null) {
+				final long start = windowIndex * windowSize;
+				final long size = Math.min(windowSize + overlap, fileSize - start);
+				window = fc.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, start, size);
+				final java.nio.MappedByteBuffer existing = windows.putIfAbsent(windowIndex, window);
+				if (existing != null)
+					window = existing;
+			}
+			return window;
+		}
+
+		/**	{@inheritDoc} */
+		@Override
+		void close()
+		{
+			windows.clear();
+		}
+	}
+
+	/**	The PositionalRead class reads each region into a heap buffer using positional reads, reusing released buffers. */
+	static class PositionalRead extends FileRegionManager
+	{
+		/**	The maximum number of released buffers to keep for each size. */
+		static final int MAX_POOLED_PER_SIZE = 16;
+
+		/**	The released buffers available for reuse, indexed by capacity. */
+		private final java.util.concurrent.ConcurrentHashMap<Integer, java.util.concurrent.ConcurrentLinkedDeque<java.nio.ByteBuffer>> pool;
+
+		/**	Create a region manager which uses positional reads into pooled heap buffers.
+		*	@param	fc	The file channel from which to read data.
+		*	@throws	java.io.IOException	The file size could not be read.
+		*/
+		PositionalRead(java.nio.channels.FileChannel fc)
+		throws
+			java.io.IOException
+		{
+			super(fc);
+			pool = new java.util.concurrent.ConcurrentHashMap<Integer, java.util.concurrent.ConcurrentLinkedDeque<java.nio.ByteBuffer>>();
+		}
+
+		/**	{@inheritDoc} */
+		@Override
+		java.nio.ByteBuffer read(final long position, final int length)
+		throws
+			java.io.IOException
+		{
+			checkRegion(position, length);
+
+			final java.util.concurrent.ConcurrentLinkedDeque<java.nio.ByteBuffer> available = pool.get(length);
+			java.nio.ByteBuffer byteBuffer = available == null ? null : available.pollFirst();
+			if (byteBuffer == null)
+				byteBuffer = java.nio.ByteBuffer.allocate(length);
+			byteBuffer.clear();
+
+			long filePosition = position;
+			while (byteBuffer.hasRemaining()) {
+				final int bytesRead = fc.read(byteBuffer, filePosition);
+				if (bytesRead < 0)
+					throw new java.io.EOFException(String.format("Unexpected end of file reading 0x%x+%d", position, length));
+				filePosition += bytesRead;
+			}
+			byteBuffer.flip();
+			byteBuffer.order(java.nio.ByteOrder.LITTLE_ENDIAN);
+			return byteBuffer;
+		}
+
+		/**	{@inheritDoc} */
+		@Override
+		void release(java.nio.ByteBuffer byteBuffer)
+		{
+			if (byteBuffer == null || byteBuffer.isDirect() || byteBuffer.isReadOnly())
+				return;
+
+			final java.util.concurrent.ConcurrentLinkedDeque<java.nio.ByteBuffer> available = pool.computeIfAbsent(byteBuffer.capacity(), k -> new java.util.concurrent.ConcurrentLinkedDeque<java.nio.ByteBuffer>());
+			if (available.size() < MAX_POOLED_PER_SIZE)
+				available.offerFirst(byteBuffer);
+		}
+
+		/**	{@inheritDoc} */
+		@Override
+		void close()
+		{
+			pool.clear();
+		}
+	}
+
+	/**	Create a region manager for the given file channel using the requested strategy.
+	*	@param	strategy	The strategy to use.
+	*	@param	fc		The file channel from which to read data.
+	*	@return	A region manager implementing the requested strategy.
+	*	@throws	java.io.IOException	The file could not be mapped or its size could not be read.
+	*/
+	static FileRegionManager create(final Options.ReadStrategy strategy, java.nio.channels.FileChannel fc)
+	throws
+		java.io.IOException
+	{
+		switch (strategy) {
+		case MAP_PER_READ:
+			return new MapPerRead(fc);
+
+		case WHOLE_FILE_MAPPED:
+			return new WholeFileMapped(fc);
+
+		case WINDOWED_MAPPED:
+			return new WindowedMapped(fc);
+
+		case POSITIONAL_READ:
+			return new PositionalRead(fc);
+
+		case AUTO:
+		default:
+			if (fc.size() <= Integer.MAX_VALUE)
+				return new WholeFileMapped(fc);
+			return new WindowedMapped(fc);
+		}
+	}
+
+	/**	Measure the time taken per read of page- and block-sized regions at random positions in a file of random data using
+	*	each strategy, touching every 64-byte line of each region. Mapping a file per read is the original behavior. The windowed strategy uses 64MB windows so that a file
+	*	of a few hundred megabytes is spread over several of them. The first two passes are warm-up passes.
+	*	@param	fileSizeMB	The size of the file to create, in megabytes.
+	*	@param	numReads	The number of regions to read with each strategy in each pass.
+	*	@throws	java.io.IOException	The file could not be created or read.
+	*/
+	private static void timeSynthetic(final int fileSizeMB, final int numReads)
+	throws
+		java.io.IOException
+	{
+		final int[] lengths = {512, 8192};
+		final String[] strategies = {"map per read", "whole file mapped", "windowed mapped", "positional read"};
+
+		final java.io.File file = java.io.File.createTempFile("FileRegionManager", ".bin");
+		try {
+			final byte[] chunk = new byte[1 << 20];
+			final java.util.Random random = new java.util.Random(0);
+			try (java.io.FileOutputStream out = new java.io.FileOutputStream(file)) {
+				for (int i = 0; i < fileSizeMB; ++i) {
+					random.nextBytes(chunk);
+					out.write(chunk);
+				}
+			}
+
+			final long fileSize = (long)fileSizeMB << 20;
+			final long[] positions = new long[numReads];
+			for (int i = 0; i < numReads; ++i)
+				positions[i] = (long)(random.nextDouble() * (fileSize - lengths[lengths.length - 1])) & ~63L;
+
+			try (java.io.FileInputStream stream = new java.io.FileInputStream(file)) {
+				final java.nio.channels.FileChannel fc = stream.getChannel();
+				System.out.printf("%d MB file, %d reads per pass%n", fileSizeMB, numReads);
+				for (int pass = 0; pass < 3; ++pass) {
+					for (int strategy = 0; strategy < strategies.length; ++strategy) {
+						for (final int length : lengths) {
+							final FileRegionManager manager;
+							switch (strategy) {
+							case 0: manager = new MapPerRead(fc); break;
+							case 1: manager = new WholeFileMapped(fc); break;
+							case 2: manager = new WindowedMapped(fc, 64L << 20); break;
+							default: manager = new PositionalRead(fc); break;
+							}
+
+							long checksum = 0;
+							final long start = System.nanoTime();
+							for (final long position : positions) {
+								final java.nio.ByteBuffer byteBuffer = manager.read(position, length);
+								for (int i = 0; i < length; i += 64)
+									checksum += byteBuffer.get(i);
+								manager.release(byteBuffer);
+							}
+							final long elapsed = System.nanoTime() - start;
+							manager.close();
+
+							// Unmap the buffers left by mapping per read before the limit on the number of mappings is reached.
+							System.gc();
+
+							// The first two passes are warm-up passes.
+							if (pass < 2)
+								continue;
+							System.out.printf("\t%-17s %5d bytes %8.0f ns/read %8.1f MB/s (checksum %d)%n",
+								strategies[strategy], length, (double)elapsed / numReads, (double)numReads * length * 1000 / elapsed, checksum);
+						}
+					}
+				}
+			}
+		} finally {
+			java.nio.file.Files.deleteIfExists(file.toPath());
+		}
+	}
+
+	/**	Compare the time taken to read every block in the block B-tree using each strategy, or, with -synthetic, the time taken
+	*	per read of random regions of a file of random data.
+	*	This is a simple timing harness rather than a rigorous benchmark; run it several times on a large file and compare the
+	*	later runs to reduce the effect of JIT compilation and the operating system's file cache.
+	*	@param	args	The file(s) to time reading, or -synthetic followed by the size of the file to create in megabytes
+	*			(optional, default 512) and the number of reads per strategy (optional, default 50,000).
+	*/
+	@SuppressWarnings("PMD.DoNotCallSystemExit")
+	public static void main(final String[] args)
+	{
+		if (args.length < 1) {
+			System.out.println("use:\n\tjava io.github.jmcleodfoss.pst.FileRegionManager pst-file [pst-file ...]\n\tjava io.github.jmcleodfoss.pst.FileRegionManager -synthetic [size-MB [reads]]");
+			System.exit(1);
+		}
+
+		if (args[0].equals("-synthetic")) {
+			try {
+				timeSynthetic(args.length > 1 ? Integer.parseInt(args[1]) : 512, args.length > 2 ? Integer.parseInt(args[2]) : 50000);
+			} catch (final java.io.IOException e) {
+				e.printStackTrace(System.out);
+			}
+			return;
+		}
+
+		final Options.ReadStrategy originalStrategy = Options.readStrategy;
+		try {
+			for (final String a: args) {
+				System.out.println(a);
+				for (final Options.ReadStrategy strategy : Options.ReadStrategy.values()) {
+					try {
+						Options.setReadStrategy(strategy);
+						final long start = System.nanoTime();
+						final PSTFile pstFile = new PSTFile(new java.io.FileInputStream(a));
+						try {
+							final BlockBTree bbt = new BlockBTree(0, pstFile.header.bbtRoot, pstFile);
+							long bytes = 0;
+							java.util.Iterator<BTreeNode> iterator = bbt.iterator();
+							while (iterator.hasNext()) {
+								final BBTEntry entry = (BBTEntry)iterator.next();
+								SimpleBlock.read(entry, pstFile);
+								bytes += entry.numBytes;
+							}
+							final long elapsed = System.nanoTime() - start;
+							System.out.printf("\t%-17s %8d ms %10.1f MB/s%n", strategy, elapsed / 1000000, bytes * 1000.0 / elapsed);
+						} finally {
+							pstFile.close();
+						}
+					} catch (final CRCMismatchException e) {
+						System.out.printf("File %s is corrupt (Calculated CRC does not match expected value)%n", a);
+					} catch (final NotPSTFileException e) {
+						System.out.printf("File %s is not a pst file%n", a);
+					} catch (final java.io.FileNotFoundException e) {
+						System.out.printf("File %s not found%n", a);
+					} catch (final java.io.IOException e) {
+						System.out.printf("Could not read %s with strategy %s%n", a, strategy);
+						e.printStackTrace(System.out);
+					}
+				}
+			}
+		} finally {
+			Options.setReadStrategy(originalStrategy);
+		}
+	}
+}
@@ -2,6 +2,8 @@ package io.github.jmcleodfoss.pst;
 
 /**	The Folder class represents a folder within a PST file.
 *	Note that sub-folders are loaded as required, rather than on initial construction of the Folder object for the folder root.
+*	Folders created by {@link #getLazyFolderTree} read their sub-folders and contents only when they are first requested, and
+*	hold them through soft references so they may be discarded under memory pressure and read again later.
 */
 public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, javax.swing.tree.TreeModel
 {
@@ -29,6 +31,39 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 	/**	The content objects. */
 	private java.util.List<MessageObject> contents;
 
+	/**	The lazily-loaded sub-folders of the folder, if any have been read. */
+	private java.lang.ref.SoftReference<java.util.List<Folder>> lazySubfolders;
+
+	/**	The lazily-loaded content objects, if they have been read. */
+	private java.lang.ref.SoftReference<java.util.List<MessageObject>> lazyContents;
+
+	/**	The PST file's block B-tree, kept only by lazily-loaded folders. */
+	private final BlockMap bbt;
+
+	/**	The PST file's node B-tree, kept only by lazily-loaded folders. */
+	private final NodeMap nbt;
+
+	/**	The PST file, kept only by lazily-loaded folders. */
+	private final PSTFile pstFile;
+
+	/**	The FolderReadException is thrown when the sub-folders or contents of a lazily-loaded folder cannot be read. It wraps
+	*	the underlying exception, which is available through {@link #getCause}.
+	*/
+	public static class FolderReadException extends RuntimeException
+	{
+		/**	The serialVersionUID is required because the base class is serializable. */
+		private static final long serialVersionUID = 1L;
+
+		/**	Create a FolderReadException for the given folder and cause.
+		*	@param	displayName	The name of the folder which could not be read.
+		*	@param	cause		The exception encountered while reading the folder.
+		*/
+		FolderReadException(String displayName, Exception cause)
+		{
+			super("Could not read folder " + displayName, cause);
+		}
+	}
+
 	/**	Ths SubfolderLevelsToRead class tells how many sub-levels to read when processing a folder: none, one, or all. */
 	private static class SubfolderLevelsToRead
 	{
@@ -42,7 +77,10 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 			ONE,
 
 			/**	Read the entire sub-folder hierarchy. */
-			ALL
+			ALL,
+
+			/**	Read sub-folders and contents only when they are requested. */
+			LAZY
 		};
 
 		/**	The number of sub-levels to read. */
@@ -70,6 +108,14 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 		{
 			return levels != Levels.NONE;
 		}
+
+		/**	The lazy function indicates whether the sub-folders and contents should be read only when they are requested.
+		*	@return	true if the sub-folders and contents should be read when requested, false if they should be read immediately.
+		*/
+		boolean lazy()
+		{
+			return levels == Levels.LAZY;
+		}
 	}
 
 	/**	Create a folder object for the given Node B-Tree leaf node.
@@ -119,8 +165,16 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 		displayName = (String)folderObject.get(pstFile.unicode() ? PropertyTags.DisplayNameW : PropertyTags.DisplayName);
 		containerClass = (String)folderObject.get(pstFile.unicode() ? PropertyTags.ContainerClassW : PropertyTags.ContainerClass);
 
+		final boolean fLazy = levelsToRead.lazy();
+		this.bbt = fLazy ? bbt : null;
+		this.nbt = fLazy ? nbt : null;
+		this.pstFile = fLazy ? pstFile : null;
+
 		Object hasSubfolders = folderObject.get(PropertyTags.Subfolders);
-		if (hasSubfolders != null && (Boolean)hasSubfolders && levelsToRead.readSubfolders()) {
+		if (hasSubfolders != null && (Boolean)hasSubfolders && fLazy) {
+			nodeHierarchyTable = nbt.find(new NID(nodeFolderObject.nid, NID.HIERARCHY_TABLE));
+			this.subfolders = nodeHierarchyTable == null ? new java.util.ArrayList<Folder>() : null;
+		} else if (hasSubfolders != null && (Boolean)hasSubfolders && levelsToRead.readSubfolders()) {
 			NID nidHierarchyTable = new NID(nodeFolderObject.nid, NID.HIERARCHY_TABLE);
 			nodeHierarchyTable = nbt.find(nidHierarchyTable);
 			this.subfolders = readSubfolders(nodeHierarchyTable, bbt, nbt, pstFile, levelsToRead, fReadContents);
@@ -130,7 +184,10 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 		}
 
 		Object contentCount = folderObject.get(PropertyTags.ContentCount);
-		if (contentCount != null && (Integer)contentCount > 0 && fReadContents) {
+		if (contentCount != null && (Integer)contentCount > 0 && fLazy) {
+			nodeContentsTable = nbt.find(new NID(nodeFolderObject.nid, NID.CONTENTS_TABLE));
+			contents = nodeContentsTable == null ? new java.util.ArrayList<MessageObject>() : null;
+		} else if (contentCount != null && (Integer)contentCount > 0 && fReadContents) {
 			NID nidContentsTable = new NID(nodeFolderObject.nid, NID.CONTENTS_TABLE);
 			nodeContentsTable = nbt.find(nidContentsTable);
 			if (nodeContentsTable != null)
@@ -151,7 +208,111 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 	*/
 	public java.util.Iterator<MessageObject> contentsIterator()
 	{
-		return contents.iterator();
+		return contents().iterator();
+	}
+
+	/**	Obtain the list of content objects, reading it in if this is a lazily-loaded folder and it has not been read yet or
+	*	has been discarded.
+	*	@return	The list of content objects in this folder.
+	*	@throws	FolderReadException	The contents of a lazily-loaded folder could not be read.
+	*/
+	private synchronized java.util.List<MessageObject> contents()
+	{
+		if (contents != null)
+			return contents;
+
+		java.util.List<MessageObject> list = lazyContents == null ? null : lazyContents.get();
+		if (list == null) {
+			try {
+				list = readContents(nodeContentsTable, bbt, nbt, pstFile);
+			} catch (final	BadXBlockLevelException
+				|	BadXBlockTypeException
+				|	CRCMismatchException
+				|	DataOverflowException
+				|	NotHeapNodeException
+				|	NotPropertyContextNodeException
+				|	NotTableContextNodeException
+				|	NullDataBlockException
+				|	NullNodeException
+				|	UnimplementedPropertyTypeException
+				|	UnknownClientSignatureException
+				|	UnknownPropertyTypeException
+				|	UnparseablePropertyContextException
+				|	UnparseableTableContextException
+				|	java.io.IOException e) {
+				throw new FolderReadException(displayName, e);
+			}
+			lazyContents = new java.lang.ref.SoftReference<java.util.List<MessageObject>>(list);
+		}
+		return list;
+	}
+
+	/**	Get an iterator which reads this folder's message objects from its contents table one at a time, as they are requested.
+	*	Unlike {@link #contentsIterator}, the message objects are not kept by the folder, so the memory needed to visit the
+	*	folder does not grow with the number of message objects in it.
+	*	@param	pst	The PST file containing this folder.
+	*	@return	An iterator through the contents.
+	*	@throws	FolderReadException	The contents table or one of the message objects could not be read.
+	*/
+	public java.util.Iterator<MessageObject> contentsTableIterator(final PST pst)
+	{
+		if (nodeContentsTable == null)
+			return java.util.Collections.<MessageObject>emptyIterator();
+
+		final TableContext contentsTable;
+		try {
+			contentsTable = new TableContext(nodeContentsTable, pst.blockBTree, pst, null);
+		} catch (final	BadXBlockLevelException
+			|	BadXBlockTypeException
+			|	CRCMismatchException
+			|	DataOverflowException
+			|	NotHeapNodeException
+			|	NotTableContextNodeException
+			|	UnimplementedPropertyTypeException
+			|	UnknownClientSignatureException
+			|	UnknownPropertyTypeException
+			|	UnparseableTableContextException
+			|	java.io.IOException e) {
+			throw new FolderReadException(displayName, e);
+		}
+
+		return new java.util.Iterator<MessageObject>() {
+			/**	The next row of the contents table to read. */
+			private int row;
+
+			@Override
+			public boolean hasNext()
+			{
+				return row < contentsTable.getRowCount();
+			}
+
+			@Override
+			public MessageObject next()
+			{
+				if (!hasNext())
+					throw new java.util.NoSuchElementException();
+
+				try {
+					return MessageObject.factory(contentsTable, row++, pst.blockBTree, pst.nodeBTree, pst);
+				} catch (final	BadXBlockLevelException
+					|	BadXBlockTypeException
+					|	CRCMismatchException
+					|	DataOverflowException
+					|	NotHeapNodeException
+					|	NotPropertyContextNodeException
+					|	NotTableContextNodeException
+					|	NullDataBlockException
+					|	NullNodeException
+					|	UnimplementedPropertyTypeException
+					|	UnknownClientSignatureException
+					|	UnknownPropertyTypeException
+					|	UnparseablePropertyContextException
+					|	UnparseableTableContextException
+					|	java.io.IOException e) {
+					throw new FolderReadException(displayName, e);
+				}
+			}
+		};
 	}
 
 	/**	Get the requested child of this parent.
@@ -166,12 +327,14 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 			return ((Message)oParent).attachment(index);
 
 		Folder folder = (Folder)oParent;
-		if (index < folder.subfolders.size())
-			return folder.subfolders.get(index);
+		final java.util.List<Folder> subfolders = folder.subfolders();
+		if (index < subfolders.size())
+			return subfolders.get(index);
 
-		int indexItem = index - folder.subfolders.size();
-		if (indexItem < folder.contents.size())
-			return folder.contents.get(indexItem);
+		final java.util.List<MessageObject> contents = folder.contents();
+		int indexItem = index - subfolders.size();
+		if (indexItem < contents.size())
+			return contents.get(indexItem);
 
 		assert false: "getChild for " + oParent + " index " + index + " not found";
 		return null;
@@ -185,7 +348,7 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 	public int getChildCount(Object oParent)
 	{
 		if (oParent instanceof Folder)
-			return ((Folder)oParent).subfolders.size() + ((Folder)oParent).contents.size();
+			return ((Folder)oParent).subfolders().size() + ((Folder)oParent).contents().size();
 
 		return ((Message)oParent).numAttachments();
 	}
@@ -276,6 +439,51 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 		return new Folder(nodeFolderObject, bbt, nbt, pstFile, new SubfolderLevelsToRead(SubfolderLevelsToRead.Levels.ALL), true);
 	}
 
+	/**	Factory method to get a folder whose sub-folders and contents are read only when they are first requested, via the
+	*	iterators or the TreeModel methods. Sub-folders obtained from the returned folder are also lazily loaded.
+	*	@param	nodeFolderObject	The entry in the PST file's node B-tree for this folder.
+	*	@param	bbt			The PST file's block B-tree.
+	*	@param	nbt			The PST file's node B-tree.
+	*	@param	pstFile			The PST file input stream, etc.
+	*	@return	A folder whose descendents will be read as needed.
+	*	@throws BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
+	*	@throws BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
+	*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
+	*	@throws	DataOverflowException	More data was found than will fit into the number of rows allocated, indicating a probably-corrupt file.
+	*	@throws NotHeapNodeException			A node which was not a heap node was found when reading in the folder.
+	*	@throws NotPropertyContextNodeException		A node without the Property Context client signature was found when building a property context.
+	*	@throws NotTableContextNodeException		A node without the Table Context client signature was found when building a table context.
+	*	@throws NullDataBlockException			A null data block was found when building a property context.
+	*	@throws NullNodeException	The NullNodeException is thrown when a node is found to be null when building a PropertyContext.
+	*	@throws	UnimplementedPropertyTypeException	Handling for the property type has not been implemented
+	*	@throws	UnknownClientSignatureException		An unrecognized client signature was encountered.
+	*	@throws UnknownPropertyTypeException		The property type was not recognized
+	*	@throws UnparseablePropertyContextException	The property context could not be read.
+	*	@throws UnparseableTableContextException	The table context could not be read.
+	*	@throws java.io.IOException			There was a problem reading the PST file.
+	*	@see	Options#setLazyFolderTree
+	*/
+	public static Folder getLazyFolderTree(NBTEntry nodeFolderObject, BlockMap bbt, NodeMap nbt, PSTFile pstFile)
+	throws
+		BadXBlockLevelException,
+		BadXBlockTypeException,
+		CRCMismatchException,
+		DataOverflowException,
+		NotHeapNodeException,
+		NotPropertyContextNodeException,
+		NotTableContextNodeException,
+		NullDataBlockException,
+		NullNodeException,
+		UnimplementedPropertyTypeException,
+		UnknownClientSignatureException,
+		UnknownPropertyTypeException,
+		UnparseablePropertyContextException,
+		UnparseableTableContextException,
+		java.io.IOException
+	{
+		return new Folder(nodeFolderObject, bbt, nbt, pstFile, new SubfolderLevelsToRead(SubfolderLevelsToRead.Levels.LAZY), false);
+	}
+
 	/**	Get the index of the given child object of the parent tree node.
 	*	@param	oParent	The tree node to look for the child in.
 	*	@param	child	The child to look for.
@@ -286,15 +494,20 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 	{
 		if (oParent instanceof Folder) {
 			Folder folder = (Folder)oParent;
+			final java.util.List<Folder> subfolders = folder.subfolders();
+			final java.util.List<MessageObject> contents = folder.contents();
 
-			for (int i = 0; i < folder.subfolders.size(); ++i) {
-				if (folder.subfolders.get(i) == child)
+			// Children of lazily-loaded folders may have been discarded and re-read, so match on the node as well as identity.
+			for (int i = 0; i < subfolders.size(); ++i) {
+				final Folder subfolder = subfolders.get(i);
+				if (subfolder == child || (child instanceof Folder && subfolder.nodeFolderObject.nid.equals(((Folder)child).nodeFolderObject.nid)))
 					return i;
 			}
 
-			for (int i = 0; i < folder.contents.size(); ++i) {
-				if (folder.contents.get(i) == child)
-					return i + folder.subfolders.size();
+			for (int i = 0; i < contents.size(); ++i) {
+				final MessageObject messageObject = contents.get(i);
+				if (messageObject == child || (child instanceof MessageObject && messageObject.nodeMessageObject.nid.equals(((MessageObject)child).nodeMessageObject.nid)))
+					return i + subfolders.size();
 			}
 		}
 
@@ -354,8 +567,13 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 		if (oNode instanceof Message)
 			return ((Message)oNode).numAttachments() == 0;
 
-		if (oNode instanceof Folder)
-			return ((Folder)oNode).subfolders.size() == 0 && ((Folder)oNode).contents.size() == 0;
+		if (oNode instanceof Folder) {
+			// Avoid reading in a lazily-loaded folder just to see whether it has any children.
+			final Folder folder = (Folder)oNode;
+			if (folder.subfolders == null || folder.contents == null)
+				return folder.nodeHierarchyTable == null && folder.nodeContentsTable == null;
+			return folder.subfolders.size() == 0 && folder.contents.size() == 0;
+		}
 
 		return true;
 	}
@@ -400,7 +618,7 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 		UnparseableTableContextException,
 		java.io.IOException
 	{
-		TableContext contentsTable = new TableContext(nodeContentsTable, bbt, pstFile);
+		TableContext contentsTable = new TableContext(nodeContentsTable, bbt, pstFile, null);
 
 		java.util.ArrayList<MessageObject> contents = new java.util.ArrayList<MessageObject>(contentsTable.getRowCount());
 		for (int row = 0; row < contentsTable.getRowCount(); ++row)
@@ -450,7 +668,7 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 		UnparseableTableContextException,
 		java.io.IOException
 	{
-		TableContext hierarchyTable = new TableContext(nodeHierarchyTable, bbt, pstFile);
+		TableContext hierarchyTable = new TableContext(nodeHierarchyTable, bbt, pstFile, java.util.Collections.singleton(PropertyTags.LtpRowId));
 
 		java.util.ArrayList<Folder> subfolders = new java.util.ArrayList<Folder>(hierarchyTable.getRowCount());
 		levelsToRead.decrement();
@@ -486,11 +704,13 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 		java.io.IOException
 	{
 		System.out.printf("%s%s", prefix, displayName);
+		final java.util.List<Folder> subfolders = subfolders();
 		for (int i = 0; i < subfolders.size(); ++i) {
 			Folder f = subfolders.get(i);
 			f.show("|" + prefix + "-");
 		}
 
+		final java.util.List<MessageObject> contents = contents();
 		for (int i = 0; i < contents.size(); ++i) {
 			MessageObject m = contents.get(i);
 			System.out.println(m);
@@ -502,7 +722,77 @@ public class Folder extends ReadOnlyTreeModel implements TreeCustomNodeText, jav
 	*/
 	public java.util.Iterator<Folder> subfolderIterator()
 	{
-		return subfolders.iterator();
+		return subfolders().iterator();
+	}
+
+	/**	Obtain the list of sub-folders, reading it in if this is a lazily-loaded folder and it has not been read yet or has
+	*	been discarded.
+	*	@return	The list of sub-folders of this folder.
+	*	@throws	FolderReadException	The sub-folders of a lazily-loaded folder could not be read.
+	*/
+	private synchronized java.util.List<Folder> subfolders()
+	{
+		if (subfolders != null)
+			return subfolders;
+
+		java.util.List<Folder> list = lazySubfolders == null ? null : lazySubfolders.get();
+		if (list == null) {
+			try {
+				list = readSubfolders(nodeHierarchyTable, bbt, nbt, pstFile, new SubfolderLevelsToRead(SubfolderLevelsToRead.Levels.LAZY), false);
+			} catch (final	BadXBlockLevelException
+				|	BadXBlockTypeException
+				|	CRCMismatchException
+				|	DataOverflowException
+				|	NotHeapNodeException
+				|	NotPropertyContextNodeException
+				|	NotTableContextNodeException
+				|	NullDataBlockException
+				|	NullNodeException
+				|	UnimplementedPropertyTypeException
+				|	UnknownClientSignatureException
+				|	UnknownPropertyTypeException
+				|	UnparseablePropertyContextException
+				|	UnparseableTableContextException
+				|	java.io.IOException e) {
+				throw new FolderReadException(displayName, e);
+			}
+			lazySubfolders = new java.lang.ref.SoftReference<java.util.List<Folder>>(list);
+		}
+		return list;
+	}
+
+	/**	Get a cursor through the rows of this folder's contents table which reads only the given columns, without creating a
+	*	message object or looking up the node of each message object.
+	*	@param	tags	The tags of the columns to read; if none are given, the columns needed for a {@link MessageSummary} are
+	*			read. The row ID, which is the node ID key of the message object, is always read.
+	*	@return	A cursor positioned before the first row of the contents table.
+	*	@throws	FolderReadException	The contents table could not be read.
+	*/
+	public MessageSummary.Cursor summaries(final int... tags)
+	{
+		final boolean fUnicode = pstFile.unicode();
+		final java.util.Set<Integer> columns = MessageSummary.columns(fUnicode, tags);
+
+		if (nodeContentsTable == null)
+			return new MessageSummary.Cursor(null, fUnicode);
+
+		final TableContext contentsTable;
+		try {
+			contentsTable = new TableContext(nodeContentsTable, bbt, pstFile, columns);
+		} catch (final	BadXBlockLevelException
+			|	BadXBlockTypeException
+			|	CRCMismatchException
+			|	DataOverflowException
+			|	NotHeapNodeException
+			|	NotTableContextNodeException
+			|	UnimplementedPropertyTypeException
+			|	UnknownClientSignatureException
+			|	UnknownPropertyTypeException
+			|	UnparseableTableContextException
+			|	java.io.IOException e) {
+			throw new FolderReadException(displayName, e);
+		}
+		return new MessageSummary.Cursor(contentsTable, fUnicode);
 	}
 
 	/**	Test the Folder class by iterating through the folders and displaying information about each folder and sub-folder.
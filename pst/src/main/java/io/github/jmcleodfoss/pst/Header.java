@@ -135,6 +135,12 @@ public class Header
 	/**	The location of the root of the block B-tree. */
 	public final BREF bbtRoot;
 
+	/**	The stored CRC of the first part of the header. */
+	public final int crcPartial;
+
+	/**	The stored CRC of the whole header, or 0 for ANSI files, whose headers do not have one. */
+	public final int crcFull;
+
 	/**	Read in the header data and save the fields we need for later.
 	*	@param	fc	The file channel of the PST file.
 	*	@throws	CRCMismatchException	The header's calculated CRC does not match the expected value.
@@ -142,6 +148,22 @@ public class Header
 	*	@throws	java.io.IOException	An I/O error was encountered when reading the pst header.
 	*/
 	Header(java.nio.channels.FileChannel fc)
+	throws
+		CRCMismatchException,
+		NotPSTFileException,
+		java.io.IOException
+	{
+		this(fc, Options.checkCRC);
+	}
+
+	/**	Read in the header data and save the fields we need for later.
+	*	@param	fc		The file channel of the PST file.
+	*	@param	checkCRC	Whether to check the header's CRCs.
+	*	@throws	CRCMismatchException	The header's calculated CRC does not match the expected value.
+	*	@throws	NotPSTFileException	This is not a pst file.
+	*	@throws	java.io.IOException	An I/O error was encountered when reading the pst header.
+	*/
+	Header(java.nio.channels.FileChannel fc, final boolean checkCRC)
 	throws
 		CRCMismatchException,
 		NotPSTFileException,
@@ -152,7 +174,7 @@ public class Header
 
 		int crcPartialCalculated = 0;
 		int crcFullCalculated = 0;
-		if (Options.checkCRC) {
+		if (checkCRC) {
 			crcPartialCalculated = CRC.crc(byteBuffer, CRC_START_OFFSET, CRC_PARTIAL_BYTES);
 			crcFullCalculated = CRC.crc(byteBuffer, CRC_START_OFFSET, CRC_FULL_BYTES);
 		}
@@ -160,14 +182,16 @@ public class Header
 		DataContainer dc = new DataContainer();
 		dc.read(byteBuffer, common_fields);
 		validate_dwMagic(dc);
-		validate_CRC(crcPartialCalculated, nm_dwCRCPartial, dc);
+		validate_CRC(checkCRC, crcPartialCalculated, nm_dwCRCPartial, dc);
 
+		crcPartial = (Integer)dc.get(nm_dwCRCPartial);
 		fileFormat = new FileFormat((Short)dc.get(nm_wVer));
 
 		dc.read(byteBuffer, fileFormat.fUnicode ? unicode_fields : ansi_fields);
 		if (fileFormat.fUnicode)
-			validate_CRC(crcFullCalculated, nm_dwCRCFull, dc);
+			validate_CRC(checkCRC, crcFullCalculated, nm_dwCRCFull, dc);
 
+		crcFull = fileFormat.fUnicode ? (Integer)dc.get(nm_dwCRCFull) : 0;
 		encryption = new Encryption((Byte)dc.get(nm_bCryptMethod));
 		nbtRoot = (BREF)dc.get(BREFRootNBT);
 		bbtRoot = (BREF)dc.get(BREFRootBBT);
@@ -205,18 +229,19 @@ public class Header
 	}
 
 	/**	Ensure that the header's initial (partial) CRC is correct. Note that this is used for both the partial and full CRCs.
+	*	@param	checkCRC	Whether the CRC should be checked.
 	*	@param	crcCalculated	The CRC of the header caculated from its contents.
 	*	@param	nm_field	The field name of the CRC to check.
 	*	@param	dc		The DataContainer object holding the values read in from the header.
 	*	@throws	CRCMismatchException	The header's calculated CRC does not match the expected value.
 	*/
 	@SuppressWarnings("PMD.MethodNamingConventions")
-	private void validate_CRC(final int crcCalculated, final String nm_field, final DataContainer dc)
+	private void validate_CRC(final boolean checkCRC, final int crcCalculated, final String nm_field, final DataContainer dc)
 	throws
 		CRCMismatchException
 	{
 		int crcExpected = (Integer)dc.get(nm_field);
-		if (Options.checkCRC && crcCalculated != crcExpected)
+		if (checkCRC && crcCalculated != crcExpected)
 			throw new CRCMismatchException(nm_field, crcCalculated, crcExpected);
 	}
 
@@ -9,21 +9,35 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 	/**	The heap-on-node header for this heap-on-node object. This is used only in toString. */
 	private final Header hnhdr;
 
-	/**	The heap data for this heap-on-node object. */
-	private final byte[][] heap;
+	/**	The data of each block making up the heap, as read-only little-endian buffers. The heap allocations are not copied
+	*	out of the blocks; they are described by {@link #allocationBlock}, {@link #allocationOffset}, and
+	*	{@link #allocationSize}.
+	*/
+	private final java.nio.ByteBuffer[] blocks;
+
+	/**	The index into {@link #blocks} of the block holding each heap allocation. */
+	private final int[] allocationBlock;
+
+	/**	The offset of each heap allocation within its block. */
+	private final int[] allocationOffset;
+
+	/**	The size of each heap allocation, or 0 if the allocation is empty. */
+	private final int[] allocationSize;
 
 	/**	The offsets into the heap corresponding to each block */
 	private final int[] blockOffset;
 
+	/**	Whether this heap-on-node was read from an OST 2013 file, which lays out the block index of an HID differently.
+	*	@see	HID#blockIndex
+	*/
+	private final boolean fOst2013;
+
 	/**	The HID class is describes an index into the heap-on-node structure or a node (this is actually an HNID class).
 	*	@see	<a href="https://docs.microsoft.com/en-us/openspecs/office_file_formats/ms-pst/85b9e985-ea53-447f-b70c-eb82bfbdcbc9">MS-PST Section 2.3.1.1: HID</a>
 	*	@see	<a href="https://blog.mythicsoft.com/ost-2013-file-format-the-missing-documentation/">OST 2013 file format the missing documentation blog entry</a>
 	*/
 	static class HID extends NID
 	{
-		/**	Whether the file being processed is a OST-2013 file or not. */
-		static boolean fOst2013 = false;
-
 		/**	How far right to shift the block index for ANSI and Unicode files.
 		*	@see	<a href="https://blog.mythicsoft.com/ost-2013-file-format-the-missing-documentation/">OST 2013 file format the missing documentation blog entry</a>
 		*/
@@ -39,19 +53,12 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 		*/
 		static final int BTREE_ON_HEAP_ROOT_KEY = 0x00000020;
 
-		/**	The HID for the root of a B-Tree-on-Heap
-		*	It's okay to call #factory before fOst2013 has been set since 0 is unaffected by shifting right.
-		*/
+		/**	The HID for the root of a B-Tree-on-Heap. */
 		static final HID BTreeOnHeapRoot = new HID(BTREE_ON_HEAP_ROOT_KEY);
 
 		/**	The size of an HID or HNID element, in bytes. */
 		static final int SIZE = 4;
 
-		/**	The block index (index into one of the blocks whose contents make up the heap) of this HID.
-		*	(i.e. which block, starting from 0, the block index should be counted into)
-		*/
-		private final int blockIndex;
-
 		/**	The index to the node data within a block referred to by this HID */
 		private final int index;
 
@@ -61,18 +68,29 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 		HID(int rawData)
 		{
 			super(rawData);
-			if (type == NID.HID) {
+			if (type == NID.HID)
 				index = (short)(0x7ff & (rawData >> 5));
-				// This ost field is not documented, so we don't use it anywhere, but this is how to extract it
-				// final int flags = fOst2013 ? 0x7 & (rawData >> 16) : 0;
-
-				final int shiftBy = 16 + (fOst2013 ? BLOCK_INDEX_RSHIFT_OST_2013 : BLOCK_INDEX_RSHIFT);
-				final int mask = 0xffff >>> (fOst2013 ? BLOCK_INDEX_RSHIFT_OST_2013 : BLOCK_INDEX_RSHIFT);
-				blockIndex = mask & (rawData >> shiftBy);
-			} else {
+			else
 				index = 0;
-				blockIndex = 0;
-			}
+		}
+
+		/**	Obtain the block index (index into one of the blocks whose contents make up the heap) of this HID, i.e. which
+		*	block, starting from 0, the index should be counted into. The block index is laid out differently in OST 2013
+		*	files, so the file format must be supplied by the caller; it is not a property of the HID itself.
+		*	@param	fOst2013	Whether the HID was read from an OST 2013 file.
+		*	@return	The block index of this HID.
+		*/
+		int blockIndex(final boolean fOst2013)
+		{
+			if (type != NID.HID)
+				return 0;
+
+			// This ost field is not documented, so we don't use it anywhere, but this is how to extract it
+			// final int flags = fOst2013 ? 0x7 & (key >> 16) : 0;
+
+			final int shiftBy = 16 + (fOst2013 ? BLOCK_INDEX_RSHIFT_OST_2013 : BLOCK_INDEX_RSHIFT);
+			final int mask = 0xffff >>> (fOst2013 ? BLOCK_INDEX_RSHIFT_OST_2013 : BLOCK_INDEX_RSHIFT);
+			return mask & (key >> shiftBy);
 		}
 
 		/**	Is the given object equivalent to this NHD?
@@ -103,21 +121,13 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 			return type == NID.HID && index != 0;
 		}
 
-		/** Set the flag indicating an OST 2013 file
-		*	@param	fileFormatIndex	The index for the file format read in from the header.
-		*/
-		static void setOst2013(FileFormat.Index fileFormatIndex)
-		{
-			fOst2013 = fileFormatIndex == FileFormat.Index.OST_2013;
-		}
-
 		/**	Obtain a description of this HID (typically used for debugging).
 		*	@return	A description of this HID.
 		*/
 		@Override
 		public String toString()
 		{
-			return String.format("type 0x%1x index 0x%03x block index 0x%08x", type, index, blockIndex);
+			return String.format("type 0x%1x index 0x%03x block index bits 0x%04x", type, index, type == NID.HID ? 0xffff & (key >>> 16) : 0);
 		}
 	}
 
@@ -143,15 +153,11 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 
 		/**	Build a heap-on-node bitmap header object from the input data stream.
 		*	@param	stream	The input data stream from which to read the HNBITMAPHDR object.
-		* 	@throws	java.io.IOException	There was an I/O error reading the heap node bitmap header.
 		*/
 		private HNBitmapHeader(java.nio.ByteBuffer stream)
-		throws
-			java.io.IOException
 		{
-			DataContainer dc = new DataContainer();
-			dc.read(stream, fields);
-			ibHnpm = 0xffff & (Short)dc.get(nm_ibHnpm);
+			ibHnpm = 0xffff & stream.getShort(stream.position());
+			stream.position(stream.position() + size);
 		}
 	}
 
@@ -181,6 +187,15 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 		/**	The size of the header fields in bytes */
 		private static final int size = DataDefinition.size(fields);
 
+		/**	The offset of the signature byte. */
+		private static final int OFFSET_BSIG = DataDefinition.offset(fields, nm_bSig);
+
+		/**	The offset of the client signature byte. */
+		private static final int OFFSET_BCLIENTSIG = DataDefinition.offset(fields, nm_bClientSig);
+
+		/**	The offset of the HID of the root of the higher-level structure. */
+		private static final int OFFSET_HIDUSERROOT = DataDefinition.offset(fields, nm_hidUserRoot);
+
 		/**	The offset to the page map. */
 		private final int ibHnpm;
 
@@ -192,26 +207,27 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 
 		/**	Build a heap-on-node header object from the input data stream.
 		*	@param	stream	The data stream from which to read the HNHDR object.
+		*	@param	strictHeapNodes	Whether to throw an exception if the block signature is not the heap-on-node signature.
 		* 	@throws	NotHeapNodeException	A node which was not a heap node was found while bulding the heap.
 		* 	@throws	UnknownClientSignatureException	A node with an unrecognized client signature was found while building the heap.
 		* 	@throws java.io.IOException	An I/O error was encountered while trying to build the heap.
 		*/
-		private Header(java.nio.ByteBuffer stream)
+		private Header(java.nio.ByteBuffer stream, final boolean strictHeapNodes)
 		throws
 			NotHeapNodeException,
 			UnknownClientSignatureException,
 			java.io.IOException
 		{
-			DataContainer dc = new DataContainer();
-			dc.read(stream, fields);
-			ibHnpm = 0xffff & (Short)dc.get(nm_ibHnpm);
+			final int base = stream.position();
+			ibHnpm = 0xffff & stream.getShort(base);
 
-			byte blockSignature = (Byte)dc.get(nm_bSig);
-			if (blockSignature != HN_SIGNATURE && Options.strictHeapNodes)
+			byte blockSignature = stream.get(base + OFFSET_BSIG);
+			if (blockSignature != HN_SIGNATURE && strictHeapNodes)
 				throw new NotHeapNodeException(blockSignature);
 
-			clientSignature = new ClientSignature((Byte)dc.get(nm_bClientSig));
-			hidUserRoot = new HID((Integer)dc.get(nm_hidUserRoot));
+			clientSignature = new ClientSignature(stream.get(base + OFFSET_BCLIENTSIG));
+			hidUserRoot = new HID(stream.getInt(base + OFFSET_HIDUSERROOT));
+			stream.position(base + size);
 		}
 
 		/**	Obtain a description of the heap-on-node header object (typically used for debugging).
@@ -231,7 +247,6 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 	{
 		private static final String nm_cAlloc = "cAlloc";
 		private static final String nm_cFree = "cFree";
-		private static final String nm_rgibAlloc = "rgibAlloc";
 
 		/**	The data which makes up the Page Map */
 		private static final DataDefinition[] fixed_fields = {
@@ -239,6 +254,9 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 			new DataDefinition(nm_cFree, DataType.integer16Reader, false)
 		};
 
+		/**	The size of the fixed part of the Page Map, which is followed by the array of heap offsets. */
+		private static final int FIXED_SIZE = DataDefinition.size(fixed_fields);
+
 		/**	The number of entries on this page of the heap data. */
 		private final int numEntries;
 
@@ -247,19 +265,16 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 
 		/**	Construct a PageMap object from the input datastream.
 		*	@param	stream	The data stream from which to read the HNPAGEMAP object.
-		* 	@throws	java.io.IOException	There was an I/O error while reading the data for the page map.
 		*/
 		private PageMap(java.nio.ByteBuffer stream)
-		throws
-			java.io.IOException
 		{
-			DataContainer dc = new DataContainer();
-			dc.read(stream, fixed_fields);
-			numEntries = (Short)dc.get(nm_cAlloc);
-			DataDefinition dataField = new DataDefinition(nm_rgibAlloc, new DataType.SizedInt16Array((numEntries+1)), true);
-			dc.read(stream, dataField);
+			final int base = stream.position();
+			numEntries = stream.getShort(base);
 
-			heapOffset = (short[])dc.get(nm_rgibAlloc);
+			heapOffset = new short[numEntries+1];
+			stream.position(base + FIXED_SIZE);
+			stream.asShortBuffer().get(heapOffset);
+			stream.position(base + FIXED_SIZE + 2*heapOffset.length);
 		}
 
 		/**	Obtain a description of the PageMap object (typically used for debugging).
@@ -295,15 +310,10 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 
 		/**	Create a PageHeader object from the input data stream.
 		* 	@param	stream	The stream to read the page header from.
-		* 	@throws	java.io.IOException	An I/O exception was encountered while reading the data for the page header.
  		*/
 		private PageHeader(java.nio.ByteBuffer stream)
-		throws
-			java.io.IOException
 		{
-			DataContainer dc = new DataContainer();
-			dc.read(stream, hdr_field);
-			ibHnpm = 0xffff & (Short)dc.get(nm_ibHnpm);
+			ibHnpm = 0xffff & stream.getShort();
 		}
 	};
 
@@ -327,8 +337,9 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 		UnknownClientSignatureException,
 		java.io.IOException
 	{
-		final BlockBase blocks = BlockBase.read(entry, bbt, pstFile);
-		java.util.Iterator<java.nio.ByteBuffer> blockIterator = blocks.iterator();
+		fOst2013 = pstFile.header.fileFormat.index == FileFormat.Index.OST_2013;
+		final BlockBase heapBlocks = BlockBase.read(entry, bbt, pstFile);
+		java.util.Iterator<java.nio.ByteBuffer> blockIterator = heapBlocks.iterator();
 
 		Header hnhdr = null;
 
@@ -348,7 +359,7 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 			if (iBlock == 0) {
 				if (blockDataStream.remaining() < Header.size)
 					continue;
-				hnhdr = new Header(blockDataStream);
+				hnhdr = new Header(blockDataStream, pstFile.strictHeapNodes);
 				offsetData = Header.size;
 				offsetPageMap = hnhdr.ibHnpm;
 			} else if (iBlock - 8 % 128 == 0) {
@@ -377,21 +388,29 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 
 		this.hnhdr = hnhdr;
 
-		heap = new byte[heapLength][];
+		blocks = new java.nio.ByteBuffer[dataStreams.size()];
+		allocationBlock = new int[heapLength];
+		allocationOffset = new int[heapLength];
+		allocationSize = new int[heapLength];
 		blockOffset = new int[heapLength];
 
-		// Read in heap data
+		// Locate the heap data within each block
 		int iHeap = 0;
 		for (iBlock = 0; iBlock < dataStreams.size(); ++iBlock) {
+			final java.nio.ByteBuffer dataStream = dataStreams.get(iBlock);
+			blocks[iBlock] = dataStream.asReadOnlyBuffer().order(java.nio.ByteOrder.LITTLE_ENDIAN);
 			blockOffset[iBlock] = iHeap;
 			final PageMap hnpm = pageMaps.get(iBlock);
+			int position = dataStream.position();
 			for (int i = 0; i < hnpm.numEntries; ++i) {
 				int offset = 0xffff & hnpm.heapOffset[i];
 				int size = 0xffff & hnpm.heapOffset[i+1] - offset;
-				if (size > 0) {
-					heap[iHeap] = new byte[size];
-					dataStreams.get(iBlock).get(heap[iHeap]);
-				}
+				if (position + size > dataStream.limit())
+					throw new java.nio.BufferUnderflowException();
+				allocationBlock[iHeap] = iBlock;
+				allocationOffset[iHeap] = position;
+				allocationSize[iHeap] = size;
+				position += size;
 				++iHeap;
 			}
 		}
@@ -413,13 +432,40 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 		return hnhdr != null;
 	}
 
-	/**	Return the data associated with the given HID
+	/**	Copy the given heap allocation out of its block.
+	*	@param	i	The index of the allocation in the entire heap.
+	*	@return	A copy of the data for the allocation, or null if the allocation is empty.
+	*/
+	private byte[] allocation(final int i)
+	{
+		if (allocationSize[i] == 0)
+			return null;
+
+		final byte[] data = new byte[allocationSize[i]];
+		blocks[allocationBlock[i]].get(allocationOffset[i], data);
+		return data;
+	}
+
+	/**	Obtain a view of the data associated with the given HID. The data is not copied out of the block containing it.
+	*	@param	hid	The heap ID to retrieve the data from.
+	*	@return	A read-only little-endian buffer holding the data for the given heap index in this heap-on-node, or null if
+	*		the allocation is empty.
+	*/
+	java.nio.ByteBuffer heapBuffer(final HID hid)
+	{
+		final int i = heapIndex(hid);
+		if (allocationSize[i] == 0)
+			return null;
+		return blocks[allocationBlock[i]].slice(allocationOffset[i], allocationSize[i]).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**	Return a copy of the data associated with the given HID. Use {@link #heapBuffer} to read the data without copying it.
 	*	@param	hid	The heap ID to retrieve the data from.
 	*	@return	The data for the given heap index in this heap-on-node.
 	*/
 	byte[] heapData(final HID hid)
 	{
-		return heap[heapIndex(hid)];
+		return allocation(heapIndex(hid));
 	}
 
 	/**	Obtain the index into the entire heap from an HID
@@ -428,7 +474,39 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 	*/
 	private int heapIndex(final HID hid)
 	{
-		return blockOffset[hid.blockIndex] + hid.index - 1;
+		return blockOffset[hid.blockIndex(fOst2013)] + hid.index - 1;
+	}
+
+	/**	Obtain the index into the entire heap from a raw HID value, without creating an {@link HID} object.
+	*	@param	hid	The 32-bit HID, as read from the PST file.
+	*	@return	The index into the data block list of the entire heap, or -1 if the value is not an HID belonging to this
+	*		heap-on-node.
+	*/
+	private int heapIndex(final int hid)
+	{
+		final int index = 0x7ff & (hid >> 5);
+		if ((hid & 0x1f) != NID.HID || index == 0)
+			return -1;
+
+		final int blockIndex = fOst2013
+			? (0xffff >>> HID.BLOCK_INDEX_RSHIFT_OST_2013) & (hid >> (16 + HID.BLOCK_INDEX_RSHIFT_OST_2013))
+			: (0xffff >>> HID.BLOCK_INDEX_RSHIFT) & (hid >> (16 + HID.BLOCK_INDEX_RSHIFT));
+		if (blockIndex >= blockOffset.length || blockOffset[blockIndex] + index > allocationSize.length)
+			return -1;
+		return blockOffset[blockIndex] + index - 1;
+	}
+
+	/**	Read the 64-bit little-endian value at the start of the data associated with the given raw HID value, without
+	*	creating an {@link HID} object or copying the data.
+	*	@param	hid	The 32-bit HID, as read from the PST file.
+	*	@return	The value, or 0 if the HID does not belong to this heap-on-node or its data is too short to hold a 64-bit value.
+	*/
+	long heapLong(final int hid)
+	{
+		final int i = heapIndex(hid);
+		if (i < 0 || allocationSize[i] < Long.BYTES)
+			return 0;
+		return blocks[allocationBlock[i]].getLong(allocationOffset[i]);
 	}
 
 	/**	Determine this heap-on-node contain a property context.
@@ -515,22 +593,23 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 			return "Empty Heap-on-Node";
 
 		StringBuilder s = new StringBuilder(hnhdr.toString());
-		for (int i = 0; i < heap.length; ++i) {
+		for (int i = 0; i < allocationSize.length; ++i) {
+			final byte[] data = allocation(i);
 			s.append('\n');
 			s.append(i);
 			s.append(':');
-			s.append(heap[i] != null ? ByteUtil.createHexByteString(heap[i]) : "empty");
+			s.append(data != null ? ByteUtil.createHexByteString(data) : "empty");
 		}
 
 		return s.toString();
 	}
 
-	/**	Retrieve the heap data corresponding to the header user root HNID.
-	*	@return	The heap data for the user root entry in the heap-on-node.
+	/**	Obtain a view of the heap data corresponding to the header user root HNID.
+	*	@return	A read-only little-endian buffer holding the heap data for the user root entry in the heap-on-node.
 	*/
-	byte[] userRootHeapData()
+	java.nio.ByteBuffer userRootHeapBuffer()
 	{
-		return heapData(hnhdr.hidUserRoot);
+		return heapBuffer(hnhdr.hidUserRoot);
 	}
 
 	/**	Does this HID refer to a heap entry which exists in this heap-on-node?
@@ -539,7 +618,10 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 	*/
 	boolean validHID(HID hid)
 	{
-		return hid.type == NID.HID && hid.blockIndex < blockOffset.length && hid.index > 0 && blockOffset[hid.blockIndex] + hid.index <= heap.length;
+		if (hid.type != NID.HID || hid.index <= 0)
+			return false;
+		final int blockIndex = hid.blockIndex(fOst2013);
+		return blockIndex < blockOffset.length && blockOffset[blockIndex] + hid.index <= allocationSize.length;
 	}
 
 	/**	The list presented by the HeapOnNode object is immutable, so it does not support adding ListDataListeners.
@@ -560,9 +642,8 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 	@Override
 	public Object getElementAt(int index)
 	{
-		if (heap[index] != null)
-			return ByteUtil.createHexByteString(heap[index]);
-		return null;
+		final byte[] data = allocation(index);
+		return data != null ? ByteUtil.createHexByteString(data) : null;
 	}
 
 	/**	Obtain the number of list elements.
@@ -571,7 +652,7 @@ public class HeapOnNode implements javax.swing.ListModel<Object>
 	@Override
 	public int getSize()
 	{
-		return heap.length;
+		return allocationSize.length;
 	}
 
 	/**	The list presented by the HeapOnNode object is immutable, so it is impossible to add or remove listeners.
@@ -0,0 +1,158 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The InflaterPool class inflates the compressed data blocks found in OST 2013 files. Inflaters are kept in a pool and
+*	reset after each block rather than being created for every block, so that a thread reading many blocks in turn reuses
+*	the same inflater, and the native memory used by the inflaters is released when the PST file is closed rather than when
+*	they are garbage-collected. The pool also records the number of bytes inflated and the time spent inflating them.
+*	@see	SimpleBlock
+*	@see	<a href="https://blog.mythicsoft.com/ost-2013-file-format-the-missing-documentation/">OST 2013 file format the missing documentation blog entry</a>
+*/
+public class InflaterPool
+{
+	/**	The inflaters not currently in use, most recently used first. */
+	private final java.util.concurrent.ConcurrentLinkedDeque<java.util.zip.Inflater> inflaters;
+
+	/**	Whether the pool has been closed, after which inflaters are released as soon as they have been used. */
+	private volatile boolean fClosed;
+
+	/**	The number of blocks inflated. */
+	private final java.util.concurrent.atomic.AtomicLong blocks;
+
+	/**	The number of compressed bytes read. */
+	private final java.util.concurrent.atomic.AtomicLong compressedBytes;
+
+	/**	The number of bytes produced by inflating the compressed data. */
+	private final java.util.concurrent.atomic.AtomicLong inflatedBytes;
+
+	/**	The time spent inflating data, in nanoseconds. */
+	private final java.util.concurrent.atomic.AtomicLong inflateNanos;
+
+	/**	Create an empty inflater pool. */
+	InflaterPool()
+	{
+		inflaters = new java.util.concurrent.ConcurrentLinkedDeque<java.util.zip.Inflater>();
+		blocks = new java.util.concurrent.atomic.AtomicLong();
+		compressedBytes = new java.util.concurrent.atomic.AtomicLong();
+		inflatedBytes = new java.util.concurrent.atomic.AtomicLong();
+		inflateNanos = new java.util.concurrent.atomic.AtomicLong();
+	}
+
+	/**	Obtain the number of blocks inflated.
+	*	@return	The number of blocks inflated since the PST file was opened.
+	*/
+	public long blocks()
+	{
+		return blocks.get();
+	}
+
+	/**	Release the native memory used by all the inflaters in the pool. Inflaters in use when the pool is closed are released
+	*	when they are returned to it.
+	*/
+	void close()
+	{
+		fClosed = true;
+		endPooled();
+	}
+
+	/**	Obtain the number of compressed bytes inflated.
+	*	@return	The number of compressed bytes read since the PST file was opened.
+	*/
+	public long compressedBytes()
+	{
+		return compressedBytes.get();
+	}
+
+	/**	Release the native memory used by the inflaters in the pool, emptying it. */
+	private void endPooled()
+	{
+		java.util.zip.Inflater inflater;
+		while ((inflater = inflaters.poll()) != null)
+			inflater.end();
+	}
+
+	/**	Inflate a compressed block.
+	*	@param	input		The compressed data, from the buffer's position to its limit. The position is advanced past the
+	*				data consumed.
+	*	@param	totalBytes	The size of the inflated data.
+	*	@return	The inflated data.
+	*	@throws	java.util.zip.DataFormatException	The compressed data is corrupt, or does not inflate to exactly totalBytes
+	*							bytes.
+	*/
+	byte[] inflate(final java.nio.ByteBuffer input, final int totalBytes)
+	throws
+		java.util.zip.DataFormatException
+	{
+		java.util.zip.Inflater inflater = inflaters.poll();
+		if (inflater == null)
+			inflater = new java.util.zip.Inflater();
+
+		final int numBytes = input.remaining();
+		final byte[] inflated = new byte[totalBytes];
+		final long timeStart = System.nanoTime();
+		try {
+			inflater.setInput(input);
+			final int n = inflater.inflate(java.nio.ByteBuffer.wrap(inflated));
+			if (n != totalBytes || !inflater.finished())
+				throw new java.util.zip.DataFormatException(String.format("Inflated %d bytes%s, expected %d", n, inflater.finished() ? "" : " without reaching the end of the compressed data", totalBytes));
+		} finally {
+			inflateNanos.addAndGet(System.nanoTime() - timeStart);
+			release(inflater);
+		}
+
+		blocks.incrementAndGet();
+		compressedBytes.addAndGet(numBytes);
+		inflatedBytes.addAndGet(totalBytes);
+		return inflated;
+	}
+
+	/**	Obtain the number of inflaters in the pool.
+	*	@return	The number of inflaters not currently in use which are kept for reuse.
+	*/
+	int pooled()
+	{
+		return inflaters.size();
+	}
+
+	/**	Return an inflater to the pool, or release its native memory if the pool has been closed.
+	*	@param	inflater	The inflater to return.
+	*/
+	private void release(final java.util.zip.Inflater inflater)
+	{
+		inflater.reset();
+		if (fClosed) {
+			inflater.end();
+			return;
+		}
+
+		inflaters.push(inflater);
+
+		// The pool may have been closed and emptied between the check above and the push.
+		if (fClosed)
+			endPooled();
+	}
+
+	/**	Obtain the number of bytes produced by inflating compressed blocks.
+	*	@return	The number of inflated bytes produced since the PST file was opened.
+	*/
+	public long inflatedBytes()
+	{
+		return inflatedBytes.get();
+	}
+
+	/**	Obtain the time spent inflating compressed blocks.
+	*	@return	The time spent inflating blocks since the PST file was opened, in nanoseconds.
+	*/
+	public long inflateNanos()
+	{
+		return inflateNanos.get();
+	}
+
+	/**	Obtain a summary of the inflation statistics.
+	*	@return	A string describing the number of blocks and bytes inflated and the time taken.
+	*/
+	@Override
+	public String toString()
+	{
+		return String.format("%d blocks, %d compressed bytes, %d inflated bytes, %d ms", blocks(), compressedBytes(), inflatedBytes(), inflateNanos() / 1000000);
+	}
+}
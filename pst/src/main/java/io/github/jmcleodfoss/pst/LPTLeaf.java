@@ -5,9 +5,6 @@ package io.github.jmcleodfoss.pst;
 */
 public abstract class LPTLeaf implements BTreeLeaf
 {
-	/**	The data container holding the information read in. */
-	protected DataContainer dc;
-
 	/**	The node ID of this node in the B-tree. */
 	public final NID nid;
 
@@ -22,21 +19,63 @@ public abstract class LPTLeaf implements BTreeLeaf
 	protected static final String nm_bidData = "bidData";
 	protected static final String nm_bidSubnode = "bidSubnode";
 
-	/**	Create the base object: read in the fields, and retrieve the data common to all derived classes.
+	/**	The Unicode-specific fields in the input stream which are common to node and sub-node B-tree leaf entries. */
+	private static final DataDefinition[] unicode_fields = {
+		new DataDefinition(nm_nid, DataType.nidReader, true),
+		new DataDefinition(nm_nid_padding, new DataType.SizedByteArray(4), false),
+		new DataDefinition(nm_bidData, DataType.bidUnicodeReader, true),
+		new DataDefinition(nm_bidSubnode, DataType.bidUnicodeReader, true)
+	};
+
+	/**	The ANSI-specific fields in the input stream which are common to node and sub-node B-tree leaf entries. */
+	private static final DataDefinition[] ansi_fields = {
+		new DataDefinition(nm_nid, DataType.nidReader, true),
+		new DataDefinition(nm_bidData, DataType.bidAnsiReader, true),
+		new DataDefinition(nm_bidSubnode, DataType.bidAnsiReader, true)
+	};
+
+	/**	The offset of the data block ID in Unicode files. */
+	private static final int OFFSET_BID_DATA_UNICODE = DataDefinition.offset(unicode_fields, nm_bidData);
+
+	/**	The offset of the sub-node block ID in Unicode files. */
+	private static final int OFFSET_BID_SUBNODE_UNICODE = DataDefinition.offset(unicode_fields, nm_bidSubnode);
+
+	/**	The offset of the data block ID in ANSI files. */
+	private static final int OFFSET_BID_DATA_ANSI = DataDefinition.offset(ansi_fields, nm_bidData);
+
+	/**	The offset of the sub-node block ID in ANSI files. */
+	private static final int OFFSET_BID_SUBNODE_ANSI = DataDefinition.offset(ansi_fields, nm_bidSubnode);
+
+	/**	The size of the fields common to node and sub-node B-tree leaf entries in Unicode files. */
+	static final int SIZE_UNICODE = DataDefinition.size(unicode_fields);
+
+	/**	The size of the fields common to node and sub-node B-tree leaf entries in ANSI files. */
+	static final int SIZE_ANSI = DataDefinition.size(ansi_fields);
+
+	/**	Create the base object: read in the fields common to all derived classes directly from their fixed positions in the
+	*	input data stream, leaving the stream positioned after them.
 	*	@param	byteBuffer	The input data stream from which to read the leaf object.
-	*	@param	fields		The descriptions of the fields to be read.
-	* 	@throws java.io.IOException	The PST file could not be read.
+	*	@param	fUnicode	A flag indicating whether the current PST file is Unicode or ANSI.
 	*/
-	protected LPTLeaf(java.nio.ByteBuffer byteBuffer, final DataDefinition[]... fields)
-	throws
-		java.io.IOException
+	protected LPTLeaf(java.nio.ByteBuffer byteBuffer, final boolean fUnicode)
 	{
-		dc = new DataContainer();
-		dc.read(byteBuffer, fields);
+		final int base = byteBuffer.position();
+		nid = new NID(byteBuffer.getInt(base));
+		bidData = DataType.readBID(byteBuffer, base + (fUnicode ? OFFSET_BID_DATA_UNICODE : OFFSET_BID_DATA_ANSI), fUnicode);
+		bidSubnode = DataType.readBID(byteBuffer, base + (fUnicode ? OFFSET_BID_SUBNODE_UNICODE : OFFSET_BID_SUBNODE_ANSI), fUnicode);
+		byteBuffer.position(base + (fUnicode ? SIZE_UNICODE : SIZE_ANSI));
+	}
 
-		nid = (NID)dc.get(nm_nid);
-		bidData = (BID)dc.get(nm_bidData);
-		bidSubnode = (BID)dc.get(nm_bidSubnode);
+	/**	Create the base object from values which have already been read.
+	*	@param	nid		The node ID.
+	*	@param	bidData		The block ID of the node's data.
+	*	@param	bidSubnode	The block ID of the node's sub-node B-tree.
+	*/
+	protected LPTLeaf(final NID nid, final BID bidData, final BID bidSubnode)
+	{
+		this.nid = nid;
+		this.bidData = bidData;
+		this.bidSubnode = bidSubnode;
 	}
 
 	/**	{@inheritDoc} */
@@ -27,14 +27,33 @@ package io.github.jmcleodfoss.pst;
 */
 public class Message extends MessageObjectWithBody
 {
-	/**	Flag indicating the message has attachments. */
-	private static final int MSG_FLAG_ATTACHMENT = 0x10;
+	/**	The attachment table node information. This is null until the message's sub-node B-tree has been read by
+	*	{@link #getMessage}, {@link #nodeAttachmentTable()}, or one of the methods which retrieves the attachments.
+	*	@deprecated	Use {@link #nodeAttachmentTable()}, which reads the sub-node B-tree if this has not been done yet.
+	*/
+	@Deprecated
+	public volatile SLEntry nodeAttachmentTable;
+
+	/**	The recipient table node information. This is null until the message's sub-node B-tree has been read by
+	*	{@link #getMessage}, {@link #nodeRecipientTable()}, or one of the methods which retrieves the attachments.
+	*	@deprecated	Use {@link #nodeRecipientTable()}, which reads the sub-node B-tree if this has not been done yet.
+	*/
+	@Deprecated
+	public volatile SLEntry nodeRecipientTable;
+
+	/**	The message's sub-node B-tree, once it has been read. */
+	private SubnodeBTree subnodeBTree;
 
-	/**	The attachment table node information. */
-	public final SLEntry nodeAttachmentTable;
+	/**	Whether the message's sub-node B-tree has been read (or found to be absent). */
+	private boolean fSubnodesRead;
 
-	/**	The recipient table node information. */
-	public final SLEntry nodeRecipientTable;
+	/**	The PST file's block B-tree, used to read the attachments and recipients when they are first requested. */
+	private final BlockMap bbt;
+
+	/**	The PST file's header, input stream, etc., used to read the attachments and recipients when they are first
+	*	requested.
+	*/
+	private final PSTFile pstFile;
 
 	/**	The sender's name or email address as given in the folder Contents table. */
 	public final String sentRepresentingName;
@@ -47,10 +66,29 @@ public class Message extends MessageObjectWithBody
 	*/
 	private java.util.ArrayList<Recipient> recipients;
 
-	/**	The attachments; this is created when the Message object is constructed. */
-	private java.util.ArrayList<Attachment> attachments;
+	/**	The attachments; this is created when they are first requested. */
+	private java.util.List<Attachment> attachments;
+
+	/**	The MessageReadException is thrown when the attachments or sub-nodes of a message, which are read when they are first
+	*	requested, cannot be read. It wraps the underlying exception, which is available through {@link #getCause}.
+	*/
+	public static class MessageReadException extends RuntimeException
+	{
+		/**	The serialVersionUID is required because the base class is serializable. */
+		private static final long serialVersionUID = 1L;
+
+		/**	Create a MessageReadException for the given message and cause.
+		*	@param	nid	The node ID of the message which could not be read.
+		*	@param	cause	The exception encountered while reading the message.
+		*/
+		MessageReadException(NID nid, Exception cause)
+		{
+			super("Could not read the attachments or sub-nodes of message " + nid, cause);
+		}
+	}
 
-	/**	Create a message for the given row in the folder contents table.
+	/**	Create a message for the given row in the folder contents table. Only the contents table row is read; the message's
+	*	sub-node B-tree, attachments, and recipients are read when they are first requested.
 	*	@param	contentsTable	The containing folder's contents table
 	*	@param	messageRow	The row of the contents table from which to create the message
 	*	@param	bbt		The PST file's block B-Tree
@@ -95,43 +133,8 @@ public class Message extends MessageObjectWithBody
 		messageDeliveryTime = (java.util.Date)contentsTable.get(messageRow, PropertyTags.MessageDeliveryTime);
 		sentRepresentingName = (String)contentsTable.get(messageRow, PropertyTags.SentRepresentingNameW);
 
-		SLEntry nodeAttachmentTable = null;
-		SLEntry nodeRecipientTable = null;
-		java.util.ArrayList<Attachment> attachments = null;
-		if (!nodeMessageObject.bidSubnode.isNull()) {
-			final SubnodeBTree snb = new SubnodeBTree(nodeMessageObject.bidSubnode, bbt, pstFile);
-			for (java.util.Iterator<BTreeNode> snbIterator = snb.iterator(); snbIterator.hasNext(); ) {
-
-				SLEntry subnode = (SLEntry)snbIterator.next();
-
-				if (subnode.nid.isRecipientTable()) {
-					nodeRecipientTable = subnode;
-					continue;
-				}
-
-				if (subnode.nid.isAttachmentTable()) {
-					nodeAttachmentTable = subnode;
-
-					final TableContext tcAttachments = new TableContext(nodeAttachmentTable, bbt, pstFile);
-
-					attachments = new java.util.ArrayList<Attachment>(tcAttachments.getRowCount());
-					for (int i = 0; i < tcAttachments.getRowCount(); ++i) {
-						final SLEntry nodeAttachmentPC = (SLEntry)snb.find((Integer)tcAttachments.get(i, PropertyTags.LtpRowId));
-						assert nodeAttachmentPC != null;
-						attachments.add(new Attachment(nodeAttachmentPC, bbt, pstFile));
-					}
-					continue;
-				}
-			}
-		}
-		this.nodeAttachmentTable = nodeAttachmentTable;
-		this.attachments = (attachments != null) ? attachments : new java.util.ArrayList<Attachment>(0);
-
-		int messageFlags = (Integer)contentsTable.get(messageRow, PropertyTags.MessageFlags);
-		assert (nodeAttachmentTable == null) == ((messageFlags & MSG_FLAG_ATTACHMENT) == 0);
-
-		this.nodeRecipientTable = nodeRecipientTable;
-		recipients = null;
+		this.bbt = bbt;
+		this.pstFile = pstFile;
 	}
 
 	/**	Return the requested attachment as specified by the index.
@@ -143,8 +146,7 @@ public class Message extends MessageObjectWithBody
 	*/
 	Attachment attachment(final int index)
 	{
-		assert attachments != null;
-		return attachments.get(index);
+		return attachments().get(index);
 	}
 
 	/**	Return an iterator over the message's attachments.
@@ -154,7 +156,53 @@ public class Message extends MessageObjectWithBody
 	*/
 	public java.util.Iterator<Attachment> attachmentIterator()
 	{
-		return attachments.iterator();
+		return attachments().iterator();
+	}
+
+	/**	Obtain the list of attachments, reading the attachment table and each attachment if this has not been done yet. If
+	*	the message has no sub-node B-tree, it has no attachment table and so no attachments. The message flags are not used
+	*	to skip the sub-nodes, since some messages with attachment tables do not have the attachment flag set.
+	*	@return	The list of attachments to this message.
+	*	@throws	MessageReadException	The attachments could not be read.
+	*/
+	private synchronized java.util.List<Attachment> attachments()
+	{
+		if (attachments != null)
+			return attachments;
+
+		try {
+			readSubnodes();
+			if (nodeAttachmentTable == null) {
+				attachments = new java.util.ArrayList<Attachment>(0);
+				return attachments;
+			}
+
+			final TableContext tcAttachments = new TableContext(nodeAttachmentTable, bbt, pstFile, java.util.Collections.singleton(PropertyTags.LtpRowId));
+			final java.util.ArrayList<Attachment> list = new java.util.ArrayList<Attachment>(tcAttachments.getRowCount());
+			for (int i = 0; i < tcAttachments.getRowCount(); ++i) {
+				final SLEntry nodeAttachmentPC = (SLEntry)subnodeBTree.find(tcAttachments.getInt(i, PropertyTags.LtpRowId));
+				assert nodeAttachmentPC != null;
+				list.add(new Attachment(nodeAttachmentPC, bbt, pstFile));
+			}
+			attachments = list;
+		} catch (final	BadXBlockLevelException
+			|	BadXBlockTypeException
+			|	CRCMismatchException
+			|	DataOverflowException
+			|	NotHeapNodeException
+			|	NotPropertyContextNodeException
+			|	NotTableContextNodeException
+			|	NullDataBlockException
+			|	NullNodeException
+			|	UnimplementedPropertyTypeException
+			|	UnknownClientSignatureException
+			|	UnknownPropertyTypeException
+			|	UnparseablePropertyContextException
+			|	UnparseableTableContextException
+			|	java.io.IOException e) {
+			throw new MessageReadException(nodeMessageObject.nid, e);
+		}
+		return attachments;
 	}
 
 	/**	Retrieve the message object property context.
@@ -193,8 +241,12 @@ public class Message extends MessageObjectWithBody
 	{
 		final PropertyContext pc = super.getMessage(pst);
 
-		if (nodeRecipientTable != null && !nodeRecipientTable.bidData.isNull()) {
-			final TableContext tcRecipients = new TableContext(nodeRecipientTable, pst.blockBTree, pst);
+		synchronized (this) {
+			readSubnodes();
+		}
+		final SLEntry recipientTable = nodeRecipientTable();
+		if (recipientTable != null && !recipientTable.bidData.isNull()) {
+			final TableContext tcRecipients = new TableContext(recipientTable, pst.blockBTree, pst);
 			recipients = new java.util.ArrayList<Recipient>(tcRecipients.getRowCount());
 			for (int i = 0; i < tcRecipients.getRowCount(); ++i)
 				recipients.add(new Recipient(tcRecipients, i, pst.unicode()));
@@ -210,10 +262,65 @@ public class Message extends MessageObjectWithBody
 	*/
 	int numAttachments()
 	{
-		if (nodeAttachmentTable == null)
-			return 0;
-		assert attachments != null;
-		return attachments.size();
+		return attachments().size();
+	}
+
+	/**	Obtain the attachment table node information, reading the message's sub-node B-tree if this has not been done yet.
+	*	@return	The attachment table node information, or null if the message has no attachment table.
+	*	@throws	MessageReadException	The message's sub-node B-tree could not be read.
+	*/
+	public synchronized SLEntry nodeAttachmentTable()
+	{
+		readSubnodesUnchecked();
+		return nodeAttachmentTable;
+	}
+
+	/**	Obtain the recipient table node information, reading the message's sub-node B-tree if this has not been done yet.
+	*	@return	The recipient table node information, or null if the message has no recipient table.
+	*	@throws	MessageReadException	The message's sub-node B-tree could not be read.
+	*/
+	public synchronized SLEntry nodeRecipientTable()
+	{
+		readSubnodesUnchecked();
+		return nodeRecipientTable;
+	}
+
+	/**	Read the message's sub-node B-tree to find the attachment and recipient tables, if this has not been done yet.
+	*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
+	*	@throws	java.io.IOException	An I/O exception was encountered while reading the sub-node B-tree.
+	*/
+	private void readSubnodes()
+	throws
+		CRCMismatchException,
+		java.io.IOException
+	{
+		if (fSubnodesRead)
+			return;
+
+		if (!nodeMessageObject.bidSubnode.isNull()) {
+			subnodeBTree = new SubnodeBTree(nodeMessageObject.bidSubnode, bbt, pstFile);
+			for (java.util.Iterator<BTreeNode> snbIterator = subnodeBTree.iterator(); snbIterator.hasNext(); ) {
+				final SLEntry subnode = (SLEntry)snbIterator.next();
+				if (subnode.nid.isRecipientTable())
+					nodeRecipientTable = subnode;
+				else if (subnode.nid.isAttachmentTable())
+					nodeAttachmentTable = subnode;
+			}
+		}
+		fSubnodesRead = true;
+	}
+
+	/**	Read the message's sub-node B-tree, if this has not been done yet, reporting any problems by an unchecked exception.
+	*	@throws	MessageReadException	The message's sub-node B-tree could not be read.
+	*/
+	private void readSubnodesUnchecked()
+	{
+		try {
+			readSubnodes();
+		} catch (final	CRCMismatchException
+			|	java.io.IOException e) {
+			throw new MessageReadException(nodeMessageObject.nid, e);
+		}
 	}
 
 	/**	Retrieve the requested recipient as specified by the index.
@@ -40,6 +40,50 @@ public class MessageStore
 	*	@see	<a href="https://docs.microsoft.com/en-us/openspecs/office_file_formats/ms-pst/48468b1e-cc81-4e2b-82a7-9bf61adc948e">MS-PST Section 2.4.3.3: PST Password Security</a>
 	*/
 	public MessageStore(final BlockMap bbt, final NodeMap nbt, final PSTFile pstFile)
+	throws
+		BadXBlockLevelException,
+		BadXBlockTypeException,
+		CRCMismatchException,
+		DataOverflowException,
+		NotHeapNodeException,
+		NotPropertyContextNodeException,
+		NotTableContextNodeException,
+		NullDataBlockException,
+		NullNodeException,
+		UnimplementedPropertyTypeException,
+		UnknownClientSignatureException,
+		UnknownPropertyTypeException,
+		UnparseablePropertyContextException,
+		UnparseableTableContextException,
+		java.io.IOException
+	{
+		this(bbt, nbt, pstFile, pstFile.lazyFolderTree);
+	}
+
+	/**	Create a message store object by reading in the message store node.
+	*	@param	bbt	The PST file's block B-tree.
+	*	@param	nbt	The PST file's node B-tree.
+	*	@param	pstFile	The PST file input data stream, {@link Header header}, etc.
+	*	@param	fLazyFolderTree	Whether to read the folder tree as folders are visited rather than all at once.
+	*	@throws BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
+	*	@throws BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
+	*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
+	*	@throws	DataOverflowException	More data was found than will fit into the number of rows allocated, indicating a probably-corrupt file.
+	*	@throws NotHeapNodeException			A node which was not a heap node was found while creating the message store.
+	*	@throws NotPropertyContextNodeException		A node without the Property Context client signature was found while building a property context.
+	*	@throws NotTableContextNodeException		A node without the Table Context client signature was found while building a table context.
+	*	@throws NullDataBlockException			A null data block was found while building a property context.
+	*	@throws NullNodeException	The NullNodeException is thrown when a node is found to be null when building a PropertyContext.
+	*	@throws	UnimplementedPropertyTypeException	Handling for the property type has not been implemented
+	*	@throws	UnknownClientSignatureException		The client signature of one of the blocks in the message store was not recognized.
+	*	@throws UnknownPropertyTypeException	The property type was not recognized
+	*	@throws UnparseablePropertyContextException	The property context could not be interpreted.
+	*	@throws UnparseableTableContextException	The table context could not be interpreted.
+	*	@throws java.io.IOException			The PST file could not be read.
+	*	@see	<a href="https://docs.microsoft.com/en-us/openspecs/office_file_formats/ms-pst/5493a0eb-0356-4e88-b4f5-0433ce0a93fa">MS-PST Section 2.4.3.1: Minimum Set of Required Properties</a>
+	*	@see	<a href="https://docs.microsoft.com/en-us/openspecs/office_file_formats/ms-pst/48468b1e-cc81-4e2b-82a7-9bf61adc948e">MS-PST Section 2.4.3.3: PST Password Security</a>
+	*/
+	MessageStore(final BlockMap bbt, final NodeMap nbt, final PSTFile pstFile, final boolean fLazyFolderTree)
 	throws
 		BadXBlockLevelException,
 		BadXBlockTypeException,
@@ -67,7 +111,7 @@ public class MessageStore
 			rootNID = rootEntryId.nid;
 		} else {
 			// OST files do not have the UpmSubTreeEntryId; find the root NID by looking for the NBT entry which is its own parent.
-			java.util.Iterator<BTreeNode> iterator = ((BTree)nbt).iterator();
+			java.util.Iterator<BTreeNode> iterator = nbt instanceof CompactNodeMap ? ((CompactNodeMap)nbt).iterator() : ((BTree)nbt).iterator();
 			while (iterator.hasNext()) {
 				final NBTEntry entry = (NBTEntry)iterator.next();
 				if (entry.nid.equals(entry.nidParent)){
@@ -76,7 +120,10 @@ public class MessageStore
 			}
 		}
 
-		rootFolder = Folder.getFolderTree(nbt.find(rootNID), bbt, nbt, pstFile);
+		if (fLazyFolderTree)
+			rootFolder = Folder.getLazyFolderTree(nbt.find(rootNID), bbt, nbt, pstFile);
+		else
+			rootFolder = Folder.getFolderTree(nbt.find(rootNID), bbt, nbt, pstFile);
 	}
 
 	/**	Check whether the given password matches the stored password.
@@ -0,0 +1,252 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The MessageSummary class holds the columns of a folder's contents table which describe a message object well enough to
+*	list it: its node ID, message class, subject, delivery time, and flags. These are read from the contents table alone, so
+*	no property context need be read to obtain them.
+*	<p>
+*	To list a folder without creating an object for each message, use a {@link Cursor}, obtained from
+*	{@link Folder#summaries}, which moves through the rows of the contents table and reads the requested columns of each row
+*	in place.
+*	@see	SidecarIndex
+*/
+public class MessageSummary
+{
+	/**	The node ID key of the message object. */
+	public final int nid;
+
+	/**	The message class, or null if it is not present. */
+	public final String messageClass;
+
+	/**	The subject, or null if it is not present. */
+	public final String subject;
+
+	/**	The delivery time, or null if it is not present. */
+	public final java.util.Date deliveryTime;
+
+	/**	The message flags, or 0 if they are not present. */
+	public final int flags;
+
+	/**	The Cursor class moves through the rows of a folder's contents table, reading only the columns it was created with.
+	*	No message object is created and no node B-tree lookup is done for a row; scalar columns may be read without creating
+	*	any objects at all.
+	*	<pre>
+	*	{@code
+	*	MessageSummary.Cursor cursor = folder.summaries(PropertyTags.MessageDeliveryTime, PropertyTags.MessageSize);
+	*	while (cursor.next())
+	*		System.out.printf("0x%08x %d %d\n", cursor.nid(), cursor.getFileTimeMillis(PropertyTags.MessageDeliveryTime), cursor.getInt(PropertyTags.MessageSize));
+	*	}
+	*	</pre>
+	*	@see	Folder#summaries
+	*/
+	public static class Cursor
+	{
+		/**	The folder's contents table, limited to the columns read by this cursor, or null if the folder has none. */
+		private final TableContext contentsTable;
+
+		/**	Whether the PST file is a Unicode file. */
+		private final boolean fUnicode;
+
+		/**	The current row of the contents table. */
+		private int row;
+
+		/**	Create a cursor positioned before the first row of the given contents table.
+		*	@param	contentsTable	The folder's contents table, or null if the folder has no contents table.
+		*	@param	fUnicode	Whether the PST file is a Unicode file.
+		*/
+		Cursor(final TableContext contentsTable, final boolean fUnicode)
+		{
+			this.contentsTable = contentsTable;
+			this.fUnicode = fUnicode;
+			row = -1;
+		}
+
+		/**	Retrieve the value of a column in the current row.
+		*	@param	tag	The tag of the column to read.
+		*	@return	The value of the column, or null if it is empty or was not requested when the cursor was created.
+		*	@throws	TableContext.CellReadException	The value could not be read.
+		*/
+		public Object get(final int tag)
+		{
+			return contentsTable.get(row, tag);
+		}
+
+		/**	Retrieve the value of a boolean column in the current row without creating an object to hold it.
+		*	@param	tag	The tag of the column to read.
+		*	@return	The value of the column, or false if it is empty or was not requested when the cursor was created.
+		*	@see	TableContext#getBoolean
+		*/
+		public boolean getBoolean(final int tag)
+		{
+			return contentsTable.getBoolean(row, tag);
+		}
+
+		/**	Retrieve the value of a time column in the current row as milliseconds since the Java epoch, without creating an
+		*	object to hold it.
+		*	@param	tag	The tag of the column to read.
+		*	@return	The value of the column, or 0 if it is empty or was not requested when the cursor was created.
+		*	@see	TableContext#getFileTimeMillis
+		*/
+		public long getFileTimeMillis(final int tag)
+		{
+			return contentsTable.getFileTimeMillis(row, tag);
+		}
+
+		/**	Retrieve the value of a 16- or 32-bit integer column in the current row without creating an object to hold it.
+		*	@param	tag	The tag of the column to read.
+		*	@return	The value of the column, or 0 if it is empty or was not requested when the cursor was created.
+		*	@see	TableContext#getInt
+		*/
+		public int getInt(final int tag)
+		{
+			return contentsTable.getInt(row, tag);
+		}
+
+		/**	Retrieve the value of an integer column in the current row without creating an object to hold it.
+		*	@param	tag	The tag of the column to read.
+		*	@return	The value of the column, or 0 if it is empty or was not requested when the cursor was created.
+		*	@see	TableContext#getLong
+		*/
+		public long getLong(final int tag)
+		{
+			return contentsTable.getLong(row, tag);
+		}
+
+		/**	Obtain the number of rows in the contents table.
+		*	@return	The number of message objects in the folder.
+		*/
+		public int getRowCount()
+		{
+			return contentsTable == null ? 0 : contentsTable.getRowCount();
+		}
+
+		/**	Retrieve the value of a string column in the current row.
+		*	@param	tag	The tag of the column to read.
+		*	@return	The value of the column as a string, or null if it is empty or was not requested when the cursor was created.
+		*/
+		public String getString(final int tag)
+		{
+			final Object o = contentsTable.get(row, tag);
+			return o == null ? null : DataType.makeString(tag, o);
+		}
+
+		/**	Determine whether the current row has a value for the given column.
+		*	@param	tag	The tag of the column to check.
+		*	@return	true if the current row has a value for the column, and the column was requested when the cursor was
+		*		created; false otherwise.
+		*/
+		public boolean hasProperty(final int tag)
+		{
+			return contentsTable.hasProperty(row, tag);
+		}
+
+		/**	Move to the next row of the contents table.
+		*	@return	true if there is a next row, false if the cursor has moved past the last row.
+		*/
+		public boolean next()
+		{
+			if (row < getRowCount())
+				++row;
+			return row < getRowCount();
+		}
+
+		/**	Obtain the node ID key of the message object described by the current row.
+		*	@return	The node ID key of the message object.
+		*/
+		public int nid()
+		{
+			return contentsTable.getInt(row, PropertyTags.LtpRowId);
+		}
+
+		/**	Obtain the index of the current row in the contents table.
+		*	@return	The current row, or -1 if {@link #next} has not been called yet.
+		*/
+		public int row()
+		{
+			return row;
+		}
+
+		/**	Create a message summary for the current row. The cursor should have been created with the columns given by
+		*	{@link MessageSummary#columns}; fields for columns which were not requested are left empty.
+		*	@return	A summary of the message object described by the current row.
+		*/
+		public MessageSummary summary()
+		{
+			return new MessageSummary(contentsTable, row, fUnicode);
+		}
+	}
+
+	/**	Create a message summary from its fields.
+	*	@param	nid		The node ID key of the message object.
+	*	@param	messageClass	The message class, or null if it is not present.
+	*	@param	subject		The subject, or null if it is not present.
+	*	@param	deliveryTime	The delivery time, or null if it is not present.
+	*	@param	flags		The message flags.
+	*/
+	MessageSummary(final int nid, final String messageClass, final String subject, final java.util.Date deliveryTime, final int flags)
+	{
+		this.nid = nid;
+		this.messageClass = messageClass;
+		this.subject = subject;
+		this.deliveryTime = deliveryTime;
+		this.flags = flags;
+	}
+
+	/**	Create a message summary from a row of a folder's contents table.
+	*	@param	contentsTable	The folder's contents table.
+	*	@param	row		The row of the contents table describing the message object.
+	*	@param	fUnicode	Whether the PST file is a Unicode file.
+	*/
+	MessageSummary(final TableContext contentsTable, final int row, final boolean fUnicode)
+	{
+		final int messageClassTag = fUnicode ? PropertyTags.MessageClassW : PropertyTags.MessageClass;
+		final int subjectTag = fUnicode ? PropertyTags.SubjectW : PropertyTags.Subject;
+		final Object subject = contentsTable.get(row, subjectTag);
+
+		nid = contentsTable.getInt(row, PropertyTags.LtpRowId);
+		messageClass = (String)contentsTable.get(row, messageClassTag);
+		this.subject = subject == null ? null : DataType.makeString(subjectTag, subject);
+		deliveryTime = (java.util.Date)contentsTable.get(row, PropertyTags.MessageDeliveryTime);
+		flags = contentsTable.getInt(row, PropertyTags.MessageFlags);
+	}
+
+	/**	Obtain the contents table columns needed to create message summaries, for use as a {@link TableContext} projection.
+	*	@param	fUnicode	Whether the PST file is a Unicode file.
+	*	@return	The property tags of the columns making up a message summary.
+	*/
+	static java.util.Set<Integer> columns(final boolean fUnicode)
+	{
+		return java.util.Set.of(
+			PropertyTags.LtpRowId,
+			fUnicode ? PropertyTags.MessageClassW : PropertyTags.MessageClass,
+			fUnicode ? PropertyTags.SubjectW : PropertyTags.Subject,
+			PropertyTags.MessageDeliveryTime,
+			PropertyTags.MessageFlags);
+	}
+
+	/**	Obtain the contents table columns read by a {@link Cursor} created with the given tags.
+	*	@param	fUnicode	Whether the PST file is a Unicode file.
+	*	@param	tags		The tags of the columns to read; if none are given, the columns needed to create message summaries.
+	*	@return	The property tags of the columns to read, which always include the row ID.
+	*	@see	Folder#summaries
+	*/
+	static java.util.Set<Integer> columns(final boolean fUnicode, final int... tags)
+	{
+		if (tags.length == 0)
+			return columns(fUnicode);
+
+		final java.util.Set<Integer> columns = new java.util.HashSet<Integer>(2*tags.length + 2);
+		columns.add(PropertyTags.LtpRowId);
+		for (final int tag : tags)
+			columns.add(tag);
+		return columns;
+	}
+
+	/**	Obtain a string representation of the message summary.
+	*	@return	A string describing the message object.
+	*/
+	@Override
+	public String toString()
+	{
+		return String.format("NID 0x%08x %s \"%s\" %s flags 0x%x", nid, messageClass, subject, deliveryTime, flags);
+	}
+}
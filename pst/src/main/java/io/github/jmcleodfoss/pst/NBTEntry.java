@@ -15,27 +15,6 @@ public class NBTEntry extends LPTLeaf
 
 	private static final String nm_nidParent = "nidParent";
 
-	/**	The Unicode-specific fields in the input stream which make up the node B-tree leaf entry. */
-	private static final DataDefinition[] unicode_fields = {
-		new DataDefinition(nm_nid, DataType.nidReader, true),
-		new DataDefinition(nm_nid_padding, new DataType.SizedByteArray(4), false),
-		new DataDefinition(nm_bidData, DataType.bidUnicodeReader, true),
-		new DataDefinition(nm_bidSubnode, DataType.bidUnicodeReader, true),
-	};
-
-	/**	The size in bytes of the Unicode-specific fields in a node B-tree leaf entry. */
-	private static final int SIZE_UNICODE = DataDefinition.size(unicode_fields);
-
-	/**	The ANSI-specific fields in the input stream which make up the node B-tree leaf entry. */
-	private static final DataDefinition[] ansi_fields = {
-		new DataDefinition(nm_nid, DataType.nidReader, true),
-		new DataDefinition(nm_bidData, DataType.bidAnsiReader, true),
-		new DataDefinition(nm_bidSubnode, DataType.bidAnsiReader, true),
-	};
-
-	/**	The size in bytes of the ANSI-specific fields in a node B-tree leaf entry. */
-	private static final int SIZE_ANSI = DataDefinition.size(ansi_fields);
-
 	/**	The fields common to both ANSI and Unicode files in the input stream which make up the node B-tree leaf entry. */
 	private static final DataDefinition[] common_fields = {
 		new DataDefinition(nm_nidParent, DataType.nidReader, true)
@@ -50,15 +29,24 @@ public class NBTEntry extends LPTLeaf
 	/**	Create a node B-tree leaf entry from data read in from the input datastream.
 	*	@param	byteBuffer	The data stream from which to read the Node B-tree leaf entry.
 	*	@param	context		The context to use when reading the leaf data.
-	* 	@throws	java.io.IOException	An I/O error was encountered while reading in the node's data.
 	*/
 	NBTEntry(java.nio.ByteBuffer byteBuffer, final PagedBTree.PageContext<BTree, BTreeLeaf> context)
-	throws
-		java.io.IOException
 	{
-		super(byteBuffer, context.unicode() ? unicode_fields : ansi_fields, common_fields);
+		super(byteBuffer, context.unicode());
+		nidParent = new NID(byteBuffer.getInt());
+	}
 
-		nidParent = (NID)dc.get(nm_nidParent);
+	/**	Create a node B-tree leaf entry from values which have already been read.
+	*	@param	nid		The node ID.
+	*	@param	bidData		The block ID of the node's data.
+	*	@param	bidSubnode	The block ID of the node's sub-node B-tree.
+	*	@param	nidParent	The node ID of the parent node.
+	*	@see	CompactNodeMap
+	*/
+	NBTEntry(final NID nid, final BID bidData, final BID bidSubnode, final NID nidParent)
+	{
+		super(nid, bidData, bidSubnode);
+		this.nidParent = nidParent;
 	}
 
 	/**	Obtain the actual size of a node B-tree leaf node as read in from the input datastream.
@@ -252,8 +252,8 @@ public class NameToIDMap
 		this.namedProperties = namedProperties;
 		this.canonicalIDToNPID = canonicalIDToNPID;
 
-		// Dependency injection into TableContext to show column names properly in client apps using Swing AbstractTableModel to show the data
-		TableContext.setNamedProperties(this);
+		// Dependency injection into the PST file so its TableContexts show column names properly in client apps using Swing AbstractTableModel to show the data
+		pstFile.nameToIDMap = this;
 	}
 
 	/**	Retrieve the bytes corresponding to the given property ID.
@@ -0,0 +1,93 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The NamedPropertyIDs class holds the property IDs under which the named properties used by the message object classes are
+*	stored in a particular PST file. Named properties are assigned property IDs separately in each PST file, so these must be
+*	kept with the file rather than in the message object classes.
+*	@see	Appointment
+*	@see	Contact
+*	@see	DistributionList
+*	@see	Task
+*	@see	<a href="https://docs.microsoft.com/en-us/openspecs/office_file_formats/ms-pst/e17e195d-0454-4b9b-b398-c9127a26a678">MS-PST Section 2.4.7: Named Property Lookup Map</a>
+*/
+class NamedPropertyIDs
+{
+	/**	The property IDs used when the named property map has not been read. */
+	static final NamedPropertyIDs UNKNOWN = new NamedPropertyIDs();
+
+	/**	The property ID under which to look up the AppointmentStartWhole property. */
+	final int appointmentStartWhole;
+
+	/**	The property ID under which to look up the AppointmentEndWhole property. */
+	final int appointmentEndWhole;
+
+	/**	The property ID under which to look up the AppointmentDuration property. */
+	final int appointmentDuration;
+
+	/**	The property ID under which to look up the RecurrencePattern property. */
+	final int recurrencePattern;
+
+	/**	The property ID under which to look up the Recurring property. */
+	final int recurring;
+
+	/**	The property ID under which to look up the RecurrenceType property. */
+	final int recurrenceType;
+
+	/**	The property ID under which to look up the ReminderDelta property. */
+	final int reminderDelta;
+
+	/**	The property IDs of the "Email 1 Address", "Email 2 Address", and "Email 3 Address" properties. */
+	final int[] emailAddresses;
+
+	/**	The property ID of the DistributionListMembers property. */
+	final int distributionListMembers;
+
+	/**	The property ID of the DistributionListOneOffMembers property. */
+	final int distributionListOneOffMembers;
+
+	/**	The property ID under which to look up the TaskDueDate property. */
+	final int taskDueDate;
+
+	/**	Create a set of named property IDs none of which are present. */
+	private NamedPropertyIDs()
+	{
+		appointmentStartWhole = PropertyLIDs.UNKNOWN;
+		appointmentEndWhole = PropertyLIDs.UNKNOWN;
+		appointmentDuration = PropertyLIDs.UNKNOWN;
+		recurrencePattern = PropertyLIDs.UNKNOWN;
+		recurring = PropertyLIDs.UNKNOWN;
+		recurrenceType = PropertyLIDs.UNKNOWN;
+		reminderDelta = PropertyLIDs.UNKNOWN;
+		emailAddresses = new int[]{ PropertyLIDs.UNKNOWN, PropertyLIDs.UNKNOWN, PropertyLIDs.UNKNOWN };
+		distributionListMembers = PropertyLIDs.UNKNOWN;
+		distributionListOneOffMembers = PropertyLIDs.UNKNOWN;
+		taskDueDate = PropertyLIDs.UNKNOWN;
+	}
+
+	/**	Save named property IDs for IDs of interest.
+	*	@param	namedProperties	The list of named properties.
+	*	@param	fUnicode	Whether the current PST file is a Unicode file or not.
+	*/
+	NamedPropertyIDs(final NameToIDMap namedProperties, final boolean fUnicode)
+	{
+		final short stringType = fUnicode ? DataType.STRING : DataType.STRING_8;
+
+		appointmentStartWhole = namedProperties.id(PropertyLIDs.AppointmentStartWhole, DataType.TIME);
+		appointmentEndWhole = namedProperties.id(PropertyLIDs.AppointmentEndWhole, DataType.TIME);
+		appointmentDuration = namedProperties.id(PropertyLIDs.AppointmentDuration, DataType.INTEGER_32);
+		recurrencePattern = namedProperties.id(PropertyLIDs.RecurrencePattern, stringType);
+		recurring = namedProperties.id(PropertyLIDs.Recurring, DataType.BOOLEAN);
+		recurrenceType = namedProperties.id(PropertyLIDs.RecurrenceType, DataType.INTEGER_32);
+		reminderDelta = namedProperties.id(PropertyLIDs.ReminderDelta, DataType.INTEGER_32);
+
+		emailAddresses = new int[]{
+			namedProperties.id(PropertyLIDs.Email1EmailAddress, stringType),
+			namedProperties.id(PropertyLIDs.Email2EmailAddress, stringType),
+			namedProperties.id(PropertyLIDs.Email3EmailAddress, stringType)
+		};
+
+		distributionListMembers = namedProperties.id(PropertyLIDs.DistributionListMembers, DataType.MULTIPLE_BINARY);
+		distributionListOneOffMembers = namedProperties.id(PropertyLIDs.DistributionListOneOffMembers, DataType.MULTIPLE_BINARY);
+
+		taskDueDate = namedProperties.id(PropertyLIDs.TaskDueDate, DataType.TIME);
+	}
+}
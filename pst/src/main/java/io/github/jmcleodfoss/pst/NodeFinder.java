@@ -140,6 +140,7 @@ class NodeFinder extends PagedBTreeFinder implements NodeMap
 						System.out.printf("Success: all %d NIDs found%n", nids);
 					else
 						System.out.printf("Failure: %d out of %d NIDs not found%n", discrepancies, nids);
+					System.out.printf("Page cache: %d hits, %d misses%n", nf.pageCacheHits(), nf.pageCacheMisses());
 
 					if (nf.compareTree(nbt))
 						System.out.printf("Success: NodeFinder TreeModel matches NodeBTree TreeModel");
@@ -1,29 +1,98 @@
 package io.github.jmcleodfoss.pst;
 
-/**	The Options class allows control over some of the behavior of PST file processing. */
+/**	The Options class allows control over some of the behavior of PST file processing.
+*	Options which affect how a file is read are copied into the {@link PSTFile} when it is opened, so changing them does not
+*	affect files which are already open, and files opened with different options may be read at the same time.
+*/
 @SuppressWarnings("PMD.ClassNamingConventions")
 public class Options
 {
-	/**	This veriable dictates whether the CRC should be checked. */
-	static boolean checkCRC = true;
+	/**	The ReadStrategy enumeration lists the ways in which data may be read from the PST file.
+	*	@see	FileRegionManager
+	*/
+	public enum ReadStrategy {
+		/**	Map the whole file if it is smaller than 2GB, otherwise map it in windows. */
+		AUTO,
+
+		/**	Map each page or block separately. This creates a very large number of mappings for big files. */
+		MAP_PER_READ,
+
+		/**	Map the whole file once. This is only possible for files smaller than 2GB. */
+		WHOLE_FILE_MAPPED,
+
+		/**	Map the file in large overlapping windows as they are needed. */
+		WINDOWED_MAPPED,
+
+		/**	Read each page or block into a pooled heap buffer. This avoids memory mapping altogether. */
+		POSITIONAL_READ
+	}
+
+	/**	This veriable dictates whether the CRC should be checked in PST files opened after it is set. */
+	static volatile boolean checkCRC = true;
 
-	/**	This dictates whether or not to log failures to expand zipped OST 2013 blocks. */
-	static boolean logUnzipFailures = false;
+	/**	This dictates whether or not to log failures to expand zipped OST 2013 blocks in files opened after it is set. */
+	static volatile boolean logUnzipFailures = false;
 
 	/**	This dictates whether properties with type MULTIPLE_GUID should be treated as multiple GUIDS (which is not supported yet) or as 32-bit integers to handle the
 	*	AggregatedItemLinkIds property found in OST files which reports itself as PtypMultipleGuid but is actually a 32-bit integer.
-	*	If this is false, the library will throw an exception indicating the property type is unsupported if it encounters one.
+	*	If this is false, the library will throw an exception indicating the property type is unsupported if it encounters one in a PST
+	*	file opened after it is set.
 	*	@see #logMultipleGUIDSAsIntsInstances
 	*/
-	static boolean multipleGUIDSAsInts = true;
+	static volatile boolean multipleGUIDSAsInts = true;
 
 	/**	This dicates whether we should log a message to System.out when we encounter an object of PtypMultipleGuid and treat it as a 32-bit integer.
 	*	@see #multipleGUIDSAsInts
 	*/
-	static boolean logMultipleGUIDSAsIntsInstances = false;
+	static volatile boolean logMultipleGUIDSAsIntsInstances = false;
 
-	/**	This dictates whether to throw an exception if we find a non-heap-node block signature when reading a Heap on Node Header (HNHDR); {@link HeapOnNode.Header#Header} */
-	static boolean strictHeapNodes = false;
+	/**	This dictates the number of lower-level B-tree pages cached by each {@link BlockFinder} and {@link NodeFinder} created after
+	*	it is set. Pages at the top of the B-tree are always cached unless this is 0.
+	*	@see	PagedBTreeFinder
+	*/
+	static volatile int finderPageCacheSize = 256;
+
+	/**	This dictates the maximum number of bytes of decoded block data cached for each PST file opened after it is set.
+	*	@see	BlockCache
+	*/
+	static volatile long blockCacheSize = 16L * 1024 * 1024;
+
+	/**	This dictates whether decoded block data is cached through soft references, so that it may be reclaimed when
+	*	memory is short, for PST files opened after it is set.
+	*	@see	BlockCache
+	*/
+	static volatile boolean blockCacheSoftReferences = false;
+
+	/**	This dictates whether the folder tree is read in completely when a PST file is opened, or only as folders are visited.
+	*	It applies to files opened after it is set.
+	*	@see	Folder#getLazyFolderTree
+	*/
+	static volatile boolean lazyFolderTree = false;
+
+	/**	This dictates whether the values in a property context are decoded only as they are requested, rather than all at once
+	*	when the property context is read. It applies to files opened after it is set. It is off by default, since a lazy
+	*	property context keeps its heap-on-node in memory, and problems decoding a value are reported when the value is
+	*	requested by an unchecked {@link PropertyContext.PropertyReadException}.
+	*	@see	PropertyContext
+	*/
+	static volatile boolean lazyPropertyContexts = false;
+
+	/**	This dictates the maximum number of asynchronous reads in flight for each PST file opened after it is set. If this is
+	*	0, reads are made synchronously.
+	*	@see	AsyncBlockReader
+	*/
+	static volatile int asyncReadsInFlight = 0;
+
+	/**	This dictates how many data blocks a {@link DataTreeInputStream} reads at a time, in files opened after it is set.
+	*	@see	BlockReadPlanner
+	*/
+	static volatile int readAheadBlocks = 8;
+
+	/**	This dictates how data is read from PST files opened after it is set. */
+	static volatile ReadStrategy readStrategy = ReadStrategy.AUTO;
+
+	/**	This dictates whether to throw an exception if we find a non-heap-node block signature when reading a Heap on Node Header (HNHDR) in files opened after it is set; {@link HeapOnNode.Header#Header} */
+	static volatile boolean strictHeapNodes = false;
 
 	/**	Control whether to check the CRC.
 	*	@param	newValue	The new value to set {@link #checkCRC} to
@@ -43,11 +112,11 @@ public class Options
 		logUnzipFailures = newValue;
 	}
 
-	/**	Control how to handle objects of PtypMultipleGuid
+	/**	Control how to handle objects of PtypMultipleGuid in PST files opened after this is called.
 	*	Note that calling this function as {@code setMultipleGUIDHandling(false, true)} is a pointless, but not forbidden.
 	*	@param	treatAsInt	If true, objects of PtypMultipleGuid are treated as 32-bit integers.
 	*	@param	logTreatAsInt	If true, a message is logged to System.out if an object of PtypMultipleGuid is encountered {@link multipleGUIDSAsInts} is true
-	*	@see	DataType#definitionFactory
+	*	@see	DataType#definitionFactory(short, PSTFile)
 	*/
 	public static void setMultipleGUIDHandling(boolean treatAsInt, boolean logTreatAsInt)
 	{
@@ -63,4 +132,87 @@ public class Options
 	{
 		strictHeapNodes = newValue;
 	}
+
+	/**	Control how many lower-level B-tree pages are cached when walking the block and node B-trees in small footprint mode.
+	*	Setting this to 0 disables the cache entirely.
+	*	@param	newValue	The new value to set {@link #finderPageCacheSize} to
+	*	@see	PagedBTreeFinder
+	*/
+	public static void setFinderPageCacheSize(int newValue)
+	{
+		if (newValue < 0)
+			throw new IllegalArgumentException("Page cache size must not be negative");
+		finderPageCacheSize = newValue;
+	}
+
+	/**	Control how many bytes of decoded block data are cached for each PST file. Setting this to 0 disables the cache.
+	*	@param	newValue	The new value to set {@link #blockCacheSize} to
+	*	@see	BlockCache
+	*/
+	public static void setBlockCacheSize(long newValue)
+	{
+		if (newValue < 0)
+			throw new IllegalArgumentException("Block cache size must not be negative");
+		blockCacheSize = newValue;
+	}
+
+	/**	Control whether decoded block data is cached through soft references.
+	*	@param	newValue	The new value to set {@link #blockCacheSoftReferences} to
+	*	@see	BlockCache
+	*/
+	public static void setBlockCacheSoftReferences(boolean newValue)
+	{
+		blockCacheSoftReferences = newValue;
+	}
+
+	/**	Control whether the folder tree is read in as folders are visited rather than when the PST file is opened.
+	*	@param	newValue	The new value to set {@link #lazyFolderTree} to
+	*	@see	Folder#getLazyFolderTree
+	*/
+	public static void setLazyFolderTree(boolean newValue)
+	{
+		lazyFolderTree = newValue;
+	}
+
+	/**	Control whether the values in a property context are decoded only as they are requested.
+	*	@param	newValue	The new value to set {@link #lazyPropertyContexts} to
+	*	@see	PropertyContext
+	*/
+	public static void setLazyPropertyContexts(boolean newValue)
+	{
+		lazyPropertyContexts = newValue;
+	}
+
+	/**	Control the maximum number of reads in flight at once when reading asynchronously. Setting this to 0 makes all reads
+	*	synchronous.
+	*	@param	newValue	The new value to set {@link #asyncReadsInFlight} to
+	*	@see	AsyncBlockReader
+	*/
+	public static void setAsyncReadsInFlight(int newValue)
+	{
+		if (newValue < 0)
+			throw new IllegalArgumentException("Number of asynchronous reads in flight must not be negative");
+		asyncReadsInFlight = newValue;
+	}
+
+	/**	Control how many data blocks are read at a time when a data tree is read as a stream. Setting this to 1 reads one
+	*	block at a time.
+	*	@param	newValue	The new value to set {@link #readAheadBlocks} to
+	*	@see	BlockReadPlanner
+	*/
+	public static void setReadAheadBlocks(int newValue)
+	{
+		if (newValue < 1)
+			throw new IllegalArgumentException("Read-ahead depth must be at least 1");
+		readAheadBlocks = newValue;
+	}
+
+	/**	Control how data is read from PST files. The strategy applies only to files opened after this is called.
+	*	@param	newValue	The new value to set {@link #readStrategy} to
+	*	@see	FileRegionManager
+	*/
+	public static void setReadStrategy(ReadStrategy newValue)
+	{
+		readStrategy = newValue;
+	}
 }
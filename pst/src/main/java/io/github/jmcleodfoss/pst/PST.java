@@ -17,6 +17,32 @@ public class PST extends PSTFile
 	/**	The PST MessageStore */
 	public final MessageStore messageStore;
 
+	/**	The sidecar index for this PST file, or null if it was not opened with the {@link Footprint#INDEXED} footprint or
+	*	no index could be made for it.
+	*/
+	public final SidecarIndex sidecarIndex;
+
+	/**	The Footprint enumeration lists the ways in which the block and node B-trees may be held in memory. */
+	public enum Footprint {
+		/**	Read the B-trees in all at once and hold them as trees of objects ({@link BlockBTree} and {@link NodeBTree}). */
+		LARGE,
+
+		/**	Read the B-tree leaves in all at once and hold them in arrays of primitives ({@link CompactBlockMap} and
+		*	{@link CompactNodeMap}).
+		*/
+		COMPACT,
+
+		/**	Read B-tree pages as they are needed ({@link BlockFinder} and {@link NodeFinder}). */
+		SMALL,
+
+		/**	Hold the B-tree leaves as {@link #COMPACT} does, but take them from the file's {@link SidecarIndex} when it is
+		*	valid, reading the folder tree as folders are visited. If there is no valid sidecar index, the file is read as
+		*	for {@link #COMPACT} and a sidecar index is written for next time. This applies only to PST files opened by
+		*	name; otherwise it is the same as {@link #COMPACT}.
+		*/
+		INDEXED
+	}
+
 	/**	Create a "large footprint" PST object from the given filename.
 	*	@param	fn		The file name of the PST file to read.
 	*	@throws BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
@@ -136,8 +162,148 @@ public class PST extends PSTFile
 	*	@throws UnparseableTableContextException	A table context block could not be read.
 	*	@throws java.io.IOException			There was an I/O error reading the file.
 	*/
-	@SuppressWarnings("this-escape") // Uses of this here are explicity for the base class, which is completely constructed when used.
 	public PST(final java.io.FileInputStream fis, boolean fSmallFootprint)
+	throws
+		BadXBlockLevelException,
+		BadXBlockTypeException,
+		CRCMismatchException,
+		DataOverflowException,
+		IncorrectNameIDStreamContentException,
+		NameIDStreamNotFoundException,
+		NotHeapNodeException,
+		NotPSTFileException,
+		NotPropertyContextNodeException,
+		NotTableContextNodeException,
+		NullDataBlockException,
+		NullNodeException,
+		UnimplementedPropertyTypeException,
+		UnknownClientSignatureException,
+		UnknownPropertyTypeException,
+		UnparseablePropertyContextException,
+		UnparseableTableContextException,
+		java.io.IOException
+	{
+		this(fis, fSmallFootprint ? Footprint.SMALL : Footprint.LARGE);
+	}
+
+	/**	Create a PST object from the given filename, holding the block and node B-trees as requested.
+	*	@param	fn		The file name of the PST file to read.
+	*	@param	footprint	How the block and node B-trees should be held in memory.
+	*	@throws BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
+	*	@throws BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
+	*	@throws	CRCMismatchException			The header's calculated CRC does not match the expected value.
+	*	@throws	DataOverflowException	More data was found than will fit into the number of rows allocated, indicating a probably-corrupt file.
+	*	@throws IncorrectNameIDStreamContentException	either the Name ID GUID stream contains string values, or the Name ID Name stream contains binary data
+	*	@throws	NameIDStreamNotFoundException	The requested Name ID mapping stream could not be found
+	*	@throws	NotHeapNodeException			An invalid or corrupt heap node was found.
+	*	@throws NotPSTFileException			The file is not a PST file.
+	*	@throws	NotPropertyContextNodeException		A node without the Property Context client signature was found while building a property context.
+	*	@throws	NotTableContextNodeException		A node in this folder's B-tree does not contain a table context when it was expected to.
+	*	@throws	NullDataBlockException			A null data block was found while building a property context.
+	*	@throws NullNodeException	The NullNodeException is thrown when a node is found to be null when building a PropertyContext.
+	*	@throws	UnimplementedPropertyTypeException	Handling for the property type has not been implemented
+	*	@throws	UnknownClientSignatureException		The client signature of a node was not recognized.
+	*	@throws UnknownPropertyTypeException	The property type was not recognized
+	*	@throws UnparseablePropertyContextException	A property context block could not be read.
+	*	@throws UnparseableTableContextException	A table context block could not be read.
+	*	@throws java.io.IOException			There was an I/O error reading the file.
+	*/
+	public PST(final String fn, Footprint footprint)
+	throws
+		BadXBlockLevelException,
+		BadXBlockTypeException,
+		CRCMismatchException,
+		DataOverflowException,
+		IncorrectNameIDStreamContentException,
+		NameIDStreamNotFoundException,
+		NotHeapNodeException,
+		NotPSTFileException,
+		NotPropertyContextNodeException,
+		NotTableContextNodeException,
+		NullDataBlockException,
+		NullNodeException,
+		UnimplementedPropertyTypeException,
+		UnknownClientSignatureException,
+		UnknownPropertyTypeException,
+		UnparseablePropertyContextException,
+		UnparseableTableContextException,
+		java.io.IOException
+	{
+		this(new java.io.FileInputStream(fn), footprint, new java.io.File(fn));
+	}
+
+	/**	Create a PST object from the given FileInputStream, holding the block and node B-trees as requested.
+	*	@param	fis		The FileInputStream of the PST file to read.
+	*	@param	footprint	How the block and node B-trees should be held in memory.
+	*	@throws BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
+	*	@throws BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
+	*	@throws	CRCMismatchException			The header's calculated CRC does not match the expected value.
+	*	@throws	DataOverflowException	More data was found than will fit into the number of rows allocated, indicating a probably-corrupt file.
+	*	@throws IncorrectNameIDStreamContentException	either the Name ID GUID stream contains string values, or the Name ID Name stream contains binary data
+	*	@throws	NameIDStreamNotFoundException	The requested Name ID mapping stream could not be found
+	*	@throws	NotHeapNodeException			An invalid or corrupt heap node was found.
+	*	@throws NotPSTFileException			The file is not a PST file.
+	*	@throws	NotPropertyContextNodeException		A node without the Property Context client signature was found while building a property context.
+	*	@throws	NotTableContextNodeException		A node in this folder's B-tree does not contain a table context when it was expected to.
+	*	@throws	NullDataBlockException			A null data block was found while building a property context.
+	*	@throws NullNodeException	The NullNodeException is thrown when a node is found to be null when building a PropertyContext.
+	*	@throws	UnimplementedPropertyTypeException	Handling for the property type has not been implemented
+	*	@throws	UnknownClientSignatureException		The client signature of a node was not recognized.
+	*	@throws UnknownPropertyTypeException	The property type was not recognized
+	*	@throws UnparseablePropertyContextException	A property context block could not be read.
+	*	@throws UnparseableTableContextException	A table context block could not be read.
+	*	@throws java.io.IOException			There was an I/O error reading the file.
+	*/
+	public PST(final java.io.FileInputStream fis, Footprint footprint)
+	throws
+		BadXBlockLevelException,
+		BadXBlockTypeException,
+		CRCMismatchException,
+		DataOverflowException,
+		IncorrectNameIDStreamContentException,
+		NameIDStreamNotFoundException,
+		NotHeapNodeException,
+		NotPSTFileException,
+		NotPropertyContextNodeException,
+		NotTableContextNodeException,
+		NullDataBlockException,
+		NullNodeException,
+		UnimplementedPropertyTypeException,
+		UnknownClientSignatureException,
+		UnknownPropertyTypeException,
+		UnparseablePropertyContextException,
+		UnparseableTableContextException,
+		java.io.IOException
+	{
+		this(fis, footprint, null);
+	}
+
+	/**	Create a PST object from the given FileInputStream, holding the block and node B-trees as requested.
+	*	@param	fis		The FileInputStream of the PST file to read.
+	*	@param	footprint	How the block and node B-trees should be held in memory.
+	*	@param	file		The PST file, if it was opened by name, or null if it was not. This is used to find its
+	*				{@link SidecarIndex}.
+	*	@throws BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
+	*	@throws BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
+	*	@throws	CRCMismatchException			The header's calculated CRC does not match the expected value.
+	*	@throws	DataOverflowException	More data was found than will fit into the number of rows allocated, indicating a probably-corrupt file.
+	*	@throws IncorrectNameIDStreamContentException	either the Name ID GUID stream contains string values, or the Name ID Name stream contains binary data
+	*	@throws	NameIDStreamNotFoundException	The requested Name ID mapping stream could not be found
+	*	@throws	NotHeapNodeException			An invalid or corrupt heap node was found.
+	*	@throws NotPSTFileException			The file is not a PST file.
+	*	@throws	NotPropertyContextNodeException		A node without the Property Context client signature was found while building a property context.
+	*	@throws	NotTableContextNodeException		A node in this folder's B-tree does not contain a table context when it was expected to.
+	*	@throws	NullDataBlockException			A null data block was found while building a property context.
+	*	@throws NullNodeException	The NullNodeException is thrown when a node is found to be null when building a PropertyContext.
+	*	@throws	UnimplementedPropertyTypeException	Handling for the property type has not been implemented
+	*	@throws	UnknownClientSignatureException		The client signature of a node was not recognized.
+	*	@throws UnknownPropertyTypeException	The property type was not recognized
+	*	@throws UnparseablePropertyContextException	A property context block could not be read.
+	*	@throws UnparseableTableContextException	A table context block could not be read.
+	*	@throws java.io.IOException			There was an I/O error reading the file.
+	*/
+	@SuppressWarnings("this-escape") // Uses of this here are explicity for the base class, which is completely constructed when used.
+	private PST(final java.io.FileInputStream fis, Footprint footprint, final java.io.File file)
 	throws
 		BadXBlockLevelException,
 		BadXBlockTypeException,
@@ -161,17 +327,41 @@ public class PST extends PSTFile
 		super(fis);
 
 		try {
-			blockBTree = fSmallFootprint ? new BlockFinder((PSTFile)this) : new BlockBTree(0, header.bbtRoot, (PSTFile)this);
-			nodeBTree = fSmallFootprint ? new NodeFinder((PSTFile)this) : new NodeBTree(0, header.nbtRoot, (PSTFile)this);
+			SidecarIndex.Stamp stamp = null;
+			SidecarIndex index = null;
+			if (footprint == Footprint.INDEXED && file != null) {
+				stamp = new SidecarIndex.Stamp(this, file);
+				index = SidecarIndex.load(SidecarIndex.file(file), stamp);
+			}
+
+			switch (footprint) {
+			case SMALL:
+				blockBTree = new BlockFinder((PSTFile)this);
+				nodeBTree = new NodeFinder((PSTFile)this);
+				break;
+
+			case INDEXED:
+			case COMPACT:
+				blockBTree = index != null ? index.blockMap : new CompactBlockMap((PSTFile)this);
+				nodeBTree = index != null ? index.nodeMap : new CompactNodeMap((PSTFile)this);
+				break;
+
+			case LARGE:
+			default:
+				blockBTree = new BlockBTree(0, header.bbtRoot, (PSTFile)this);
+				nodeBTree = new NodeBTree(0, header.nbtRoot, (PSTFile)this);
+				break;
+			}
 
 			namedProperties = new NameToIDMap(blockBTree, nodeBTree, (PSTFile)this);
 
-			Appointment.initConstants(namedProperties, unicode());
-			Contact.initConstants(namedProperties, unicode());
-			DistributionList.initConstants(namedProperties, unicode());
-			Task.initConstants(namedProperties);
+			namedPropertyIDs = new NamedPropertyIDs(namedProperties, unicode());
 
-			messageStore = new MessageStore(blockBTree, nodeBTree, (PSTFile)this);
+			messageStore = new MessageStore(blockBTree, nodeBTree, (PSTFile)this, index != null || lazyFolderTree);
+
+			if (stamp != null && index == null)
+				index = SidecarIndex.create(stamp, (CompactBlockMap)blockBTree, (CompactNodeMap)nodeBTree, messageStore.rootFolder, (PSTFile)this, SidecarIndex.file(file));
+			sidecarIndex = index;
 		} catch (final Exception e) {
 			close();
 			throw e;
@@ -280,6 +470,33 @@ public class PST extends PSTFile
 		return new NodeSubnodeBTree(0, header.nbtRoot, blockBTree, this);
 	}
 
+	/**	Convenience function to read the data for a node without waiting for it to be read. The data belongs to the caller;
+	*	it is never shared with the {@link BlockCache}.
+	*	@param	nid	The node ID of the node to read.
+	*	@return	A future providing the data for the node identified by nid.
+	*	@see	AsyncBlockReader
+	*/
+	public java.util.concurrent.CompletableFuture<byte[]> nodeDataAsync(NID nid)
+	{
+		try {
+			final NBTEntry node = nodeBTree.find(nid);
+			if (node == null)
+				return java.util.concurrent.CompletableFuture.failedFuture(new NullNodeException());
+
+			final BBTEntry entry = blockBTree.find(node.bidData);
+			if (entry == null)
+				return java.util.concurrent.CompletableFuture.failedFuture(new NullDataBlockException(node));
+
+			// A single block's data may be the array held by the block cache, so the caller gets a copy of it. The
+			// data of a data tree is always assembled into a new array.
+			if (!entry.bref.bid.fInternal)
+				return asyncReader.readData(entry, blockBTree).thenApply(data -> data.clone());
+			return asyncReader.readData(entry, blockBTree);
+		} catch (final java.io.IOException e) {
+			return java.util.concurrent.CompletableFuture.failedFuture(e);
+		}
+	}
+
 	/**	Convenience function to retrieve an iterator for the node B-tree.
 	*	@return	An iterator over the leaves of the node B-tree.
 	*	@see	NodeBTree
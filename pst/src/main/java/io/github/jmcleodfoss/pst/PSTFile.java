@@ -11,9 +11,68 @@ public class PSTFile
 	/**	The FileChannel of the data stream, used to jump around the file. */
 	private java.nio.channels.FileChannel fc;
 
+	/**	The region manager which provides ByteBuffers for sections of the file. */
+	private final FileRegionManager regionManager;
+
 	/**	The PST header, which contains encryption and file format information as well as other useful data. */
 	public final Header header;
 
+	/**	The decoded data of recently-used blocks in this file. */
+	public final BlockCache blockCache;
+
+	/**	The inflaters used to inflate compressed (OST 2013) blocks in this file. */
+	public final InflaterPool inflaterPool;
+
+	/**	The reader used to read blocks in this file asynchronously. */
+	public final AsyncBlockReader asyncReader;
+
+	/**	Whether to check block CRCs in this file. This is taken from {@link Options#checkCRC} when the file is opened. */
+	final boolean checkCRC;
+
+	/**	Whether to log failures to unzip OST 2013 blocks in this file. This is taken from {@link Options#logUnzipFailures} when
+	*	the file is opened.
+	*/
+	final boolean logUnzipFailures;
+
+	/**	Whether properties of type PtypMultipleGuid in this file are read as 32-bit integers. This is taken from
+	*	{@link Options#multipleGUIDSAsInts} when the file is opened.
+	*/
+	final boolean multipleGUIDSAsInts;
+
+	/**	Whether to log reading a property of type PtypMultipleGuid in this file as a 32-bit integer. This is taken from
+	*	{@link Options#logMultipleGUIDSAsIntsInstances} when the file is opened.
+	*/
+	final boolean logMultipleGUIDSAsIntsInstances;
+
+	/**	Whether to reject heap-on-node headers with the wrong block signature in this file. This is taken from
+	*	{@link Options#strictHeapNodes} when the file is opened.
+	*/
+	final boolean strictHeapNodes;
+
+	/**	Whether the folder tree of this file is read as folders are visited. This is taken from {@link Options#lazyFolderTree}
+	*	when the file is opened.
+	*/
+	final boolean lazyFolderTree;
+
+	/**	Whether the values in this file's property contexts are decoded as they are requested. This is taken from
+	*	{@link Options#lazyPropertyContexts} when the file is opened.
+	*/
+	final boolean lazyPropertyContexts;
+
+	/**	The number of data blocks read at a time when a data tree in this file is read as a stream. This is taken from
+	*	{@link Options#readAheadBlocks} when the file is opened.
+	*/
+	final int readAheadBlocks;
+
+	/**	The named property map for this file, used to display column names of table contexts; this is set when the map is read.
+	*	@see	NameToIDMap#NameToIDMap
+	*	@see	TableContext#getColumnName
+	*/
+	NameToIDMap nameToIDMap;
+
+	/**	The property IDs of the named properties used by the message object classes for this file. */
+	NamedPropertyIDs namedPropertyIDs = NamedPropertyIDs.UNKNOWN;
+
 	/**	Create a FileChannel for the given filename and read in the PST header.
 	*	@param	stream	The PST file to read.
 	*	@throws	CRCMismatchException	The header's calculated CRC does not match the expected value.
@@ -29,11 +88,24 @@ public class PSTFile
 		this.stream = stream;
 		fc = stream.getChannel();
 
+		checkCRC = Options.checkCRC;
+		logUnzipFailures = Options.logUnzipFailures;
+		multipleGUIDSAsInts = Options.multipleGUIDSAsInts;
+		logMultipleGUIDSAsIntsInstances = Options.logMultipleGUIDSAsIntsInstances;
+		strictHeapNodes = Options.strictHeapNodes;
+		lazyFolderTree = Options.lazyFolderTree;
+		lazyPropertyContexts = Options.lazyPropertyContexts;
+		readAheadBlocks = Options.readAheadBlocks;
+		blockCache = new BlockCache(Options.blockCacheSize, Options.blockCacheSoftReferences);
+		inflaterPool = new InflaterPool();
+		asyncReader = new AsyncBlockReader(this, Options.asyncReadsInFlight);
+
 		try {
 			fc = stream.getChannel();
 
 			try {
-				header = new Header(fc);
+				header = new Header(fc, checkCRC);
+				regionManager = FileRegionManager.create(Options.readStrategy, fc);
 			} catch (final Exception e) {
 				fc.close();
 				throw e;
@@ -60,6 +132,9 @@ public class PSTFile
 		java.io.IOException
 	{
 		try {
+			asyncReader.close();
+			inflaterPool.close();
+			regionManager.close();
 			fc.close();
 		} finally {
 			stream.close();
@@ -110,6 +185,7 @@ public class PSTFile
 	}
 
 	/**	Read data from the given position as a ByteBuffer
+	*	How the data is obtained depends on the {@link Options.ReadStrategy} in effect when the file was opened.
 	*	@param	position	The location to read from.
 	*	@param	length		The number of bytes to read.
 	*	@return	A ByteBuffer providing access to the requested bytes
@@ -119,9 +195,16 @@ public class PSTFile
 	throws
 		java.io.IOException
 	{
-		java.nio.ByteBuffer byteBuffer = fc.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, position, length);
-		byteBuffer.order(java.nio.ByteOrder.LITTLE_ENDIAN);
-		return byteBuffer;
+		return regionManager.read(position, length);
+	}
+
+	/**	Indicate that a ByteBuffer obtained from {@link #read} or {@link #getByteBuffer} is no longer needed, allowing it to be
+	*	reused. Callers which keep a reference to the buffer must not release it.
+	*	@param	byteBuffer	The buffer which is no longer needed.
+	*/
+	void release(java.nio.ByteBuffer byteBuffer)
+	{
+		regionManager.release(byteBuffer);
 	}
 
 	/**	A convenience method to indicate whether the PST file uses Unicode (wide text) or ANSI (8-bit) text.
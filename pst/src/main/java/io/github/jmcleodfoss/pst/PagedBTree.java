@@ -91,12 +91,27 @@ public abstract class PagedBTree extends BTree
 			}
 		};
 
+		/**	The size of the entry array in each file format. */
+		private static final int[] SIZE_ENTRIES = DataDefinition.fieldSizes(fields, nm_rgEntries);
+
+		/**	The offset of the entry count in each file format. */
+		private static final int[] OFFSET_CENT = DataDefinition.offsets(fields, nm_cEnt);
+
+		/**	The offset of the entry size in each file format. */
+		private static final int[] OFFSET_CBENT = DataDefinition.offsets(fields, nm_cbEnt);
+
+		/**	The offset of the page level in each file format. */
+		private static final int[] OFFSET_CLEVEL = DataDefinition.offsets(fields, nm_cLevel);
+
 		/**	The PST file's data stream, header, etc. */
 		protected PSTFile pstFile;
 
 		/**	The mapped byte buffer for this page */
 		protected final java.nio.ByteBuffer byteBuffer;
 
+		/**	The index of the file format, used to look up the offsets of the page's fields. */
+		private final int fileFormatIndex;
+
 		/**	Create a PageContext object form the given pstFile and bref.
 		*	@param	bref	The block reference for this page.
 		*	@param	pstFile	The PST file's data stream, header, etc.
@@ -109,20 +124,18 @@ public abstract class PagedBTree extends BTree
 			super(pstFile.header.fileFormat);
 			this.pstFile = pstFile;
 
-			final int fileFormatIndex = pstFile.header.fileFormat.index.getIndex();
+			fileFormatIndex = pstFile.header.fileFormat.index.getIndex();
 			byteBuffer = pstFile.getByteBuffer(bref, PAGE_SIZES[fileFormatIndex]);
-			dc.read(byteBuffer, fields[fileFormatIndex]);
 		}
 
-		/**	Obtain a data stream from which the B-tree entries may be read.
+		/**	Obtain a data stream from which the B-tree entries may be read. This is a view of the page's entry array, not a
+		*	copy of it.
 		*	@return	A data entry stream from which the page may be read.
 		*/
 		@Override
 		protected java.nio.ByteBuffer entryDataStream()
-		throws
-			java.io.IOException
 		{
-			return PSTFile.makeByteBuffer((byte[])dc.get(nm_rgEntries));
+			return byteBuffer.slice(0, SIZE_ENTRIES[fileFormatIndex]).order(java.nio.ByteOrder.LITTLE_ENDIAN);
 		}
 
 		/**	Retrieve the number of bytes including unread padding in an entry.
@@ -131,7 +144,7 @@ public abstract class PagedBTree extends BTree
 		@Override
 		protected int getEntrySize()
 		{
-			return dc.getUInt8(nm_cbEnt);
+			return 0xff & byteBuffer.get(OFFSET_CBENT[fileFormatIndex]);
 		}
 
 		/**	Obtain the number of entries found in this page.
@@ -141,16 +154,32 @@ public abstract class PagedBTree extends BTree
 		protected int getNumEntries()
 		{
 			if (fileFormat.index == FileFormat.Index.OST_2013)
-				return (Short)dc.get(nm_cEnt);
+				return byteBuffer.getShort(OFFSET_CENT[fileFormatIndex]);
 
-			return dc.getUInt8(nm_cEnt);
+			return 0xff & byteBuffer.get(OFFSET_CENT[fileFormatIndex]);
 		}
 
 		/**	{@inheritDoc} */
 		@Override
 		protected boolean isLeafNode()
 		{
-			return dc.getUInt8(nm_cLevel) == 0;
+			return byteBuffer.get(OFFSET_CLEVEL[fileFormatIndex]) == 0;
+		}
+
+		/**	Obtain all the fields of the page, including the page trailer. These are not needed to build the B-tree, and so
+		*	are only read on demand.
+		*	@return	A DataContainer holding the values of all the fields in the page.
+		*/
+		synchronized DataContainer pageFields()
+		{
+			if (dc.isEmpty()) {
+				try {
+					dc.read(byteBuffer.duplicate().position(0).order(java.nio.ByteOrder.LITTLE_ENDIAN), fields[fileFormatIndex]);
+				} catch (final java.io.IOException e) {
+					throw new java.io.UncheckedIOException(e);
+				}
+			}
+			return dc;
 		}
 	}
 
@@ -185,6 +214,12 @@ public abstract class PagedBTree extends BTree
 		/**	The size of the BTENTRY object in ANSI PST files. */
 		private static final int ANSI_SIZE = DataDefinition.size(ansi_fields);
 
+		/**	The offset of the block reference in Unicode PST files. */
+		private static final int OFFSET_BREF_UNICODE = DataDefinition.offset(unicode_fields, nm_bref);
+
+		/**	The offset of the block reference in ANSI PST files. */
+		private static final int OFFSET_BREF_ANSI = DataDefinition.offset(ansi_fields, nm_bref);
+
 		/**	The B-tree search key for this node. */
 		final long key;
 
@@ -194,16 +229,14 @@ public abstract class PagedBTree extends BTree
 		/**	Read an intermediate entry for a B-Tree stored in a page from the input stream using the given context.
 		*	@param	context		The context from which to build the B-tree.
 		*	@param	byteBuffer	The data stream from which to read the intermediate B-tree entry.
-		*	@throws	java.io.IOException	An I/O error was encountered when reading the data for this B-tree entry.
 		*/
 		BTEntry(final Context<BTree, BTreeLeaf> context, java.nio.ByteBuffer byteBuffer)
-		throws
-			java.io.IOException
 		{
-			DataContainer dc = new DataContainer();
-			dc.read(byteBuffer, context.unicode() ? unicode_fields : ansi_fields);
-			key = context.unicode() ? (Long)dc.get(nm_btKey) : (long)(Integer)dc.get(nm_btKey);
-			bref = (BREF)dc.get(nm_bref);
+			final boolean fUnicode = context.unicode();
+			final int base = byteBuffer.position();
+			key = fUnicode ? byteBuffer.getLong(base) : byteBuffer.getInt(base);
+			bref = DataType.readBREF(byteBuffer, base + (fUnicode ? OFFSET_BREF_UNICODE : OFFSET_BREF_ANSI), fUnicode);
+			byteBuffer.position(base + (fUnicode ? UNICODE_SIZE : ANSI_SIZE));
 		}
 
 		/**	Return the actual size of an intermediate B-tree entry as read in from the input datastream.
@@ -285,20 +318,21 @@ public abstract class PagedBTree extends BTree
 		for (int i = 0; i < children.length; ++i)
 			cells[i] = new Object[]{String.format("rgentries %d", i), children[i].toString()};
 
+		final DataContainer pageFields = context.pageFields();
 		int i = children.length;
 		cells[i++] = new Object[]{PageContext.nm_cEnt, context.getNumEntries()};
 		if (context.fileFormat.index == FileFormat.Index.ANSI || context.fileFormat.index == FileFormat.Index.UNICODE) {
-			cells[i++] = new Object[]{PageContext.nm_cEntMax, context.dc.getUInt8(PageContext.nm_cEntMax)};
+			cells[i++] = new Object[]{PageContext.nm_cEntMax, pageFields.getUInt8(PageContext.nm_cEntMax)};
 		} else {
-			cells[i++] = new Object[]{PageContext.nm_cEntMax, (Short)context.dc.get(PageContext.nm_cEntMax)};
+			cells[i++] = new Object[]{PageContext.nm_cEntMax, (Short)pageFields.get(PageContext.nm_cEntMax)};
 		}
-		cells[i++] = new Object[]{PageContext.nm_cbEnt, context.dc.getUInt8(PageContext.nm_cbEnt)};
-		cells[i++] = new Object[]{PageContext.nm_cLevel, context.dc.getUInt8(PageContext.nm_cLevel)};
-		cells[i++] = new Object[]{PageContext.nm_pType, context.dc.getUInt8(PageContext.nm_pType)};
-		cells[i++] = new Object[]{PageContext.nm_pTypeRepeat, context.dc.getUInt8(PageContext.nm_pTypeRepeat)};
-		cells[i++] = new Object[]{PageContext.nm_wSig, context.dc.get(PageContext.nm_wSig)};
-		cells[i++] = new Object[]{PageContext.nm_dwCRC, context.dc.get(PageContext.nm_dwCRC)};
-		cells[i++] = new Object[]{PageContext.nm_bid, (BID)context.dc.get(PageContext.nm_bid)};
+		cells[i++] = new Object[]{PageContext.nm_cbEnt, pageFields.getUInt8(PageContext.nm_cbEnt)};
+		cells[i++] = new Object[]{PageContext.nm_cLevel, pageFields.getUInt8(PageContext.nm_cLevel)};
+		cells[i++] = new Object[]{PageContext.nm_pType, pageFields.getUInt8(PageContext.nm_pType)};
+		cells[i++] = new Object[]{PageContext.nm_pTypeRepeat, pageFields.getUInt8(PageContext.nm_pTypeRepeat)};
+		cells[i++] = new Object[]{PageContext.nm_wSig, pageFields.get(PageContext.nm_wSig)};
+		cells[i++] = new Object[]{PageContext.nm_dwCRC, pageFields.get(PageContext.nm_dwCRC)};
+		cells[i++] = new Object[]{PageContext.nm_bid, (BID)pageFields.get(PageContext.nm_bid)};
 
 		return new ReadOnlyTableModel(cells, new Object[]{"", ""});
 	}
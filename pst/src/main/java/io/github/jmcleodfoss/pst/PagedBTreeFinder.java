@@ -2,12 +2,33 @@ package io.github.jmcleodfoss.pst;
 
 /**	The PagedBTreeFinder class contains code shared by the {@link io.github.jmcleodfoss.pst.BlockFinder} and {@link io.github.jmcleodfoss.pst.NodeFinder}
 *	classes.
+*	Decoded pages are kept in a small cache keyed by file offset: pages in the top {@link #PINNED_LEVELS} levels of the tree are
+*	never evicted, and a bounded number of lower-level pages are kept in least-recently-used order.
+*	@see	Options#setFinderPageCacheSize
 */
 abstract class PagedBTreeFinder extends ReadOnlyTreeModel implements TreeCustomNodeText
 {
+	/**	The number of levels at the top of the B-tree (including the root) whose pages are never evicted from the cache. */
+	static final int PINNED_LEVELS = 2;
+
 	/**	The underlying PST file data stream, header, etc. */
 	protected PSTFile pstFile;
 
+	/**	The maximum number of lower-level pages to cache; if this is 0, no pages are cached. */
+	private final int pageCacheSize;
+
+	/**	The cached pages from the top levels of the B-tree, indexed by file offset. */
+	private final java.util.concurrent.ConcurrentHashMap<Long, BTreePage> pinnedPages;
+
+	/**	The cached pages from lower levels of the B-tree, indexed by file offset, in access order. */
+	private final java.util.LinkedHashMap<Long, BTreePage> pageCache;
+
+	/**	The number of page requests satisfied from the cache. */
+	private final java.util.concurrent.atomic.AtomicLong pageCacheHits;
+
+	/**	The number of page requests which required the page to be read and decoded. */
+	private final java.util.concurrent.atomic.AtomicLong pageCacheMisses;
+
 	/**	The BTreePage class holds information about paged (block &amp; node) B-trees. */
 	@SuppressWarnings("ClassCanBeStatic")
 	protected abstract class BTreePage
@@ -15,6 +36,12 @@ abstract class PagedBTreeFinder extends ReadOnlyTreeModel implements TreeCustomN
 		/**	The children (BTEntry or BBTEntry/NBTEntry) of this BTreePage */
 		final protected Object[] children;
 
+		/**	The keys of the children of this BTreePage. */
+		final protected long[] keys;
+
+		/**	Whether the keys are in ascending order, allowing them to be searched with a binary search. */
+		final protected boolean fKeysSorted;
+
 		/**	Create a BTreePage object form the given pstFile and bref.
 		*	@param	bref	The block reference for this page.
 		*	@param	pstFile	The PST file's data stream, header, etc.
@@ -29,6 +56,7 @@ abstract class PagedBTreeFinder extends ReadOnlyTreeModel implements TreeCustomN
 
 			final int numEntries = context.getNumEntries();
 			Object[] children;
+			final long[] keys = new long[numEntries];
 			final boolean fLeaf = context.isLeafNode();
 
 			if (fLeaf)
@@ -41,11 +69,13 @@ abstract class PagedBTreeFinder extends ReadOnlyTreeModel implements TreeCustomN
 				if (fLeaf) {
 					BTreeLeaf entry = leafNodeFactory(context, entryStream);
 					children[i] = entry;
+					keys[i] = entry.key();
 					entrySize = entry.actualSize(context);
 				}
 				else {
 					PagedBTree.BTEntry entry = new PagedBTree.BTEntry(context, entryStream);
 					children[i] = entry;
+					keys[i] = entry.key();
 					entrySize = PagedBTree.BTEntry.actualSize(context);
 				}
 				final int skip = context.getEntrySize() - entrySize;
@@ -53,6 +83,8 @@ abstract class PagedBTreeFinder extends ReadOnlyTreeModel implements TreeCustomN
 					entryStream.position(entryStream.position() + skip);
 			}
 			this.children = children;
+			this.keys = keys;
+			fKeysSorted = BTree.isSorted(keys);
 		}
 
 		/**	Create a B-tree context to use when creating child nodes.
@@ -82,6 +114,11 @@ abstract class PagedBTreeFinder extends ReadOnlyTreeModel implements TreeCustomN
 	protected PagedBTreeFinder(PSTFile pstFile)
 	{
 		this.pstFile = pstFile;
+		pageCacheSize = Options.finderPageCacheSize;
+		pinnedPages = new java.util.concurrent.ConcurrentHashMap<Long, BTreePage>();
+		pageCache = new java.util.LinkedHashMap<Long, BTreePage>(16, 0.75f, true);
+		pageCacheHits = new java.util.concurrent.atomic.AtomicLong();
+		pageCacheMisses = new java.util.concurrent.atomic.AtomicLong();
 	}
 
 	/**	Return a BTreePage to read the next child level of the B-tree.
@@ -93,6 +130,85 @@ abstract class PagedBTreeFinder extends ReadOnlyTreeModel implements TreeCustomN
 	throws
 		java.io.IOException;
 
+	/**	Return the BTreePage for the given block reference, from the cache if possible.
+	*	@param	bref	The block reference of the B-tree page.
+	*	@param	level	The level of the page in the B-tree, where the root is level 0.
+	*	@return	The BTreePage for this block reference.
+	*	@throws	java.io.IOException	An I/O error was encountered while reading in the B-tree page.
+	*/
+	private BTreePage page(final BREF bref, final int level)
+	throws
+		java.io.IOException
+	{
+		if (pageCacheSize == 0) {
+			pageCacheMisses.incrementAndGet();
+			return bTreePageFactory(bref);
+		}
+
+		final Long offset = bref.ib.ib;
+		BTreePage btp = pinnedPages.get(offset);
+		if (btp == null) {
+			synchronized (pageCache) {
+				btp = pageCache.get(offset);
+			}
+		}
+		if (btp != null) {
+			pageCacheHits.incrementAndGet();
+			return btp;
+		}
+
+		pageCacheMisses.incrementAndGet();
+		btp = bTreePageFactory(bref);
+		if (level < PINNED_LEVELS) {
+			pinnedPages.putIfAbsent(offset, btp);
+		} else {
+			synchronized (pageCache) {
+				pageCache.put(offset, btp);
+				if (pageCache.size() > pageCacheSize) {
+					java.util.Iterator<Long> eldest = pageCache.keySet().iterator();
+					eldest.next();
+					eldest.remove();
+				}
+			}
+		}
+		return btp;
+	}
+
+	/**	Pass each leaf of the B-tree below the given page to the visitor, in key order. Pages are read directly rather than
+	*	through the page cache, since each is visited only once.
+	*	@param	bref	The block reference of the B-tree page to start at.
+	*	@param	visitor	The function to call for each leaf.
+	*	@throws	java.io.IOException	An I/O error was encountered while reading in a B-tree page.
+	*/
+	void visitLeaves(final BREF bref, java.util.function.Consumer<BTreeLeaf> visitor)
+	throws
+		java.io.IOException
+	{
+		final BTreePage btp = bTreePageFactory(bref);
+		for (Object o : btp.children) {
+			if (o instanceof BTreeLeaf)
+				visitor.accept((BTreeLeaf)o);
+			else
+				visitLeaves(((PagedBTree.BTEntry)o).bref, visitor);
+		}
+	}
+
+	/**	Obtain the number of page requests which were satisfied from the page cache.
+	*	@return	The number of page cache hits since this object was created.
+	*/
+	public long pageCacheHits()
+	{
+		return pageCacheHits.get();
+	}
+
+	/**	Obtain the number of page requests which required the page to be read from the file.
+	*	@return	The number of page cache misses since this object was created.
+	*/
+	public long pageCacheMisses()
+	{
+		return pageCacheMisses.get();
+	}
+
 	/**	Compare the TreeModel from this PagedBTreeFinder object to that from the PagedBTree object.
 	*	@param	bref	The BREF of the node on this PagedBTreeFinder object's tree to check
 	*	@param	thatTree	The TreeModel for the PagedBTree object to compare this PagedBTreeFinder's TreeModel with
@@ -154,9 +270,35 @@ abstract class PagedBTreeFinder extends ReadOnlyTreeModel implements TreeCustomN
 	throws
 		java.io.IOException
 	{
-		final BTreePage btp = bTreePageFactory(bref);
+		return find(keyedItem, bref, 0);
+	}
+
+	/**	Return the requested block, or null if the block was not found.
+	*	@param	keyedItem	The block ID of the block to look for.
+	*	@param	bref		The block reference of the B-Tree page block to start searching in.
+	*	@param	level		The level of the page in the B-tree, where the root is level 0.
+	*	@return	The Block B-tree leaf entry for the requested block ID, or null if the block ID was not found.
+	*	@throws	java.io.IOException	An I/O error was encountered while reading in the node.
+	*/
+	private BTreeLeaf find(final NodeKey keyedItem, final BREF bref, final int level)
+	throws
+		java.io.IOException
+	{
+		final BTreePage btp = page(bref, level);
 		if (btp.children.length == 0)
 			return null;
+
+		final long key = keyedItem.key();
+		if (btp.fKeysSorted) {
+			if (btp.children[0] instanceof BTreeLeaf) {
+				final int i = BTree.indexOf(btp.keys, key);
+				return i >= 0 ? (BTreeLeaf)btp.children[i] : null;
+			}
+
+			final int i = BTree.floorIndex(btp.keys, key);
+			return i >= 0 ? find(keyedItem, ((PagedBTree.BTEntry)btp.children[i]).bref, level + 1) : null;
+		}
+
 		if (btp.children[0] instanceof BTreeLeaf) {
 			for (Object o : btp.children) {
 				final BTreeLeaf entry = (BTreeLeaf)o;
@@ -171,7 +313,7 @@ abstract class PagedBTreeFinder extends ReadOnlyTreeModel implements TreeCustomN
 			if (keyedItem.key() < entry.key())
 				continue;
 			if (keyedItem.key() >= entry.key() && (i == btp.children.length-1 || keyedItem.key() < ((PagedBTree.BTEntry)btp.children[i+1]).key()))
-				return find(keyedItem, entry.bref);
+				return find(keyedItem, entry.bref, level + 1);
 		}
 
 		return null;
@@ -187,7 +329,7 @@ abstract class PagedBTreeFinder extends ReadOnlyTreeModel implements TreeCustomN
 		java.io.IOException
 	{
 		if (node instanceof PagedBTree.BTEntry)
-			return bTreePageFactory(((PagedBTree.BTEntry)node).bref);
+			return page(((PagedBTree.BTEntry)node).bref, PINNED_LEVELS);
 
 		if (node instanceof BTreePage)
 			return (BTreePage)node;
@@ -265,4 +407,87 @@ abstract class PagedBTreeFinder extends ReadOnlyTreeModel implements TreeCustomN
 	{
 		return node instanceof BTreeLeaf;
 	}
+
+	/**	Time random lookups of every block and node in the given files using both the in-memory B-trees and the finders.
+	*	This is a simple timing harness rather than a rigorous benchmark; the first pass over each file includes JIT
+	*	compilation and should be discounted.
+	*	@param	args	The file(s) to time lookups in.
+	*/
+	@SuppressWarnings("PMD.DoNotCallSystemExit")
+	public static void main(final String[] args)
+	{
+		if (args.length == 0) {
+			System.out.println("use:\n\tjava io.github.jmcleodfoss.pst.PagedBTreeFinder pst-file [pst-file ...]");
+			System.exit(1);
+		}
+
+		final int PASSES = 3;
+		final java.util.Random random = new java.util.Random(0);
+		for (final String a: args) {
+			System.out.println(a);
+			try {
+				java.io.FileInputStream stream = new java.io.FileInputStream(a);
+				final PSTFile pstFile = new PSTFile(stream);
+				try {
+					System.out.printf("File format %s%n", pstFile.header.fileFormat.index);
+
+					final BlockBTree bbt = new BlockBTree(0, pstFile.header.bbtRoot, pstFile);
+					final java.util.List<BID> bids = new java.util.ArrayList<BID>();
+					for (java.util.Iterator<BTreeNode> iterator = bbt.iterator(); iterator.hasNext(); )
+						bids.add(((BBTEntry)iterator.next()).bref.bid);
+
+					final NodeBTree nbt = new NodeBTree(0, pstFile.header.nbtRoot, pstFile);
+					final java.util.List<NID> nids = new java.util.ArrayList<NID>();
+					for (java.util.Iterator<BTreeNode> iterator = nbt.iterator(); iterator.hasNext(); )
+						nids.add(((NBTEntry)iterator.next()).nid);
+
+					final BlockFinder bf = new BlockFinder(pstFile);
+					final NodeFinder nf = new NodeFinder(pstFile);
+					for (int pass = 0; pass < PASSES; ++pass) {
+						java.util.Collections.shuffle(bids, random);
+						java.util.Collections.shuffle(nids, random);
+
+						long start = System.nanoTime();
+						for (final BID bid : bids)
+							bbt.find(bid);
+						final long bbtTime = System.nanoTime() - start;
+
+						start = System.nanoTime();
+						for (final BID bid : bids)
+							bf.find(bid);
+						final long bfTime = System.nanoTime() - start;
+
+						start = System.nanoTime();
+						for (final NID nid : nids)
+							nbt.find(nid);
+						final long nbtTime = System.nanoTime() - start;
+
+						start = System.nanoTime();
+						for (final NID nid : nids)
+							nf.find(nid);
+						final long nfTime = System.nanoTime() - start;
+
+						System.out.printf("Pass %d: %d BIDs: BlockBTree %.1f ns/lookup, BlockFinder %.1f ns/lookup; %d NIDs: NodeBTree %.1f ns/lookup, NodeFinder %.1f ns/lookup%n",
+							pass, bids.size(), (double)bbtTime / Math.max(1, bids.size()), (double)bfTime / Math.max(1, bids.size()),
+							nids.size(), (double)nbtTime / Math.max(1, nids.size()), (double)nfTime / Math.max(1, nids.size()));
+					}
+				} finally {
+					try {
+						pstFile.close();
+					} catch (final java.io.IOException e) {
+						System.out.printf("There was a problem closing file %s%n", a);
+					}
+				}
+			} catch (final CRCMismatchException e) {
+				System.out.printf("File %s is corrupt (Calculated CRC does not match expected value)%n", a);
+			} catch (final NotPSTFileException e) {
+				System.out.printf("File %s is not a pst file%n", a);
+			} catch (final java.io.FileNotFoundException e) {
+				System.out.printf("File %s not found%n", a);
+			} catch (final java.io.IOException e) {
+				System.out.printf("Could not read %s%n", a);
+				e.printStackTrace(System.out);
+			}
+		}
+	}
 }
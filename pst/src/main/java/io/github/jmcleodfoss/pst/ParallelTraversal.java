@@ -0,0 +1,394 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The ParallelTraversal class walks the folders and message objects of a PST file on a pool of worker threads, reading the
+*	property context of each message object and of each of its attachments on the worker threads.
+*	<p>
+*	The following ordering guarantees are made:
+*	<ul>
+*	<li>{@link Visitor#visitFolder} is called for a folder before any other call is made for that folder, its message objects, or
+*	its sub-folders.</li>
+*	<li>{@link Visitor#visitMessage} is called for the message objects in a folder one at a time, in the order in which they
+*	appear in the folder's contents table.</li>
+*	<li>{@link Visitor#folderDone} is called for a folder after the last call to {@link Visitor#visitMessage} for that folder.</li>
+*	</ul>
+*	Calls for different folders may be made at the same time from different threads, so visitors which share state between
+*	folders must synchronize access to it.
+*	<p>
+*	Memory use is bounded: at most {@link #batchSize} message objects per folder are read ahead of the visitor.
+*	<p>
+*	A typical use is:
+*	<pre>
+*	{@code
+*	new ParallelTraversal(pst, Runtime.getRuntime().availableProcessors()).traverse(visitor);
+*	}
+*	</pre>
+*/
+public class ParallelTraversal
+{
+	/**	The default number of message objects per folder which may be read ahead of the visitor, per worker thread. */
+	private static final int DEFAULT_BATCH_SIZE_PER_THREAD = 4;
+
+	/**	The Visitor interface is implemented by clients of ParallelTraversal to receive folders and message objects. */
+	public interface Visitor
+	{
+		/**	Process a folder.
+		*	@param	folder	The folder.
+		*	@param	path	The names of the folders from the root folder down to and including this folder.
+		*/
+		void visitFolder(Folder folder, java.util.List<String> path);
+
+		/**	Decide whether to visit the message objects in a folder. This is called after {@link #visitFolder}, and allows a
+		*	visitor to skip folders it has already processed, for instance when resuming an interrupted traversal.
+		*	{@link #folderDone} is called whether or not the folder's message objects are visited.
+		*	@param	folder	The folder.
+		*	@return	true to visit the folder's message objects, false to skip them.
+		*/
+		default boolean visitContents(Folder folder)
+		{
+			return true;
+		}
+
+		/**	Process a message object.
+		*	@param	folder		The folder containing the message object.
+		*	@param	message		The message object.
+		*	@param	pc		The message object's property context.
+		*	@param	attachments	The property contexts for the message object's attachments, in the same order as
+		*				{@link Message#attachmentIterator}; this is empty for message objects which are not
+		*				{@link Message}s.
+		*/
+		void visitMessage(Folder folder, MessageObject message, PropertyContext pc, java.util.List<PropertyContext> attachments);
+
+		/**	Finish processing a folder. This is called after all the folder's message objects have been visited, but
+		*	possibly before all its sub-folders have been visited.
+		*	@param	folder	The folder.
+		*/
+		default void folderDone(Folder folder)
+		{
+		}
+	}
+
+	/**	The TraversalException is thrown when a folder or message object could not be read during the traversal. */
+	public static class TraversalException extends RuntimeException
+	{
+		/**	The serialVersionUID is required because the base class is serializable. */
+		private static final long serialVersionUID = 1L;
+
+		/**	Create a TraversalException for the given cause.
+		*	@param	description	A description of the object which could not be read.
+		*	@param	cause		The exception thrown while reading the object.
+		*/
+		TraversalException(final String description, final Exception cause)
+		{
+			super("Could not read " + description, cause);
+		}
+	}
+
+	/**	The PST file to traverse. */
+	private final PST pst;
+
+	/**	The number of worker threads. */
+	private final int parallelism;
+
+	/**	The number of message objects per folder which may be read ahead of the visitor. */
+	private final int batchSize;
+
+	/**	The ReadMessage class reads a message object and the property contexts it and its attachments need. */
+	private class ReadMessage extends java.util.concurrent.RecursiveAction
+	{
+		/**	The serialVersionUID is required because the base class is serializable. */
+		private static final long serialVersionUID = 1L;
+
+		/**	The contents table of the folder containing the message object. */
+		private final transient TableContext contentsTable;
+
+		/**	The row of the contents table describing the message object. */
+		private final int row;
+
+		/**	The message object, once read. */
+		private transient MessageObject message;
+
+		/**	The message object's property context, once read. */
+		private transient PropertyContext pc;
+
+		/**	The property contexts for the message object's attachments, once read. */
+		private transient java.util.List<PropertyContext> attachments;
+
+		/**	Create a task to read the message object at the given row of the given contents table.
+		*	@param	contentsTable	The contents table of the folder containing the message object.
+		*	@param	row		The row of the contents table describing the message object.
+		*/
+		ReadMessage(final TableContext contentsTable, final int row)
+		{
+			this.contentsTable = contentsTable;
+			this.row = row;
+		}
+
+		/**	Read the message object, its property context, and the property contexts of any attachments. */
+		@Override
+		protected void compute()
+		{
+			try {
+				message = MessageObject.factory(contentsTable, row, pst.blockBTree, pst.nodeBTree, pst);
+				pc = message.getMessage(pst);
+				if (message instanceof Message) {
+					final Message m = (Message)message;
+					attachments = new java.util.ArrayList<PropertyContext>(m.numAttachments());
+					for (java.util.Iterator<Attachment> iterator = m.attachmentIterator(); iterator.hasNext(); )
+						attachments.add(new PropertyContext(iterator.next().nodeInfo, pst.blockBTree, pst));
+				} else {
+					attachments = java.util.Collections.emptyList();
+				}
+			} catch (final	BadXBlockLevelException
+				|	BadXBlockTypeException
+				|	CRCMismatchException
+				|	DataOverflowException
+				|	NotHeapNodeException
+				|	NotPropertyContextNodeException
+				|	NotTableContextNodeException
+				|	NullDataBlockException
+				|	NullNodeException
+				|	UnimplementedPropertyTypeException
+				|	UnknownClientSignatureException
+				|	UnknownPropertyTypeException
+				|	UnparseablePropertyContextException
+				|	UnparseableTableContextException
+				|	java.io.IOException e) {
+				throw new TraversalException("message object in contents table row " + row, e);
+			}
+		}
+	}
+
+	/**	The VisitFolder class visits a folder and its message objects, and starts tasks to visit its sub-folders. */
+	private class VisitFolder extends java.util.concurrent.RecursiveAction
+	{
+		/**	The serialVersionUID is required because the base class is serializable. */
+		private static final long serialVersionUID = 1L;
+
+		/**	The folder to visit. */
+		private final transient Folder folder;
+
+		/**	The names of the folders from the root down to and including this one. */
+		private final transient java.util.List<String> path;
+
+		/**	The visitor to pass the folder and its contents to. */
+		private final transient Visitor visitor;
+
+		/**	Create a task to visit the given folder.
+		*	@param	folder	The folder to visit.
+		*	@param	parentPath	The names of the folders from the root down to this folder's parent.
+		*	@param	visitor	The visitor to pass the folder and its contents to.
+		*/
+		VisitFolder(final Folder folder, final java.util.List<String> parentPath, final Visitor visitor)
+		{
+			this.folder = folder;
+			java.util.ArrayList<String> path = new java.util.ArrayList<String>(parentPath.size() + 1);
+			path.addAll(parentPath);
+			path.add(folder.displayName);
+			this.path = java.util.Collections.unmodifiableList(path);
+			this.visitor = visitor;
+		}
+
+		/**	Visit the folder and its message objects, in batches, while the sub-folders are visited by other tasks. */
+		@Override
+		protected void compute()
+		{
+			visitor.visitFolder(folder, path);
+
+			java.util.ArrayList<VisitFolder> subfolderTasks = new java.util.ArrayList<VisitFolder>();
+			for (java.util.Iterator<Folder> iterator = folder.subfolderIterator(); iterator.hasNext(); )
+				subfolderTasks.add(new VisitFolder(iterator.next(), path, visitor));
+			for (VisitFolder task : subfolderTasks)
+				task.fork();
+
+			if (folder.nodeContentsTable != null && visitor.visitContents(folder)) {
+				final TableContext contentsTable = readContentsTable();
+				final int numRows = contentsTable.getRowCount();
+				for (int start = 0; start < numRows; start += batchSize) {
+					final int end = Math.min(numRows, start + batchSize);
+					ReadMessage[] batch = new ReadMessage[end - start];
+					for (int row = start; row < end; ++row) {
+						batch[row - start] = new ReadMessage(contentsTable, row);
+						batch[row - start].fork();
+					}
+					for (ReadMessage task : batch) {
+						task.join();
+						visitor.visitMessage(folder, task.message, task.pc, task.attachments);
+					}
+				}
+			}
+			visitor.folderDone(folder);
+
+			for (VisitFolder task : subfolderTasks)
+				task.join();
+		}
+
+		/**	Read the folder's contents table.
+		*	@return	The folder's contents table.
+		*	@throws	TraversalException	The contents table could not be read.
+		*/
+		private TableContext readContentsTable()
+		{
+			try {
+				return new TableContext(folder.nodeContentsTable, pst.blockBTree, pst, null);
+			} catch (final	BadXBlockLevelException
+				|	BadXBlockTypeException
+				|	CRCMismatchException
+				|	DataOverflowException
+				|	NotHeapNodeException
+				|	NotTableContextNodeException
+				|	UnimplementedPropertyTypeException
+				|	UnknownClientSignatureException
+				|	UnknownPropertyTypeException
+				|	UnparseableTableContextException
+				|	java.io.IOException e) {
+				throw new TraversalException("contents table of folder " + folder.displayName, e);
+			}
+		}
+	}
+
+	/**	Create an object to traverse the given PST file using the given number of threads.
+	*	@param	pst		The PST file to traverse.
+	*	@param	parallelism	The number of worker threads to use.
+	*/
+	public ParallelTraversal(final PST pst, final int parallelism)
+	{
+		this(pst, parallelism, parallelism * DEFAULT_BATCH_SIZE_PER_THREAD);
+	}
+
+	/**	Create an object to traverse the given PST file using the given number of threads and the given read-ahead limit.
+	*	@param	pst		The PST file to traverse.
+	*	@param	parallelism	The number of worker threads to use.
+	*	@param	batchSize	The number of message objects per folder which may be read ahead of the visitor.
+	*	@throws	IllegalArgumentException	The parallelism or batch size is not positive.
+	*/
+	public ParallelTraversal(final PST pst, final int parallelism, final int batchSize)
+	{
+		if (parallelism <= 0)
+			throw new IllegalArgumentException("parallelism must be positive");
+		if (batchSize <= 0)
+			throw new IllegalArgumentException("batchSize must be positive");
+		this.pst = pst;
+		this.parallelism = parallelism;
+		this.batchSize = batchSize;
+	}
+
+	/**	Traverse the PST file's folders and message objects, passing them to the given visitor.
+	*	@param	visitor	The visitor to pass the folders and message objects to.
+	*	@throws	TraversalException	A folder or message object could not be read.
+	*/
+	public void traverse(final Visitor visitor)
+	{
+		final Folder root = rootFolder();
+		java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(parallelism);
+		try {
+			pool.invoke(new VisitFolder(root, java.util.Collections.<String>emptyList(), visitor));
+		} catch (final Folder.FolderReadException e) {
+			throw new TraversalException("sub-folders", e);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**	Obtain the root folder in a form whose sub-folders are read only as needed, so that each folder's sub-folders are
+	*	read by the task visiting that folder.
+	*	@return	A lazily-loaded copy of the PST file's root folder.
+	*	@throws	TraversalException	The root folder could not be read.
+	*/
+	private Folder rootFolder()
+	{
+		try {
+			return Folder.getLazyFolderTree(pst.getFolderTree().nodeFolderObject, pst.blockBTree, pst.nodeBTree, pst);
+		} catch (final	BadXBlockLevelException
+			|	BadXBlockTypeException
+			|	CRCMismatchException
+			|	DataOverflowException
+			|	NotHeapNodeException
+			|	NotPropertyContextNodeException
+			|	NotTableContextNodeException
+			|	NullDataBlockException
+			|	NullNodeException
+			|	UnimplementedPropertyTypeException
+			|	UnknownClientSignatureException
+			|	UnknownPropertyTypeException
+			|	UnparseablePropertyContextException
+			|	UnparseableTableContextException
+			|	java.io.IOException e) {
+			throw new TraversalException("root folder", e);
+		}
+	}
+
+	/**	Traverse a PST file and report the number of folders, message objects, and attachments found, and the time taken.
+	*	@param	args	The number of threads to use, followed by the PST file(s) to traverse.
+	*/
+	@SuppressWarnings("PMD.DoNotCallSystemExit")
+	public static void main(final String[] args)
+	{
+		if (args.length < 2) {
+			System.out.println("use:\n\tjava io.github.jmcleodfoss.pst.ParallelTraversal threads pst-file [pst-file ...]");
+			System.exit(1);
+		}
+
+		final int parallelism = Integer.parseInt(args[0]);
+		for (int i = 1; i < args.length; ++i) {
+			final String a = args[i];
+			System.out.println(a);
+			try {
+				final PST pst = new PST(a);
+				try {
+					final java.util.concurrent.atomic.AtomicInteger folders = new java.util.concurrent.atomic.AtomicInteger();
+					final java.util.concurrent.atomic.AtomicInteger messages = new java.util.concurrent.atomic.AtomicInteger();
+					final java.util.concurrent.atomic.AtomicInteger attachments = new java.util.concurrent.atomic.AtomicInteger();
+					final long start = System.nanoTime();
+					new ParallelTraversal(pst, parallelism).traverse(new Visitor() {
+						@Override
+						public void visitFolder(Folder folder, java.util.List<String> path)
+						{
+							folders.incrementAndGet();
+						}
+
+						@Override
+						public void visitMessage(Folder folder, MessageObject message, PropertyContext pc, java.util.List<PropertyContext> attachmentPCs)
+						{
+							messages.incrementAndGet();
+							attachments.addAndGet(attachmentPCs.size());
+						}
+					});
+					System.out.printf("%d folders, %d message objects, %d attachments in %d ms using %d threads%n",
+						folders.get(), messages.get(), attachments.get(), (System.nanoTime() - start) / 1000000, parallelism);
+				} finally {
+					try {
+						pst.close();
+					} catch (final java.io.IOException e) {
+						System.out.printf("There was a problem closing file %s%n", a);
+					}
+				}
+			} catch (final	BadXBlockLevelException
+				|	BadXBlockTypeException
+				|	DataOverflowException
+				|	IncorrectNameIDStreamContentException
+				|	NameIDStreamNotFoundException
+				|	NotHeapNodeException
+				|	NotPropertyContextNodeException
+				|	NotTableContextNodeException
+				|	NullDataBlockException
+				|	NullNodeException
+				|	UnimplementedPropertyTypeException
+				|	UnknownClientSignatureException
+				|	UnknownPropertyTypeException
+				|	UnparseablePropertyContextException
+				|	UnparseableTableContextException
+				|	TraversalException e) {
+				System.out.println(e);
+				e.printStackTrace(System.out);
+			} catch (final CRCMismatchException e) {
+				System.out.printf("File %s is corrupt (Calculated CRC does not match expected value)%n", a);
+			} catch (final NotPSTFileException e) {
+				System.out.printf("File %s is not a pst file%n", a);
+			} catch (final java.io.FileNotFoundException e) {
+				System.out.printf("File %s not found%n", a);
+			} catch (final java.io.IOException e) {
+				System.out.printf("Could not read %s%n", a);
+			}
+		}
+	}
+}
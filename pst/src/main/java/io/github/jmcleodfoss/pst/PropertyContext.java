@@ -1,13 +1,69 @@
 package io.github.jmcleodfoss.pst;
 
 /**	The PropertyContext class contains a PST file property context.
+*	<p>
+*	If {@link Options#setLazyPropertyContexts lazy property contexts} are enabled, the values are not decoded when the property
+*	context is read. Instead, the heap-on-node and B-tree-on-heap are kept, and each value is found by a binary search of the
+*	B-tree-on-heap on its property ID and decoded the first time it is requested. Iterating through the property context decodes
+*	all of the values. Since not all the methods which retrieve values may throw the checked exceptions reported while decoding,
+*	problems decoding a value requested later are reported by a {@link PropertyReadException}.
 *	@see	<a href="https://docs.microsoft.com/en-us/openspecs/office_file_formats/ms-pst/294c83c6-ff92-42f5-b6b6-876c29fa9737">MS-PST Section 2.3.3: Property Context (PC)</a>
 */
 public class PropertyContext
 {
-	/**	The location in which to store the properties. */
+	/**	The location in which to store the properties which have been decoded. */
 	protected final java.util.HashMap<Integer, Object> properties;
 
+	/**	The node containing the property context, if values are decoded as they are requested; otherwise null. */
+	private final LPTLeaf node;
+
+	/**	The heap-on-node containing the property context, if values are decoded as they are requested; otherwise null. */
+	private final HeapOnNode hon;
+
+	/**	The B-tree-on-heap holding the property context, if values are decoded as they are requested; otherwise null. */
+	private final BTreeOnHeap bth;
+
+	/**	The PST file's block B-tree, if values are decoded as they are requested; otherwise null. */
+	private final BlockMap bbt;
+
+	/**	The PST file data stream, etc., if values are decoded as they are requested; otherwise null. */
+	private final PSTFile pstFile;
+
+	/**	The sub-node B-tree for the property context, once it has been read. */
+	private SubnodeBTree sbt;
+
+	/**	The tags of the scalar properties, in ascending order, if all values were decoded when the property context was
+	*	read; otherwise null.
+	*	@see	#scalar
+	*/
+	private final int[] scalarTags;
+
+	/**	The value of each property in {@link #scalarTags}, as returned by {@link #scalar}, if all values were decoded when
+	*	the property context was read; otherwise null.
+	*/
+	private final long[] scalarValues;
+
+	/**	Whether all the values in the property context have been decoded into {@link #properties}. */
+	private boolean fComplete;
+
+	/**	The PropertyReadException is thrown when a value in a property context whose values are decoded as they are requested
+	*	cannot be read. It wraps the underlying exception, which is available through {@link #getCause}.
+	*/
+	public static class PropertyReadException extends RuntimeException
+	{
+		/**	The serialVersionUID is required because the base class is serializable. */
+		private static final long serialVersionUID = 1L;
+
+		/**	Create a PropertyReadException for the given property and cause.
+		*	@param	tag	The property tag of the value which could not be read, or 0 if all values were being read.
+		*	@param	cause	The exception encountered while reading the value.
+		*/
+		PropertyReadException(int tag, Exception cause)
+		{
+			super(tag == 0 ? "Could not read property context" : String.format("Could not read property 0x%08x", tag), cause);
+		}
+	}
+
 	/**	The PSTDataPointer permits saving a reference to an object which is large enough that it should only be retrieved on demand. */
 	static protected class PSTDataPointer
 	{
@@ -36,7 +92,7 @@ public class PropertyContext
 			UnimplementedPropertyTypeException,
 			UnknownPropertyTypeException
 		{
-			reader = DataType.definitionFactory(propertyType);
+			reader = DataType.definitionFactory(propertyType, pstFile);
 			this.entry = entry;
 			this.bbt = bbt;
 			this.pstFile = pstFile;
@@ -111,16 +167,49 @@ public class PropertyContext
 		}
 	}
 
-	/**	Create an empty PropertyContext object. */
-	private PropertyContext()
+	/**	Create a PropertyContext from the node ID, node database, and basic PST file object. The values are decoded when they
+	*	are requested if {@link Options#setLazyPropertyContexts lazy property contexts} were enabled when the PST file was
+	*	opened.
+	*	@param	node	The node containing the property context.
+	*	@param	bbt	The PST file's block B-tree.
+	*	@param	pstFile	The PST file data stream, etc.
+	*	@throws BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
+	*	@throws BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
+	*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
+	*	@throws	NotHeapNodeException			A node which was not a heap node was found while bulding the property context.
+	*	@throws	NotPropertyContextNodeException		A node which is not part of a property context was found while building the property context.
+	*	@throws	NullDataBlockException			A null data block was found while building the property context.
+	*	@throws NullNodeException	The NullNodeException is thrown when a node is found to be null when building a PropertyContext.
+	*	@throws	UnimplementedPropertyTypeException	Handling for the property type has not been implemented
+	*	@throws	UnknownClientSignatureException		An unknown client signature was found while building the property context.
+	*	@throws UnknownPropertyTypeException		The property type was not recognized
+	*	@throws UnparseablePropertyContextException	A bad / corrupt property context block was found while building the property context.
+	*	@throws	java.io.IOException			An I/O error was encountered while reading in the data for the property context.
+	*/
+	PropertyContext(final LPTLeaf node, final BlockMap bbt, PSTFile pstFile)
+	throws
+		BadXBlockLevelException,
+		BadXBlockTypeException,
+		CRCMismatchException,
+		NotHeapNodeException,
+		NotPropertyContextNodeException,
+		NullDataBlockException,
+		NullNodeException,
+		UnparseablePropertyContextException,
+		UnimplementedPropertyTypeException,
+		UnknownClientSignatureException,
+		UnknownPropertyTypeException,
+		java.io.IOException
 	{
-		properties = new java.util.HashMap<Integer, Object>();
+		this(node, bbt, pstFile, pstFile.lazyPropertyContexts);
 	}
 
-	/**	Create a PropertyContext from the node ID, node database, and basic PST file object.
+	/**	Create a PropertyContext from the node ID, node database, and basic PST file object, decoding either all of the values
+	*	now or each value when it is requested.
 	*	@param	node	The node containing the property context.
 	*	@param	bbt	The PST file's block B-tree.
 	*	@param	pstFile	The PST file data stream, etc.
+	*	@param	fLazy	If true, values are decoded when they are requested; if false, all values are decoded now.
 	*	@throws BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
 	*	@throws BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
 	*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
@@ -134,7 +223,7 @@ public class PropertyContext
 	*	@throws UnparseablePropertyContextException	A bad / corrupt property context block was found while building the property context.
 	*	@throws	java.io.IOException			An I/O error was encountered while reading in the data for the property context.
 	*/
-	PropertyContext(final LPTLeaf node, final BlockMap bbt, PSTFile pstFile)
+	PropertyContext(final LPTLeaf node, final BlockMap bbt, PSTFile pstFile, final boolean fLazy)
 	throws
 		BadXBlockLevelException,
 		BadXBlockTypeException,
@@ -149,7 +238,7 @@ public class PropertyContext
 		UnknownPropertyTypeException,
 		java.io.IOException
 	{
-		this();
+		properties = new java.util.HashMap<Integer, Object>();
 
 		if (node == null)
 			throw new NullNodeException();
@@ -163,16 +252,67 @@ public class PropertyContext
 			throw new NotPropertyContextNodeException(node, hon.clientSignature());
 
 		BTreeOnHeap bth = new BTreeOnHeap(hon, pstFile);
+		if (fLazy) {
+			this.node = node;
+			this.hon = hon;
+			this.bth = bth;
+			this.bbt = bbt;
+			this.pstFile = pstFile;
+			scalarTags = null;
+			scalarValues = null;
+			return;
+		}
+
+		this.node = null;
+		this.hon = null;
+		this.bth = null;
+		this.bbt = null;
+		this.pstFile = null;
 		read(node, hon, bth, bbt, pstFile);
+		fComplete = true;
+
+		int numScalars = 0;
+		final int[] tags = new int[properties.size()];
+		for (final Integer tag : properties.keySet()) {
+			if (isScalar((short)(int)tag))
+				tags[numScalars++] = tag;
+		}
+		scalarTags = java.util.Arrays.copyOf(tags, numScalars);
+		java.util.Arrays.sort(scalarTags);
+		scalarValues = new long[numScalars];
+		for (int i = 0; i < numScalars; ++i)
+			scalarValues[i] = DataType.scalarValue(properties.get(scalarTags[i]));
 	}
 
 	/**	Determine whether this property context contains the given tag.
 	*	@param	tag	The tag to look for.
 	*	@return	true if this property context contains the given tag, false if it doesn't.
 	*/
-	boolean containsKey(final int tag)
+	synchronized boolean containsKey(final int tag)
+	{
+		if (fComplete || properties.containsKey(tag))
+			return properties.containsKey(tag);
+		return leafRecord(tag) != null;
+	}
+
+	/**	Decode all the values in the property context which have not been decoded yet.
+	*	@throws	PropertyReadException	The values are decoded as they are requested, and they could not all be read.
+	*/
+	private synchronized void decodeAll()
 	{
-		return properties.containsKey(tag);
+		if (fComplete)
+			return;
+
+		try {
+			read(node, hon, bth, bbt, pstFile);
+		} catch (final	CRCMismatchException
+			|	UnimplementedPropertyTypeException
+			|	UnknownPropertyTypeException
+			|	UnparseablePropertyContextException
+			|	java.io.IOException e) {
+			throw new PropertyReadException(0, e);
+		}
+		fComplete = true;
 	}
 
 	/**	Retrieve a value from the property context.
@@ -188,13 +328,111 @@ public class PropertyContext
 		BadXBlockTypeException,
 		CRCMismatchException
 	{
-		final Object o = properties.get(tag);
+		final Object o = value(tag);
 		if (o instanceof PSTDataPointer)
 			return ((PSTDataPointer)o).data();
 
 		return o;
 	}
 
+	/**	Retrieve the value of a boolean property without creating an object to hold it.
+	*	@param	tag	The tag of the property to read, which must have type PtypBoolean.
+	*	@return	The value of the property, or false if the property context does not contain the tag.
+	*	@throws	IllegalArgumentException	The property is not a boolean property.
+	*	@see	#hasProperty
+	*/
+	public boolean getBoolean(final int tag)
+	{
+		if ((short)tag != DataType.BOOLEAN)
+			throw new IllegalArgumentException(String.format("Property 0x%08x is not a boolean property", tag));
+		return scalar(tag) != 0;
+	}
+
+	/**	Retrieve the value of a time property as the number of milliseconds since the Java epoch, without creating a Date
+	*	object to hold it.
+	*	@param	tag	The tag of the property to read, which must have type PtypTime.
+	*	@return	The value of the property, or 0 if the property context does not contain the tag.
+	*	@throws	IllegalArgumentException	The property is not a time property.
+	*	@see	#hasProperty
+	*/
+	public long getFileTimeMillis(final int tag)
+	{
+		if ((short)tag != DataType.TIME)
+			throw new IllegalArgumentException(String.format("Property 0x%08x is not a time property", tag));
+		return scalar(tag);
+	}
+
+	/**	Retrieve the value of a 16- or 32-bit integer property without creating an object to hold it.
+	*	@param	tag	The tag of the property to read, which must have type PtypInteger16 or PtypInteger32.
+	*	@return	The value of the property, or 0 if the property context does not contain the tag.
+	*	@throws	IllegalArgumentException	The property is not a 16- or 32-bit integer property.
+	*	@see	#hasProperty
+	*/
+	public int getInt(final int tag)
+	{
+		final short propertyType = (short)tag;
+		if (propertyType != DataType.INTEGER_16 && propertyType != DataType.INTEGER_32)
+			throw new IllegalArgumentException(String.format("Property 0x%08x is not a 32-bit integer property", tag));
+		return (int)scalar(tag);
+	}
+
+	/**	Retrieve the value of an integer property without creating an object to hold it.
+	*	@param	tag	The tag of the property to read, which must have type PtypInteger16, PtypInteger32, or PtypInteger64.
+	*	@return	The value of the property, or 0 if the property context does not contain the tag.
+	*	@throws	IllegalArgumentException	The property is not an integer property.
+	*	@see	#hasProperty
+	*/
+	public long getLong(final int tag)
+	{
+		final short propertyType = (short)tag;
+		if (propertyType != DataType.INTEGER_16 && propertyType != DataType.INTEGER_32 && propertyType != DataType.INTEGER_64)
+			throw new IllegalArgumentException(String.format("Property 0x%08x is not an integer property", tag));
+		return scalar(tag);
+	}
+
+	/**	Obtain a stream from which the value of a binary or object property may be read. If the value is stored in a data
+	*	tree outside the property context, the data blocks are read and decoded one at a time as the stream is read, so
+	*	large values do not have to be held in memory.
+	*	@param	tag	The tag of the property to read, which must have type PtypBinary or PtypObject.
+	*	@return	A stream from which the property's value may be read, or null if the property context does not contain the tag.
+	*	@throws	IllegalArgumentException	The property is not a binary or object property.
+	*	@see	#getChannel
+	*/
+	public java.io.InputStream getInputStream(final int tag)
+	{
+		final short propertyType = (short)(tag & 0xffff);
+		if (propertyType != DataType.BINARY && propertyType != DataType.OBJECT)
+			throw new IllegalArgumentException(String.format("Property 0x%08x is not a binary property", tag));
+
+		final Object o;
+		try {
+			o = value(tag);
+		} catch (final CRCMismatchException e) {
+			throw new PropertyReadException(tag, e);
+		}
+		if (o instanceof PSTDataPointer) {
+			final PSTDataPointer dp = (PSTDataPointer)o;
+			return new DataTreeInputStream(dp.entry, dp.bbt, dp.pstFile);
+		}
+		if (o instanceof byte[])
+			return new java.io.ByteArrayInputStream((byte[])o);
+		return null;
+	}
+
+	/**	Obtain a channel from which the value of a binary or object property may be read.
+	*	@param	tag	The tag of the property to read, which must have type PtypBinary or PtypObject.
+	*	@return	A channel from which the property's value may be read, or null if the property context does not contain the tag.
+	*	@throws	IllegalArgumentException	The property is not a binary or object property.
+	*	@see	#getInputStream
+	*/
+	public java.nio.channels.ReadableByteChannel getChannel(final int tag)
+	{
+		final java.io.InputStream stream = getInputStream(tag);
+		if (stream instanceof java.nio.channels.ReadableByteChannel)
+			return (java.nio.channels.ReadableByteChannel)stream;
+		return stream == null ? null : java.nio.channels.Channels.newChannel(stream);
+	}
+
 	/**	Return a ByteBuffer holding the data for the given tag, taken from HeapOnNode hon if the data is stored in an HNID.
 	*	@param	tag	The tag of the data to retrieve
 	*	@param	data	The raw data to read; this contains either the data or a reference to an HNID.
@@ -227,14 +465,55 @@ public class PropertyContext
 		return java.nio.ByteBuffer.wrap(data).asReadOnlyBuffer();
 	}
 
+	/**	Determine whether this property context contains the given property.
+	*	@param	tag	The tag of the property to look for.
+	*	@return	true if this property context contains the given property, false if it doesn't.
+	*/
+	public boolean hasProperty(final int tag)
+	{
+		return containsKey(tag);
+	}
+
+	/**	Is the given property type one which may be read by {@link #scalar}?
+	*	@param	propertyType	The property type to check.
+	*	@return	true if the property type is PtypBoolean, PtypInteger16, PtypInteger32, PtypInteger64, or PtypTime, false
+	*		otherwise.
+	*/
+	private static boolean isScalar(final short propertyType)
+	{
+		switch (propertyType) {
+		case DataType.BOOLEAN:
+		case DataType.INTEGER_16:
+		case DataType.INTEGER_32:
+		case DataType.INTEGER_64:
+		case DataType.TIME:
+			return true;
+		default: return false;
+		}
+	}
+
 	/**	Retrieve an iterator traversing the values in the property context.
 	*	@return	An interator through all the properties in the property context.
 	*/
 	public java.util.Iterator<java.util.Map.Entry<Integer, Object>> iterator()
 	{
+		decodeAll();
 		return properties.entrySet().iterator();
 	}
 
+	/**	Find the B-tree-on-heap record for a property, if the property context contains it with the requested type.
+	*	@param	tag	The tag of the property to look for.
+	*	@return	The B-tree-on-heap leaf record holding the property, or null if there is none.
+	*/
+	private BTreeOnHeap.LeafRecord leafRecord(final int tag)
+	{
+		final BTreeOnHeap.LeafRecord lr = (BTreeOnHeap.LeafRecord)bth.find(tag >>> 16);
+		if (lr == null || lr.data.length < 2)
+			return null;
+
+		return ByteUtil.makeShortLE(lr.data, 0) == (short)tag ? lr : null;
+	}
+
 	/**	Retrieve the property corresponding to the given B-tree-on-heap leaf entry in a Property Context.
 	*	@param	lr		The B-tree-on-heap record from which to read the property value.
 	*	@param	tag		The property tag, needed to handle an inconsistency on the Outlook side.
@@ -257,7 +536,7 @@ public class PropertyContext
 		UnparseablePropertyContextException,
 		java.io.IOException
 	{
-		DataType dataReader = DataType.definitionFactory(propertyType);
+		DataType dataReader = DataType.definitionFactory(propertyType, pstFile);
 		if ((dataReader.size() != 0 && dataReader.size() < lr.data.length) && (!storedInHNID(propertyType) || lr.data.length < 4))
 			return dataReader.read(bData);
 		final DataType hidReader = DataType.hidReader;
@@ -277,9 +556,9 @@ public class PropertyContext
 		if (!hon.validHID(hnid))
 			return null;
 
-		byte[] data = hon.heapData(hnid);
+		final java.nio.ByteBuffer data = hon.heapBuffer(hnid);
 		dataReader = DataType.getActualDataType(tag, data, dataReader);
-		return dataReader.read(PSTFile.makeByteBuffer(data));
+		return dataReader.read(data);
 	}
 
 	/**	Read in a property context.
@@ -302,7 +581,7 @@ public class PropertyContext
 		UnparseablePropertyContextException,
 		java.io.IOException
 	{
-		final SubnodeBTree sbt = node.bidSubnode.key() != 0 ? new SubnodeBTree(node.bidSubnode, bbt, pstFile) : null;
+		final SubnodeBTree sbt = subnodeBTree(node, bbt, pstFile);
 
 		java.util.Iterator<BTreeNode> iterator = bth.iterator();
 		while (iterator.hasNext()) {
@@ -310,17 +589,73 @@ public class PropertyContext
 			java.nio.ByteBuffer bData = PSTFile.makeByteBuffer(lr.data);
 			final short propertyType = bData.getShort();
 			final int tag = (int)lr.key() << 16 | propertyType;
+			if (properties.containsKey(tag))
+				continue;
 			final Object property = property(lr, tag, propertyType, bData, sbt, hon, bbt, pstFile);
 			properties.put(tag, property);
 		}
 	}
 
+	/**	Retrieve the value of a scalar property as a long, without creating any objects. If the values are decoded as they
+	*	are requested, the value is read directly from the B-tree-on-heap record (or, for 64-bit values, the heap); otherwise,
+	*	it is found by a binary search of the scalar values saved when the property context was read.
+	*	@param	tag	The tag of the property to read, which must have type PtypBoolean, PtypInteger16, PtypInteger32,
+	*			PtypInteger64, or PtypTime.
+	*	@return	The value of the property (1 for true, and milliseconds since the Java epoch for times), or 0 if the
+	*		property context does not contain the tag.
+	*/
+	private long scalar(final int tag)
+	{
+		if (bth == null) {
+			final int i = java.util.Arrays.binarySearch(scalarTags, tag);
+			return i < 0 ? 0 : scalarValues[i];
+		}
+
+		final BTreeOnHeap.LeafRecord lr = leafRecord(tag);
+		if (lr == null || lr.data.length < 6)
+			return 0;
+
+		switch ((short)tag) {
+		case DataType.BOOLEAN:
+			return lr.data[2] != 0 ? 1 : 0;
+
+		case DataType.INTEGER_16:
+			return ByteUtil.makeShortLE(lr.data, 2);
+
+		case DataType.INTEGER_32:
+			return ByteUtil.makeIntLE(lr.data, 2);
+
+		default:
+			final long value = hon.heapLong(ByteUtil.makeIntLE(lr.data, 2));
+			return (short)tag == DataType.TIME ? DataType.fileTimeToMillis(value) : value;
+		}
+	}
+
+	/**	Obtain the sub-node B-tree for the property context, reading it if this has not already been done.
+	*	@param	node	The node containing the property context.
+	*	@param	bbt	The PST file block B-tree.
+	*	@param	pstFile	The PST file data stream, etc.
+	*	@return	The sub-node B-tree, or null if the property context has none.
+	*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
+	*	@throws	java.io.IOException	An I/O error was encountered while reading in the sub-node B-tree.
+	*/
+	private SubnodeBTree subnodeBTree(final LPTLeaf node, final BlockMap bbt, PSTFile pstFile)
+	throws
+		CRCMismatchException,
+		java.io.IOException
+	{
+		if (sbt == null && node.bidSubnode.key() != 0)
+			sbt = new SubnodeBTree(node.bidSubnode, bbt, pstFile);
+		return sbt;
+	}
+
 	/**	Return a table model for the property context for the given NID.
 	*	@param	namedProperties	The property names for this PST file.
 	*	@return	TableModel representation of this property context.
 	*/
 	LPTTableModel tableModel(final NameToIDMap namedProperties)
 	{
+		decodeAll();
 		return new TableModel(properties, namedProperties);
 	}
 
@@ -384,6 +719,38 @@ public class PropertyContext
 		return s.toString();
 	}
 
+	/**	Obtain the stored value of a property, decoding it if this has not already been done.
+	*	@param	tag	The tag of the property to retrieve.
+	*	@return	The value of the property, which may be a {@link PSTDataPointer} to data stored in a sub-node, or null if the
+	*		property context does not contain the tag.
+	*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
+	*	@throws	PropertyReadException	The value could not be decoded.
+	*/
+	private synchronized Object value(final int tag)
+	throws
+		CRCMismatchException
+	{
+		if (fComplete || properties.containsKey(tag))
+			return properties.get(tag);
+
+		final BTreeOnHeap.LeafRecord lr = leafRecord(tag);
+		if (lr == null)
+			return null;
+
+		try {
+			final java.nio.ByteBuffer bData = PSTFile.makeByteBuffer(lr.data);
+			final short propertyType = bData.getShort();
+			final Object property = property(lr, tag, propertyType, bData, subnodeBTree(node, bbt, pstFile), hon, bbt, pstFile);
+			properties.put(tag, property);
+			return property;
+		} catch (final	UnimplementedPropertyTypeException
+			|	UnknownPropertyTypeException
+			|	UnparseablePropertyContextException
+			|	java.io.IOException e) {
+			throw new PropertyReadException(tag, e);
+		}
+	}
+
 	/**	Test the PropertyContext class by reading in the first node containing a property context, extracting the properties,
 	*	and printing them out.
 	*	@param	args	The files to display the property contexts of.
@@ -0,0 +1,657 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The SearchIndex class is a full-text inverted index over the message objects in a PST file, kept in a directory beside the
+*	PST file so that term and phrase queries may be answered without reading any message object property contexts.
+*	<p>
+*	The subject, sender, recipient display names, plain-text body, and attachment file names of each message object are split
+*	into terms (runs of letters and digits, converted to lower case), and the node ID key and positions of each term are
+*	recorded. Positions are not contiguous across fields, so a phrase never matches the end of one field and the start of the
+*	next.
+*	<p>
+*	The index is built by a {@link ParallelTraversal}, and is stored as one segment file per folder, written when the folder's
+*	message objects have all been indexed. The postings in each segment are sorted by node ID key and delta-encoded as
+*	variable-length integers. Since a segment appears only once it is complete, an interrupted build may be resumed by calling
+*	{@link #build} again, which skips the folders which already have segments. A stamp file holding the PST header CRCs is kept
+*	with the segments, and if the PST file has changed since they were written, they are discarded and the index rebuilt.
+*	@see	ParallelTraversal
+*	@see	SidecarIndex
+*/
+public class SearchIndex
+{
+	/**	The prefix of the name of a segment file, which is followed by the folder node ID key in hexadecimal. */
+	private static final String SEGMENT_PREFIX = "folder-";
+
+	/**	The suffix of the name of a segment file. */
+	private static final String SEGMENT_SUFFIX = ".seg";
+
+	/**	The name of the file holding the stamp of the PST file the segments were built from. */
+	private static final String STAMP_FILE = "stamp";
+
+	/**	The identifier at the start of a segment file: "PSTFTS01". */
+	private static final long MAGIC = 0x5053544654533031L;
+
+	/**	The version of the segment file format. */
+	private static final int VERSION = 1;
+
+	/**	The size of the CRC at the end of a segment file. */
+	private static final int SIZE_CRC = 4;
+
+	/**	The maximum length of a term; longer runs of letters and digits are not indexed. */
+	static final int MAX_TERM_LENGTH = 64;
+
+	/**	The Segment class holds the postings for the message objects in one folder. */
+	private static class Segment
+	{
+		/**	The node ID key of the folder. */
+		private final int folderNid;
+
+		/**	The offset and length of each term's postings. */
+		private final java.util.Map<String, int[]> dictionary;
+
+		/**	The postings for all terms. */
+		private final java.nio.ByteBuffer postings;
+
+		/**	Create a segment from its dictionary and postings.
+		*	@param	folderNid	The node ID key of the folder.
+		*	@param	dictionary	The offset and length of each term's postings.
+		*	@param	postings	The postings for all terms.
+		*/
+		private Segment(final int folderNid, final java.util.Map<String, int[]> dictionary, final java.nio.ByteBuffer postings)
+		{
+			this.folderNid = folderNid;
+			this.dictionary = dictionary;
+			this.postings = postings;
+		}
+
+		/**	Load a segment from a file, checking that it is complete.
+		*	@param	file	The segment file.
+		*	@return	The segment, or null if the file could not be read or is not a valid segment.
+		*/
+		static Segment load(final java.io.File file)
+		{
+			try (java.nio.channels.FileChannel fc = java.nio.channels.FileChannel.open(file.toPath(), java.nio.file.StandardOpenOption.READ)) {
+				final long size = fc.size();
+				if (size < SIZE_CRC || size > Integer.MAX_VALUE)
+					return null;
+
+				final java.nio.ByteBuffer byteBuffer = fc.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, 0, size);
+				final int contentSize = (int)size - SIZE_CRC;
+				if (CRC.crc(byteBuffer, 0, contentSize) != byteBuffer.getInt(contentSize))
+					return null;
+				byteBuffer.limit(contentSize);
+
+				if (byteBuffer.getLong() != MAGIC || byteBuffer.getInt() != VERSION)
+					return null;
+
+				final int folderNid = byteBuffer.getInt();
+				final int numTerms = byteBuffer.getInt();
+				final java.util.HashMap<String, int[]> dictionary = new java.util.HashMap<String, int[]>(numTerms * 4 / 3 + 1);
+				for (int i = 0; i < numTerms; ++i) {
+					final byte[] term = new byte[byteBuffer.get() & 0xff];
+					byteBuffer.get(term);
+					dictionary.put(new String(term, java.nio.charset.StandardCharsets.UTF_8), new int[]{byteBuffer.getInt(), byteBuffer.getInt()});
+				}
+				return new Segment(folderNid, dictionary, byteBuffer.slice());
+			} catch (final	java.io.IOException
+				|	IllegalArgumentException
+				|	java.nio.BufferUnderflowException e) {
+				return null;
+			}
+		}
+
+		/**	Obtain the postings for a term.
+		*	@param	term	The term to look up.
+		*	@return	The node ID keys of the message objects containing the term, in increasing order, and for each message
+		*		object the positions at which the term appears, or null if no message object in the folder contains the
+		*		term.
+		*/
+		Postings postings(final String term)
+		{
+			final int[] location = dictionary.get(term);
+			if (location == null)
+				return null;
+
+			final java.nio.ByteBuffer byteBuffer = postings.duplicate();
+			byteBuffer.position(location[0]);
+			byteBuffer.limit(location[0] + location[1]);
+
+			final int numMessages = readVarInt(byteBuffer);
+			final int[] nids = new int[numMessages];
+			final int[][] positions = new int[numMessages][];
+			int nid = 0;
+			for (int m = 0; m < numMessages; ++m) {
+				nid += readVarInt(byteBuffer);
+				nids[m] = nid;
+				positions[m] = new int[readVarInt(byteBuffer)];
+				int position = 0;
+				for (int p = 0; p < positions[m].length; ++p) {
+					position += readVarInt(byteBuffer);
+					positions[m][p] = position;
+				}
+			}
+			return new Postings(nids, positions);
+		}
+	}
+
+	/**	The Postings class holds the message objects in a segment which contain a term, and where in them it appears. */
+	private static class Postings
+	{
+		/**	The node ID keys of the message objects, in increasing order. */
+		private final int[] nids;
+
+		/**	The positions of the term in each message object, in increasing order. */
+		private final int[][] positions;
+
+		/**	Create a postings list.
+		*	@param	nids		The node ID keys of the message objects, in increasing order.
+		*	@param	positions	The positions of the term in each message object, in increasing order.
+		*/
+		private Postings(final int[] nids, final int[][] positions)
+		{
+			this.nids = nids;
+			this.positions = positions;
+		}
+	}
+
+	/**	The SegmentBuilder class collects the postings for the message objects in one folder. */
+	static class SegmentBuilder
+	{
+		/**	The postings for each term: for each message object containing it, the node ID key followed by the positions. */
+		private final java.util.TreeMap<String, java.util.ArrayList<int[]>> terms;
+
+		/**	Create an empty segment builder. */
+		SegmentBuilder()
+		{
+			terms = new java.util.TreeMap<String, java.util.ArrayList<int[]>>();
+		}
+
+		/**	Add a message object's fields to the segment.
+		*	@param	nid	The node ID key of the message object.
+		*	@param	fields	The text of each field to index, any of which may be null.
+		*/
+		void add(final int nid, final java.util.List<String> fields)
+		{
+			final java.util.HashMap<String, java.util.ArrayList<Integer>> positions = new java.util.HashMap<String, java.util.ArrayList<Integer>>();
+			int position = 0;
+			for (final String field : fields) {
+				if (field == null)
+					continue;
+				for (final String term : tokens(field))
+					positions.computeIfAbsent(term, t -> new java.util.ArrayList<Integer>()).add(position++);
+
+				// Leave a gap so that phrases do not span fields.
+				++position;
+			}
+
+			for (final java.util.Map.Entry<String, java.util.ArrayList<Integer>> entry : positions.entrySet()) {
+				final java.util.ArrayList<Integer> termPositions = entry.getValue();
+				final int[] posting = new int[termPositions.size() + 1];
+				posting[0] = nid;
+				for (int i = 0; i < termPositions.size(); ++i)
+					posting[i + 1] = termPositions.get(i);
+				terms.computeIfAbsent(entry.getKey(), t -> new java.util.ArrayList<int[]>()).add(posting);
+			}
+		}
+
+		/**	Write the segment to a file, replacing any existing file. The segment is written to a temporary file first, so
+		*	that the segment file is never seen incomplete.
+		*	@param	file		The segment file.
+		*	@param	folderNid	The node ID key of the folder.
+		*	@throws	java.io.IOException	The file could not be written.
+		*/
+		void write(final java.io.File file, final int folderNid)
+		throws
+			java.io.IOException
+		{
+			final java.io.ByteArrayOutputStream postings = new java.io.ByteArrayOutputStream();
+			final java.io.ByteArrayOutputStream header = new java.io.ByteArrayOutputStream();
+			final java.io.DataOutputStream out = new java.io.DataOutputStream(header);
+			out.writeLong(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(folderNid);
+			out.writeInt(terms.size());
+			for (final java.util.Map.Entry<String, java.util.ArrayList<int[]>> entry : terms.entrySet()) {
+				final int start = postings.size();
+				final java.util.ArrayList<int[]> messages = entry.getValue();
+				messages.sort((a, b) -> Integer.compare(a[0], b[0]));
+				writeVarInt(postings, messages.size());
+				int previousNid = 0;
+				for (final int[] posting : messages) {
+					writeVarInt(postings, posting[0] - previousNid);
+					previousNid = posting[0];
+					writeVarInt(postings, posting.length - 1);
+					int previousPosition = 0;
+					for (int i = 1; i < posting.length; ++i) {
+						writeVarInt(postings, posting[i] - previousPosition);
+						previousPosition = posting[i];
+					}
+				}
+
+				final byte[] term = entry.getKey().getBytes(java.nio.charset.StandardCharsets.UTF_8);
+				out.writeByte(term.length);
+				out.write(term);
+				out.writeInt(start);
+				out.writeInt(postings.size() - start);
+			}
+			postings.writeTo(out);
+			out.flush();
+			final byte[] contents = header.toByteArray();
+
+			final java.io.File temp = java.io.File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+			try {
+				try (java.io.DataOutputStream fileOut = new java.io.DataOutputStream(new java.io.BufferedOutputStream(new java.io.FileOutputStream(temp)))) {
+					fileOut.write(contents);
+					fileOut.writeInt(CRC.crc(contents, 0, contents.length));
+				}
+				java.nio.file.Files.move(temp.toPath(), file.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING, java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				java.nio.file.Files.deleteIfExists(temp.toPath());
+			}
+		}
+	}
+
+	/**	The segments making up the index. */
+	private final java.util.List<Segment> segments;
+
+	/**	Create a search index from its segments.
+	*	@param	segments	The segments making up the index.
+	*/
+	private SearchIndex(final java.util.List<Segment> segments)
+	{
+		this.segments = segments;
+	}
+
+	/**	Build or bring up to date the search index for a PST file. Folders which already have valid segments are skipped, so
+	*	an interrupted build resumes where it left off.
+	*	@param	pst		The PST file to index.
+	*	@param	directory	The directory holding the index, which is created if necessary.
+	*	@param	parallelism	The number of threads to index folders with.
+	*	@return	The search index.
+	*	@throws	java.io.IOException	The index directory or a segment file could not be written.
+	*	@throws	ParallelTraversal.TraversalException	A folder or message object could not be read.
+	*/
+	public static SearchIndex build(final PST pst, final java.io.File directory, final int parallelism)
+	throws
+		java.io.IOException
+	{
+		if (!directory.isDirectory() && !directory.mkdirs())
+			throw new java.io.IOException("Could not create search index directory " + directory);
+
+		final byte[] stamp = java.nio.ByteBuffer.allocate(8).putInt(pst.header.crcPartial).putInt(pst.header.crcFull).array();
+		final java.io.File stampFile = new java.io.File(directory, STAMP_FILE);
+		if (!stampFile.isFile() || !java.util.Arrays.equals(java.nio.file.Files.readAllBytes(stampFile.toPath()), stamp)) {
+			for (final java.io.File file : segmentFiles(directory))
+				java.nio.file.Files.delete(file.toPath());
+			java.nio.file.Files.write(stampFile.toPath(), stamp);
+		}
+
+		final java.util.concurrent.ConcurrentHashMap<Integer, Segment> done = new java.util.concurrent.ConcurrentHashMap<Integer, Segment>();
+		for (final java.io.File file : segmentFiles(directory)) {
+			final Segment segment = Segment.load(file);
+			if (segment == null)
+				java.nio.file.Files.delete(file.toPath());
+			else
+				done.put(segment.folderNid, segment);
+		}
+
+		final boolean fUnicode = pst.unicode();
+		final java.util.concurrent.ConcurrentHashMap<Integer, SegmentBuilder> building = new java.util.concurrent.ConcurrentHashMap<Integer, SegmentBuilder>();
+		try {
+			new ParallelTraversal(pst, parallelism).traverse(new ParallelTraversal.Visitor() {
+				@Override
+				public void visitFolder(final Folder folder, final java.util.List<String> path)
+				{
+				}
+
+				@Override
+				public boolean visitContents(final Folder folder)
+				{
+					final int nid = folder.nodeFolderObject.nid.key;
+					if (done.containsKey(nid))
+						return false;
+					building.put(nid, new SegmentBuilder());
+					return true;
+				}
+
+				@Override
+				public void visitMessage(final Folder folder, final MessageObject message, final PropertyContext pc, final java.util.List<PropertyContext> attachments)
+				{
+					building.get(folder.nodeFolderObject.nid.key).add(message.nodeMessageObject.nid.key, fields(message, pc, attachments, fUnicode));
+				}
+
+				@Override
+				public void folderDone(final Folder folder)
+				{
+					final int nid = folder.nodeFolderObject.nid.key;
+					final SegmentBuilder builder = building.remove(nid);
+					if (builder == null)
+						return;
+
+					final java.io.File file = segmentFile(directory, nid);
+					try {
+						builder.write(file, nid);
+					} catch (final java.io.IOException e) {
+						throw new java.io.UncheckedIOException(e);
+					}
+					final Segment segment = Segment.load(file);
+					if (segment != null)
+						done.put(nid, segment);
+				}
+			});
+		} catch (final java.io.UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+		return new SearchIndex(sortedSegments(done.values()));
+	}
+
+	/**	Obtain the text of the fields of a message object which are indexed.
+	*	@param	message		The message object.
+	*	@param	pc		The message object's property context.
+	*	@param	attachments	The property contexts of the message object's attachments.
+	*	@param	fUnicode	Whether the PST file is a Unicode file.
+	*	@return	The subject, sender, recipients, body, and attachment file names, any of which may be null.
+	*	@throws	ParallelTraversal.TraversalException	The message object's body could not be read.
+	*/
+	private static java.util.List<String> fields(final MessageObject message, final PropertyContext pc, final java.util.List<PropertyContext> attachments, final boolean fUnicode)
+	{
+		try {
+			final java.util.ArrayList<String> fields = new java.util.ArrayList<String>(6 + attachments.size());
+			fields.add(message.subject);
+			fields.add(string(pc, fUnicode ? PropertyTags.SenderNameW : PropertyTags.SenderName));
+			fields.add(string(pc, fUnicode ? PropertyTags.DisplayToW : PropertyTags.DisplayTo));
+			fields.add(string(pc, fUnicode ? PropertyTags.DisplayCcW : PropertyTags.DisplayCc));
+			fields.add(string(pc, fUnicode ? PropertyTags.DisplayBccW : PropertyTags.DisplayBcc));
+			if (message instanceof MessageObjectWithBody)
+				fields.add(((MessageObjectWithBody)message).body(pc));
+			for (final PropertyContext attachment : attachments) {
+				final String longFilename = string(attachment, fUnicode ? PropertyTags.AttachLongFilenameW : PropertyTags.AttachLongFilename);
+				fields.add(longFilename != null ? longFilename : string(attachment, fUnicode ? PropertyTags.AttachFilenameW : PropertyTags.AttachFilename));
+			}
+			return fields;
+		} catch (final	BadXBlockLevelException
+			|	BadXBlockTypeException
+			|	CRCMismatchException e) {
+			throw new ParallelTraversal.TraversalException("text of message object " + message.subject, e);
+		}
+	}
+
+	/**	Find the message objects containing a term.
+	*	@param	term	The term to look for; case is ignored.
+	*	@return	The node ID keys of the message objects containing the term, in increasing order.
+	*/
+	public int[] find(final String term)
+	{
+		final java.util.List<String> tokens = tokens(term);
+		if (tokens.size() != 1)
+			return findPhrase(term);
+
+		final java.util.ArrayList<int[]> matches = new java.util.ArrayList<int[]>();
+		for (final Segment segment : segments) {
+			final Postings postings = segment.postings(tokens.get(0));
+			if (postings != null)
+				matches.add(postings.nids);
+		}
+		return merge(matches);
+	}
+
+	/**	Find the message objects containing a phrase, that is, containing all of the phrase's terms in consecutive positions
+	*	within the same field.
+	*	@param	phrase	The phrase to look for; case and punctuation are ignored.
+	*	@return	The node ID keys of the message objects containing the phrase, in increasing order.
+	*/
+	public int[] findPhrase(final String phrase)
+	{
+		final java.util.List<String> tokens = tokens(phrase);
+		if (tokens.isEmpty())
+			return new int[0];
+
+		final java.util.ArrayList<int[]> matches = new java.util.ArrayList<int[]>();
+		for (final Segment segment : segments) {
+			final Postings[] postings = new Postings[tokens.size()];
+			boolean fAll = true;
+			for (int t = 0; t < postings.length && fAll; ++t) {
+				postings[t] = segment.postings(tokens.get(t));
+				fAll = postings[t] != null;
+			}
+			if (!fAll)
+				continue;
+
+			final int[] nids = new int[postings[0].nids.length];
+			int numNids = 0;
+			for (int m = 0; m < postings[0].nids.length; ++m) {
+				final int nid = postings[0].nids[m];
+				final int[][] positions = new int[postings.length][];
+				positions[0] = postings[0].positions[m];
+				for (int t = 1; t < postings.length && positions[t - 1] != null; ++t) {
+					final int i = java.util.Arrays.binarySearch(postings[t].nids, nid);
+					positions[t] = i < 0 ? null : postings[t].positions[i];
+				}
+				if (positions[positions.length - 1] != null && containsPhrase(positions))
+					nids[numNids++] = nid;
+			}
+			matches.add(java.util.Arrays.copyOf(nids, numNids));
+		}
+		return merge(matches);
+	}
+
+	/**	Are the terms of a phrase found in consecutive positions?
+	*	@param	positions	The positions of each term of the phrase, in increasing order.
+	*	@return	true if there is a position p such that term i appears at position p + i for every term i.
+	*/
+	private static boolean containsPhrase(final int[][] positions)
+	{
+		for (final int start : positions[0]) {
+			boolean fMatch = true;
+			for (int t = 1; t < positions.length && fMatch; ++t)
+				fMatch = java.util.Arrays.binarySearch(positions[t], start + t) >= 0;
+			if (fMatch)
+				return true;
+		}
+		return false;
+	}
+
+	/**	Merge the node ID keys found in each segment into a single sorted array. Since each message object is in exactly one
+	*	folder, there are no duplicates.
+	*	@param	matches	The node ID keys found in each segment.
+	*	@return	All of the node ID keys, in increasing order.
+	*/
+	private static int[] merge(final java.util.List<int[]> matches)
+	{
+		final int[] nids = matches.stream().flatMapToInt(java.util.Arrays::stream).toArray();
+		java.util.Arrays.sort(nids);
+		return nids;
+	}
+
+	/**	Open an existing search index. Segments which are incomplete or corrupt are ignored.
+	*	@param	directory	The directory holding the index.
+	*	@return	The search index.
+	*	@throws	java.io.IOException	The directory could not be read.
+	*/
+	public static SearchIndex open(final java.io.File directory)
+	throws
+		java.io.IOException
+	{
+		final java.util.ArrayList<Segment> segments = new java.util.ArrayList<Segment>();
+		for (final java.io.File file : segmentFiles(directory)) {
+			final Segment segment = Segment.load(file);
+			if (segment != null)
+				segments.add(segment);
+		}
+		return new SearchIndex(sortedSegments(segments));
+	}
+
+	/**	Read a variable-length unsigned integer written by {@link #writeVarInt}.
+	*	@param	byteBuffer	The buffer to read from.
+	*	@return	The integer read.
+	*/
+	private static int readVarInt(final java.nio.ByteBuffer byteBuffer)
+	{
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = byteBuffer.get();
+			value |= (b & 0x7f) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+
+	/**	Obtain the name of the segment file for a folder.
+	*	@param	directory	The directory holding the index.
+	*	@param	folderNid	The node ID key of the folder.
+	*	@return	The segment file for the folder.
+	*/
+	static java.io.File segmentFile(final java.io.File directory, final int folderNid)
+	{
+		return new java.io.File(directory, String.format("%s%08x%s", SEGMENT_PREFIX, folderNid, SEGMENT_SUFFIX));
+	}
+
+	/**	Obtain the segment files in an index directory.
+	*	@param	directory	The directory holding the index.
+	*	@return	The segment files in the directory.
+	*	@throws	java.io.IOException	The directory could not be read.
+	*/
+	private static java.io.File[] segmentFiles(final java.io.File directory)
+	throws
+		java.io.IOException
+	{
+		final java.io.File[] files = directory.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+		if (files == null)
+			throw new java.io.IOException("Could not read search index directory " + directory);
+		return files;
+	}
+
+	/**	Sort segments by folder node ID key, so that the order of results does not depend on the order in which folders were
+	*	indexed.
+	*	@param	segments	The segments to sort.
+	*	@return	A list of the segments in order of folder node ID key.
+	*/
+	private static java.util.List<Segment> sortedSegments(final java.util.Collection<Segment> segments)
+	{
+		final java.util.ArrayList<Segment> sorted = new java.util.ArrayList<Segment>(segments);
+		sorted.sort((a, b) -> Integer.compareUnsigned(a.folderNid, b.folderNid));
+		return java.util.Collections.unmodifiableList(sorted);
+	}
+
+	/**	Obtain the value of a string property, if it is present.
+	*	@param	pc	The property context to read from.
+	*	@param	tag	The property tag.
+	*	@return	The string value of the property, or null if it is not present or not a string.
+	*	@throws BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
+	*	@throws BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
+	*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
+	*/
+	private static String string(final PropertyContext pc, final int tag)
+	throws
+		BadXBlockLevelException,
+		BadXBlockTypeException,
+		CRCMismatchException
+	{
+		final Object o = pc.get(tag);
+		return o instanceof String ? (String)o : null;
+	}
+
+	/**	Split text into terms: maximal runs of letters and digits, converted to lower case. Runs longer than
+	*	{@link #MAX_TERM_LENGTH} characters are dropped.
+	*	@param	text	The text to split.
+	*	@return	The terms in the text, in order.
+	*/
+	static java.util.List<String> tokens(final String text)
+	{
+		final java.util.ArrayList<String> tokens = new java.util.ArrayList<String>();
+		final StringBuilder token = new StringBuilder();
+		for (int i = 0; i <= text.length(); ) {
+			final int c = i < text.length() ? text.codePointAt(i) : ' ';
+			if (Character.isLetterOrDigit(c)) {
+				token.appendCodePoint(Character.toLowerCase(c));
+			} else if (token.length() > 0) {
+				if (token.length() <= MAX_TERM_LENGTH)
+					tokens.add(token.toString());
+				token.setLength(0);
+			}
+			i += Character.charCount(c);
+		}
+		return tokens;
+	}
+
+	/**	Obtain a string representation of the search index.
+	*	@return	A string describing the size of the index.
+	*/
+	@Override
+	public String toString()
+	{
+		return String.format("%d segments, %d terms", segments.size(), segments.stream().mapToInt(s -> s.dictionary.size()).sum());
+	}
+
+	/**	Write a variable-length unsigned integer: seven bits per byte, least significant first, with the high bit set on every
+	*	byte but the last.
+	*	@param	out	The stream to write to.
+	*	@param	value	The integer to write.
+	*/
+	private static void writeVarInt(final java.io.ByteArrayOutputStream out, int value)
+	{
+		while ((value & ~0x7f) != 0) {
+			out.write((value & 0x7f) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+
+	/**	Build the search index for a PST file, if necessary, and search it.
+	*	@param	args	The PST file, the index directory, and the phrases to search for.
+	*/
+	@SuppressWarnings("PMD.DoNotCallSystemExit")
+	public static void main(final String[] args)
+	{
+		if (args.length < 2) {
+			System.out.println("use:\n\tjava io.github.jmcleodfoss.pst.SearchIndex pst-file index-directory [phrase ...]");
+			System.exit(1);
+		}
+
+		try {
+			final PST pst = new PST(args[0]);
+			try {
+				long start = System.nanoTime();
+				final SearchIndex index = build(pst, new java.io.File(args[1]), Runtime.getRuntime().availableProcessors());
+				System.out.printf("%s in %d ms%n", index, (System.nanoTime() - start) / 1000000);
+				for (int i = 2; i < args.length; ++i) {
+					start = System.nanoTime();
+					final int[] nids = index.findPhrase(args[i]);
+					System.out.printf("\"%s\": %d message objects in %d us%n", args[i], nids.length, (System.nanoTime() - start) / 1000);
+					for (final int nid : nids)
+						System.out.printf("\t0x%08x%n", nid);
+				}
+			} finally {
+				pst.close();
+			}
+		} catch (final	BadXBlockLevelException
+			|	BadXBlockTypeException
+			|	DataOverflowException
+			|	IncorrectNameIDStreamContentException
+			|	NameIDStreamNotFoundException
+			|	NotHeapNodeException
+			|	NotPropertyContextNodeException
+			|	NotTableContextNodeException
+			|	NullDataBlockException
+			|	NullNodeException
+			|	UnimplementedPropertyTypeException
+			|	UnknownClientSignatureException
+			|	UnknownPropertyTypeException
+			|	UnparseablePropertyContextException
+			|	UnparseableTableContextException
+			|	ParallelTraversal.TraversalException e) {
+			System.out.println(e);
+			e.printStackTrace(System.out);
+		} catch (final CRCMismatchException e) {
+			System.out.printf("File %s is corrupt (Calculated CRC does not match expected value)%n", args[0]);
+		} catch (final NotPSTFileException e) {
+			System.out.printf("File %s is not a pst file%n", args[0]);
+		} catch (final java.io.FileNotFoundException e) {
+			System.out.printf("File %s not found%n", args[0]);
+		} catch (final java.io.IOException e) {
+			System.out.printf("Could not read %s or write the index in %s%n", args[0], args[1]);
+		}
+	}
+}
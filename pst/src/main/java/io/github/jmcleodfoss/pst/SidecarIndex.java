@@ -0,0 +1,401 @@
+package io.github.jmcleodfoss.pst;
+
+/**	The SidecarIndex class holds a snapshot of the parts of a PST file which are slow to read but rarely change: the leaf
+*	entries of the block and node B-trees, the folder hierarchy, and a {@link MessageSummary} of each message object. The
+*	snapshot is kept in a file next to the PST file, named by adding {@link #SUFFIX} to the PST file name, and is stamped with
+*	the PST header's CRCs and the PST file's size and modification time, so that it is used only while the PST file is
+*	unchanged.
+*	<p>
+*	The file is written once, when a PST file is first opened with the {@link PST.Footprint#INDEXED} footprint, and is read
+*	through a memory mapping thereafter. It ends with a CRC of its contents, so that a damaged file is ignored rather than
+*	used. The file is written under a temporary name and renamed into place, so that a reader never sees a partial file.
+*	@see	PST.Footprint#INDEXED
+*	@see	CompactBlockMap
+*	@see	CompactNodeMap
+*/
+public class SidecarIndex
+{
+	/**	The suffix added to the PST file name to form the name of the sidecar index file. */
+	public static final String SUFFIX = ".idx";
+
+	/**	The first eight bytes of a sidecar index file, "PSTIDX01". */
+	private static final long MAGIC = 0x5053544944583031L;
+
+	/**	The version of the sidecar index file format. */
+	private static final int VERSION = 1;
+
+	/**	The size of the CRC at the end of the file. */
+	private static final int SIZE_CRC = 4;
+
+	/**	The Stamp class identifies the version of the PST file a sidecar index was made from. */
+	static class Stamp
+	{
+		/**	The stored CRC of the first part of the PST header. */
+		private final int crcPartial;
+
+		/**	The stored CRC of the whole PST header. */
+		private final int crcFull;
+
+		/**	The size of the PST file. */
+		private final long fileSize;
+
+		/**	The modification time of the PST file. */
+		private final long lastModified;
+
+		/**	Create the stamp for the given PST file.
+		*	@param	pstFile	The PST file's header, etc.
+		*	@param	file	The PST file.
+		*	@throws	java.io.IOException	The size or modification time of the PST file could not be read.
+		*/
+		Stamp(final PSTFile pstFile, final java.io.File file)
+		throws
+			java.io.IOException
+		{
+			this(pstFile.header.crcPartial, pstFile.header.crcFull, java.nio.file.Files.size(file.toPath()), java.nio.file.Files.getLastModifiedTime(file.toPath()).toMillis());
+		}
+
+		/**	Create a stamp from its parts.
+		*	@param	crcPartial	The stored CRC of the first part of the PST header.
+		*	@param	crcFull		The stored CRC of the whole PST header.
+		*	@param	fileSize	The size of the PST file.
+		*	@param	lastModified	The modification time of the PST file, in milliseconds since the epoch.
+		*/
+		Stamp(final int crcPartial, final int crcFull, final long fileSize, final long lastModified)
+		{
+			this.crcPartial = crcPartial;
+			this.crcFull = crcFull;
+			this.fileSize = fileSize;
+			this.lastModified = lastModified;
+		}
+
+		/**	Read a stamp from a sidecar index file.
+		*	@param	byteBuffer	The buffer holding the sidecar index file, positioned at the stamp.
+		*	@throws	java.nio.BufferUnderflowException	The stamp is incomplete.
+		*/
+		private Stamp(final java.nio.ByteBuffer byteBuffer)
+		throws
+			java.nio.BufferUnderflowException
+		{
+			crcPartial = byteBuffer.getInt();
+			crcFull = byteBuffer.getInt();
+			fileSize = byteBuffer.getLong();
+			lastModified = byteBuffer.getLong();
+		}
+
+		/**	{@inheritDoc} */
+		@Override
+		public boolean equals(final Object o)
+		{
+			if (!(o instanceof Stamp))
+				return false;
+			final Stamp other = (Stamp)o;
+			return crcPartial == other.crcPartial && crcFull == other.crcFull && fileSize == other.fileSize && lastModified == other.lastModified;
+		}
+
+		/**	{@inheritDoc} */
+		@Override
+		public int hashCode()
+		{
+			return java.util.Objects.hash(crcPartial, crcFull, fileSize, lastModified);
+		}
+
+		/**	Write the stamp to a sidecar index file.
+		*	@param	out	The stream to write the stamp to.
+		*	@throws	java.io.IOException	The stamp could not be written.
+		*/
+		private void write(final java.io.DataOutputStream out)
+		throws
+			java.io.IOException
+		{
+			out.writeInt(crcPartial);
+			out.writeInt(crcFull);
+			out.writeLong(fileSize);
+			out.writeLong(lastModified);
+		}
+	}
+
+	/**	The FolderEntry class describes a folder and the message objects in it. */
+	public static class FolderEntry
+	{
+		/**	The node ID key of the folder. */
+		public final int nid;
+
+		/**	The node ID key of the folder's parent. The root folder is its own parent. */
+		public final int parentNid;
+
+		/**	The folder name. */
+		public final String displayName;
+
+		/**	The type of folder, or null if it is not present. */
+		public final String containerClass;
+
+		/**	The summaries of the message objects in the folder, in contents table order. */
+		public final java.util.List<MessageSummary> messages;
+
+		/**	Create a folder entry.
+		*	@param	nid		The node ID key of the folder.
+		*	@param	parentNid	The node ID key of the folder's parent.
+		*	@param	displayName	The folder name.
+		*	@param	containerClass	The type of folder.
+		*	@param	messages	The summaries of the message objects in the folder.
+		*/
+		FolderEntry(final int nid, final int parentNid, final String displayName, final String containerClass, final java.util.List<MessageSummary> messages)
+		{
+			this.nid = nid;
+			this.parentNid = parentNid;
+			this.displayName = displayName;
+			this.containerClass = containerClass;
+			this.messages = java.util.Collections.unmodifiableList(messages);
+		}
+
+		/**	Obtain a string representation of the folder entry.
+		*	@return	A string describing the folder.
+		*/
+		@Override
+		public String toString()
+		{
+			return String.format("NID 0x%08x (parent 0x%08x) %s: %d messages", nid, parentNid, displayName, messages.size());
+		}
+	}
+
+	/**	The stamp of the PST file the index was made from. */
+	private final Stamp stamp;
+
+	/**	The block B-tree leaf entries. */
+	final CompactBlockMap blockMap;
+
+	/**	The node B-tree leaf entries. */
+	final CompactNodeMap nodeMap;
+
+	/**	The folders, parents before children. */
+	private final java.util.List<FolderEntry> folders;
+
+	/**	Create a sidecar index from its parts.
+	*	@param	stamp		The stamp of the PST file the index was made from.
+	*	@param	blockMap	The block B-tree leaf entries.
+	*	@param	nodeMap		The node B-tree leaf entries.
+	*	@param	folders		The folders, parents before children.
+	*/
+	SidecarIndex(final Stamp stamp, final CompactBlockMap blockMap, final CompactNodeMap nodeMap, final java.util.List<FolderEntry> folders)
+	{
+		this.stamp = stamp;
+		this.blockMap = blockMap;
+		this.nodeMap = nodeMap;
+		this.folders = java.util.Collections.unmodifiableList(folders);
+	}
+
+	/**	Create a sidecar index for a PST file by walking its folder tree and reading the contents table of each folder, and
+	*	write it to the sidecar index file.
+	*	@param	stamp		The stamp of the PST file.
+	*	@param	blockMap	The PST file's block B-tree leaf entries.
+	*	@param	nodeMap		The PST file's node B-tree leaf entries.
+	*	@param	rootFolder	The PST file's root folder.
+	*	@param	pstFile		The PST file's header, input data stream, etc.
+	*	@param	file		The sidecar index file to write.
+	*	@return	The sidecar index, or null if the folder tree could not be read. The index is returned even if it could not be
+	*		written to the file. Either failure is logged to System.out.
+	*/
+	static SidecarIndex create(final Stamp stamp, final CompactBlockMap blockMap, final CompactNodeMap nodeMap, final Folder rootFolder, PSTFile pstFile, final java.io.File file)
+	{
+		final java.util.ArrayList<FolderEntry> folders = new java.util.ArrayList<FolderEntry>();
+		try {
+			final java.util.ArrayDeque<Folder> toVisit = new java.util.ArrayDeque<Folder>();
+			toVisit.add(rootFolder);
+			while (!toVisit.isEmpty()) {
+				final Folder folder = toVisit.poll();
+				folders.add(new FolderEntry(folder.nodeFolderObject.nid.key, folder.nodeFolderObject.nidParent.key, folder.displayName, folder.containerClass, readSummaries(folder)));
+				for (java.util.Iterator<Folder> iterator = folder.subfolderIterator(); iterator.hasNext(); )
+					toVisit.add(iterator.next());
+			}
+		} catch (final	Folder.FolderReadException
+			|	java.nio.BufferUnderflowException e) {
+			System.out.printf("Sidecar index %s not created: %s%n", file, e.getCause() != null ? e.getCause() : e);
+			return null;
+		}
+
+		final SidecarIndex index = new SidecarIndex(stamp, blockMap, nodeMap, folders);
+		try {
+			index.write(file);
+		} catch (final java.io.IOException e) {
+			// The index is still useful for this session, even if it cannot be kept for the next.
+			System.out.printf("Sidecar index %s not written: %s%n", file, e);
+		}
+		return index;
+	}
+
+	/**	Obtain the sidecar index file for a PST file.
+	*	@param	pstFile	The PST file.
+	*	@return	The sidecar index file for the PST file.
+	*/
+	public static java.io.File file(final java.io.File pstFile)
+	{
+		return new java.io.File(pstFile.getPath() + SUFFIX);
+	}
+
+	/**	Obtain the folders in the PST file.
+	*	@return	The folders, parents before children.
+	*/
+	public java.util.List<FolderEntry> folders()
+	{
+		return folders;
+	}
+
+	/**	Read a sidecar index from a file, if it is present, undamaged, and was made from the PST file with the given stamp.
+	*	@param	file	The sidecar index file.
+	*	@param	stamp	The stamp of the PST file.
+	*	@return	The sidecar index, or null if the file could not be used.
+	*/
+	static SidecarIndex load(final java.io.File file, final Stamp stamp)
+	{
+		if (!file.isFile())
+			return null;
+
+		try (java.nio.channels.FileChannel fc = java.nio.channels.FileChannel.open(file.toPath(), java.nio.file.StandardOpenOption.READ)) {
+			final long size = fc.size();
+			if (size < SIZE_CRC || size > Integer.MAX_VALUE)
+				return null;
+
+			final java.nio.ByteBuffer byteBuffer = fc.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, 0, size);
+			final int contentSize = (int)size - SIZE_CRC;
+			if (CRC.crc(byteBuffer, 0, contentSize) != byteBuffer.getInt(contentSize))
+				return null;
+			byteBuffer.limit(contentSize);
+
+			if (byteBuffer.getLong() != MAGIC || byteBuffer.getInt() != VERSION || !stamp.equals(new Stamp(byteBuffer)))
+				return null;
+
+			final CompactBlockMap blockMap = new CompactBlockMap(byteBuffer);
+			final CompactNodeMap nodeMap = new CompactNodeMap(byteBuffer);
+
+			final int numFolders = byteBuffer.getInt();
+			final java.util.ArrayList<FolderEntry> folders = new java.util.ArrayList<FolderEntry>(numFolders);
+			for (int i = 0; i < numFolders; ++i) {
+				final int nid = byteBuffer.getInt();
+				final int parentNid = byteBuffer.getInt();
+				final String displayName = readString(byteBuffer);
+				final String containerClass = readString(byteBuffer);
+				final int numMessages = byteBuffer.getInt();
+				final java.util.ArrayList<MessageSummary> messages = new java.util.ArrayList<MessageSummary>(numMessages);
+				for (int m = 0; m < numMessages; ++m) {
+					final int messageNid = byteBuffer.getInt();
+					final String messageClass = readString(byteBuffer);
+					final String subject = readString(byteBuffer);
+					final long deliveryTime = byteBuffer.getLong();
+					final int flags = byteBuffer.getInt();
+					messages.add(new MessageSummary(messageNid, messageClass, subject, deliveryTime == Long.MIN_VALUE ? null : java.util.Date.from(java.time.Instant.ofEpochMilli(deliveryTime)), flags));
+				}
+				folders.add(new FolderEntry(nid, parentNid, displayName, containerClass, messages));
+			}
+			return new SidecarIndex(stamp, blockMap, nodeMap, folders);
+		} catch (final	java.io.IOException
+			|	IllegalArgumentException
+			|	java.nio.BufferUnderflowException e) {
+			return null;
+		}
+	}
+
+	/**	Read a string written by {@link #writeString}.
+	*	@param	byteBuffer	The buffer to read the string from.
+	*	@return	The string, which may be null.
+	*	@throws	java.nio.BufferUnderflowException	The string is incomplete.
+	*/
+	private static String readString(final java.nio.ByteBuffer byteBuffer)
+	throws
+		java.nio.BufferUnderflowException
+	{
+		final int length = byteBuffer.getInt();
+		if (length < 0)
+			return null;
+
+		final byte[] bytes = new byte[length];
+		byteBuffer.get(bytes);
+		return new String(bytes, java.nio.charset.StandardCharsets.UTF_8);
+	}
+
+	/**	Read the summaries of the message objects in a folder from its contents table.
+	*	@param	folder		The folder.
+	*	@return	The summaries of the folder's message objects, in contents table order.
+	*	@throws	Folder.FolderReadException	The contents table could not be read.
+	*/
+	private static java.util.List<MessageSummary> readSummaries(final Folder folder)
+	{
+		final MessageSummary.Cursor cursor = folder.summaries();
+		final java.util.ArrayList<MessageSummary> summaries = new java.util.ArrayList<MessageSummary>(cursor.getRowCount());
+		while (cursor.next())
+			summaries.add(cursor.summary());
+		return summaries;
+	}
+
+	/**	Obtain a string representation of the sidecar index.
+	*	@return	A string describing the size of the index.
+	*/
+	@Override
+	public String toString()
+	{
+		return String.format("%d blocks, %d nodes, %d folders", blockMap.size(), nodeMap.size(), folders.size());
+	}
+
+	/**	Write the sidecar index to a file, replacing any existing file.
+	*	@param	file	The sidecar index file.
+	*	@throws	java.io.IOException	The file could not be written.
+	*/
+	void write(final java.io.File file)
+	throws
+		java.io.IOException
+	{
+		final java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+		final java.io.DataOutputStream out = new java.io.DataOutputStream(bytes);
+		out.writeLong(MAGIC);
+		out.writeInt(VERSION);
+		stamp.write(out);
+		blockMap.write(out);
+		nodeMap.write(out);
+		out.writeInt(folders.size());
+		for (final FolderEntry folder : folders) {
+			out.writeInt(folder.nid);
+			out.writeInt(folder.parentNid);
+			writeString(out, folder.displayName);
+			writeString(out, folder.containerClass);
+			out.writeInt(folder.messages.size());
+			for (final MessageSummary message : folder.messages) {
+				out.writeInt(message.nid);
+				writeString(out, message.messageClass);
+				writeString(out, message.subject);
+				out.writeLong(message.deliveryTime == null ? Long.MIN_VALUE : message.deliveryTime.toInstant().toEpochMilli());
+				out.writeInt(message.flags);
+			}
+		}
+		out.flush();
+		final byte[] contents = bytes.toByteArray();
+
+		final java.io.File temp = java.io.File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+		try {
+			try (java.io.DataOutputStream fileOut = new java.io.DataOutputStream(new java.io.BufferedOutputStream(new java.io.FileOutputStream(temp)))) {
+				fileOut.write(contents);
+				fileOut.writeInt(CRC.crc(contents, 0, contents.length));
+			}
+			java.nio.file.Files.move(temp.toPath(), file.toPath(), java.nio.file.StandardCopyOption.REPLACE_EXISTING, java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			java.nio.file.Files.deleteIfExists(temp.toPath());
+		}
+	}
+
+	/**	Write a string which may be null.
+	*	@param	out	The stream to write the string to.
+	*	@param	s	The string to write.
+	*	@throws	java.io.IOException	The string could not be written.
+	*/
+	private static void writeString(final java.io.DataOutputStream out, final String s)
+	throws
+		java.io.IOException
+	{
+		if (s == null) {
+			out.writeInt(-1);
+			return;
+		}
+
+		final byte[] bytes = s.getBytes(java.nio.charset.StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+}
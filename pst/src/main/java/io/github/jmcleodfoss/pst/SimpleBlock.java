@@ -57,6 +57,14 @@ class SimpleBlock extends BlockBase
 		}
 	}
 
+	/**	Create a SimpleBlock object holding data which has already been decoded.
+	*	@param	data	The decoded block data.
+	*/
+	private SimpleBlock(final byte[] data)
+	{
+		this.data = data;
+	}
+
 	/**	Create a SimpleBlock object from the given block B-tree leaf entry and basic PST file object.
 	*	@param	entry	The block B-tree leaf entry describing the block.
 	*	@param	pstFile	The PST file's header, input data stream, etc.
@@ -98,49 +106,98 @@ class SimpleBlock extends BlockBase
 	*	@throws	java.io.IOException	An I/O error was encountered when reading the data for this block.
 	*/
 	SimpleBlock(final BBTEntry entry, final int blockSize, final Encryption encryption, PSTFile pstFile)
+	throws
+		CRCMismatchException,
+		java.io.IOException
+	{
+		final byte[] cached = pstFile.blockCache.get(entry.bref.bid, encryption);
+		data = cached != null ? cached : pstFile.blockCache.put(entry.bref.bid, encryption, decode(entry, blockSize, encryption, pstFile));
+	}
+
+	/**	Read, check, and decode the data in a block, bypassing the {@link BlockCache}.
+	*	@param	entry		The block B-tree leaf entry describing the block.
+	*	@param	blockSize	The size of the block (including the {@link BlockTrailer BLOCKTRAILER})
+	*	@param	encryption	The encryption method to use to decrypt the data.
+	*	@param	pstFile		The PST file's header, input data stream, etc.
+	*	@return	The decrypted and, if necessary, inflated block data.
+	*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
+	*	@throws	java.io.IOException	An I/O error was encountered when reading the data for this block.
+	*/
+	static byte[] decode(final BBTEntry entry, final int blockSize, final Encryption encryption, PSTFile pstFile)
 	throws
 		CRCMismatchException,
 		java.io.IOException
 	{
 		java.nio.ByteBuffer byteBuffer = pstFile.getByteBuffer(entry.bref, blockSize(entry.numBytes, pstFile.header.fileFormat));
 		byteBuffer.order(java.nio.ByteOrder.LITTLE_ENDIAN);
+		try {
+			return decode(entry, blockSize, encryption, pstFile, byteBuffer);
+		} finally {
+			pstFile.release(byteBuffer);
+		}
+	}
 
-		byte data[] = new byte[entry.numBytes];
-		byteBuffer.get(data);
-
+	/**	Check and decode the data in a block which has already been read, bypassing the {@link BlockCache}.
+	*	@param	entry		The block B-tree leaf entry describing the block.
+	*	@param	blockSize	The size of the block (including the {@link BlockTrailer BLOCKTRAILER})
+	*	@param	encryption	The encryption method to use to decrypt the data.
+	*	@param	pstFile		The PST file's header, input data stream, etc.
+	*	@param	byteBuffer	A little-endian buffer positioned at the start of the block. The caller remains responsible for
+	*				releasing it.
+	*	@return	The decrypted and, if necessary, inflated block data.
+	*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
+	*	@throws	java.io.IOException	The block trailer could not be read.
+	*	@see	BlockReadPlanner
+	*/
+	static byte[] decode(final BBTEntry entry, final int blockSize, final Encryption encryption, PSTFile pstFile, java.nio.ByteBuffer byteBuffer)
+	throws
+		CRCMismatchException,
+		java.io.IOException
+	{
+		// The CRC is calculated and the data decrypted straight from the buffer the block was read into.
+		final int start = byteBuffer.position();
 		int crcCalculated = 0;
-		if (Options.checkCRC)
-			crcCalculated = CRC.crc(PST.makeByteBuffer(data), 0, data.length);
+		if (pstFile.checkCRC)
+			crcCalculated = CRC.crc(byteBuffer, start, entry.numBytes);
 
-		encryption.translate(data, (int)(entry.bref.bid.key() & 0xffffffff));
+		final boolean fCompressed = entry.numBytes != entry.totalBytes;
+		byte data[] = null;
+		if (!fCompressed || !encryption.isNone()) {
+			data = new byte[entry.numBytes];
+			encryption.translate(byteBuffer, data, (int)(entry.bref.bid.key() & 0xffffffff));
+		}
 
-		if (entry.numBytes != entry.totalBytes){
+		if (fCompressed){
+			// Unencrypted compressed data is inflated straight from the buffer as well.
+			final java.nio.ByteBuffer compressed = data == null ? byteBuffer.slice(start, entry.numBytes) : java.nio.ByteBuffer.wrap(data);
 			try {
-				java.util.zip.Inflater inflator = new java.util.zip.Inflater();
-				inflator.setInput(data);
-				byte[] inflated = new byte[entry.totalBytes];
-				inflator.inflate(inflated);
-				data = inflated;
+				data = pstFile.inflaterPool.inflate(compressed, entry.totalBytes);
 			} catch (java.util.zip.DataFormatException e){
 				// The block is corrupt. Just show the raw data. This will probably trigger other exceptions.
-				if (Options.logUnzipFailures){
+				if (data == null) {
+					data = new byte[entry.numBytes];
+					byteBuffer.get(start, data);
+				}
+				if (pstFile.logUnzipFailures){
 					System.out.printf("Block %s could not be unzipped. The file is probably corrupt. Using unzipped data.", entry.toString());
 					e.printStackTrace(System.out);
 				}
 			}
 		}
-		this.data = data;
 
 		final int bytesToSkip = blockSize - entry.numBytes - BlockTrailer.size(pstFile.header.fileFormat);
-		byteBuffer.position(byteBuffer.position() + bytesToSkip);
+		byteBuffer.position(start + entry.numBytes + bytesToSkip);
 		final BlockTrailer trailer = new BlockTrailer(byteBuffer, pstFile.header.fileFormat);
 
-		if (Options.checkCRC && crcCalculated != trailer.crc)
+		if (pstFile.checkCRC && crcCalculated != trailer.crc)
 			throw new CRCMismatchException("Block", crcCalculated, trailer.crc);
+
+		return data;
 	}
 
 	/**	Retrieve the data from this SimpleBlock.
-	*	@return	The array of data bytes from this SimpleBlock object.
+	*	@return	The array of data bytes from this SimpleBlock object. This may be the array held by the {@link BlockCache}, so it
+	*		must not be modified.
 	*/
 	@Override
 	byte[] data()
@@ -173,6 +230,39 @@ class SimpleBlock extends BlockBase
 		return new SimpleBlock(entry, entry.bref.bid.fInternal ? Encryption.NONE : pstFile.encryption(), pstFile);
 	}
 
+	/**	Retrieve several blocks, taking those which are in the {@link BlockCache} from it, and reading the rest together in
+	*	file order.
+	*	@param	entries		The block B-tree leaf entries describing the blocks.
+	*	@param	encryption	The encryption method to use to decrypt the data.
+	*	@param	pstFile		The PST file's header, input data stream, etc.
+	*	@return	The data blocks for the requested block B-tree entries, in the same order as the entries.
+	*	@throws CRCMismatchException	The calculated CDC of one of the blocks is not the same as the expected value.
+	*	@throws	java.io.IOException	An I/O error was encountered when reading the block data.
+	*	@see	BlockReadPlanner
+	*/
+	static SimpleBlock[] read(final BBTEntry[] entries, final Encryption encryption, PSTFile pstFile)
+	throws
+		CRCMismatchException,
+		java.io.IOException
+	{
+		final SimpleBlock[] blocks = new SimpleBlock[entries.length];
+		final BBTEntry[] toRead = new BBTEntry[entries.length];
+		for (int i = 0; i < entries.length; ++i) {
+			final byte[] cached = pstFile.blockCache.get(entries[i].bref.bid, encryption);
+			if (cached != null)
+				blocks[i] = new SimpleBlock(cached);
+			else
+				toRead[i] = entries[i];
+		}
+
+		BlockReadPlanner.read(toRead, pstFile, (i, byteBuffer) -> {
+			final BBTEntry entry = toRead[i];
+			final byte[] data = decode(entry, blockSize(entry.numBytes, pstFile.header.fileFormat), encryption, pstFile, byteBuffer);
+			blocks[i] = new SimpleBlock(pstFile.blockCache.put(entry.bref.bid, encryption, data));
+		});
+		return blocks;
+	}
+
 	/**	Test this class by printing out blocks in the block B-tree.
 	*	@param	args	The file(s) to print the blocks out for.
 	*/
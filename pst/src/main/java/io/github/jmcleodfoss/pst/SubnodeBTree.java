@@ -136,6 +136,12 @@ public class SubnodeBTree extends BTree
 			new DataDefinition(nm_bid, DataType.bidAnsiReader, true)
 		};
 
+		/**	The offset of the child block ID in Unicode files. */
+		private static final int OFFSET_BID_UNICODE = DataDefinition.offset(unicode_fields, nm_bid);
+
+		/**	The offset of the child block ID in ANSI files. */
+		private static final int OFFSET_BID_ANSI = DataDefinition.offset(ansi_fields, nm_bid);
+
 		/**	The key node ID of the child block of this node. */
 		private final NID nid;
 
@@ -145,17 +151,14 @@ public class SubnodeBTree extends BTree
 		/**	Read an intermediate sub-node B-tree entry from the input stream using the given context.
 		*	@param	context	The context in which to read the node.
 		*	@param	stream	The data stream from which to read the node information.
-		*	@throws	java.io.IOException	An I/O error was encountered when reading in the data for this node.
 		*/
 		SIEntry(final Context<BTree, BTreeLeaf> context, java.nio.ByteBuffer stream)
-		throws
-			java.io.IOException
 		{
-			DataContainer dc = new DataContainer();
-			dc.read(stream, context.unicode() ? unicode_fields : ansi_fields);
-
-			nid = (NID)dc.get(nm_nid);
-			bid = (BID)dc.get(nm_bid);
+			final boolean fUnicode = context.unicode();
+			final int base = stream.position();
+			nid = new NID(stream.getInt(base));
+			bid = DataType.readBID(stream, base + (fUnicode ? OFFSET_BID_UNICODE : OFFSET_BID_ANSI), fUnicode);
+			stream.position(base + (fUnicode ? SIZE_UNICODE : SIZE_ANSI));
 		}
 
 		/**	Obtain size of an intermediate sub-node B-tree entry for this file's format.
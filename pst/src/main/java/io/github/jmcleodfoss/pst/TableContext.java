@@ -10,8 +10,8 @@ public class TableContext extends javax.swing.table.AbstractTableModel
 	/**	The serialVersionUID is required because the base class is serializable. */
 	private static final long serialVersionUID = 1L;
 
-	/**	The PST file's namedProperties object (needed to provide the column name) */
-	private static NameToIDMap namedProperties;
+	/**	The PST file this table context was read from, which provides the named properties object (needed to provide the column name) */
+	private final PSTFile pstFile;
 
 	/**	The TCINFO (Table Context Info) structure for this table context */
 	private final TCInfo info;
@@ -19,8 +19,53 @@ public class TableContext extends javax.swing.table.AbstractTableModel
 	/**	The RowIndex for this table context. */
 	private final BTreeOnHeap rowIndex;
 
-	/**	The row data */
-	private Object[][] rows;
+	/**	The number of rows in the table. */
+	private final int numRows;
+
+	/**	The number of bytes in each row, including the cell existence bitmap. */
+	private final int rowSize;
+
+	/**	The columns to read, or null if all columns are to be read. */
+	private final boolean[] projected;
+
+	/**	The raw row data, as a list of buffers each holding a whole number of rows, if cells are read on demand; otherwise
+	*	null.
+	*/
+	private final java.nio.ByteBuffer[] rowBlocks;
+
+	/**	The index of the first row in each buffer in {@link #rowBlocks}, if cells are read on demand; otherwise null. */
+	private final int[] rowBlockFirstRow;
+
+	/**	The heap-on-node on which this table context is defined, if cells are read on demand; otherwise null. */
+	private final HeapOnNode hon;
+
+	/**	The sub-node B-tree for the table context, if cells are read on demand; otherwise null. */
+	private final SubnodeBTree sbt;
+
+	/**	The PST file's block B-tree, if cells are read on demand; otherwise null. */
+	private final BlockMap bbt;
+
+	/**	The row data, if the table was read in its entirety when it was created; otherwise null. */
+	private final Object[][] rows;
+
+	/**	The CellReadException is thrown when a cell of a table context whose cells are read on demand cannot be read. It wraps
+	*	the underlying exception, which is available through {@link #getCause}.
+	*/
+	public static class CellReadException extends RuntimeException
+	{
+		/**	The serialVersionUID is required because the base class is serializable. */
+		private static final long serialVersionUID = 1L;
+
+		/**	Create a CellReadException for the given cell and cause.
+		*	@param	row	The row of the cell which could not be read.
+		*	@param	tag	The property tag of the column of the cell which could not be read.
+		*	@param	cause	The exception encountered while reading the cell.
+		*/
+		CellReadException(int row, int tag, Exception cause)
+		{
+			super(String.format("Could not read row %d column 0x%08x", row, tag), cause);
+		}
+	}
 
 	/**	The TCInfo class represents the PST file TCINFO structure, and contains table context info for a table context.
 	*	@see	<a href="https://docs.microsoft.com/en-us/openspecs/office_file_formats/ms-pst/45b3a0c5-d6d6-4e02-aebf-13766ff693f0">MS-PST Section 2.3.4.1: TCINFO</a>
@@ -65,8 +110,18 @@ public class TableContext extends javax.swing.table.AbstractTableModel
 		/**	The data types of the columns stored in HNIDs. */
 		private final DataType[] hnidTypes;
 
+		/**	The offset of each field within a row, including the cell existence bitmap. */
+		private final int[] fieldOffsets;
+
+		/**	The column tags, in ascending order, for finding a column by binary search. */
+		private final int[] columnTags;
+
+		/**	The column index for each entry in {@link #columnTags}. */
+		private final int[] columnOrder;
+
 		/**	Create a TCInfo object by reading in the required information from the data inputstream.
 		*	@param	stream	The input data stream from which to read the TCINFO structure.
+		*	@param	pstFile	The PST file data stream, header, etc.
 		*	@throws	NotTableContextNodeException	A node which is not a table context node was found while building the table context information object.
 		*	@throws	UnimplementedPropertyTypeException	Handling for the property type has not been implemented
 		*	@throws UnknownClientSignatureException	An unknown client signature was found while building the table context information object.
@@ -74,7 +129,7 @@ public class TableContext extends javax.swing.table.AbstractTableModel
 		*	@throws java.io.IOException		An I/O exception was encountered while reading the data for the table context information obkect.
 		*/
 		@SuppressWarnings("unchecked")
-		private TCInfo(java.nio.ByteBuffer stream)
+		private TCInfo(java.nio.ByteBuffer stream, PSTFile pstFile)
 		throws
 			NotTableContextNodeException,
 			UnimplementedPropertyTypeException,
@@ -96,6 +151,17 @@ public class TableContext extends javax.swing.table.AbstractTableModel
 
 			java.util.Arrays.sort(columnDescription, new TColDescr.Comparator());
 
+			final long[] tagsAndColumns = new long[numColumns];
+			for (int i = 0; i < numColumns; ++i)
+				tagsAndColumns[i] = (long)columnDescription[i].tag << 32 | i;
+			java.util.Arrays.sort(tagsAndColumns);
+			columnTags = new int[numColumns];
+			columnOrder = new int[numColumns];
+			for (int i = 0; i < numColumns; ++i) {
+				columnTags[i] = (int)(tagsAndColumns[i] >> 32);
+				columnOrder[i] = (int)tagsAndColumns[i];
+			}
+
 			hidRowIndex = (HeapOnNode.HID)dc.get(nm_hidRowIndex);
 			hnidRows = (HeapOnNode.HID)dc.get(nm_hnidRows);
 			endingOffsets = (short[])dc.get(nm_rgib);
@@ -105,11 +171,15 @@ public class TableContext extends javax.swing.table.AbstractTableModel
 			for (int i = 0; i < numColumns; ++i) {
 				if (storedInHNID(columnDescription[i])){
 					rowFields[i] = new DataDefinition(fieldName(i), DataType.hidReader, true);
-					hnidTypes[i] = DataType.definitionFactory(columnDescription[i].propertyType());
+					hnidTypes[i] = DataType.definitionFactory(columnDescription[i].propertyType(), pstFile);
 				} else
-					rowFields[i] = new DataDefinition(fieldName(i), DataType.definitionFactory(columnDescription[i].propertyType()), true);
+					rowFields[i] = new DataDefinition(fieldName(i), DataType.definitionFactory(columnDescription[i].propertyType(), pstFile), true);
 			}
 			rowFields[numColumns] = new DataDefinition(cellExistenceBitmapFieldName(), new DataType.SizedByteArray((numColumns+7)/8), true);
+
+			fieldOffsets = new int[rowFields.length];
+			for (int i = 1; i < rowFields.length; ++i)
+				fieldOffsets[i] = fieldOffsets[i-1] + rowFields[i-1].description.size();
 		}
 
 		/**	Create the name of the field containing the Cell Existence Bitmap (which is the last field in the row).
@@ -192,6 +262,18 @@ public class TableContext extends javax.swing.table.AbstractTableModel
 			new DataDefinition(nm_iBit, DataType.integer8Reader, true)
 		};
 
+		/**	The offset of the column's data offset within the column description. */
+		private static final int OFFSET_IBDATA = DataDefinition.offset(fields, nm_ibData);
+
+		/**	The offset of the column's data width within the column description. */
+		private static final int OFFSET_CBDATA = DataDefinition.offset(fields, nm_cbData);
+
+		/**	The offset of the column's cell existence bitmap index within the column description. */
+		private static final int OFFSET_IBIT = DataDefinition.offset(fields, nm_iBit);
+
+		/**	The size of the column description. */
+		private static final int SIZE = DataDefinition.size(fields);
+
 		/**	Each column has an associated 32-bit tag. */
 		private final int tag;
 
@@ -225,18 +307,15 @@ public class TableContext extends javax.swing.table.AbstractTableModel
 		}
 		/**	Create a TColDescr object from date read in from the input datastream.
 		*	@param	stream	The input data stream from which to read the column description.
-		*	@throws	java.io.IOException	An I/O error was encounted while reading the data for this column description.
 		*/
 		private TColDescr(java.nio.ByteBuffer stream)
-		throws
-			java.io.IOException
 		{
-			DataContainer dc = new DataContainer();
-			dc.read(stream, fields);
-			tag = (Integer)dc.get(nm_tag);
-			columnOffset = 0xffff & (Short)dc.get(nm_ibData);
-			width = dc.getUInt8(nm_cbData);
-			cellExistenceBitmapIndex = 0xff & (Byte)dc.get(nm_iBit);
+			final int base = stream.position();
+			tag = stream.getInt(base);
+			columnOffset = 0xffff & stream.getShort(base + OFFSET_IBDATA);
+			width = 0xff & stream.get(base + OFFSET_CBDATA);
+			cellExistenceBitmapIndex = 0xff & stream.get(base + OFFSET_IBIT);
+			stream.position(base + SIZE);
 		}
 
 		/**	Get the data type for this column description tag.
@@ -291,6 +370,44 @@ public class TableContext extends javax.swing.table.AbstractTableModel
 		this(nodeDescr, new HeapOnNode(bbt.find(nodeDescr.bidData), bbt, pstFile), bbt, pstFile);
 	}
 
+	/**	Create a table context from the given BID whose cells are read only when they are requested. The raw row data is read
+	*	when the table context is created, but each cell is decoded, and any value stored in the heap or in a sub-node is
+	*	retrieved, only when the cell is requested through {@link #get} or {@link #getValueAt}. Since these methods may not
+	*	throw checked exceptions, any problem reading a cell is reported by a {@link CellReadException}.
+	*	@param	nodeDescr	Description of the node as found in the block or sub-node B-tree.
+	*	@param	bbt		The PST file's block B-tree.
+	*	@param	pstFile		The PST file data stream, header, etc.
+	*	@param	columns		The tags of the columns which may be retrieved, or null if all columns may be retrieved. Cells in
+	*				other columns are never read, and are returned as null.
+	*	@throws BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
+	*	@throws BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
+	*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
+	*	@throws	DataOverflowException	More data was found than will fit into the number of rows allocated, indicating a probably-corrupt file.
+	* 	@throws	NotHeapNodeException			The leaf is not a heap node
+	* 	@throws NotTableContextNodeException		A node without the Table Context client signature was found while building the table context.
+	*	@throws	UnimplementedPropertyTypeException	Handling for the property type has not been implemented
+	* 	@throws UnknownClientSignatureException		The Client Signature was not recognized
+	*	@throws UnknownPropertyTypeException	The property type was not recognized
+	* 	@throws UnparseableTableContextException	The table content could not be interpreted
+	* 	@throws java.io.IOException			There was an I/O error reading the table.
+	*/
+	public TableContext(LPTLeaf nodeDescr, BlockMap bbt, PSTFile pstFile, java.util.Set<Integer> columns)
+	throws
+		BadXBlockLevelException,
+		BadXBlockTypeException,
+		CRCMismatchException,
+		DataOverflowException,
+		NotHeapNodeException,
+		NotTableContextNodeException,
+		UnimplementedPropertyTypeException,
+		UnknownClientSignatureException,
+		UnknownPropertyTypeException,
+		UnparseableTableContextException,
+		java.io.IOException
+	{
+		this(nodeDescr, new HeapOnNode(bbt.find(nodeDescr.bidData), bbt, pstFile), bbt, pstFile, columns, true);
+	}
+
 	/**	Create a TableContext object from the given heap-on-node.
 	*	This should only be used when the Heap-On-Node has already been found for purposes other than building the Table context.
 	*	@param	nodeDescr	Description of the node as found in the block or sub-node B-tree.
@@ -321,48 +438,119 @@ public class TableContext extends javax.swing.table.AbstractTableModel
 		UnparseableTableContextException,
 		java.io.IOException
 	{
-		info = new TCInfo(PSTFile.makeByteBuffer(hon.userRootHeapData()));
+		this(nodeDescr, hon, bbt, pstFile, null, false);
+	}
 
-		rowIndex = new BTreeOnHeap(hon, info.hidRowIndex, pstFile);
-		int numRows = rowIndex.numLeafNodes();
-		rows = new Object[numRows][];
+	/**	Create a TableContext object from the given heap-on-node, reading either all the cells in the requested columns or
+	*	only the raw row data.
+	*	@param	nodeDescr	Description of the node as found in the block or sub-node B-tree.
+	*	@param	hon		The heap-on-node on which this table context is defined.
+	*	@param	bbt		The PST file's block B-tree.
+	*	@param	pstFile		The PST file data stream, header, etc.
+	*	@param	columns		The tags of the columns which may be retrieved, or null if all columns may be retrieved.
+	*	@param	fLazy		If true, cells are read when they are requested; if false, all cells are read now.
+	*	@throws BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
+	*	@throws BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
+	*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
+	*	@throws	DataOverflowException	More data was found than will fit into the number of rows allocated, indicating a probably-corrupt file.
+	* 	@throws NotTableContextNodeException		A node without the Table Context client signature was found while building the table context.
+	*	@throws	UnimplementedPropertyTypeException	Handling for the property type has not been implemented
+	* 	@throws UnknownClientSignatureException		The Client Signature was not recognized
+	*	@throws UnknownPropertyTypeException	The property type was not recognized
+	* 	@throws UnparseableTableContextException	The table content could not be interpreted
+	* 	@throws java.io.IOException			There was an I/O error reading the table.
+	*/
+	TableContext(LPTLeaf nodeDescr, HeapOnNode hon, BlockMap bbt, PSTFile pstFile, java.util.Set<Integer> columns, boolean fLazy)
+	throws
+		BadXBlockLevelException,
+		BadXBlockTypeException,
+		CRCMismatchException,
+		DataOverflowException,
+		NotTableContextNodeException,
+		UnimplementedPropertyTypeException,
+		UnknownClientSignatureException,
+		UnknownPropertyTypeException,
+		UnparseableTableContextException,
+		java.io.IOException
+	{
+		this.pstFile = pstFile;
+		info = new TCInfo(hon.userRootHeapBuffer(), pstFile);
 
-		if (numRows == 0)
+		rowIndex = new BTreeOnHeap(hon, info.hidRowIndex, pstFile);
+		numRows = rowIndex.numLeafNodes();
+		rowSize = DataDefinition.size(info.rowFields);
+		projected = projection(columns);
+
+		final SubnodeBTree sbt = numRows == 0 || info.columnDescription.length == 0 || nodeDescr.bidSubnode.isNull() ? null : new SubnodeBTree(nodeDescr.bidSubnode, bbt, pstFile);
+		final java.nio.ByteBuffer[] blocks = readRowBlocks(hon, sbt, bbt, pstFile);
+		final int[] firstRow = new int[blocks.length];
+		for (int b = 1; b < blocks.length; ++b)
+			firstRow[b] = firstRow[b-1] + blocks[b-1].limit()/rowSize;
+
+		if (fLazy) {
+			this.hon = hon;
+			this.sbt = sbt;
+			this.bbt = bbt;
+			rowBlocks = blocks;
+			rowBlockFirstRow = firstRow;
+			rows = null;
 			return;
+		}
 
-		if (info.columnDescription.length == 0)
-			return;
+		this.hon = null;
+		this.sbt = null;
+		this.bbt = null;
+		rowBlocks = null;
+		rowBlockFirstRow = null;
+		rows = new Object[numRows][];
+		for (int b = 0; b < blocks.length; ++b) {
+			for (int r = 0; r < blocks[b].limit()/rowSize; ++r)
+				rows[firstRow[b] + r] = readRow(blocks[b], r*rowSize, hon, sbt, bbt, pstFile);
+		}
+	}
 
-		SubnodeBTree sbt = nodeDescr.bidSubnode.isNull() ? null : new SubnodeBTree(nodeDescr.bidSubnode, bbt, pstFile);
-		if (info.hnidRows.type == NID.HID) {
-			if (hon.heapData(info.hnidRows).length != expectedSize())
-				throw new UnparseableTableContextException("Not enough bytes for row data: found " + hon.heapData(info.hnidRows).length + ", expected " + expectedSize());
+	/**	Retrieve the value of a cell.
+	*	@param	row	The row of the cell.
+	*	@param	column	The column of the cell.
+	*	@return	The value of the cell, or null if it is empty, not in the column projection, or beyond the row data found.
+	*	@throws	CellReadException	The cell could not be read.
+	*/
+	private Object cell(int row, int column)
+	{
+		if (projected != null && !projected[column])
+			return null;
 
-			readRows(hon, info.columnDescription.length, hon.heapData(info.hnidRows), sbt, bbt, pstFile);
-		} else if (info.hnidRows.type == NID.LTP) {
-			SLEntry slEntry = (SLEntry)sbt.find(info.hnidRows.key());
-			assert slEntry != null;
+		if (rows != null)
+			return rows[row] == null ? null : rows[row][column];
 
-			BBTEntry bbtEntry = bbt.find(slEntry.bidData);
-			assert bbtEntry != null;
+		final int b = rowBlock(row);
+		if (b < 0)
+			return null;
 
-			BlockBase b = BlockBase.read(bbtEntry, bbt, pstFile);
-			readRows(hon, info.columnDescription.length, b.iterator(), sbt, bbt, pstFile);
-		} else {
-			assert false: "Unknown HNID node type " + info.hnidRows;
+		final int base = (row - rowBlockFirstRow[b]) * rowSize;
+		try {
+			return readCell(rowBlocks[b], base, column, hon, sbt, bbt, pstFile);
+		} catch (final	BadXBlockLevelException
+			|	BadXBlockTypeException
+			|	CRCMismatchException
+			|	UnimplementedPropertyTypeException
+			|	UnknownPropertyTypeException
+			|	java.io.IOException e) {
+			throw new CellReadException(row, info.columnDescription[column].tag, e);
 		}
 	}
 
 	/**	Returns true if the Cell Existence Bitmap indicates this column exists, and false otherwise.
-	*	@param	ceb	The cell existence block for the row currently being processed.
+	*	@param	rowData	The raw row data.
+	*	@param	base	The offset of the start of the row being processed within the row data.
 	*	@param	column	The column of the table in which the field being processed lies.
 	*	@return	true if the cell existence bitmap indicates that the field is present, false if the cell existens bitmap
 	*			indicates it is absent.
 	*/
-	private boolean cellExists(byte[] ceb, int column)
+	private boolean cellExists(java.nio.ByteBuffer rowData, int base, int column)
 	{
 		int cebIndex = info.columnDescription[column].cellExistenceBitmapIndex;
-		return (ceb[cebIndex/8] & (1 << (7 - cebIndex % 8))) != 0;
+		return (rowData.get(base + info.fieldOffsets[info.columnDescription.length] + cebIndex/8) & (1 << (7 - cebIndex % 8))) != 0;
 	}
 
 	/**	Get the column index for the given tag, if present.
@@ -371,11 +559,8 @@ public class TableContext extends javax.swing.table.AbstractTableModel
 	*/
 	private int columnIndex(int tag)
 	{
-		for (int i = 0; i < info.columnDescription.length; ++i) {
-			if (tag == info.columnDescription[i].tag)
-				return i;
-		}
-		return -1;
+		final int i = java.util.Arrays.binarySearch(info.columnTags, tag);
+		return i < 0 ? -1 : info.columnOrder[i];
 	}
 
 	/**	The expected number of bytes in the row data heap entry.
@@ -384,24 +569,59 @@ public class TableContext extends javax.swing.table.AbstractTableModel
 	*/
 	private int expectedSize()
 	{
-		return rows.length * DataDefinition.size(info.rowFields);
+		return numRows * rowSize;
+	}
+
+	/**	Find the row with the given row ID using the table context's row index.
+	*	@param	rowId	The row ID (for tables whose rows describe nodes, the NID of the node) of the row to find.
+	*	@return	The index of the row with the given row ID, or -1 if there is no such row or the row index gives a row outside the
+	*		table.
+	*	@see	<a href="https://docs.microsoft.com/en-us/openspecs/office_file_formats/ms-pst/e20b5cf4-ea56-48b8-a8fa-e086c9b862ca">MS-PST Section 2.3.4.3: TCROWID</a>
+	*/
+	public int findRowById(int rowId)
+	{
+		if (numRows == 0)
+			return -1;
+
+		final BTreeOnHeap.LeafRecord leaf = (BTreeOnHeap.LeafRecord)rowIndex.find(0xffffffffL & rowId);
+		if (leaf == null)
+			return -1;
+
+		final long row = ByteUtil.makeLongLE(leaf.data, leaf.data.length);
+		return row >= 0 && row < numRows ? (int)row : -1;
 	}
 
 	/**	Get the value for the given tag, if it exists, for the given row.
 	*	@param	row	The row to return information for.
 	*	@param	tag	The tag indicates the column to return.
 	*	@return	The value for the given tag in the given row, if any, otherwise null.
+	*	@throws	CellReadException	The cells of this table context are read on demand, and the cell could not be read.
 	*/
 	public Object get(int row, int tag)
 	{
-		if (row > getRowCount())
+		if (row < 0 || row >= getRowCount())
 			return null;
 
 		final int column = columnIndex(tag);
 
 		if (column == -1)
 			return null;
-		return rows[row][column];
+		return cell(row, column);
+	}
+
+	/**	Retrieve the value of a boolean cell without creating an object to hold it.
+	*	@param	row	The row to return information for.
+	*	@param	tag	The tag of the column to return, which must have type PtypBoolean.
+	*	@return	The value of the cell, or false if it is empty or not present.
+	*	@throws	CellReadException	The cells of this table context are read on demand, and the cell could not be read.
+	*	@throws	IllegalArgumentException	The column is not a boolean column.
+	*	@see	#hasProperty
+	*/
+	public boolean getBoolean(int row, int tag)
+	{
+		if ((short)tag != DataType.BOOLEAN)
+			throw new IllegalArgumentException(String.format("Property 0x%08x is not a boolean property", tag));
+		return scalar(row, tag) != 0;
 	}
 
 	/**	Get the number of data columns in the table.
@@ -421,6 +641,9 @@ public class TableContext extends javax.swing.table.AbstractTableModel
 	@Override
 	public String getColumnName(int column)
 	{
+		final NameToIDMap namedProperties = pstFile.nameToIDMap;
+		if (namedProperties == null)
+			return PropertyTags.name(info.columnDescription[column].tag);
 		return namedProperties.name(info.columnDescription[column].tag);
 	}
 
@@ -456,27 +679,98 @@ public class TableContext extends javax.swing.table.AbstractTableModel
 		return java.nio.ByteBuffer.wrap(data).asReadOnlyBuffer();
 	}
 
+	/**	Retrieve the value of a time cell as the number of milliseconds since the Java epoch, without creating a Date object
+	*	to hold it.
+	*	@param	row	The row to return information for.
+	*	@param	tag	The tag of the column to return, which must have type PtypTime.
+	*	@return	The value of the cell, or 0 if it is empty or not present.
+	*	@throws	CellReadException	The cells of this table context are read on demand, and the cell could not be read.
+	*	@throws	IllegalArgumentException	The column is not a time column.
+	*	@see	#hasProperty
+	*/
+	public long getFileTimeMillis(int row, int tag)
+	{
+		if ((short)tag != DataType.TIME)
+			throw new IllegalArgumentException(String.format("Property 0x%08x is not a time property", tag));
+		return scalar(row, tag);
+	}
+
+	/**	Retrieve the value of a 16- or 32-bit integer cell without creating an object to hold it.
+	*	@param	row	The row to return information for.
+	*	@param	tag	The tag of the column to return, which must have type PtypInteger16 or PtypInteger32.
+	*	@return	The value of the cell, or 0 if it is empty or not present.
+	*	@throws	CellReadException	The cells of this table context are read on demand, and the cell could not be read.
+	*	@throws	IllegalArgumentException	The column is not a 16- or 32-bit integer column.
+	*	@see	#hasProperty
+	*/
+	public int getInt(int row, int tag)
+	{
+		final short propertyType = (short)tag;
+		if (propertyType != DataType.INTEGER_16 && propertyType != DataType.INTEGER_32)
+			throw new IllegalArgumentException(String.format("Property 0x%08x is not a 32-bit integer property", tag));
+		return (int)scalar(row, tag);
+	}
+
+	/**	Retrieve the value of an integer cell without creating an object to hold it.
+	*	@param	row	The row to return information for.
+	*	@param	tag	The tag of the column to return, which must have type PtypInteger16, PtypInteger32, or PtypInteger64.
+	*	@return	The value of the cell, or 0 if it is empty or not present.
+	*	@throws	CellReadException	The cells of this table context are read on demand, and the cell could not be read.
+	*	@throws	IllegalArgumentException	The column is not an integer column.
+	*	@see	#hasProperty
+	*/
+	public long getLong(int row, int tag)
+	{
+		final short propertyType = (short)tag;
+		if (propertyType != DataType.INTEGER_16 && propertyType != DataType.INTEGER_32 && propertyType != DataType.INTEGER_64)
+			throw new IllegalArgumentException(String.format("Property 0x%08x is not an integer property", tag));
+		return scalar(row, tag);
+	}
+
 	/**	Get the number of rows in the table.
 	*	@return	The number of rows in this table context.
 	*/
 	@Override
 	public int getRowCount()
 	{
-		return rows.length;
+		return numRows;
 	}
 
 	/**	Return the value of the specified cell.
 	*	@param	row	The row index of the cell to retrieve the value of.
 	*	@param	column	The column index of the cell to retrieve the value of.
 	*	@return	The value of the given cell, or null if the row for the given row index is empty.
+	*	@throws	CellReadException	The cells of this table context are read on demand, and the cell could not be read.
 	*/
 	@Override
 	public Object getValueAt(int row, int column)
 	{
-		if (rows[row] == null || rows[row][column] == null)
+		final Object value = cell(row, column);
+		if (value == null)
 			return null;
 
-		return DataType.makeString(info.columnDescription[column].tag, rows[row][column]);
+		return DataType.makeString(info.columnDescription[column].tag, value);
+	}
+
+	/**	Determine whether the given row has a value for the given tag. This does not read the value.
+	*	@param	row	The row to check.
+	*	@param	tag	The tag of the column to check.
+	*	@return	true if the row has a value for the tag in a column which is in the column projection, false otherwise.
+	*/
+	public boolean hasProperty(int row, int tag)
+	{
+		if (row < 0 || row >= getRowCount())
+			return false;
+
+		final int column = columnIndex(tag);
+		if (column == -1 || (projected != null && !projected[column]))
+			return false;
+
+		if (rows != null)
+			return rows[row] != null && rows[row][column] != null;
+
+		final int b = rowBlock(row);
+		return b >= 0 && cellExists(rowBlocks[b], (row - rowBlockFirstRow[b]) * rowSize, column);
 	}
 
 	/**	No cells are editable.
@@ -495,24 +789,49 @@ public class TableContext extends javax.swing.table.AbstractTableModel
 	*/
 	private boolean isEmpty()
 	{
-		return rows.length == 0;
+		return numRows == 0;
 	}
 
-	/**	Read data for all rows from a block of bytes of raw data.
-	*	This is used to read HID table contexts.
-	*	@param	hon		The heap-on-node containing this table context.
-	*	@param	numColumns	The number of columns in this table context (excluding the cell existence bitmap).
-	*	@param	data		The raw row data.
-	*	@param	sbt		The sub-node B-tree for the table context (where the HID data is to be found).
-	*	@param	bbt		The PST file's block B-tree.
-	*	@param	pstFile		The PST file's input data stream, header, etc.
+	/**	Is this table context read on demand?
+	*	@return	true if cells are read when they are requested, false if all cells were read when the table context was created.
+	*/
+	public boolean isLazy()
+	{
+		return rows == null;
+	}
+
+	/**	Create the column projection for the given set of tags.
+	*	@param	columns	The tags of the columns to read, or null to read all columns.
+	*	@return	An array indicating whether each column should be read, or null if all columns should be read.
+	*/
+	private boolean[] projection(java.util.Set<Integer> columns)
+	{
+		if (columns == null)
+			return null;
+
+		final boolean[] p = new boolean[info.columnDescription.length];
+		for (int c = 0; c < p.length; ++c)
+			p[c] = columns.contains(info.columnDescription[c].tag);
+		return p;
+	}
+
+	/**	Read the value of a single cell from the raw row data.
+	*	@param	rowData	The raw row data.
+	*	@param	base	The offset of the start of the row within the row data.
+	*	@param	c	The column of the cell to read.
+	*	@param	hon	The heap-on-node containing this table context.
+	*	@param	sbt	This table context's sub-node B-tree.
+	*	@param	bbt	The PST file's block B-tree.
+	*	@param	pstFile	The PST file input data stream, header, etc.
+	*	@return	The value of the cell, parsed into the appropriate PST data type, or null if the cell is empty.
 	*	@throws BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
 	*	@throws BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
 	*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
 	*	@throws	UnimplementedPropertyTypeException	Handling for the property type has not been implemented
-	*	@throws	java.io.IOException	An I/O error was encountered while reading in the rows for the table context.
+	*	@throws UnknownPropertyTypeException	The property type was not recognized
+	*	@throws	java.io.IOException	An I/O error was encountered while reading the data for this cell.
 	*/
-	private void readRows(HeapOnNode hon, int numColumns, byte[] data, SubnodeBTree sbt, BlockMap bbt, PSTFile pstFile)
+	private Object readCell(java.nio.ByteBuffer rowData, int base, int c, HeapOnNode hon, SubnodeBTree sbt, BlockMap bbt, PSTFile pstFile)
 	throws
 		BadXBlockLevelException,
 		BadXBlockTypeException,
@@ -521,136 +840,194 @@ public class TableContext extends javax.swing.table.AbstractTableModel
 		UnknownPropertyTypeException,
 		java.io.IOException
 	{
-		java.nio.ByteBuffer rowStream = PSTFile.makeByteBuffer(data);
+		if (!cellExists(rowData, base, c))
+			return null;
+
+		final java.nio.ByteBuffer field = rowData.duplicate().order(java.nio.ByteOrder.LITTLE_ENDIAN);
+		field.position(base + info.fieldOffsets[c]);
+		Object fieldData = info.rowFields[c].description.read(field);
 
-		int rowWidth = 0xffff & info.endingOffsets[TCInfo.TCI_bm];
-		final int maxDataSize = BlockBase.maxBlockSize(pstFile.header.fileFormat) - BlockTrailer.size(pstFile.header.fileFormat);
-		final int rowsPerBlock = maxDataSize/rowWidth;
-		final int nPaddingBytes = maxDataSize - rowsPerBlock*rowWidth;
-		int r;
-		for (r = 0; r < rows.length; ++r) {
-			if (r > 0 && r % rowsPerBlock == 0)
-				rowStream.position(rowStream.position() + nPaddingBytes);
-			rows[r] = readRow(rowStream, numColumns, r, sbt, bbt, hon, pstFile);
+		if (!(fieldData instanceof HeapOnNode.HID))
+			return fieldData;
 
+		HeapOnNode.HID hid =  (HeapOnNode.HID)fieldData;
+
+		if (!hon.validHID(hid))
+			return null;
+
+		if (!hid.isHID()) {
+			BBTEntry bbtEntry = (BBTEntry)sbt.find(((NID)hid).key());
+			BlockBase block = BlockBase.read(bbtEntry, bbt, pstFile);
+			java.nio.ByteBuffer bBlock = PSTFile.makeByteBuffer(block.data());
+			return info.rowFields[c].description.read(bBlock);
 		}
+
+		final java.nio.ByteBuffer data = hon.heapBuffer(hid);
+		if (data == null)
+			return null;
+
+		DataType dataReader = DataType.getActualDataType(info.columnDescription[c].tag, data, info.hnidTypes[c]);
+		return dataReader.read(data);
 	}
 
-	/**	Read data for all rows from blocks of bytes returned by an iterator.
-	*	This is used to read LTP table contexts.
-	*	@param	hon		The heap-on-node containing this table context.
-	*	@param	numColumns	The number of columns in this table context (excluding the cell existence bitmap).
-	*	@param	iterator	An iterator through the blocks which comprise an LTP table context.
-	*	@param	sbt		The sub-node B-tree for the table context (where the HID data is to be found).
-	*	@param	bbt		The PST file's block B-tree.
-	*	@param	pstFile		The PST file's input data stream, header, etc.
+	/**	Read a single row from the TableContext
+	*	@param	rowData	The raw row data.
+	*	@param	base	The offset of the start of the row within the row data.
+	*	@param	hon	The heap-on-node containing this table context.
+	*	@param	sbt	This table context's sub-node B-tree.
+	*	@param	bbt	The PST file's block B-tree.
+	*	@param	pstFile	The PST file input data stream, header, etc.
+	*	@return	The data in the row, parsed into the appropriate PST data types, with null for columns not in the projection.
 	*	@throws BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
 	*	@throws BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
 	*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
-	*	@throws	DataOverflowException	More data was found than will fit into the number of rows allocated, indicating a probably-corrupt file.
 	*	@throws	UnimplementedPropertyTypeException	Handling for the property type has not been implemented
-	*	@throws	java.io.IOException	An I/O error was encountered while reading in the rows for the table context.
+	*	@throws UnknownPropertyTypeException	The property type was not recognized
+	*	@throws	java.io.IOException	An I/O error was encountered while reading the data for this table context row.
 	*/
-	private void readRows(HeapOnNode hon, int numColumns, java.util.Iterator<java.nio.ByteBuffer> iterator, SubnodeBTree sbt, BlockMap bbt, PSTFile pstFile)
+	private Object[] readRow(java.nio.ByteBuffer rowData, int base, HeapOnNode hon, SubnodeBTree sbt, BlockMap bbt, PSTFile pstFile)
 	throws
 		BadXBlockLevelException,
 		BadXBlockTypeException,
 		CRCMismatchException,
-		DataOverflowException,
 		UnimplementedPropertyTypeException,
 		UnknownPropertyTypeException,
 		java.io.IOException
 	{
-		int rowWidth = 0xffff & info.endingOffsets[TCInfo.TCI_bm];
-		int r = 0;
-
-		while (iterator.hasNext()) {
-			java.nio.ByteBuffer rowStream = iterator.next();
-			while (rowStream.remaining() >= rowWidth) {
-				if (r >= rows.length)
-					throw new DataOverflowException(rows.length);
-				rows[r++] = readRow(rowStream, numColumns, r, sbt, bbt, hon, pstFile);
-			}
+		Object[] row = new Object[info.columnDescription.length];
+		for (int c = 0; c < row.length; ++c) {
+			if (projected == null || projected[c])
+				row[c] = readCell(rowData, base, c, hon, sbt, bbt, pstFile);
 		}
+		return row;
 	}
 
-	/**	Read a single row from the TableContext
-	*	@param	rowStream	The raw data for this row, as a ByteBuffer with the correct endianness.
-	*	@param	numColumns	The number of columns in this table context (excluding the cell existence bitmap)
-	*	@param	r		The index of this row (used only for diagnostic logging).
-	*	@param	sbt		This table context's sub-node B-tree.
-	*	@param	bbt		The PST file's block B-tree.
+	/**	Read the raw row data. For an HID table context this is the heap entry, divided into buffers without the padding which
+	*	keeps rows from crossing block boundaries; for an LTP table context, it is the data blocks of the sub-node, each
+	*	trimmed to the whole rows it contains.
 	*	@param	hon		The heap-on-node containing this table context.
-	*	@param	pstFile		The PST file input data stream, header, etc.
-	*	@return	The data in the row given by rowStream, parsed into the appropriate PST data types.
+	*	@param	sbt		The sub-node B-tree for the table context (where the LTP row data is to be found).
+	*	@param	bbt		The PST file's block B-tree.
+	*	@param	pstFile		The PST file's input data stream, header, etc.
+	*	@return	The buffers containing the row data, each holding a whole number of rows, in little-endian order.
 	*	@throws BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
 	*	@throws BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
 	*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
-	*	@throws	UnimplementedPropertyTypeException	Handling for the property type has not been implemented
-	*	@throws UnknownPropertyTypeException	The property type was not recognized
-	*	@throws	java.io.IOException	An I/O error was encountered while reading the data for this table context row.
+	*	@throws	DataOverflowException	More data was found than will fit into the number of rows allocated, indicating a probably-corrupt file.
+	* 	@throws UnparseableTableContextException	The table content could not be interpreted
+	*	@throws	java.io.IOException	An I/O error was encountered while reading in the rows for the table context.
 	*/
-	@SuppressWarnings({"PMD.UnusedFormalParameter", "unused"})
-	private Object[] readRow(java.nio.ByteBuffer rowStream, int numColumns, int r, SubnodeBTree sbt, BlockMap bbt, HeapOnNode hon, PSTFile pstFile)
+	private java.nio.ByteBuffer[] readRowBlocks(HeapOnNode hon, SubnodeBTree sbt, BlockMap bbt, PSTFile pstFile)
 	throws
 		BadXBlockLevelException,
 		BadXBlockTypeException,
 		CRCMismatchException,
-		UnimplementedPropertyTypeException,
-		UnknownPropertyTypeException,
+		DataOverflowException,
+		UnparseableTableContextException,
 		java.io.IOException
 	{
-		DataContainer dc = new DataContainer(info.rowFields.length);
-
-		dc.read(rowStream, info.rowFields);
-		byte[] cellExistenceBitmap = (byte[])dc.get(info.rowFields[info.rowFields.length-1].name);
+		if (numRows == 0 || info.columnDescription.length == 0)
+			return new java.nio.ByteBuffer[0];
 
-		Object[] row = new Object[numColumns];
-		for (int c = 0; c < numColumns; ++c) {
-			Object fieldData = dc.get(info.rowFields[c].name);
-
-			if (!cellExists(cellExistenceBitmap, c))
-				continue;
-
-			if (!(fieldData instanceof HeapOnNode.HID)) {
-				row[c] = fieldData;
-				continue;
-			}
-
-			HeapOnNode.HID hid =  (HeapOnNode.HID)fieldData;
-
-			if (!hon.validHID(hid)) {
-				row[c] = null;
-				continue;
+		final int rowWidth = 0xffff & info.endingOffsets[TCInfo.TCI_bm];
+		final java.util.ArrayList<java.nio.ByteBuffer> blocks = new java.util.ArrayList<java.nio.ByteBuffer>();
+		if (info.hnidRows.type == NID.HID) {
+			final java.nio.ByteBuffer rowData = hon.heapBuffer(info.hnidRows);
+			if (rowData.remaining() != expectedSize())
+				throw new UnparseableTableContextException("Not enough bytes for row data: found " + rowData.remaining() + ", expected " + expectedSize());
+
+			final int maxDataSize = BlockBase.maxBlockSize(pstFile.header.fileFormat) - BlockTrailer.size(pstFile.header.fileFormat);
+			final int rowsPerBlock = maxDataSize/rowWidth;
+			final int nPaddingBytes = maxDataSize - rowsPerBlock*rowWidth;
+			int offset = 0;
+			for (int r = 0; r < numRows; r += rowsPerBlock) {
+				final int n = Math.min(rowsPerBlock, numRows - r);
+				blocks.add(rowData.slice(offset, n*rowSize).order(java.nio.ByteOrder.LITTLE_ENDIAN));
+				offset += n*rowSize + nPaddingBytes;
 			}
+		} else if (info.hnidRows.type == NID.LTP) {
+			SLEntry slEntry = (SLEntry)sbt.find(info.hnidRows.key());
+			assert slEntry != null;
 
-			if (!hid.isHID()) {
-				BBTEntry bbtEntry = (BBTEntry)sbt.find(((NID)hid).key());
-				BlockBase block = BlockBase.read(bbtEntry, bbt, pstFile);
-				java.nio.ByteBuffer bBlock = PSTFile.makeByteBuffer(block.data());
-				row[c] = info.rowFields[c].description.read(bBlock);
-				continue;
-			}
+			BBTEntry bbtEntry = bbt.find(slEntry.bidData);
+			assert bbtEntry != null;
 
-			byte[] data = hon.heapData(hid);
-			if (data == null) {
-				row[c] = null;
-				continue;
+			int r = 0;
+			java.util.Iterator<java.nio.ByteBuffer> iterator = BlockBase.read(bbtEntry, bbt, pstFile).iterator();
+			while (iterator.hasNext()) {
+				final java.nio.ByteBuffer rowData = iterator.next();
+				final int n = rowData.remaining() >= rowWidth ? (rowData.remaining() - rowWidth)/rowSize + 1 : 0;
+				if (n == 0)
+					continue;
+				r += n;
+				if (r > numRows)
+					throw new DataOverflowException(numRows);
+				blocks.add(rowData.slice(rowData.position(), n*rowSize).order(java.nio.ByteOrder.LITTLE_ENDIAN));
 			}
-
-			DataType dataReader = DataType.getActualDataType(info.columnDescription[c].tag, data, info.hnidTypes[c]);
-			row[c] = dataReader.read(PSTFile.makeByteBuffer(data));
+		} else {
+			assert false: "Unknown HNID node type " + info.hnidRows;
 		}
-		return row;
+		return blocks.toArray(new java.nio.ByteBuffer[blocks.size()]);
+	}
+
+	/**	Find the buffer holding the given row, if cells are read on demand.
+	*	@param	row	The row to look for.
+	*	@return	The index into {@link #rowBlocks} of the buffer holding the row, or -1 if the row is beyond the row data found.
+	*/
+	private int rowBlock(int row)
+	{
+		int b = java.util.Arrays.binarySearch(rowBlockFirstRow, row);
+		if (b < 0)
+			b = -b - 2;
+		if (b < 0 || (row - rowBlockFirstRow[b]) * rowSize >= rowBlocks[b].limit())
+			return -1;
+		return b;
 	}
 
-	/**	Dependency injection for namedProperties.
-	*	@param	namedProperties	The PST file's named properties
-	*	@see	#getColumnName
+	/**	Retrieve the value of a scalar cell as a long. If cells are read on demand, the value is read directly from the row
+	*	data rather than being decoded into an object; all scalar values are stored in the row itself.
+	*	@param	row	The row to return information for.
+	*	@param	tag	The tag of the column to return, which must have type PtypBoolean, PtypInteger16, PtypInteger32,
+	*			PtypInteger64, or PtypTime.
+	*	@return	The value of the cell (1 for true, and milliseconds since the Java epoch for times), or 0 if the cell is empty,
+	*		not in the column projection, or not present.
 	*/
-	static void setNamedProperties(NameToIDMap namedProperties)
+	private long scalar(int row, int tag)
 	{
-		TableContext.namedProperties = namedProperties;
+		if (row < 0 || row >= getRowCount())
+			return 0;
+
+		final int column = columnIndex(tag);
+		if (column == -1 || (projected != null && !projected[column]))
+			return 0;
+
+		if (rows != null)
+			return rows[row] == null ? 0 : DataType.scalarValue(rows[row][column]);
+
+		final int b = rowBlock(row);
+		if (b < 0)
+			return 0;
+
+		final java.nio.ByteBuffer rowData = rowBlocks[b];
+		final int base = (row - rowBlockFirstRow[b]) * rowSize;
+		if (!cellExists(rowData, base, column))
+			return 0;
+
+		final int offset = base + info.fieldOffsets[column];
+		switch ((short)tag) {
+		case DataType.BOOLEAN:
+			return rowData.get(offset) != 0 ? 1 : 0;
+
+		case DataType.INTEGER_16:
+			return rowData.getShort(offset);
+
+		case DataType.INTEGER_32:
+			return rowData.getInt(offset);
+
+		default:
+			final long value = rowData.getLong(offset);
+			return (short)tag == DataType.TIME ? DataType.fileTimeToMillis(value) : value;
+		}
 	}
 
 	/**	Are objects of the given property type stored within the tree itself, or in an HID denoted by the leaf element?
@@ -684,24 +1061,25 @@ public class TableContext extends javax.swing.table.AbstractTableModel
 			return "Empty TableContext";
 
 		StringBuilder s = new StringBuilder(info + "\n" + rowIndex + "\n");
-		for (Object[] row : rows) {
-			if (row != null)
-			for (int c = 0; c < row.length; ++c) {
+		for (int r = 0; r < numRows; ++r) {
+			if (rows == null || rows[r] != null)
+			for (int c = 0; c < info.columnDescription.length; ++c) {
+				final Object value = cell(r, c);
 				s.append("\n" + PropertyTags.name(info.columnDescription[c].tag) + ": ");
-				if (row[c] == null)
+				if (value == null)
 					s.append("empty");
-				else if (row[c] instanceof Byte)
-					s.append("0x" + Integer.toHexString((Byte)row[c]));
-				else if (row[c] instanceof Short)
-					s.append("0x" + Integer.toHexString((Short)row[c]));
-				else if (row[c] instanceof Integer)
-					s.append("0x" + Integer.toHexString((Integer)row[c]));
-				else if (row[c] instanceof Long)
-					s.append("0x" + Long.toHexString((Long)row[c]));
-				else if (row[c] instanceof byte[])
-					s.append(ByteUtil.createHexByteString((byte[])row[c]));
+				else if (value instanceof Byte)
+					s.append("0x" + Integer.toHexString((Byte)value));
+				else if (value instanceof Short)
+					s.append("0x" + Integer.toHexString((Short)value));
+				else if (value instanceof Integer)
+					s.append("0x" + Integer.toHexString((Integer)value));
+				else if (value instanceof Long)
+					s.append("0x" + Long.toHexString((Long)value));
+				else if (value instanceof byte[])
+					s.append(ByteUtil.createHexByteString((byte[])value));
 				else
-					s.append(row[c]);
+					s.append(value);
 			}
 			s.append("\n");
 		}
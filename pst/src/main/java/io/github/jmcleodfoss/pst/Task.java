@@ -12,9 +12,6 @@ package io.github.jmcleodfoss.pst;
 */
 public class Task extends MessageObject
 {
-	/**	The property ID under which to look up the TaskDueDate property. */
-	private static int TaskDueDateLID = PropertyLIDs.UNKNOWN;
-
 	/**	The due date of the task in UTC. */
 	public final java.util.Date dueDate;
 
@@ -39,15 +36,7 @@ public class Task extends MessageObject
 	{
 		super(contentsTable, row, nbt, pstFile);
 
-		dueDate = (java.util.Date)contentsTable.get(row, TaskDueDateLID);
-	}
-
-	/**	Save named property IDs for IDs of interest.
-	*	@param	namedProperties	The list of named properties.
-	*/
-	static void initConstants(NameToIDMap namedProperties)
-	{
-		TaskDueDateLID = namedProperties.id(PropertyLIDs.TaskDueDate, DataType.TIME);
+		dueDate = (java.util.Date)contentsTable.get(row, pstFile.namedPropertyIDs.taskDueDate);
 	}
 
 	/**	Provide a String representation of the task (used primarily for testing)
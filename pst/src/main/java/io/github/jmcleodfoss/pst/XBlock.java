@@ -24,6 +24,21 @@ class XBlock extends BlockBase
 		new DataDefinition(nm_lcbTotal, DataType.integer32Reader, true)
 	};
 
+	/**	The offset of the block type. */
+	private static final int OFFSET_BTYPE = DataDefinition.offset(data_fields, nm_btype);
+
+	/**	The offset of the block level. */
+	private static final int OFFSET_CLEVEL = DataDefinition.offset(data_fields, nm_cLevel);
+
+	/**	The offset of the number of child entries. */
+	private static final int OFFSET_CENT = DataDefinition.offset(data_fields, nm_cEnt);
+
+	/**	The offset of the total count of external data bytes. */
+	private static final int OFFSET_LCBTOTAL = DataDefinition.offset(data_fields, nm_lcbTotal);
+
+	/**	The size of the XBLOCK / XXBLOCK header, which is followed by the list of child BIDs. */
+	private static final int SIZE_HEADER = DataDefinition.size(data_fields);
+
 	/**	The BIDs of the sub-blocks. This is saved for {link #toString} only. */
 	private final BID[] bid;
 
@@ -51,6 +66,92 @@ class XBlock extends BlockBase
 	/** The total count of all the bytes of external data (preserved allow the block B-Tree's internal structure to be shown. @see GetInternalDataTableModel). */
 	final int lcbTotal;
 
+	/**	The Header class represents the fixed part of an XBLOCK or XXBLOCK, and the list of child BIDs which follows it. This
+	*	allows the child blocks to be visited without reading them all in.
+	*	@see	DataTreeInputStream
+	*/
+	static class Header
+	{
+		/**	The block type, which must be 1. */
+		final byte type;
+
+		/**	The level, 1 for an XBLOCK and 2 for an XXBLOCK. */
+		final byte level;
+
+		/**	The number of child entries. */
+		final int numEntries;
+
+		/**	The total count of all the bytes of external data. */
+		final int lcbTotal;
+
+		/**	The BIDs of the child blocks, which are data blocks for an XBLOCK and XBLOCKs for an XXBLOCK. */
+		final BID[] bid;
+
+		/**	Read the header and child BIDs of an XBLOCK or XXBLOCK from a buffer holding it.
+		*	@param	entry		The block B-tree entry describing the XBLOCK or XXBLOCK.
+		*	@param	pstFile		The PST file's input stream, etc.
+		*	@param	byteBuffer	A buffer positioned at the start of the XBLOCK or XXBLOCK. The caller remains
+		*				responsible for releasing it.
+		*	@throws BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
+		*	@throws BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
+		*	@throws	java.io.IOException	The block trailer could not be read.
+		*	@see	BlockReadPlanner
+		*/
+		private Header(final BBTEntry entry, final PSTFile pstFile, final java.nio.ByteBuffer byteBuffer)
+		throws
+			BadXBlockLevelException,
+			BadXBlockTypeException,
+			java.io.IOException
+		{
+			final int blockSize = blockSize(entry.numBytes, pstFile.header.fileFormat);
+			byteBuffer.order(java.nio.ByteOrder.LITTLE_ENDIAN);
+
+			final int base = byteBuffer.position();
+			type = byteBuffer.get(base + OFFSET_BTYPE);
+			if (type != 0x01)
+				throw new BadXBlockTypeException(type);
+
+			level = byteBuffer.get(base + OFFSET_CLEVEL);
+			if (level != 1 && level != 2)
+				throw new BadXBlockLevelException(level);
+
+			numEntries = byteBuffer.getShort(base + OFFSET_CENT);
+			lcbTotal = byteBuffer.getInt(base + OFFSET_LCBTOTAL);
+
+			final boolean fUnicode = pstFile.unicode();
+			final int bidSize = fUnicode ? BID.SIZE_UNICODE : BID.SIZE_ANSI;
+			bid = new BID[numEntries];
+			for (int i = 0; i < numEntries; ++i)
+				bid[i] = DataType.readBID(byteBuffer, base + SIZE_HEADER + i*bidSize, fUnicode);
+
+			final int bytesToSkip = blockSize - entry.numBytes - BlockTrailer.size(pstFile.header.fileFormat);
+			byteBuffer.position(base + SIZE_HEADER + numEntries*bidSize + bytesToSkip);
+			new BlockTrailer(byteBuffer, pstFile.header.fileFormat);
+		}
+
+		/**	Read the header and child BIDs of an XBLOCK or XXBLOCK.
+		*	@param	entry	The block B-tree entry describing the XBLOCK or XXBLOCK.
+		*	@param	pstFile	The PST file's input stream, etc.
+		*	@return	The header and child BIDs of the XBLOCK or XXBLOCK.
+		*	@throws BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
+		*	@throws BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
+		*	@throws	java.io.IOException	An I/O exception was encountered when reading the XBLOCK / XXBLOCK data.
+		*/
+		static Header read(final BBTEntry entry, final PSTFile pstFile)
+		throws
+			BadXBlockLevelException,
+			BadXBlockTypeException,
+			java.io.IOException
+		{
+			final java.nio.ByteBuffer byteBuffer = pstFile.getByteBuffer(entry.bref, blockSize(entry.numBytes, pstFile.header.fileFormat));
+			try {
+				return new Header(entry, pstFile, byteBuffer);
+			} finally {
+				pstFile.release(byteBuffer);
+			}
+		}
+	}
+
 	/**	An iterator which returns a ByteBuffer view of the underlying data block. */
 	private class Iterator implements java.util.Iterator<java.nio.ByteBuffer>
 	{
@@ -107,60 +208,63 @@ class XBlock extends BlockBase
 		CRCMismatchException,
 		java.io.IOException
 	{
-		java.nio.ByteBuffer byteBuffer = pstFile.getByteBuffer(entry.bref, blockSize(entry.numBytes, pstFile.header.fileFormat));
-		byteBuffer.order(java.nio.ByteOrder.LITTLE_ENDIAN);
-
-		DataContainer dc = new DataContainer();
-		dc.read(byteBuffer, data_fields);
-
-		type = (Byte)dc.get(nm_btype);
-		if (type != 0x01)
-			throw new BadXBlockTypeException(type);
-
-		level = (Byte)dc.get(nm_cLevel);
-		if (level != 1 && level != 2)
-			throw new BadXBlockLevelException(level);
-
-		numEntries = (Short)dc.get(nm_cEnt);
-		lcbTotal = (Integer)dc.get(nm_lcbTotal);
-
-		DataDefinition bidField = new DataDefinition(nm_data, DataType.BIDFactory(pstFile.unicode()), true);
-		BID[] bid = new BID[numEntries];
-		for (int i = 0; i < numEntries; ++i) {
-			dc.read(byteBuffer, bidField);
-			bid[i] = (BID)dc.get(nm_data);
-		}
-		this.bid = bid;
-
-		final int blockSize = blockSize(entry.numBytes, pstFile.header.fileFormat);
-		final int bytesToSkip = blockSize-entry.numBytes - BlockTrailer.size(pstFile.header.fileFormat);
-		byteBuffer.position(byteBuffer.position() + bytesToSkip);
+		this(Header.read(entry, pstFile), bbt, pstFile);
+	}
 
-		new BlockTrailer(byteBuffer, pstFile.header.fileFormat);
+	/**	Create an XBlock/XXBlock from its header, reading the child blocks.
+	*	@param	header	The header and child BIDs of the XBLOCK/XXBLOCK.
+	*	@param	bbt	The PST file's block B-tree (required to find the child blocks).
+	*	@param	pstFile	The PST file's input stream, etc.
+	*	@throws BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
+	*	@throws BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
+	*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
+	*	@throws	java.io.IOException	An I/O exception was encountered when reading the XBLOCK / XXBLOCK data.
+	*/
+	private XBlock(final Header header, final BlockMap bbt, PSTFile pstFile)
+	throws
+		BadXBlockLevelException,
+		BadXBlockTypeException,
+		CRCMismatchException,
+		java.io.IOException
+	{
+		this(header,
+			header.level == 1 ? readXBlock(header.numEntries, header.bid, bbt, pstFile) : null,
+			header.level == 1 ? null : readXXBlock(header.numEntries, header.bid, bbt, pstFile));
+	}
 
-		if (level == 1) {
-			blockType = "XBLOCK";
-			this.blockList = readXBlock(numEntries, bid, bbt, pstFile);
-			xblockList = null;
+	/**	Create an XBlock/XXBlock from its header and child blocks, which have already been read.
+	*	@param	header		The header and child BIDs of the XBLOCK/XXBLOCK.
+	*	@param	blockList	The data blocks of an XBLOCK, or null for an XXBLOCK.
+	*	@param	xblockList	The XBLOCKs of an XXBLOCK, or null for an XBLOCK.
+	*/
+	private XBlock(final Header header, final java.util.List<SimpleBlock> blockList, final java.util.List<XBlock> xblockList)
+	{
+		type = header.type;
+		level = header.level;
+		numEntries = header.numEntries;
+		lcbTotal = header.lcbTotal;
+		bid = header.bid;
+		blockType = "XBLOCK";
+		this.xblockList = xblockList;
+
+		if (xblockList == null) {
+			this.blockList = blockList;
 		} else {
-			blockType = "XBLOCK";
-			xblockList = readXXBlock(numEntries, bid, bbt, pstFile);
-
 			int nBlocks = 0;
 			for (java.util.Iterator<XBlock> xIter = xblockList.iterator(); xIter.hasNext(); )
 				nBlocks += xIter.next().blockList.size();
 
-			java.util.ArrayList<SimpleBlock> blockList = new java.util.ArrayList<SimpleBlock>(nBlocks);
+			java.util.ArrayList<SimpleBlock> allBlocks = new java.util.ArrayList<SimpleBlock>(nBlocks);
 			for (java.util.Iterator<XBlock> xIter = xblockList.iterator(); xIter.hasNext(); ) {
 				final XBlock xblock = xIter.next();
 				for (java.util.Iterator<SimpleBlock> blockIter = xblock.blockList.iterator(); blockIter.hasNext(); )
-					blockList.add(blockIter.next());
+					allBlocks.add(blockIter.next());
 			}
-			this.blockList = blockList;
+			this.blockList = allBlocks;
 		}
 
 		int size = 0;
-		for (java.util.Iterator<SimpleBlock> bIter = blockList.iterator(); bIter.hasNext(); )
+		for (java.util.Iterator<SimpleBlock> bIter = this.blockList.iterator(); bIter.hasNext(); )
 			size += bIter.next().data.length;
 		dataBytes = size;
 	}
@@ -220,7 +324,26 @@ class XBlock extends BlockBase
 		return new Iterator();
 	}
 
-	/**	Read in an XBLOCK.
+	/**	Look up the block B-tree entries for a list of BIDs.
+	*	@param	bid	The array of BIDs of the blocks.
+	*	@param	bbt	The PST file's block B-tree.
+	*	@return	The block B-tree entries of the blocks, in the same order as the BIDs.
+	*	@throws	java.io.IOException	An I/O exception was encountered while reading the block B-tree.
+	*/
+	private static BBTEntry[] find(final BID[] bid, final BlockMap bbt)
+	throws
+		java.io.IOException
+	{
+		final BBTEntry[] entries = new BBTEntry[bid.length];
+		for (int i = 0; i < bid.length; ++i) {
+			entries[i] = bbt.find(bid[i]);
+			assert entries[i] != null;
+		}
+		return entries;
+	}
+
+	/**	Read in an XBLOCK. All the child blocks are looked up first, then those not in the block cache are read in file order,
+	*	with neighbouring blocks read together.
 	*	@param	numEntries	The number of child block entries in this XBlock.
 	*	@param	bid		The array of BIDs of the blocks.
 	*	@param	bbt		The PST file's block B-tree.
@@ -228,6 +351,7 @@ class XBlock extends BlockBase
 	*	@return	A vector of SimpleBlock objects.
 	*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
 	*	@throws	java.io.IOException	An I/O exception was encountered while reading in the requested XBlocks.
+	*	@see	BlockReadPlanner
 	*/
 	static java.util.List<SimpleBlock> readXBlock(final int numEntries, final BID[] bid, final BlockMap bbt, PSTFile pstFile)
 	throws
@@ -235,16 +359,13 @@ class XBlock extends BlockBase
 		java.io.IOException
 	{
 		java.util.ArrayList<SimpleBlock> blockList = new java.util.ArrayList<SimpleBlock>(numEntries);
-		for (BID b : bid) {
-			final BBTEntry blockEntry = bbt.find(b);
-			assert blockEntry != null;
-			final SimpleBlock block = new SimpleBlock(blockEntry, pstFile);
-			blockList.add(block);
-		}
+		java.util.Collections.addAll(blockList, SimpleBlock.read(find(bid, bbt), pstFile.encryption(), pstFile));
 		return blockList;
 	}
 
-	/**	Read in an XXBLOCK.
+	/**	Read in an XXBLOCK. The headers of all the child XBLOCKs are read first, in file order, and then the data blocks of
+	*	all the XBLOCKs are read together, so that the data blocks of one XBLOCK may be read along with those of its
+	*	neighbours.
 	*	@param	numEntries	The number of child XBLOCK entries in this XXBlock.
 	*	@param	bid		The array of BIDs of the XBLOCKs.
 	*	@param	bbt		The PST file's block B-tree.
@@ -254,6 +375,7 @@ class XBlock extends BlockBase
 	*	@throws BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
 	*	@throws CRCMismatchException	The block's calculated CDC is not the same as the expected value.
 	*	@throws	java.io.IOException	An I/O exception was encountered while reading in the requested XXBlocks.
+	*	@see	BlockReadPlanner
 	*/
 	static java.util.List<XBlock> readXXBlock(final int numEntries, final BID[] bid, final BlockMap bbt, PSTFile pstFile)
 	throws
@@ -262,12 +384,46 @@ class XBlock extends BlockBase
 		CRCMismatchException,
 		java.io.IOException
 	{
+		final BBTEntry[] entries = find(bid, bbt);
+		final Header[] headers = new Header[entries.length];
+		final java.util.concurrent.atomic.AtomicReference<Exception> badHeader = new java.util.concurrent.atomic.AtomicReference<Exception>();
+		BlockReadPlanner.read(entries, pstFile, (i, byteBuffer) -> {
+			try {
+				headers[i] = new Header(entries[i], pstFile, byteBuffer);
+			} catch (final	BadXBlockLevelException
+				|	BadXBlockTypeException e) {
+				badHeader.compareAndSet(null, e);
+			}
+		});
+		if (badHeader.get() instanceof BadXBlockLevelException)
+			throw (BadXBlockLevelException)badHeader.get();
+		if (badHeader.get() instanceof BadXBlockTypeException)
+			throw (BadXBlockTypeException)badHeader.get();
+
+		int nBlocks = 0;
+		for (final Header header : headers) {
+			if (header.level == 1)
+				nBlocks += header.numEntries;
+		}
+		final BID[] blockBIDs = new BID[nBlocks];
+		int nextBlock = 0;
+		for (final Header header : headers) {
+			if (header.level == 1) {
+				System.arraycopy(header.bid, 0, blockBIDs, nextBlock, header.numEntries);
+				nextBlock += header.numEntries;
+			}
+		}
+		final java.util.List<SimpleBlock> blocks = java.util.Arrays.asList(SimpleBlock.read(find(blockBIDs, bbt), pstFile.encryption(), pstFile));
+
 		java.util.ArrayList<XBlock> xblockList = new java.util.ArrayList<XBlock>(numEntries);
-		for (BID b : bid) {
-			final BBTEntry blockEntry = bbt.find(b);
-			assert blockEntry != null;
-			final XBlock xBlock = new XBlock(blockEntry, bbt, pstFile);
-			xblockList.add(xBlock);
+		nextBlock = 0;
+		for (final Header header : headers) {
+			if (header.level == 1) {
+				xblockList.add(new XBlock(header, new java.util.ArrayList<SimpleBlock>(blocks.subList(nextBlock, nextBlock + header.numEntries)), null));
+				nextBlock += header.numEntries;
+			} else {
+				xblockList.add(new XBlock(header, bbt, pstFile));
+			}
 		}
 
 		return xblockList;
@@ -0,0 +1,143 @@
+package io.github.jmcleodfoss.pst;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test the io.github.jmcleodfoss.pst.AsyncBlockReader class */
+public class AsyncBlockReaderTest
+{
+	/** Confirm no more than the maximum number of reads are in progress or queued at once: a caller requesting one more
+	*   waits until an earlier read has finished, and the reads already in progress overlap.
+	*	@throws	Exception	There was a problem reading the file, or the test was interrupted
+	*/
+	@Test public void inFlightBound()
+	throws
+		Exception
+	{
+		final int maxInFlight = 3;
+		final java.util.concurrent.atomic.AtomicInteger started = new java.util.concurrent.atomic.AtomicInteger();
+		final java.util.concurrent.CountDownLatch release = new java.util.concurrent.CountDownLatch(1);
+		final AsyncBlockReader reader = new AsyncBlockReader(null, (position, length) -> {
+			started.incrementAndGet();
+			try {
+				if (!release.await(10, java.util.concurrent.TimeUnit.SECONDS))
+					throw new java.io.IOException("Read was not released");
+			} catch (final InterruptedException e) {
+				throw new java.io.InterruptedIOException();
+			}
+			return java.nio.ByteBuffer.allocate(length).put(0, (byte)position);
+		}, maxInFlight);
+
+		try {
+			final java.util.List<java.util.concurrent.CompletableFuture<java.nio.ByteBuffer>> futures = new java.util.concurrent.CopyOnWriteArrayList<java.util.concurrent.CompletableFuture<java.nio.ByteBuffer>>();
+			for (int i = 0; i < maxInFlight; ++i)
+				futures.add(reader.read(i, 1));
+
+			final Thread submitter = new Thread(() -> futures.add(reader.read(maxInFlight, 1)));
+			submitter.start();
+
+			final long deadline = System.nanoTime() + java.util.concurrent.TimeUnit.SECONDS.toNanos(10);
+			while (started.get() < maxInFlight && System.nanoTime() < deadline)
+				Thread.sleep(1);
+			Assert.assertEquals(maxInFlight, started.get());
+
+			submitter.join(200);
+			Assert.assertTrue(submitter.isAlive());
+			Assert.assertEquals(maxInFlight, started.get());
+			Assert.assertEquals(maxInFlight, futures.size());
+
+			release.countDown();
+			submitter.join(10000);
+			Assert.assertFalse(submitter.isAlive());
+			Assert.assertEquals(maxInFlight + 1, futures.size());
+			for (final java.util.concurrent.CompletableFuture<java.nio.ByteBuffer> future : futures)
+				Assert.assertEquals(1, AsyncBlockReader.join(future).capacity());
+			Assert.assertEquals(maxInFlight + 1, started.get());
+			Assert.assertEquals(maxInFlight + 1, reader.reads());
+		} finally {
+			release.countDown();
+			reader.close();
+		}
+	}
+
+	/** Confirm the exception a read failed with is thrown when waiting for it. */
+	@Test public void join()
+	throws
+		CRCMismatchException,
+		java.io.IOException
+	{
+		Assert.assertEquals("done", AsyncBlockReader.join(java.util.concurrent.CompletableFuture.completedFuture("done")));
+
+		final java.util.concurrent.CompletableFuture<Void> crc = java.util.concurrent.CompletableFuture.supplyAsync(() -> {
+			throw new java.util.concurrent.CompletionException(new CRCMismatchException("Block", 1, 2));
+		});
+		Assert.assertThrows(CRCMismatchException.class, () -> AsyncBlockReader.join(crc));
+
+		final java.util.concurrent.CompletableFuture<Void> io = java.util.concurrent.CompletableFuture.failedFuture(new java.io.EOFException());
+		Assert.assertThrows(java.io.EOFException.class, () -> AsyncBlockReader.join(io));
+	}
+
+	/** Confirm reads are refused once the reader has been closed. */
+	@Test public void closed()
+	{
+		final AsyncBlockReader reader = new AsyncBlockReader(null, 2);
+		Assert.assertTrue(reader.isAsynchronous());
+		reader.close();
+		Assert.assertThrows(java.util.concurrent.RejectedExecutionException.class, () -> AsyncBlockReader.join(reader.read(0, 1)));
+		Assert.assertEquals(0, reader.reads());
+
+		Assert.assertFalse(new AsyncBlockReader(null, 0).isAsynchronous());
+	}
+
+	/** Confirm regions read asynchronously from a file on the read threads hold the same bytes as the file.
+	*	@throws	Exception	There was a problem writing or reading the file
+	*/
+	@Test public void readsMatchFile()
+	throws
+		Exception
+	{
+		final byte[] contents = new byte[65536];
+		new java.util.Random(0).nextBytes(contents);
+
+		final java.io.File file = java.io.File.createTempFile("AsyncBlockReaderTest", ".bin");
+		try {
+			java.nio.file.Files.write(file.toPath(), contents);
+			try (java.nio.channels.FileChannel fc = java.nio.channels.FileChannel.open(file.toPath(), java.nio.file.StandardOpenOption.READ)) {
+				final FileRegionManager regions = new FileRegionManager.PositionalRead(fc);
+				final java.util.Set<String> threads = java.util.concurrent.ConcurrentHashMap.newKeySet();
+				final AsyncBlockReader reader = new AsyncBlockReader(null, (position, length) -> {
+					threads.add(Thread.currentThread().getName());
+					return regions.read(position, length);
+				}, 4);
+
+				try {
+					final int numReads = 64;
+					final java.util.List<java.util.concurrent.CompletableFuture<java.nio.ByteBuffer>> futures = new java.util.ArrayList<java.util.concurrent.CompletableFuture<java.nio.ByteBuffer>>();
+					long expectedBytes = 0;
+					for (int i = 0; i < numReads; ++i) {
+						final int length = 512 + 7*i;
+						futures.add(reader.read(1000L*i, length));
+						expectedBytes += length;
+					}
+
+					for (int i = 0; i < numReads; ++i) {
+						final java.nio.ByteBuffer byteBuffer = AsyncBlockReader.join(futures.get(i));
+						Assert.assertEquals(java.nio.ByteOrder.LITTLE_ENDIAN, byteBuffer.order());
+						Assert.assertEquals(java.nio.ByteBuffer.wrap(contents, 1000*i, 512 + 7*i), byteBuffer);
+						regions.release(byteBuffer);
+					}
+					Assert.assertEquals(numReads, reader.reads());
+					Assert.assertEquals(expectedBytes, reader.bytesRead());
+					Assert.assertFalse(threads.contains(Thread.currentThread().getName()));
+
+					Assert.assertThrows(java.io.EOFException.class, () -> AsyncBlockReader.join(reader.read(contents.length - 10, 20)));
+				} finally {
+					reader.close();
+				}
+				regions.close();
+			}
+		} finally {
+			java.nio.file.Files.deleteIfExists(file.toPath());
+		}
+	}
+}
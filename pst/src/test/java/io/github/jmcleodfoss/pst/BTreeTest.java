@@ -0,0 +1,31 @@
+package io.github.jmcleodfoss.pst;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test the key search functions in the io.github.jmcleodfoss.pst.BTree class */
+public class BTreeTest
+{
+	/** Confirm the binary search functions give the same answers as the linear search they replace. */
+	@Test public void keySearch()
+	{
+		final long[] keys = {2, 4, 4, 4, 9, 20, 21};
+		Assert.assertTrue(BTree.isSorted(keys));
+
+		for (long key = 0; key < 25; ++key) {
+			int expectedFloor = -1;
+			int expectedIndex = -1;
+			for (int i = 0; i < keys.length; ++i) {
+				if (keys[i] <= key && (i == keys.length-1 || key < keys[i+1]))
+					expectedFloor = i;
+				if (expectedIndex == -1 && keys[i] == key)
+					expectedIndex = i;
+			}
+			Assert.assertEquals(expectedFloor, BTree.floorIndex(keys, key));
+			Assert.assertEquals(expectedIndex, BTree.indexOf(keys, key));
+		}
+
+		Assert.assertFalse(BTree.isSorted(new long[]{1, 3, 2}));
+		Assert.assertEquals(-1, BTree.floorIndex(new long[0], 5));
+	}
+}
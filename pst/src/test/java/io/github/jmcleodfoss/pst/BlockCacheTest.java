@@ -0,0 +1,59 @@
+package io.github.jmcleodfoss.pst;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test the io.github.jmcleodfoss.pst.BlockCache class */
+public class BlockCacheTest
+{
+	/** Confirm blocks are returned from the cache only for the encryption method they were decoded with. */
+	@Test public void hitsAndMisses()
+	{
+		final BlockCache cache = new BlockCache(1024, false);
+		final BID bid = new BID(0x100);
+		final byte[] data = new byte[64];
+
+		Assert.assertNull(cache.get(bid, Encryption.NONE));
+		Assert.assertSame(data, cache.put(bid, Encryption.NONE, data));
+		Assert.assertSame(data, cache.get(bid, Encryption.NONE));
+		Assert.assertNull(cache.get(bid, new Encryption((byte)0x01)));
+
+		Assert.assertEquals(1, cache.hits());
+		Assert.assertEquals(2, cache.misses());
+		Assert.assertEquals(64, cache.bytes());
+	}
+
+	/** Confirm the least-recently used blocks are discarded when the cache is full, and large blocks are not cached. */
+	@Test public void eviction()
+	{
+		final BlockCache cache = new BlockCache(256, false);
+		final BID[] bids = {new BID(0x100), new BID(0x104), new BID(0x108), new BID(0x10c)};
+		for (BID bid : bids)
+			cache.put(bid, Encryption.NONE, new byte[64]);
+		Assert.assertEquals(256, cache.bytes());
+
+		Assert.assertNotNull(cache.get(bids[0], Encryption.NONE));
+		cache.put(new BID(0x110), Encryption.NONE, new byte[64]);
+		Assert.assertEquals(1, cache.evictions());
+		Assert.assertNotNull(cache.get(bids[0], Encryption.NONE));
+		Assert.assertNull(cache.get(bids[1], Encryption.NONE));
+
+		cache.put(new BID(0x114), Encryption.NONE, new byte[65]);
+		Assert.assertNull(cache.get(new BID(0x114), Encryption.NONE));
+		Assert.assertEquals(256, cache.bytes());
+
+		cache.clear();
+		Assert.assertEquals(0, cache.bytes());
+		Assert.assertNull(cache.get(bids[0], Encryption.NONE));
+	}
+
+	/** Confirm nothing is cached when the cache size is 0. */
+	@Test public void disabled()
+	{
+		final BlockCache cache = new BlockCache(0, true);
+		final BID bid = new BID(0x100);
+		cache.put(bid, Encryption.NONE, new byte[1]);
+		Assert.assertNull(cache.get(bid, Encryption.NONE));
+		Assert.assertEquals(0, cache.bytes());
+	}
+}
@@ -0,0 +1,46 @@
+package io.github.jmcleodfoss.pst;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test the io.github.jmcleodfoss.pst.BlockReadPlanner class */
+public class BlockReadPlannerTest
+{
+	/** Confirm blocks are sorted by offset, and neighbouring blocks are grouped into a single run. */
+	@Test public void sortAndMerge()
+	{
+		final long[] offsets = {0x2000, 0x1000, 0x1200, 0x10000, -1, 0x2200 + BlockReadPlanner.MAX_GAP + 1};
+		final int[] sizes = {0x200, 0x200, 0x200, 0x200, 0, 0x200};
+
+		final java.util.List<int[]> runs = BlockReadPlanner.plan(offsets, sizes);
+		Assert.assertEquals(3, runs.size());
+		Assert.assertArrayEquals(new int[]{1, 2, 0}, runs.get(0));
+		Assert.assertArrayEquals(new int[]{5}, runs.get(1));
+		Assert.assertArrayEquals(new int[]{3}, runs.get(2));
+	}
+
+	/** Confirm a run is split once it would exceed the maximum read size. */
+	@Test public void maximumRead()
+	{
+		final int size = 8192;
+		final int numBlocks = 2 * BlockReadPlanner.MAX_READ / size;
+		final long[] offsets = new long[numBlocks];
+		final int[] sizes = new int[numBlocks];
+		for (int i = 0; i < numBlocks; ++i) {
+			offsets[i] = (long)(numBlocks - 1 - i) * size;
+			sizes[i] = size;
+		}
+
+		final java.util.List<int[]> runs = BlockReadPlanner.plan(offsets, sizes);
+		Assert.assertEquals(2, runs.size());
+		Assert.assertEquals(numBlocks / 2, runs.get(0).length);
+		Assert.assertEquals(numBlocks - 1, runs.get(0)[0]);
+		Assert.assertEquals(0, runs.get(1)[numBlocks / 2 - 1]);
+	}
+
+	/** Confirm nothing is read when there are no blocks. */
+	@Test public void empty()
+	{
+		Assert.assertTrue(BlockReadPlanner.plan(new long[]{-1}, new int[]{0}).isEmpty());
+	}
+}
@@ -0,0 +1,55 @@
+package io.github.jmcleodfoss.pst;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test the io.github.jmcleodfoss.pst.CRC class */
+public class CRCTest
+{
+	/** Confirm the slicing-by-8 calculation gives the same result as the byte-at-a-time reference calculation for heap,
+	*   read-only, and direct buffers, for every alignment and for lengths which are not multiples of eight, without changing
+	*   the buffer position.
+	*/
+	@Test public void matchesReference()
+	{
+		final byte[] data = new byte[1024 + 16];
+		new java.util.Random(0).nextBytes(data);
+		final java.nio.ByteBuffer heap = PSTFile.makeByteBuffer(data);
+		final java.nio.ByteBuffer readOnly = heap.asReadOnlyBuffer();
+		final java.nio.ByteBuffer direct = java.nio.ByteBuffer.allocateDirect(data.length).put(data);
+		direct.position(3);
+
+		final int[] sizes = {0, 1, 7, 8, 9, 63, 512, 1024};
+		for (int start = 0; start < 16; ++start) {
+			for (int size : sizes) {
+				final int expected = CRC.crcByteAtATime(heap, start, size);
+				Assert.assertEquals(expected, CRC.crc(data, start, size));
+				Assert.assertEquals(expected, CRC.crc(heap, start, size));
+				Assert.assertEquals(expected, CRC.crc(readOnly, start, size));
+				Assert.assertEquals(expected, CRC.crc(direct, start, size));
+			}
+		}
+		Assert.assertEquals(0, heap.position());
+		Assert.assertEquals(3, direct.position());
+	}
+
+	/** Confirm the CRC of fixed inputs against values calculated independently (the PST CRC is the reflected CRC-32 with an
+	*   initial value of 0 and no final XOR, i.e. ~zlib.crc32(data, 0xffffffff)).
+	*/
+	@Test public void knownValue()
+	{
+		final byte[] digits = "123456789".getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+		Assert.assertEquals(0x2dfd2d88, CRC.crc(digits, 0, digits.length));
+		Assert.assertEquals(0x3ab551ce, CRC.crc(new byte[]{'a'}, 0, 1));
+		Assert.assertEquals(0, CRC.crc(digits, 0, 0));
+		Assert.assertEquals(0, CRC.crc(new byte[512], 0, 512));
+
+		final byte[] ramp = new byte[8192];
+		for (int i = 0; i < ramp.length; ++i)
+			ramp[i] = (byte)i;
+		Assert.assertEquals(0x2493092b, CRC.crc(ramp, 0, 256));
+		Assert.assertEquals(0x6e93ca93, CRC.crc(ramp, 0, ramp.length));
+		Assert.assertEquals(0x6e93ca93, CRC.crc(java.nio.ByteBuffer.allocateDirect(ramp.length).put(ramp), 0, ramp.length));
+		Assert.assertEquals(0x2dfd2d88, CRC.crcByteAtATime(java.nio.ByteBuffer.wrap(digits), 0, digits.length));
+	}
+}
@@ -0,0 +1,105 @@
+package io.github.jmcleodfoss.pst;
+
+import java.io.File;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test that PST files, including files of different formats, may be opened and read at the same time from different threads. */
+public class ConcurrentReadersTest
+{
+	/** The number of times each file is read at the same time. */
+	private static final int COPIES = 3;
+
+	/** Record a description of a folder and its sub-folders, including the contents table column names (which depend on the
+	*   file's named property map) and the message objects (some of which are read using named property IDs).
+	*	@param	folder		The folder to describe.
+	*	@param	path		The path to the folder.
+	*	@param	pst		The PST file the folder was read from.
+	*	@param	description	The description of each folder and the messages in it.
+	*	@throws	Exception	The folder could not be read.
+	*/
+	private static void describe(Folder folder, String path, PST pst, java.util.List<String> description)
+	throws
+		Exception
+	{
+		final String folderPath = path + "/" + folder.displayName;
+		description.add(folderPath);
+
+		// Folders such as the root folder have no contents table.
+		if (folder.nodeContentsTable != null) {
+			final TableContext contentsTable = new TableContext(folder.nodeContentsTable, pst.blockBTree, pst);
+			for (int column = 0; column < contentsTable.getColumnCount(); ++column)
+				description.add(contentsTable.getColumnName(column));
+
+			for (java.util.Iterator<MessageObject> iterator = folder.contentsIterator(); iterator.hasNext(); ) {
+				final MessageObject messageObject = iterator.next();
+				description.add(messageObject.nodeMessageObject.nid.key + " " + messageObject);
+			}
+		}
+
+		for (java.util.Iterator<Folder> iterator = folder.subfolderIterator(); iterator.hasNext(); )
+			describe(iterator.next(), folderPath, pst, description);
+	}
+
+	/** Open the given file and describe its contents.
+	*	@param	file	The file to describe.
+	*	@return	The description of the folders and messages in the file.
+	*	@throws	Exception	The file could not be read.
+	*/
+	private static java.util.List<String> describe(File file)
+	throws
+		Exception
+	{
+		final PST pst = new PST(file.getPath());
+		try {
+			final java.util.List<String> description = new java.util.ArrayList<String>();
+			describe(pst.getFolderTree(), "", pst, description);
+			return description;
+		} finally {
+			pst.close();
+		}
+	}
+
+	/** Confirm the block index of an HID is interpreted according to the file format the caller provides. */
+	@Test public void hidBlockIndex()
+	{
+		final HeapOnNode.HID hid = new HeapOnNode.HID(0x00280040);
+		Assert.assertEquals(0x28, hid.blockIndex(false));
+		Assert.assertEquals(0x05, hid.blockIndex(true));
+		Assert.assertEquals(0, HeapOnNode.HID.BTreeOnHeapRoot.blockIndex(false));
+		Assert.assertEquals(0, HeapOnNode.HID.BTreeOnHeapRoot.blockIndex(true));
+	}
+
+	/** Read every file in the working directory several times at once, interleaving files of different formats, and confirm
+	*   each read produces the same description as a single-threaded read of the same file.
+	*	@throws	Exception	A file could not be read.
+	*/
+	@Test public void concurrentFiles()
+	throws
+		Exception
+	{
+		final File[] files = new File(".").listFiles(TestFrame.pstFileFilter);
+		if (files == null || files.length == 0)
+			return;
+
+		final java.util.Map<File, java.util.List<String>> expected = new java.util.HashMap<File, java.util.List<String>>();
+		for (File file : files)
+			expected.put(file, describe(file));
+
+		final java.util.concurrent.ExecutorService executor = java.util.concurrent.Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+		try {
+			final java.util.List<File> tasks = new java.util.ArrayList<File>();
+			for (int i = 0; i < COPIES; ++i)
+				java.util.Collections.addAll(tasks, files);
+
+			final java.util.List<java.util.concurrent.Future<java.util.List<String>>> results = new java.util.ArrayList<java.util.concurrent.Future<java.util.List<String>>>();
+			for (final File file : tasks)
+				results.add(executor.submit(() -> describe(file)));
+
+			for (int i = 0; i < tasks.size(); ++i)
+				Assert.assertEquals(tasks.get(i).getPath(), expected.get(tasks.get(i)), results.get(i).get());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
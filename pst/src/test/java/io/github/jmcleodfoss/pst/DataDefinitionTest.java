@@ -0,0 +1,70 @@
+package io.github.jmcleodfoss.pst;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test the io.github.jmcleodfoss.pst.DataDefinition field offset functions and the fixed-offset readers built on them. */
+public class DataDefinitionTest
+{
+	/** The fields of an ANSI block B-tree leaf entry. */
+	private static final DataDefinition[] ansiFields = {
+		new DataDefinition("BREF", DataType.brefAnsiReader, true),
+		new DataDefinition("cb", DataType.integer16Reader, true),
+		new DataDefinition("cRef", DataType.integer16Reader, true)
+	};
+
+	/** The fields of an OST 2013 block B-tree leaf entry. */
+	private static final DataDefinition[] ostFields = {
+		new DataDefinition("BREF", DataType.brefUnicodeReader, true),
+		new DataDefinition("cb", DataType.integer16Reader, true),
+		new DataDefinition("cbInflated", DataType.integer16Reader, true),
+		new DataDefinition("cRef", DataType.integer16Reader, true)
+	};
+
+	/** Confirm offsets and sizes are calculated from the field definitions. */
+	@Test public void offsets()
+	{
+		Assert.assertEquals(0, DataDefinition.offset(ansiFields, "BREF"));
+		Assert.assertEquals(8, DataDefinition.offset(ansiFields, "cb"));
+		Assert.assertEquals(10, DataDefinition.offset(ansiFields, "cRef"));
+		Assert.assertEquals(-1, DataDefinition.offset(ansiFields, "cbInflated"));
+
+		final DataDefinition[][] fields = {ansiFields, ostFields};
+		Assert.assertArrayEquals(new int[]{-1, 18}, DataDefinition.offsets(fields, "cbInflated"));
+		Assert.assertArrayEquals(new int[]{10, 20}, DataDefinition.offsets(fields, "cRef"));
+		Assert.assertArrayEquals(new int[]{12, 22}, DataDefinition.sizes(fields));
+		Assert.assertArrayEquals(new int[]{8, 16}, DataDefinition.fieldSizes(fields, "BREF"));
+		Assert.assertArrayEquals(new int[]{-1, 2}, DataDefinition.fieldSizes(fields, "cbInflated"));
+	}
+
+	/** Confirm the fixed-offset BID and BREF readers return the same values as the DataContainer readers, including
+	*   sign extension of ANSI values, and do not move the data stream.
+	*	@throws	IOException	There was a problem reading the data
+	*/
+	@Test public void readers()
+	throws
+		IOException
+	{
+		final byte[] data = {
+			(byte)0xfe, (byte)0xff, (byte)0xff, (byte)0xff, 0x12, 0x34, 0x56, 0x78,
+			0x04, 0x01, 0x02, 0x03, 0x04, 0x05, 0x06, (byte)0x87
+		};
+
+		for (final boolean fUnicode : new boolean[]{false, true}) {
+			final ByteBuffer byteBuffer = PSTFile.makeByteBuffer(data);
+			final DataContainer dc = new DataContainer();
+			dc.read(byteBuffer, new DataDefinition("BREF", fUnicode ? DataType.brefUnicodeReader : DataType.brefAnsiReader, true));
+			final BREF expected = (BREF)dc.get("BREF");
+
+			final ByteBuffer fixed = PSTFile.makeByteBuffer(data);
+			final BREF actual = DataType.readBREF(fixed, 0, fUnicode);
+			Assert.assertEquals(0, fixed.position());
+			Assert.assertEquals(expected.bid.key(), actual.bid.key());
+			Assert.assertEquals(expected.bid.bid, actual.bid.bid);
+			Assert.assertEquals(expected.ib.ib, actual.ib.ib);
+			Assert.assertEquals(expected.bid.key(), DataType.readBID(fixed, 0, fUnicode).key());
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package io.github.jmcleodfoss.pst;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import org.junit.Assert;
+
+/** Test the DataTreeInputStream class */
+public class DataTreeInputStreamTest extends TestFrame
+{
+	/** Test the DataTreeInputStream class by confirming that it returns the same data as reading each data tree in the node
+	*   B-tree in its entirety, when read as a stream, as a channel, and after skipping part of the data.
+	*	@param	file	{@inheritDoc}
+	*	@throws	BufferUnderflowException	{@inheritDoc}
+	*	@throws	FileNotFoundException		{@inheritDoc}
+	*	@throws	IllegalAccessException		{@inheritDoc}
+	*	@throws	InsufficientMemoryException	{@inheritDoc}
+	*	@throws	InstantiationException		{@inheritDoc}
+	*	@throws	IOException			{@inheritDoc}
+	*	@throws	NotPSTFileException		{@inheritDoc}
+	*	@throws	NoSuchMethodException		{@inheritDoc}
+	*	@throws	Throwable			{@inheritDoc}
+	*/
+	@Override
+	protected void test(File file)
+	throws
+		BufferUnderflowException,
+		FileNotFoundException,
+		IllegalAccessException,
+		InsufficientMemoryException,
+		InstantiationException,
+		IOException,
+		NotPSTFileException,
+		NoSuchMethodException,
+		Throwable
+	{
+		try {
+			PSTFile pstFile = new PSTFile(new FileInputStream(file));
+			try {
+				final BlockBTree bbt = new BlockBTree(0, pstFile.header.bbtRoot, pstFile);
+				final NodeBTree nbt = new NodeBTree(0, pstFile.header.nbtRoot, pstFile);
+				java.util.Iterator<BTreeNode> iterator = nbt.iterator();
+				while (iterator.hasNext()) {
+					final NBTEntry node = (NBTEntry)iterator.next();
+					final BBTEntry entry = bbt.find(node.bidData);
+					if (entry == null)
+						continue;
+
+					final byte[] expected = BlockBase.read(entry, bbt, pstFile).data();
+
+					try (DataTreeInputStream stream = new DataTreeInputStream(entry, bbt, pstFile)) {
+						Assert.assertArrayEquals(expected, stream.readAllBytes());
+						Assert.assertEquals(-1, stream.read());
+					}
+
+					try (DataTreeInputStream channel = new DataTreeInputStream(entry, bbt, pstFile)) {
+						final java.nio.ByteBuffer actual = java.nio.ByteBuffer.allocate(expected.length + 1);
+						while (channel.read(actual) > 0)
+							;
+						actual.flip();
+						Assert.assertEquals(java.nio.ByteBuffer.wrap(expected), actual);
+					}
+
+					final int toSkip = expected.length * 3 / 4;
+					try (DataTreeInputStream stream = new DataTreeInputStream(entry, bbt, pstFile)) {
+						Assert.assertEquals(toSkip, stream.skip(toSkip));
+						Assert.assertArrayEquals(java.util.Arrays.copyOfRange(expected, toSkip, expected.length), stream.readAllBytes());
+					}
+				}
+			} finally {
+				pstFile.close();
+			}
+		} catch (IOException e) {
+			if (e.toString().equals("java.io.IOException: Cannot allocate memory")) {
+				throw new InsufficientMemoryException(e);
+			}
+			throw e;
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package io.github.jmcleodfoss.pst;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test the io.github.jmcleodfoss.pst.Encryption class */
+public class EncryptionTest
+{
+	/** The encryption methods to test. */
+	private static final Encryption[] methods = {Encryption.NONE, new Encryption((byte)0x01), new Encryption((byte)0x02)};
+
+	/** Decrypt the given data in place.
+	*	@param	encryption	The encryption method to use.
+	*	@param	data		The data to decrypt.
+	*	@param	key		The key to decrypt the data with.
+	*	@return	The decrypted data, in a new array.
+	*/
+	private static byte[] inPlace(Encryption encryption, byte[] data, int key)
+	{
+		final byte[] copy = data.clone();
+		encryption.translate(copy, key);
+		return copy;
+	}
+
+	/** Confirm decrypting from heap, read-only, and direct buffers gives the same result as decrypting in place, for lengths
+	*   which are not multiples of eight, and that the source buffer's position is advanced past the data.
+	*/
+	@Test public void buffersMatchInPlace()
+	{
+		final byte[] data = new byte[72];
+		new java.util.Random(0).nextBytes(data);
+		final java.nio.ByteBuffer direct = java.nio.ByteBuffer.allocateDirect(data.length + 1);
+		direct.put((byte)0).put(data);
+
+		for (Encryption encryption : methods) {
+			for (int size = 0; size <= data.length; ++size) {
+				final byte[] source = java.util.Arrays.copyOf(data, size);
+				final byte[] expected = inPlace(encryption, source, 0x1234567);
+
+				final java.nio.ByteBuffer[] buffers = {
+					java.nio.ByteBuffer.wrap(data),
+					java.nio.ByteBuffer.wrap(data).asReadOnlyBuffer(),
+					direct.duplicate().position(1)
+				};
+				for (java.nio.ByteBuffer buffer : buffers) {
+					final int start = buffer.position();
+					final byte[] actual = new byte[size];
+					encryption.translate(buffer, actual, 0x1234567);
+					Assert.assertArrayEquals(encryption + " " + size, expected, actual);
+					Assert.assertEquals(start + size, buffer.position());
+				}
+			}
+		}
+	}
+
+	/** Confirm bytes decrypted eight at a time match those decrypted one at a time, by decrypting the tail of the data on its
+	*   own (with the cyclic key advanced to match).
+	*/
+	@Test public void unrolledMatchesTail()
+	{
+		final byte[] data = new byte[64];
+		new java.util.Random(1).nextBytes(data);
+
+		for (Encryption encryption : methods) {
+			final byte[] full = inPlace(encryption, data, 0x100);
+			for (int offset = 1; offset < data.length; ++offset) {
+				final byte[] tail = inPlace(encryption, java.util.Arrays.copyOfRange(data, offset, data.length), 0x100 + offset);
+				Assert.assertArrayEquals(encryption + " " + offset, java.util.Arrays.copyOfRange(full, offset, full.length), tail);
+			}
+		}
+	}
+
+	/** Confirm cyclic encoding is its own inverse and permutative decoding maps each byte to a different value. */
+	@Test public void inverse()
+	{
+		final byte[] data = new byte[256];
+		for (int i = 0; i < data.length; ++i)
+			data[i] = (byte)i;
+
+		Assert.assertArrayEquals(data, inPlace(methods[2], inPlace(methods[2], data, 0xabcd), 0xabcd));
+
+		final byte[] permuted = inPlace(methods[1], data, 0);
+		final java.util.BitSet seen = new java.util.BitSet(256);
+		for (byte b : permuted)
+			seen.set(b & 0xff);
+		Assert.assertEquals(256, seen.cardinality());
+	}
+}
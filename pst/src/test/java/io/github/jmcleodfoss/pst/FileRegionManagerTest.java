@@ -0,0 +1,115 @@
+package io.github.jmcleodfoss.pst;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test the io.github.jmcleodfoss.pst.FileRegionManager class */
+public class FileRegionManagerTest
+{
+	/** Confirm every read strategy returns the same bytes for every region of a small file, including regions which span the
+	*   start of the next window and so are read from the overlap.
+	*	@throws	IOException	There was a problem reading the file
+	*/
+	@Test public void strategiesAgree()
+	throws
+		IOException
+	{
+		FileInputStream stream = new FileInputStream(new File("not-a-pst-file.txt"));
+		try {
+			FileChannel fc = stream.getChannel();
+			final int fileSize = (int)fc.size();
+			FileRegionManager reference = new FileRegionManager.MapPerRead(fc);
+			FileRegionManager[] managers = {
+				new FileRegionManager.WholeFileMapped(fc),
+				new FileRegionManager.WindowedMapped(fc, 64, 128),
+				new FileRegionManager.PositionalRead(fc)
+			};
+
+			for (int position = 0; position < fileSize; position += 37) {
+				final int length = Math.min(100, fileSize - position);
+				final ByteBuffer expected = reference.read(position, length);
+				for (FileRegionManager manager : managers) {
+					final ByteBuffer actual = manager.read(position, length);
+					Assert.assertEquals(expected, actual);
+					Assert.assertEquals(expected.order(), actual.order());
+					manager.release(actual);
+				}
+			}
+
+			for (FileRegionManager manager : managers)
+				manager.close();
+			fc.close();
+		} finally {
+			stream.close();
+		}
+	}
+
+	/** Confirm the windowed strategy returns the same bytes as FileChannel.read for regions on either side of and straddling
+	*   each window boundary of a file mapped in several windows, both for regions short enough to be read from a window's
+	*   overlap and for longer regions which are mapped separately.
+	*	@throws	IOException	There was a problem writing or reading the file
+	*/
+	@Test public void windowBoundaries()
+	throws
+		IOException
+	{
+		final int windowSize = 4096;
+		final int overlap = 512;
+		final int[] lengths = {1, 100, overlap - 1, overlap, overlap + 1, 3 * overlap};
+
+		final byte[] data = new byte[16 * windowSize + 100];
+		new java.util.Random(0).nextBytes(data);
+		final File file = File.createTempFile("FileRegionManagerTest", ".bin");
+		try {
+			java.nio.file.Files.write(file.toPath(), data);
+			try (FileChannel fc = FileChannel.open(file.toPath(), java.nio.file.StandardOpenOption.READ)) {
+				final FileRegionManager manager = new FileRegionManager.WindowedMapped(fc, windowSize, overlap);
+				int straddling = 0;
+				for (int windowStart = windowSize; windowStart < data.length; windowStart += windowSize) {
+					for (int position = windowStart - 2 * overlap; position <= windowStart + 8; position += 7) {
+						for (final int length : lengths) {
+							if (position + length > data.length)
+								continue;
+
+							final ByteBuffer expected = ByteBuffer.allocate(length);
+							while (expected.hasRemaining())
+								fc.read(expected, position + expected.position());
+							expected.flip();
+
+							final ByteBuffer actual = manager.read(position, length);
+							Assert.assertEquals(position + "+" + length, expected, actual);
+							Assert.assertEquals(java.nio.ByteOrder.LITTLE_ENDIAN, actual.order());
+							if (position < windowStart && position + length > windowStart)
+								++straddling;
+						}
+					}
+				}
+				Assert.assertTrue(straddling > 0);
+				manager.close();
+			}
+		} finally {
+			java.nio.file.Files.deleteIfExists(file.toPath());
+		}
+	}
+
+	/** Confirm reading past the end of the file is reported as an error.
+	*	@throws	IOException	There was a problem reading the file
+	*/
+	@Test(expected = java.io.EOFException.class) public void readPastEnd()
+	throws
+		IOException
+	{
+		FileInputStream stream = new FileInputStream(new File("not-a-pst-file.txt"));
+		try {
+			FileChannel fc = stream.getChannel();
+			new FileRegionManager.WholeFileMapped(fc).read(fc.size() - 1, 2);
+		} finally {
+			stream.close();
+		}
+	}
+}
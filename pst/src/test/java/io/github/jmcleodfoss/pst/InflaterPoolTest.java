@@ -0,0 +1,84 @@
+package io.github.jmcleodfoss.pst;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test the io.github.jmcleodfoss.pst.InflaterPool class */
+public class InflaterPoolTest
+{
+	/** Compress the given data.
+	*	@param	data	The data to compress.
+	*	@return	The compressed data.
+	*/
+	private static byte[] deflate(byte[] data)
+	{
+		final java.util.zip.Deflater deflater = new java.util.zip.Deflater();
+		try {
+			deflater.setInput(data);
+			deflater.finish();
+			final byte[] buffer = new byte[data.length + 64];
+			final int n = deflater.deflate(buffer);
+			return java.util.Arrays.copyOf(buffer, n);
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/** Confirm blocks are inflated correctly from heap and direct buffers, one after the other and after a corrupt block, and
+	*   that the statistics are updated.
+	*	@throws	java.util.zip.DataFormatException	A block could not be inflated.
+	*/
+	@Test public void inflate()
+	throws
+		java.util.zip.DataFormatException
+	{
+		final byte[] data = new byte[8192];
+		for (int i = 0; i < data.length; ++i)
+			data[i] = (byte)(i % 251);
+		final byte[] compressed = deflate(data);
+
+		final InflaterPool pool = new InflaterPool();
+		Assert.assertArrayEquals(data, pool.inflate(java.nio.ByteBuffer.wrap(compressed), data.length));
+
+		final java.nio.ByteBuffer direct = java.nio.ByteBuffer.allocateDirect(compressed.length).put(compressed);
+		direct.flip();
+		Assert.assertArrayEquals(data, pool.inflate(direct, data.length));
+
+		try {
+			pool.inflate(java.nio.ByteBuffer.wrap(new byte[]{1, 2, 3, 4}), data.length);
+			Assert.fail("Corrupt data was inflated");
+		} catch (final java.util.zip.DataFormatException e) {
+			// This is expected.
+		}
+		Assert.assertArrayEquals(data, pool.inflate(java.nio.ByteBuffer.wrap(compressed), data.length));
+
+		Assert.assertEquals(3, pool.blocks());
+		Assert.assertEquals(3L * compressed.length, pool.compressedBytes());
+		Assert.assertEquals(3L * data.length, pool.inflatedBytes());
+
+		Assert.assertEquals(1, pool.pooled());
+		pool.close();
+		Assert.assertEquals(0, pool.pooled());
+		Assert.assertArrayEquals(data, pool.inflate(java.nio.ByteBuffer.wrap(compressed), data.length));
+		Assert.assertEquals(0, pool.pooled());
+	}
+
+	/** Confirm a block which inflates to more or fewer bytes than its declared size is reported as corrupt rather than
+	*   returned short or truncated.
+	*/
+	@Test public void declaredSize()
+	{
+		final byte[] data = new byte[4096];
+		for (int i = 0; i < data.length; ++i)
+			data[i] = (byte)(i % 13);
+		final byte[] compressed = deflate(data);
+
+		final InflaterPool pool = new InflaterPool();
+		Assert.assertThrows(java.util.zip.DataFormatException.class, () -> pool.inflate(java.nio.ByteBuffer.wrap(compressed), data.length + 1));
+		Assert.assertThrows(java.util.zip.DataFormatException.class, () -> pool.inflate(java.nio.ByteBuffer.wrap(compressed), data.length - 1));
+		Assert.assertThrows(java.util.zip.DataFormatException.class, () -> pool.inflate(java.nio.ByteBuffer.wrap(compressed, 0, compressed.length / 2), data.length));
+		Assert.assertEquals(0, pool.blocks());
+		Assert.assertEquals(1, pool.pooled());
+		pool.close();
+	}
+}
@@ -0,0 +1,295 @@
+package io.github.jmcleodfoss.pst;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test the io.github.jmcleodfoss.pst.MessageSummary.Cursor class against a contents table in a small PST file built for the test. */
+public class MessageSummaryTest
+{
+	/** The offset of the contents table block in the test file. */
+	private static final int BLOCK_OFFSET = 1024;
+
+	/** The block ID of the contents table block. */
+	private static final long BLOCK_ID = 0x100;
+
+	/** The delivery time of the first message. */
+	private static final long DELIVERY_TIME_0 = 1_600_000_000_000L;
+
+	/** The delivery time of the third message. */
+	private static final long DELIVERY_TIME_2 = 1_700_000_000_000L;
+
+	/** The number of milliseconds between the PST epoch (1601-01-01) and the Java epoch (1970-01-01). */
+	private static final long PST_EPOCH_OFFSET_MILLIS = 11_644_473_600_000L;
+
+	/** The contents table columns, in row order: tag, offset, and width. Strings are stored in the heap, so their columns
+	*   hold HIDs.
+	*/
+	private static final int[][] COLUMNS = {
+		{PropertyTags.LtpRowId, 0, 4},
+		{PropertyTags.MessageFlags, 4, 4},
+		{PropertyTags.MessageClassW, 8, 4},
+		{PropertyTags.SubjectW, 12, 4},
+		{PropertyTags.MessageSize, 16, 4},
+		{PropertyTags.MessageDeliveryTime, 20, 8}
+	};
+
+	/** The size of the values in a row, before the cell existence bitmap. */
+	private static final int ROW_VALUES_SIZE = 28;
+
+	/** The size of a row, including the cell existence bitmap. */
+	private static final int ROW_SIZE = ROW_VALUES_SIZE + 1;
+
+	/** Confirm a cursor over an absent contents table has no rows, however often it is advanced. */
+	@Test public void emptyFolder()
+	{
+		final MessageSummary.Cursor cursor = new MessageSummary.Cursor(null, true);
+		Assert.assertEquals(0, cursor.getRowCount());
+		Assert.assertEquals(-1, cursor.row());
+		Assert.assertFalse(cursor.next());
+		Assert.assertFalse(cursor.next());
+	}
+
+	/** Confirm the columns read for explicit tags are those tags and the row ID, and that the default columns are those needed
+	*   for a message summary.
+	*/
+	@Test public void columns()
+	{
+		Assert.assertEquals(MessageSummary.columns(true), MessageSummary.columns(true, new int[0]));
+		Assert.assertTrue(MessageSummary.columns(true).contains(PropertyTags.SubjectW));
+		Assert.assertTrue(MessageSummary.columns(false).contains(PropertyTags.Subject));
+		Assert.assertEquals(java.util.Set.of(PropertyTags.LtpRowId, PropertyTags.MessageSize), MessageSummary.columns(true, PropertyTags.MessageSize));
+	}
+
+	/** Confirm a cursor with the default columns iterates through every row in order, creating the message summary for each,
+	*   reads nothing outside its columns, and stays exhausted once it has moved past the last row.
+	*	@throws	Exception	There was a problem writing or reading the test file
+	*/
+	@Test public void defaultColumns()
+	throws
+		Exception
+	{
+		withContentsTable(MessageSummary.columns(true), cursor -> {
+			Assert.assertEquals(3, cursor.getRowCount());
+
+			Assert.assertTrue(cursor.next());
+			Assert.assertEquals(0, cursor.row());
+			MessageSummary summary = cursor.summary();
+			Assert.assertEquals(0x200024, summary.nid);
+			Assert.assertEquals("IPM.Note", summary.messageClass);
+			Assert.assertEquals("Hello", summary.subject);
+			Assert.assertEquals(DELIVERY_TIME_0, summary.deliveryTime.toInstant().toEpochMilli());
+			Assert.assertEquals(1, summary.flags);
+			Assert.assertFalse(cursor.hasProperty(PropertyTags.MessageSize));
+			Assert.assertEquals(0, cursor.getInt(PropertyTags.MessageSize));
+
+			Assert.assertTrue(cursor.next());
+			summary = cursor.summary();
+			Assert.assertEquals(0x200044, summary.nid);
+			Assert.assertEquals("IPM.Note", summary.messageClass);
+			Assert.assertNull(summary.subject);
+			Assert.assertNull(summary.deliveryTime);
+			Assert.assertEquals(0, summary.flags);
+
+			Assert.assertTrue(cursor.next());
+			summary = cursor.summary();
+			Assert.assertEquals(0x200064, summary.nid);
+			Assert.assertEquals("IPM.Appointment", summary.messageClass);
+			Assert.assertEquals("Lunch", summary.subject);
+			Assert.assertEquals(DELIVERY_TIME_2, summary.deliveryTime.toInstant().toEpochMilli());
+			Assert.assertEquals(3, summary.flags);
+
+			Assert.assertFalse(cursor.next());
+			Assert.assertFalse(cursor.next());
+			Assert.assertEquals(3, cursor.row());
+		});
+	}
+
+	/** Confirm a cursor with explicit tags reads those columns and the row ID without creating objects for scalar values, and
+	*   nothing else.
+	*	@throws	Exception	There was a problem writing or reading the test file
+	*/
+	@Test public void explicitTags()
+	throws
+		Exception
+	{
+		withContentsTable(MessageSummary.columns(true, PropertyTags.MessageSize, PropertyTags.MessageDeliveryTime), cursor -> {
+			final int[] nids = {0x200024, 0x200044, 0x200064};
+			final int[] sizes = {1000, 2000, 3000};
+			final long[] times = {DELIVERY_TIME_0, 0, DELIVERY_TIME_2};
+			int rows = 0;
+			while (cursor.next()) {
+				Assert.assertEquals(nids[rows], cursor.nid());
+				Assert.assertEquals(sizes[rows], cursor.getInt(PropertyTags.MessageSize));
+				Assert.assertEquals(sizes[rows], cursor.getLong(PropertyTags.MessageSize));
+				Assert.assertEquals(times[rows], cursor.getFileTimeMillis(PropertyTags.MessageDeliveryTime));
+				Assert.assertEquals(times[rows] != 0, cursor.hasProperty(PropertyTags.MessageDeliveryTime));
+				Assert.assertFalse(cursor.hasProperty(PropertyTags.SubjectW));
+				Assert.assertNull(cursor.getString(PropertyTags.SubjectW));
+				Assert.assertEquals(0, cursor.getInt(PropertyTags.MessageFlags));
+				++rows;
+			}
+			Assert.assertEquals(3, rows);
+			Assert.assertFalse(cursor.next());
+		});
+	}
+
+	/** The CursorTest interface allows a test to be run on a cursor over the test contents table. */
+	private interface CursorTest
+	{
+		/** Run the test.
+		*	@param	cursor	A cursor positioned before the first row of the contents table.
+		*/
+		void test(MessageSummary.Cursor cursor);
+	}
+
+	/** Build a PST file holding a contents table with three rows, and run a test on a cursor through it.
+	*	@param	columns	The columns for the cursor to read.
+	*	@param	test	The test to run.
+	*	@throws	Exception	There was a problem writing or reading the test file
+	*/
+	private static void withContentsTable(final java.util.Set<Integer> columns, final CursorTest test)
+	throws
+		Exception
+	{
+		final byte[] heap = contentsTableHeap();
+		final java.io.File file = java.io.File.createTempFile("MessageSummaryTest", ".pst");
+		try {
+			java.nio.file.Files.write(file.toPath(), pstFile(heap));
+			final PSTFile pstFile = new PSTFile(new java.io.FileInputStream(file));
+			try {
+				final BBTEntry entry = new BBTEntry(new BREF(new BID(BLOCK_ID), new IB(BLOCK_OFFSET)), heap.length, heap.length, 2);
+				final HeapOnNode hon = new HeapOnNode(entry, null, pstFile);
+				final NBTEntry node = new NBTEntry(new NID(0x8e), new BID(BLOCK_ID), new BID(0), new NID(0x122));
+				test.test(new MessageSummary.Cursor(new TableContext(node, hon, null, pstFile, columns, true), true));
+			} finally {
+				pstFile.close();
+			}
+		} finally {
+			java.nio.file.Files.deleteIfExists(file.toPath());
+		}
+	}
+
+	/** Create the heap-on-node holding the contents table: the TCINFO, the row index B-tree-on-heap header and records, the
+	*   row matrix, and the strings.
+	*	@return	The heap-on-node data.
+	*/
+	private static byte[] contentsTableHeap()
+	{
+		final String[] strings = {"IPM.Note", "Hello", "IPM.Appointment", "Lunch"};
+		final int firstString = 5;
+
+		final java.util.List<byte[]> allocations = new java.util.ArrayList<byte[]>();
+
+		final java.nio.ByteBuffer tcInfo = allocate(22 + 8*COLUMNS.length);
+		tcInfo.put((byte)0x7c).put((byte)COLUMNS.length);
+		tcInfo.putShort((short)ROW_VALUES_SIZE).putShort((short)ROW_VALUES_SIZE).putShort((short)ROW_VALUES_SIZE).putShort((short)ROW_SIZE);
+		tcInfo.putInt(hid(2)).putInt(hid(4)).putInt(0);
+		for (int c = 0; c < COLUMNS.length; ++c)
+			tcInfo.putInt(COLUMNS[c][0]).putShort((short)COLUMNS[c][1]).put((byte)COLUMNS[c][2]).put((byte)c);
+		allocations.add(bytes(tcInfo));
+
+		allocations.add(bytes(allocate(8).put((byte)0xb5).put((byte)4).put((byte)4).put((byte)0).putInt(hid(3))));
+
+		final int[] nids = {0x200024, 0x200044, 0x200064};
+		final java.nio.ByteBuffer rowIndex = allocate(8*nids.length);
+		for (int r = 0; r < nids.length; ++r)
+			rowIndex.putInt(nids[r]).putInt(r);
+		allocations.add(bytes(rowIndex));
+
+		final java.nio.ByteBuffer rows = allocate(ROW_SIZE*nids.length);
+		rows.putInt(nids[0]).putInt(1).putInt(hid(firstString)).putInt(hid(firstString+1)).putInt(1000).putLong(fileTime(DELIVERY_TIME_0)).put((byte)0xfc);
+		rows.putInt(nids[1]).putInt(0).putInt(hid(firstString)).putInt(0).putInt(2000).putLong(0).put((byte)0xe8);
+		rows.putInt(nids[2]).putInt(3).putInt(hid(firstString+2)).putInt(hid(firstString+3)).putInt(3000).putLong(fileTime(DELIVERY_TIME_2)).put((byte)0xfc);
+		allocations.add(bytes(rows));
+
+		for (final String s : strings)
+			allocations.add(s.getBytes(java.nio.charset.StandardCharsets.UTF_16LE));
+
+		int size = 12;
+		for (final byte[] allocation : allocations)
+			size += allocation.length;
+		size += size % 2;
+		final int ibHnpm = size;
+		size += 4 + 2*(allocations.size() + 1);
+
+		final java.nio.ByteBuffer hn = allocate(size);
+		hn.putShort((short)ibHnpm).put((byte)0xec).put((byte)0x7c).putInt(hid(1)).putInt(0);
+		final int[] offsets = new int[allocations.size() + 1];
+		for (int i = 0; i < allocations.size(); ++i) {
+			offsets[i] = hn.position();
+			hn.put(allocations.get(i));
+		}
+		offsets[allocations.size()] = hn.position();
+
+		hn.position(ibHnpm);
+		hn.putShort((short)allocations.size()).putShort((short)0);
+		for (final int offset : offsets)
+			hn.putShort((short)offset);
+		return bytes(hn);
+	}
+
+	/** Create a little-endian buffer for building a structure.
+	*	@param	size	The size of the structure.
+	*	@return	A buffer of the given size.
+	*/
+	private static java.nio.ByteBuffer allocate(final int size)
+	{
+		return java.nio.ByteBuffer.allocate(size).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/** Copy the contents of a buffer created by {@link #allocate}.
+	*	@param	buffer	The buffer to copy.
+	*	@return	The bytes from the start of the buffer to its capacity.
+	*/
+	private static byte[] bytes(final java.nio.ByteBuffer buffer)
+	{
+		final byte[] data = new byte[buffer.capacity()];
+		buffer.get(0, data);
+		return data;
+	}
+
+	/** Convert a time to a PST FILETIME.
+	*	@param	millis	The time in milliseconds since the Java epoch.
+	*	@return	The time in 100-nanosecond intervals since the PST epoch.
+	*/
+	private static long fileTime(final long millis)
+	{
+		return (millis + PST_EPOCH_OFFSET_MILLIS) * 10000;
+	}
+
+	/** Create the HID of an allocation in the first block of a heap-on-node.
+	*	@param	index	The one-based index of the allocation.
+	*	@return	The HID of the allocation.
+	*/
+	private static int hid(final int index)
+	{
+		return index << 5;
+	}
+
+	/** Create a Unicode PST file holding only a header and the given heap-on-node as an unencrypted data block.
+	*	@param	heap	The heap-on-node data.
+	*	@return	The PST file contents.
+	*/
+	private static byte[] pstFile(final byte[] heap)
+	{
+		final int blockSize = (heap.length + 16 + 63) / 64 * 64;
+		final byte[] file = new byte[BLOCK_OFFSET + blockSize];
+		final java.nio.ByteBuffer pst = java.nio.ByteBuffer.wrap(file).order(java.nio.ByteOrder.LITTLE_ENDIAN);
+
+		pst.putInt(0, 0x4e444221);
+		pst.putShort(8, (short)0x4d53);
+		pst.putShort(10, (short)23);
+		pst.putShort(12, (short)19);
+		pst.put(512, (byte)0x80);
+		pst.put(513, (byte)0);
+		pst.putInt(4, CRC.crc(file, 8, 471));
+		pst.putInt(524, CRC.crc(file, 8, 516));
+
+		pst.put(BLOCK_OFFSET, heap);
+		final int trailer = BLOCK_OFFSET + blockSize - 16;
+		pst.putShort(trailer, (short)heap.length);
+		pst.putInt(trailer + 4, CRC.crc(heap, 0, heap.length));
+		pst.putLong(trailer + 8, BLOCK_ID);
+		return file;
+	}
+}
@@ -0,0 +1,88 @@
+package io.github.jmcleodfoss.pst;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import org.junit.Assert;
+
+/** Test the io.github.jmcleodfoss.pst.ParallelTraversal class */
+public class ParallelTraversalTest extends TestFrame
+{
+	/** Record the message objects of each folder and its sub-folders in the order in which they are found.
+	*	@param	folder		The folder to record the contents of.
+	*	@param	path		The path to the folder.
+	*	@param	contents	The record of message object NIDs for each folder path.
+	*/
+	private static void walk(Folder folder, String path, java.util.Map<String, java.util.List<Integer>> contents)
+	{
+		final String folderPath = path + "/" + folder.displayName;
+		java.util.List<Integer> nids = new java.util.ArrayList<Integer>();
+		for (java.util.Iterator<MessageObject> iterator = folder.contentsIterator(); iterator.hasNext(); )
+			nids.add(iterator.next().nodeMessageObject.nid.key);
+		contents.put(folderPath, nids);
+		for (java.util.Iterator<Folder> iterator = folder.subfolderIterator(); iterator.hasNext(); )
+			walk(iterator.next(), folderPath, contents);
+	}
+
+	/** Test the ParallelTraversal class by confirming that it visits the same message objects in each folder, in the same
+	*   order, as a single-threaded walk of the folder tree.
+	*	@param	file	{@inheritDoc}
+	*	@throws	BufferUnderflowException	{@inheritDoc}
+	*	@throws	FileNotFoundException		{@inheritDoc}
+	*	@throws	IllegalAccessException		{@inheritDoc}
+	*	@throws	InsufficientMemoryException	{@inheritDoc}
+	*	@throws	InstantiationException		{@inheritDoc}
+	*	@throws	IOException			{@inheritDoc}
+	*	@throws	NotPSTFileException		{@inheritDoc}
+	*	@throws	NoSuchMethodException		{@inheritDoc}
+	*	@throws	Throwable			{@inheritDoc}
+	*/
+	@Override
+	protected void test(File file)
+	throws
+		BufferUnderflowException,
+		FileNotFoundException,
+		IllegalAccessException,
+		InsufficientMemoryException,
+		InstantiationException,
+		IOException,
+		NotPSTFileException,
+		NoSuchMethodException,
+		Throwable
+	{
+		try {
+			final PST pst = new PST(file.getPath());
+
+			final java.util.Map<String, java.util.List<Integer>> expected = new java.util.HashMap<String, java.util.List<Integer>>();
+			walk(Folder.getLazyFolderTree(pst.getFolderTree().nodeFolderObject, pst.blockBTree, pst.nodeBTree, pst), "", expected);
+
+			final java.util.Map<String, java.util.List<Integer>> actual = new java.util.concurrent.ConcurrentHashMap<String, java.util.List<Integer>>();
+			final java.util.Map<Folder, String> paths = new java.util.concurrent.ConcurrentHashMap<Folder, String>();
+			new ParallelTraversal(pst, 4, 3).traverse(new ParallelTraversal.Visitor() {
+				@Override
+				public void visitFolder(Folder folder, java.util.List<String> path)
+				{
+					final String folderPath = "/" + String.join("/", path);
+					paths.put(folder, folderPath);
+					actual.put(folderPath, new java.util.ArrayList<Integer>());
+				}
+
+				@Override
+				public void visitMessage(Folder folder, MessageObject message, PropertyContext pc, java.util.List<PropertyContext> attachments)
+				{
+					Assert.assertNotNull(pc);
+					actual.get(paths.get(folder)).add(message.nodeMessageObject.nid.key);
+				}
+			});
+
+			Assert.assertEquals(expected, actual);
+			pst.close();
+		} catch (IOException e) {
+			if (e.toString().equals("java.io.IOException: Cannot allocate memory")) {
+				throw new InsufficientMemoryException(e);
+			}
+			throw e;
+		}
+	}
+}
@@ -9,7 +9,9 @@ import java.nio.BufferUnderflowException;
 /** Test the PropertyContext class */
 public class PropertyContextTest extends TestFrame
 {
-	/** Test the PropertyContext class by creating a PropertyContext object for each property context found in the file's heap-on-node.
+	/** Test the PropertyContext class by creating a PropertyContext object for each property context found in the file's heap-on-node,
+	*	and checking that every value read by a lazily-decoded property context, including scalar values read through the primitive
+	*	getters, matches the value read when the whole property context is decoded at once.
 	*	@param	file	{@inheritDoc}
 	*	@throws	BufferUnderflowException	{@inheritDoc}
 	*	@throws	FileNotFoundException		{@inheritDoc}
@@ -56,7 +58,28 @@ public class PropertyContextTest extends TestFrame
 					if (!hon.clientSignature().equals(ClientSignature.PropertyContext))
 						continue;
 
-					new PropertyContext(node, bbt, pstFile);
+					final PropertyContext eager = new PropertyContext(node, bbt, pstFile, false);
+					final PropertyContext lazy = new PropertyContext(node, bbt, pstFile, true);
+					for (java.util.Iterator<java.util.Map.Entry<Integer, Object>> properties = eager.iterator(); properties.hasNext(); ) {
+						final int tag = properties.next().getKey();
+						switch ((short)tag) {
+						case DataType.BOOLEAN:
+							org.junit.Assert.assertEquals(eager.getBoolean(tag), lazy.getBoolean(tag));
+							break;
+						case DataType.INTEGER_16:
+						case DataType.INTEGER_32:
+							org.junit.Assert.assertEquals(eager.getInt(tag), lazy.getInt(tag));
+							break;
+						case DataType.INTEGER_64:
+							org.junit.Assert.assertEquals(eager.getLong(tag), lazy.getLong(tag));
+							break;
+						case DataType.TIME:
+							org.junit.Assert.assertEquals(eager.getFileTimeMillis(tag), lazy.getFileTimeMillis(tag));
+							break;
+						}
+						org.junit.Assert.assertTrue(lazy.containsKey(tag));
+						org.junit.Assert.assertTrue(java.util.Objects.deepEquals(eager.get(tag), lazy.get(tag)));
+					}
 				} catch (final	NotHeapNodeException
 					|	NullDataBlockException
 					|	UnknownClientSignatureException e) {
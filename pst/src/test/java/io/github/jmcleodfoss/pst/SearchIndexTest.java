@@ -0,0 +1,48 @@
+package io.github.jmcleodfoss.pst;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test the tokenizer and the segment files of io.github.jmcleodfoss.pst.SearchIndex */
+public class SearchIndexTest
+{
+	/** Confirm text is split into lower-case runs of letters and digits, and over-long runs are dropped. */
+	@Test public void tokens()
+	{
+		Assert.assertEquals(java.util.Arrays.asList("re", "q3", "budget", "café"), SearchIndex.tokens("RE: Q3 budget -- Café!"));
+		Assert.assertTrue(SearchIndex.tokens(" ,.; ").isEmpty());
+
+		final char[] longRun = new char[SearchIndex.MAX_TERM_LENGTH + 1];
+		java.util.Arrays.fill(longRun, 'x');
+		Assert.assertEquals(java.util.Arrays.asList("a", "b"), SearchIndex.tokens("a " + new String(longRun) + " b"));
+	}
+
+	/** Confirm segments written for two folders answer term and phrase queries once the index is reopened. */
+	@Test public void segments()
+	throws
+		java.io.IOException
+	{
+		final java.io.File directory = java.nio.file.Files.createTempDirectory("search-index").toFile();
+		try {
+			final SearchIndex.SegmentBuilder inbox = new SearchIndex.SegmentBuilder();
+			inbox.add(0x200024, java.util.Arrays.asList("Quarterly budget", null, "Alice", "quarterly numbers attached"));
+			inbox.add(0x200044, java.util.Arrays.asList("Lunch", "Bob", "Alice", "budget quarterly"));
+			inbox.write(SearchIndex.segmentFile(directory, 0x8022), 0x8022);
+
+			final SearchIndex.SegmentBuilder sent = new SearchIndex.SegmentBuilder();
+			sent.add(0x200004, java.util.Arrays.asList("Re: quarterly budget", "Alice"));
+			sent.write(SearchIndex.segmentFile(directory, 0x8042), 0x8042);
+
+			final SearchIndex index = SearchIndex.open(directory);
+			Assert.assertArrayEquals(new int[]{0x200004, 0x200024, 0x200044}, index.find("Budget"));
+			Assert.assertArrayEquals(new int[]{0x200044}, index.find("bob"));
+			Assert.assertArrayEquals(new int[]{0x200004, 0x200024}, index.findPhrase("quarterly budget"));
+			Assert.assertArrayEquals(new int[0], index.findPhrase("budget alice"));
+			Assert.assertArrayEquals(new int[0], index.find("missing"));
+		} finally {
+			for (final java.io.File file : directory.listFiles())
+				java.nio.file.Files.delete(file.toPath());
+			java.nio.file.Files.delete(directory.toPath());
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package io.github.jmcleodfoss.pst;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/** Test the snapshots of the compact block and node maps kept in an io.github.jmcleodfoss.pst.SidecarIndex */
+public class SidecarIndexTest
+{
+	/** Confirm a compact block map read from a snapshot finds the blocks in it, and writes the same snapshot back out. */
+	@Test public void blockMapSnapshot()
+	throws
+		java.io.IOException
+	{
+		final java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+		final java.io.DataOutputStream out = new java.io.DataOutputStream(bytes);
+		out.writeInt(2);
+		out.writeLong(0x100);
+		out.writeLong(0x204);
+		out.writeLong(0x4400);
+		out.writeLong(0x8800);
+		out.writeInt(64 | 64 << 16);
+		out.writeInt(100 | 300 << 16);
+		out.writeShort(2);
+		out.writeShort(1);
+		out.flush();
+
+		final java.nio.ByteBuffer snapshot = java.nio.ByteBuffer.wrap(bytes.toByteArray());
+		final CompactBlockMap map = new CompactBlockMap(snapshot);
+		Assert.assertFalse(snapshot.hasRemaining());
+		Assert.assertEquals(2, map.size());
+
+		final BBTEntry entry = map.find(new BID(0x204));
+		Assert.assertNotNull(entry);
+		Assert.assertEquals(0x8800, entry.bref.ib.ib);
+		Assert.assertEquals(100, entry.numBytes);
+		Assert.assertEquals(300, entry.totalBytes);
+		Assert.assertNull(map.find(new BID(0x208)));
+
+		final java.io.ByteArrayOutputStream copy = new java.io.ByteArrayOutputStream();
+		map.write(new java.io.DataOutputStream(copy));
+		Assert.assertArrayEquals(bytes.toByteArray(), copy.toByteArray());
+	}
+
+	/** Confirm a compact node map read from a snapshot finds the nodes in it, and writes the same snapshot back out. */
+	@Test public void nodeMapSnapshot()
+	throws
+		java.io.IOException
+	{
+		final java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+		final java.io.DataOutputStream out = new java.io.DataOutputStream(bytes);
+		out.writeInt(1);
+		out.writeInt(0x21);
+		out.writeLong(0x100);
+		out.writeLong(0);
+		out.writeInt(0x21);
+		out.flush();
+
+		final CompactNodeMap map = new CompactNodeMap(java.nio.ByteBuffer.wrap(bytes.toByteArray()));
+		final NBTEntry entry = map.find(new NID(0x21));
+		Assert.assertNotNull(entry);
+		Assert.assertEquals(0x100, entry.bidData.key());
+		Assert.assertEquals(entry.nid, entry.nidParent);
+
+		final java.io.ByteArrayOutputStream copy = new java.io.ByteArrayOutputStream();
+		map.write(new java.io.DataOutputStream(copy));
+		Assert.assertArrayEquals(bytes.toByteArray(), copy.toByteArray());
+	}
+
+	/** Confirm a sidecar index file whose CRC does not match its contents is not used, and is replaced when it is rebuilt. */
+	@Test public void corruptedSnapshot()
+	throws
+		java.io.IOException
+	{
+		final java.io.File file = java.io.File.createTempFile("corrupted", SidecarIndex.SUFFIX);
+		try {
+			final SidecarIndex.Stamp stamp = new SidecarIndex.Stamp(1, 2, 3, 4);
+			final SidecarIndex index = sidecarIndex(stamp);
+			index.write(file);
+			Assert.assertNotNull(SidecarIndex.load(file, stamp));
+
+			final byte[] contents = java.nio.file.Files.readAllBytes(file.toPath());
+			contents[contents.length / 2] ^= 0x01;
+			java.nio.file.Files.write(file.toPath(), contents);
+			Assert.assertNull(SidecarIndex.load(file, stamp));
+
+			index.write(file);
+			final SidecarIndex rebuilt = SidecarIndex.load(file, stamp);
+			Assert.assertNotNull(rebuilt);
+			Assert.assertEquals(index.toString(), rebuilt.toString());
+		} finally {
+			java.nio.file.Files.deleteIfExists(file.toPath());
+		}
+	}
+
+	/** Confirm a missing sidecar index file is not used. */
+	@Test public void missing()
+	{
+		Assert.assertNull(SidecarIndex.load(new java.io.File("no-such-file" + SidecarIndex.SUFFIX), null));
+	}
+
+	/** Confirm a sidecar index file is read back as it was written. */
+	@Test public void roundTrip()
+	throws
+		java.io.IOException
+	{
+		final java.io.File file = java.io.File.createTempFile("roundTrip", SidecarIndex.SUFFIX);
+		try {
+			final SidecarIndex.Stamp stamp = new SidecarIndex.Stamp(1, 2, 3, 4);
+			sidecarIndex(stamp).write(file);
+
+			final SidecarIndex index = SidecarIndex.load(file, stamp);
+			Assert.assertNotNull(index);
+			Assert.assertEquals(1, index.blockMap.size());
+			Assert.assertEquals(1, index.nodeMap.size());
+			Assert.assertEquals(1, index.folders().size());
+
+			final SidecarIndex.FolderEntry folder = index.folders().get(0);
+			Assert.assertEquals("Inbox", folder.displayName);
+			Assert.assertNull(folder.containerClass);
+			Assert.assertEquals(2, folder.messages.size());
+			Assert.assertEquals("Hello", folder.messages.get(0).subject);
+			Assert.assertEquals(java.time.Instant.ofEpochMilli(1_600_000_000_000L), folder.messages.get(0).deliveryTime.toInstant());
+			Assert.assertNull(folder.messages.get(1).deliveryTime);
+		} finally {
+			java.nio.file.Files.deleteIfExists(file.toPath());
+		}
+	}
+
+	/** Confirm a sidecar index file made from a different version of the PST file is not used. */
+	@Test public void stampMismatch()
+	throws
+		java.io.IOException
+	{
+		final java.io.File file = java.io.File.createTempFile("stampMismatch", SidecarIndex.SUFFIX);
+		try {
+			sidecarIndex(new SidecarIndex.Stamp(1, 2, 3, 4)).write(file);
+			Assert.assertNotNull(SidecarIndex.load(file, new SidecarIndex.Stamp(1, 2, 3, 4)));
+			Assert.assertNull(SidecarIndex.load(file, new SidecarIndex.Stamp(1, 2, 3, 5)));
+			Assert.assertNull(SidecarIndex.load(file, new SidecarIndex.Stamp(1, 2, 4, 4)));
+			Assert.assertNull(SidecarIndex.load(file, new SidecarIndex.Stamp(1, 3, 3, 4)));
+		} finally {
+			java.nio.file.Files.deleteIfExists(file.toPath());
+		}
+	}
+
+	/** Create a small sidecar index with one block, one node, and one folder holding two messages.
+	*	@param	stamp	The stamp of the PST file the index is for.
+	*	@return	A sidecar index.
+	*	@throws	java.io.IOException	The block or node map snapshot could not be created.
+	*/
+	private static SidecarIndex sidecarIndex(final SidecarIndex.Stamp stamp)
+	throws
+		java.io.IOException
+	{
+		final java.io.ByteArrayOutputStream bytes = new java.io.ByteArrayOutputStream();
+		final java.io.DataOutputStream out = new java.io.DataOutputStream(bytes);
+		out.writeInt(1);
+		out.writeLong(0x100);
+		out.writeLong(0x4400);
+		out.writeInt(64 | 64 << 16);
+		out.writeShort(2);
+		out.writeInt(1);
+		out.writeInt(0x21);
+		out.writeLong(0x100);
+		out.writeLong(0);
+		out.writeInt(0x21);
+		out.flush();
+
+		final java.nio.ByteBuffer snapshot = java.nio.ByteBuffer.wrap(bytes.toByteArray());
+		final CompactBlockMap blockMap = new CompactBlockMap(snapshot);
+		final CompactNodeMap nodeMap = new CompactNodeMap(snapshot);
+
+		final java.util.List<MessageSummary> messages = java.util.Arrays.asList(
+			new MessageSummary(0x200024, "IPM.Note", "Hello", java.util.Date.from(java.time.Instant.ofEpochMilli(1_600_000_000_000L)), 1),
+			new MessageSummary(0x200044, "IPM.Note", null, null, 0));
+		return new SidecarIndex(stamp, blockMap, nodeMap, java.util.Collections.singletonList(new SidecarIndex.FolderEntry(0x122, 0x122, "Inbox", null, messages)));
+	}
+}
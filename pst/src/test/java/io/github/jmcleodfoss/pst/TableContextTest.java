@@ -5,11 +5,14 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.BufferUnderflowException;
+import org.junit.Assert;
 
 /** Test the TableContext class */
 public class TableContextTest extends TestFrame
 {
-	/** Test the TableContext class by creating a TableContext object for each table context entry found in the file's heap-on-node.
+	/** Test the TableContext class by creating a TableContext object for each table context entry found in the file's heap-on-node,
+	*   and confirming that reading the same table context on demand gives the same cell values, and that columns outside an
+	*   empty column projection are never returned, and that each row is found from its row ID through the row index.
 	*	@param	file	{@inheritDoc}
 	*	@throws	BufferUnderflowException	{@inheritDoc}
 	*	@throws	FileNotFoundException		{@inheritDoc}
@@ -50,8 +53,23 @@ public class TableContextTest extends TestFrame
 						HeapOnNode hon = new HeapOnNode(dataBlock, bbt, pstFile);
 						if (!hon.containsData())
 							continue;
-						if (hon.clientSignature().equals(ClientSignature.TableContext))
-							new TableContext(nodeDescr, hon, bbt, pstFile);
+						if (hon.clientSignature().equals(ClientSignature.TableContext)) {
+							final TableContext tc = new TableContext(nodeDescr, hon, bbt, pstFile);
+							final TableContext lazy = new TableContext(nodeDescr, hon, bbt, pstFile, null, true);
+							final TableContext none = new TableContext(nodeDescr, hon, bbt, pstFile, java.util.Collections.<Integer>emptySet(), true);
+							Assert.assertTrue(lazy.isLazy());
+							Assert.assertEquals(tc.getRowCount(), lazy.getRowCount());
+							for (int row = 0; row < tc.getRowCount(); ++row) {
+								for (int column = 0; column < tc.getColumnCount(); ++column) {
+									Assert.assertEquals(tc.getValueAt(row, column), lazy.getValueAt(row, column));
+									Assert.assertNull(none.getValueAt(row, column));
+								}
+
+								final Object rowId = tc.get(row, PropertyTags.LtpRowId);
+								if (rowId != null)
+									Assert.assertEquals(row, tc.findRowById((Integer)rowId));
+							}
+						}
 					} catch (NotHeapNodeException e) {
 						// This is expected; we have no way to find out whether a node contains a heap-on-node until we start reading it.
 						continue;
@@ -3,39 +3,83 @@ package io.github.jmcleodfoss.util;
 /**	This is a utility class for simple client-managed XML output of strings. */
 public class XMLOutput
 {
-	/**	The output stream to which to write the XML. */
-	java.io.PrintStream printStream;
+	/**	The writer to which to write the XML. */
+	java.io.PrintWriter printWriter;
 
 	/**	The stack of open elements used by addElement(String)/closeElement() */
 	java.util.ArrayDeque<String> openElements = new java.util.ArrayDeque<String>();
 
+	/**	The indentation strings for each depth seen so far, so they need not be rebuilt for every element. */
+	private final java.util.ArrayList<String> indentation = new java.util.ArrayList<String>();
+
 	/**	Construct an XMLOutput object which writes to printStream, showing the XML declaration if showDeclaration is true, and
-	*	using the given encoding, if non-null.
+	*	using the given encoding, if non-null. The XML is written to the stream as UTF-8.
 	*	@param	printStream	The PrintStream to which the XML should be written.
 	*	@param	showDeclaration	This determines whether the XML declaration should be written, for example, "UTF-8".
 	*	@param	encoding	This indicates the XML encoding.
 	*/
 	public XMLOutput(java.io.PrintStream printStream, final boolean showDeclaration, final String encoding)
 	{
-		this.printStream = printStream;
+		this(new java.io.PrintWriter(new java.io.OutputStreamWriter(printStream, java.nio.charset.StandardCharsets.UTF_8), true), showDeclaration, encoding);
+	}
+
+	/**	Construct an XMLOutput object which writes to writer, showing the XML declaration if showDeclaration is true, and
+	*	using the given encoding, if non-null. Output is not flushed until {@link #flush} is called, so a buffered writer
+	*	may be used to avoid writing each element separately.
+	*	@param	writer		The Writer to which the XML should be written.
+	*	@param	showDeclaration	This determines whether the XML declaration should be written, for example, "UTF-8".
+	*	@param	encoding	This indicates the XML encoding.
+	*/
+	public XMLOutput(java.io.Writer writer, final boolean showDeclaration, final String encoding)
+	{
+		this(writer instanceof java.io.PrintWriter ? (java.io.PrintWriter)writer : new java.io.PrintWriter(writer, false), showDeclaration, encoding);
+	}
+
+	/**	Construct an XMLOutput object which writes to printWriter, showing the XML declaration if showDeclaration is true.
+	*	@param	printWriter	The PrintWriter to which the XML should be written.
+	*	@param	showDeclaration	This determines whether the XML declaration should be written, for example, "UTF-8".
+	*	@param	encoding	This indicates the XML encoding.
+	*/
+	private XMLOutput(java.io.PrintWriter printWriter, final boolean showDeclaration, final String encoding)
+	{
+		this.printWriter = printWriter;
 
 		if (showDeclaration) {
 			StringBuilder declaration = new StringBuilder("<?xml version=\"1.0\"");
 			if (encoding != null)
-				declaration.append(String.format(" encoding=\"%s\"", encoding));
+				declaration.append(" encoding=\"").append(encoding).append('"');
 			declaration.append("?>");
-			printStream.println(declaration);
+			printWriter.println(declaration);
 		}
 	}
 
+	/**	Has an error been encountered while writing? Errors are not reported as they happen, so this should be checked when
+	*	the output is complete.
+	*	@return	true if the output could not be written, false otherwise.
+	*/
+	public boolean checkError()
+	{
+		return printWriter.checkError();
+	}
+
+	/**	Write any buffered output. */
+	public void flush()
+	{
+		printWriter.flush();
+	}
+
 	/**	Add appropriate indentation (each child tag is indented by one tab from its parent element). */
 	private void indent()
 	{
-		if (openElements.size() == 0)
+		final int depth = openElements.size();
+		if (depth == 0)
 			return;
-		char[] indentation = new char[openElements.size()];
-		java.util.Arrays.fill(indentation, '\t');
-		printStream.print(indentation);
+		while (indentation.size() < depth) {
+			char[] tabs = new char[indentation.size() + 1];
+			java.util.Arrays.fill(tabs, '\t');
+			indentation.add(new String(tabs));
+		}
+		printWriter.write(indentation.get(depth - 1));
 	}
 
 	/**	Add an empty element.
@@ -44,9 +88,9 @@ public class XMLOutput
 	public void addElement(final String name)
 	{
 		indent();
-		printStream.append('<');
-		printStream.print(name);
-		printStream.println("/>");
+		printWriter.append('<');
+		printWriter.print(name);
+		printWriter.println("/>");
 	}
 
 	/**	Add an element containing a single string value.
@@ -56,17 +100,17 @@ public class XMLOutput
 	public void addElement(String name, String value)
 	{
 		indent();
-		printStream.append('<');
-		printStream.print(name);
-		printStream.append('>');
+		printWriter.append('<');
+		printWriter.print(name);
+		printWriter.append('>');
 
-		printStream.print(value);
+		printWriter.print(value);
 
-		printStream.print("</");
-		printStream.print(name);
-		printStream.append('>');
+		printWriter.print("</");
+		printWriter.print(name);
+		printWriter.append('>');
 
-		printStream.println();
+		printWriter.println();
 	}
 
 	/**	Close an element opened by openElement(String). */
@@ -74,10 +118,10 @@ public class XMLOutput
 	{
 		String name = openElements.removeFirst();
 		indent();
-		printStream.print("</");
-		printStream.print(name);
-		printStream.append('>');
-		printStream.println();
+		printWriter.print("</");
+		printWriter.print(name);
+		printWriter.append('>');
+		printWriter.println();
 	}
 
 	/**	Open element which may contain children.
@@ -86,10 +130,10 @@ public class XMLOutput
 	public void openElement(String name)
 	{
 		indent();
-		printStream.append('<');
-		printStream.print(name);
-		printStream.append('>');
-		printStream.println();
+		printWriter.append('<');
+		printWriter.print(name);
+		printWriter.append('>');
+		printWriter.println();
 
 		openElements.addFirst(name);
 	}
@@ -2,10 +2,59 @@ package io.github.jmcleodfoss.xml;
 
 /**	The PSTToXML class converts a PST file into an XML file.
 *	<p><strong>Use</strong><p>
-*	<code>java io.github.jmcleodfoss.pst.PSTToXML pst-file.pst</code>
+*	<code>java io.github.jmcleodfoss.pst.PSTToXML [--stream] pst-file.pst</code>
+*	<p>
+*	With <code>--stream</code>, folders and message objects are read only as they are written, and the output is buffered;
+*	see {@link #streamXML}. The output rate is reported on the standard error stream.
 */
 class PSTToXML
 {
+	/**	The size of the output buffer used when streaming. */
+	private static final int STREAM_BUFFER_SIZE = 256 * 1024;
+
+	/**	The CountingOutputStream class counts the bytes written through it so that the output rate can be reported. */
+	private static class CountingOutputStream extends java.io.FilterOutputStream
+	{
+		/**	The number of bytes written so far. */
+		private long count;
+
+		/**	Create a stream which counts the bytes written to the given stream.
+		*	@param	out	The stream to write to.
+		*/
+		CountingOutputStream(java.io.OutputStream out)
+		{
+			super(out);
+		}
+
+		/**	Write a single byte.
+		*	@param	b	The byte to write.
+		*	@throws	java.io.IOException	The byte could not be written.
+		*/
+		@Override
+		public void write(int b)
+		throws
+			java.io.IOException
+		{
+			out.write(b);
+			++count;
+		}
+
+		/**	Write a portion of an array of bytes.
+		*	@param	b	The bytes to write.
+		*	@param	off	The offset of the first byte to write.
+		*	@param	len	The number of bytes to write.
+		*	@throws	java.io.IOException	The bytes could not be written.
+		*/
+		@Override
+		public void write(byte[] b, int off, int len)
+		throws
+			java.io.IOException
+		{
+			out.write(b, off, len);
+			count += len;
+		}
+	}
+
 	/**	This contains named properties we know to be invalid XML, which have to be replaced for XML output. */
 	private static final java.util.HashMap<String, String> xmlSubstitutes = new java.util.HashMap<String, String>();
 	static {
@@ -82,6 +131,7 @@ class PSTToXML
 	*	@param	xml	The XML document being constructed.
 	*	@param	folder	The folder being added.
 	*	@param	pst	The PST object from which the XML document is being constructed.
+	*	@param	fStream	If true, read message objects from the folder's contents table one at a time rather than through the folder.
 	*	@throws io.github.jmcleodfoss.pst.BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
 	*	@throws io.github.jmcleodfoss.pst.BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
 	*	@throws	io.github.jmcleodfoss.pst.CRCMismatchException			The header's calculated CRC does not match the expected value.
@@ -101,7 +151,7 @@ class PSTToXML
 	*	@throws java.io.IOException						An I/O error was encoutnered while reading the pst file.
 	*	@throws	java.io.UnsupportedEncodingException				An unsupported encoding was found while reading a string in the pst file.
 	*/
-	private void addFolderContents(io.github.jmcleodfoss.util.XMLOutput xml, io.github.jmcleodfoss.pst.Folder folder, io.github.jmcleodfoss.pst.PST pst)
+	private void addFolderContents(io.github.jmcleodfoss.util.XMLOutput xml, io.github.jmcleodfoss.pst.Folder folder, io.github.jmcleodfoss.pst.PST pst, final boolean fStream)
 	throws
 		io.github.jmcleodfoss.pst.BadXBlockLevelException,
 		io.github.jmcleodfoss.pst.BadXBlockTypeException,
@@ -126,7 +176,8 @@ class PSTToXML
 		if (type == null || !folderFilter(type)) {
 			xml.addElement("folder-name", folder.displayName);
 			xml.addElement("folder-type", folder.containerClass);
-			for (java.util.Iterator<io.github.jmcleodfoss.pst.MessageObject> contents = folder.contentsIterator(); contents.hasNext(); ) {
+			java.util.Iterator<io.github.jmcleodfoss.pst.MessageObject> contents = fStream ? folder.contentsTableIterator(pst) : folder.contentsIterator();
+			while (contents.hasNext()) {
 				io.github.jmcleodfoss.pst.MessageObject message = contents.next();
 	
 				xml.openElement("object");
@@ -141,7 +192,7 @@ class PSTToXML
 			type = subfolder.containerClass;
 			if (type != null && !folderFilter(type)) {
 				xml.openElement("folder");
-				addFolderContents(xml, subfolder, pst);
+				addFolderContents(xml, subfolder, pst, fStream);
 				xml.closeElement();
 			}
 		}
@@ -261,8 +312,9 @@ class PSTToXML
 	{
 		io.github.jmcleodfoss.util.XMLOutput xml = new io.github.jmcleodfoss.util.XMLOutput(printstream, true, "UTF-8");
 		xml.openElement("pst");
-		addFolderContents(xml, pst.getFolderTree(), pst);
+		addFolderContents(xml, pst.getFolderTree(), pst, false);
 		xml.closeElement();
+		xml.flush();
 	}
 
 	/**	Should this type of folder be filtered out?
@@ -275,20 +327,88 @@ class PSTToXML
 		return false;
 	}
 
+	/**	Output the XML for this object to the given output stream, encoded as UTF-8. Sub-folders are read only as they are
+	*	reached, message objects are read one at a time from their folder's contents table, and each message object's property
+	*	context is discarded once it has been written, so the memory needed does not depend on the size of the PST file
+	*	provided it was opened with {@link io.github.jmcleodfoss.pst.Options#setLazyFolderTree lazy folder loading}. The
+	*	output is written through a buffer rather than element by element, and is otherwise the same as that of
+	*	{@link #createXML}.
+	*	@param	outputStream	The stream to which the XML file should be written as it is built.
+	*	@throws io.github.jmcleodfoss.pst.BadXBlockLevelException	The level must be 1 (for XBlock) or 2 (for XXBlock) but a different value was found
+	*	@throws io.github.jmcleodfoss.pst.BadXBlockTypeException	The type must be 1 for XBlock and XXBlock
+	*	@throws	io.github.jmcleodfoss.pst.CRCMismatchException			The header's calculated CRC does not match the expected value.
+	*	@throws	io.github.jmcleodfoss.pst.DataOverflowException	More data was found than will fit into the number of rows allocated, indicating a probably-corrupt file.
+	*	@throws io.github.jmcleodfoss.pst.IncorrectNameIDStreamContentException	either the Name ID GUID stream contains string values, or the Name ID Name stream contains binary data
+	*	@throws	io.github.jmcleodfoss.pst.NameIDStreamNotFoundException	The requested Name ID mapping stream could not be found
+	*	@throws	io.github.jmcleodfoss.pst.NotHeapNodeException			A node which was not a heap node was found where a heap node was expected when reading the pst file.
+	*	@throws io.github.jmcleodfoss.pst.NotPropertyContextNodeException	A node which was not a property context node was found where a property context node was expected when reading the pst file.
+	*	@throws io.github.jmcleodfoss.pst.NotTableContextNodeException		A node which was not a table context node was found where a table context node was expected when reading the pst file.
+	*	@throws	io.github.jmcleodfoss.pst.NullDataBlockException		A null data block was found when reading the pst file.
+	*	@throws io.github.jmcleodfoss.pst.NodeException is thrown when a node is found to be null when building a PropertyContext.
+	*	@throws	io.github.jmcleodfoss.pst.UnimplementedPropertyException	Handling for the property type has not been implemented
+	*	@throws	io.github.jmcleodfoss.pst.UnknownClientSignatureException	An unrecognized client signature was found when reading the pst file.
+	*	@throws io.github.jmcleodfoss.pst.UnknownPropertyTypeException	The property type was not recognized
+	*	@throws io.github.jmcleodfoss.pst.UnparseablePropertyContextException	A bad / corrupt property context was found whe nreading the pst file.
+	*	@throws io.github.jmcleodfoss.pst.UnparseableTableContextException	A bad / corrupt table context was found when reading the pst file.
+	*	@throws java.io.IOException						An I/O error was encoutnered while reading the pst file.
+	*	@throws	java.io.UnsupportedEncodingException				An unsupported encoding was found while reading a string in the pst file.
+	*/
+	void streamXML(java.io.OutputStream outputStream)
+	throws
+		io.github.jmcleodfoss.pst.BadXBlockLevelException,
+		io.github.jmcleodfoss.pst.BadXBlockTypeException,
+		io.github.jmcleodfoss.pst.CRCMismatchException,
+		io.github.jmcleodfoss.pst.DataOverflowException,
+		io.github.jmcleodfoss.pst.IncorrectNameIDStreamContentException,
+		io.github.jmcleodfoss.pst.NameIDStreamNotFoundException,
+		io.github.jmcleodfoss.pst.NotHeapNodeException,
+		io.github.jmcleodfoss.pst.NotPropertyContextNodeException,
+		io.github.jmcleodfoss.pst.NotTableContextNodeException,
+		io.github.jmcleodfoss.pst.NullDataBlockException,
+		io.github.jmcleodfoss.pst.NullNodeException,
+		io.github.jmcleodfoss.pst.UnimplementedPropertyTypeException,
+		io.github.jmcleodfoss.pst.UnknownClientSignatureException,
+		io.github.jmcleodfoss.pst.UnknownPropertyTypeException,
+		io.github.jmcleodfoss.pst.UnparseablePropertyContextException,
+		io.github.jmcleodfoss.pst.UnparseableTableContextException,
+		java.io.IOException,
+		java.io.UnsupportedEncodingException
+	{
+		final java.io.Writer writer = new java.io.BufferedWriter(new java.io.OutputStreamWriter(outputStream, java.nio.charset.StandardCharsets.UTF_8), STREAM_BUFFER_SIZE);
+		io.github.jmcleodfoss.util.XMLOutput xml = new io.github.jmcleodfoss.util.XMLOutput(writer, true, "UTF-8");
+		xml.openElement("pst");
+		addFolderContents(xml, pst.getFolderTree(), pst, true);
+		xml.closeElement();
+		xml.flush();
+		if (xml.checkError())
+			throw new java.io.IOException("Could not write XML output");
+	}
+
 	/**	Convert a PST file into XML.
 	*	@param	args	The command line arguments to the application.
 	*/
 	@SuppressWarnings("PMD.DoNotCallSystemExit")
 	public static void main(final String[] args)
 	{
-		if (args.length < 1) {
-			System.out.println("use:\n\tjava io.github.jmcleodfoss.xml.PSTToXML pst-filename");
+		final boolean fStream = args.length > 0 && args[0].equals("--stream");
+		if (args.length < (fStream ? 2 : 1)) {
+			System.out.println("use:\n\tjava io.github.jmcleodfoss.xml.PSTToXML [--stream] pst-filename");
 			System.exit(1);
 		}
 
 		try {
-			final PSTToXML pstToXml = new PSTToXML(args[0]);
-			pstToXml.createXML(System.out);
+			if (fStream) {
+				io.github.jmcleodfoss.pst.Options.setLazyFolderTree(true);
+				final PSTToXML pstToXml = new PSTToXML(args[1]);
+				final CountingOutputStream out = new CountingOutputStream(new java.io.FileOutputStream(java.io.FileDescriptor.out));
+				final long start = System.nanoTime();
+				pstToXml.streamXML(out);
+				final long ns = Math.max(1, System.nanoTime() - start);
+				System.err.printf("%d bytes in %d ms (%.1f MB/s)%n", out.count, ns / 1000000, out.count * 1e3 / ns);
+			} else {
+				final PSTToXML pstToXml = new PSTToXML(args[0]);
+				pstToXml.createXML(System.out);
+			}
 		} catch (Exception e) {
 			e.printStackTrace(System.out);
 		}